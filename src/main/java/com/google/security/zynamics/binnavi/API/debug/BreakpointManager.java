@@ -29,6 +29,7 @@ import com.google.security.zynamics.zylib.disassembly.CAddress;
 import com.google.security.zynamics.zylib.general.ListenerProvider;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -96,6 +97,27 @@ public final class BreakpointManager implements
     }
   }
 
+  /**
+   * Converts API addresses to breakpoint addresses.
+   *
+   * @param module The module the breakpoints are tied to. This argument can be null.
+   * @param addresses The addresses to convert.
+   *
+   * @return The converted breakpoint addresses.
+   */
+  private static Set<BreakpointAddress> getBreakpointAddresses(final Module module,
+      final Collection<Address> addresses) {
+    final INaviModule realModule = module == null ? null : module.getNative();
+    final Set<BreakpointAddress> breakpointAddresses = Sets.newHashSet();
+
+    for (final Address address : addresses) {
+      breakpointAddresses.add(new BreakpointAddress(realModule,
+          new UnrelocatedAddress(new CAddress(address.toLong()))));
+    }
+
+    return breakpointAddresses;
+  }
+
   @Override
   public com.google.security.zynamics.binnavi.debug.models.breakpoints.BreakpointManager getNative() {
     return breakpointManager;
@@ -226,6 +248,21 @@ public final class BreakpointManager implements
         BreakpointType.REGULAR, currentStatus);
   }
 
+  // ! Removes multiple regular breakpoints.
+  /**
+   * Removes the regular breakpoints from the given addresses. All breakpoints are removed in a
+   * single operation, which is much faster than removing them one by one.
+   *
+   * @param module The module the breakpoints are tied to. This argument can be null.
+   * @param addresses The addresses of the breakpoints.
+   */
+  public void removeBreakpoints(final Module module, final Collection<Address> addresses) {
+    Preconditions.checkNotNull(addresses, "Error: Addresses argument can not be null");
+
+    breakpointManager.setBreakpointStatus(getBreakpointAddresses(module, addresses),
+        BreakpointType.REGULAR, BreakpointStatus.BREAKPOINT_DELETING);
+  }
+
   // ! Removes an echo breakpoint.
   /**
    * Removes an echo breakpoint from a given address.
@@ -271,6 +308,21 @@ public final class BreakpointManager implements
         breakpointManager.getBreakpoint(BreakpointType.REGULAR, breakpointAddress));
   }
 
+  // ! Sets multiple regular breakpoints.
+  /**
+   * Sets regular breakpoints at the given addresses. All breakpoints are set in a single
+   * operation, which is much faster than setting them one by one.
+   *
+   * @param module The module the breakpoints are tied to. This argument can be null.
+   * @param addresses The addresses of the breakpoints.
+   */
+  public void setBreakpoints(final Module module, final Collection<Address> addresses) {
+    Preconditions.checkNotNull(addresses, "Error: Addresses argument can not be null");
+
+    breakpointManager.addBreakpoints(BreakpointType.REGULAR,
+        getBreakpointAddresses(module, addresses));
+  }
+
   // ! Sets an echo breakpoint.
   /**
    * Sets an echo breakpoint at the given address.
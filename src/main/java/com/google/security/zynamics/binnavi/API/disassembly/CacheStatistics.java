@@ -0,0 +1,106 @@
+// Copyright 2011-2016 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.security.zynamics.binnavi.API.disassembly;
+
+import com.google.common.base.Preconditions;
+import com.google.common.cache.CacheStats;
+
+// / Statistics of a database cache.
+/**
+ * Snapshot of the hit, miss, and eviction counts of one of the caches that hold instructions, view
+ * nodes, or view edges loaded from a database.
+ */
+public final class CacheStatistics {
+  /**
+   * The wrapped internal cache statistics.
+   */
+  private final CacheStats m_statistics;
+
+  // / @cond INTERNAL
+  /**
+   * Creates a new API cache statistics object.
+   * 
+   * @param statistics The wrapped internal cache statistics.
+   */
+  // / @endcond
+  public CacheStatistics(final CacheStats statistics) {
+    m_statistics = Preconditions.checkNotNull(statistics,
+        "Error: Statistics argument can not be null");
+  }
+
+  // ! Number of objects evicted from the cache.
+  /**
+   * Returns the number of objects that were removed from the cache because they were
+   * garbage-collected after no longer being referenced.
+   * 
+   * @return The number of evicted objects.
+   */
+  public long getEvictionCount() {
+    return m_statistics.evictionCount();
+  }
+
+  // ! Number of successful cache lookups.
+  /**
+   * Returns the number of lookups that found the requested object in the cache.
+   * 
+   * @return The number of cache hits.
+   */
+  public long getHitCount() {
+    return m_statistics.hitCount();
+  }
+
+  // ! Ratio of successful cache lookups.
+  /**
+   * Returns the ratio of lookups that found the requested object in the cache. If no lookups
+   * happened yet, the ratio is 1.
+   * 
+   * @return The hit rate of the cache.
+   */
+  public double getHitRate() {
+    return m_statistics.hitRate();
+  }
+
+  // ! Number of failed cache lookups.
+  /**
+   * Returns the number of lookups that did not find the requested object in the cache.
+   * 
+   * @return The number of cache misses.
+   */
+  public long getMissCount() {
+    return m_statistics.missCount();
+  }
+
+  // ! Number of cache lookups.
+  /**
+   * Returns the total number of lookups in the cache.
+   * 
+   * @return The number of cache lookups.
+   */
+  public long getRequestCount() {
+    return m_statistics.requestCount();
+  }
+
+  // ! Printable representation of the statistics.
+  /**
+   * Returns a string representation of the cache statistics.
+   * 
+   * @return A string representation of the cache statistics.
+   */
+  @Override
+  public String toString() {
+    return String.format("Cache statistics [Hits: %d, Misses: %d, Evictions: %d]", getHitCount(),
+        getMissCount(), getEvictionCount());
+  }
+}
@@ -353,6 +353,19 @@ public final class Database implements ApiObject<IDatabase> {
     return m_database.getConfiguration().getDriver();
   }
 
+  // ! Statistics of the edge cache.
+  /**
+   * Returns the hit, miss, and eviction counts of the cache that holds the view edges loaded from the
+   * database.
+   * 
+   * @return The statistics of the edge cache.
+   * 
+   * @throws IllegalStateException Thrown if the database is not connected.
+   */
+  public CacheStatistics getEdgeCacheStatistics() {
+    return new CacheStatistics(m_database.getEdgeCacheStatistics());
+  }
+
   // ! Host of the database.
   /**
    * Returns the host of the database.
@@ -363,6 +376,19 @@ public final class Database implements ApiObject<IDatabase> {
     return m_database.getConfiguration().getHost();
   }
 
+  // ! Statistics of the instruction cache.
+  /**
+   * Returns the hit, miss, and eviction counts of the cache that holds the instructions loaded from the
+   * database.
+   * 
+   * @return The statistics of the instruction cache.
+   * 
+   * @throws IllegalStateException Thrown if the database is not connected.
+   */
+  public CacheStatistics getInstructionCacheStatistics() {
+    return new CacheStatistics(m_database.getInstructionCacheStatistics());
+  }
+
   // ! Modules in the database.
   /**
    * Returns a list of modules that can be found in the database.
@@ -392,6 +418,19 @@ public final class Database implements ApiObject<IDatabase> {
     return m_database.getConfiguration().getName();
   }
 
+  // ! Statistics of the node cache.
+  /**
+   * Returns the hit, miss, and eviction counts of the cache that holds the view nodes loaded from the
+   * database.
+   * 
+   * @return The statistics of the node cache.
+   * 
+   * @throws IllegalStateException Thrown if the database is not connected.
+   */
+  public CacheStatistics getNodeCacheStatistics() {
+    return new CacheStatistics(m_database.getNodeCacheStatistics());
+  }
+
   // ! Node tag manager of the database.
   /**
    * Returns the node tag manager that manages all tags contained in the database.
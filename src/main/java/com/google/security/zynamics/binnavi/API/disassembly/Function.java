@@ -21,6 +21,7 @@ import com.google.security.zynamics.binnavi.API.reil.ReilFunction;
 import com.google.security.zynamics.binnavi.APIHelpers.ApiObject;
 import com.google.security.zynamics.binnavi.Database.Exceptions.CouldntDeleteException;
 import com.google.security.zynamics.binnavi.Gui.GraphWindows.CommentDialogs.Interfaces.IComment;
+import com.google.security.zynamics.binnavi.REIL.CReilCache;
 import com.google.security.zynamics.binnavi.REIL.InstructionFinders;
 import com.google.security.zynamics.binnavi.disassembly.IBlockEdge;
 import com.google.security.zynamics.binnavi.disassembly.IBlockNode;
@@ -329,8 +330,8 @@ public final class Function implements ApiObject<INaviFunction> {
 
     if (m_reilGraph == null) {
       try {
-        m_reilGraph =
-            new ReilFunction(m_translator.translate(new StandardEnvironment(), m_function));
+        m_reilGraph = new ReilFunction(CReilCache.instance().translate(m_translator,
+            new StandardEnvironment(), m_function));
       } catch (final com.google.security.zynamics.reil.translators.InternalTranslationException e) {
         throw new InternalTranslationException(e,
             InstructionFinders.findInstruction(this, e.getInstruction()));
@@ -22,6 +22,7 @@ import com.google.security.zynamics.binnavi.APIHelpers.ObjectFinders;
 import com.google.security.zynamics.binnavi.Database.Exceptions.LoadCancelledException;
 import com.google.security.zynamics.binnavi.debug.debugger.interfaces.IDebugger;
 import com.google.security.zynamics.binnavi.debug.models.trace.TraceList;
+import com.google.security.zynamics.binnavi.disassembly.CIncomingReference;
 import com.google.security.zynamics.binnavi.disassembly.ICallgraphEdge;
 import com.google.security.zynamics.binnavi.disassembly.ICallgraphNode;
 import com.google.security.zynamics.binnavi.disassembly.ICallgraphView;
@@ -33,6 +34,7 @@ import com.google.security.zynamics.binnavi.disassembly.Modules.CTraceContainer;
 import com.google.security.zynamics.binnavi.disassembly.Modules.ITraceContainerListener;
 import com.google.security.zynamics.binnavi.disassembly.Modules.ModuleInitializeEvents;
 import com.google.security.zynamics.binnavi.disassembly.Modules.ModuleLoadEvents;
+import com.google.security.zynamics.binnavi.disassembly.algorithms.CReferenceFinder;
 import com.google.security.zynamics.binnavi.disassembly.views.CView;
 import com.google.security.zynamics.binnavi.disassembly.views.INaviView;
 import com.google.security.zynamics.zylib.disassembly.CAddress;
@@ -504,6 +506,41 @@ public class Module implements ApiObject<INaviModule>, ViewContainer {
     return m_module.getConfiguration().getName();
   }
 
+  // ! Instructions that reference an address.
+  /**
+   * Returns the addresses of all instructions of the module that reference a given address. The
+   * references are read from the database, so the module does not have to be loaded.
+   *
+   * @param target The referenced address.
+   *
+   * @return The addresses of the referencing instructions in ascending order.
+   *
+   * @throws CouldntLoadDataException Thrown if the references could not be loaded from the
+   *         database.
+   */
+  public List<Address> getReferencingAddresses(final Address target)
+      throws CouldntLoadDataException {
+    Preconditions.checkNotNull(target, "Error: Target argument can not be null");
+
+    final List<Address> addresses = new ArrayList<Address>();
+
+    try {
+      for (final CIncomingReference reference : CReferenceFinder.getIncomingReferences(
+          m_module, new CAddress(target.toLong()))) {
+        final Address address = new Address(reference.getAddress().toBigInteger());
+
+        // References of the same instruction are adjacent because they are sorted by address.
+        if (addresses.isEmpty() || !addresses.get(addresses.size() - 1).equals(address)) {
+          addresses.add(address);
+        }
+      }
+    } catch (final com.google.security.zynamics.binnavi.Database.Exceptions.CouldntLoadDataException exception) {
+      throw new CouldntLoadDataException(exception);
+    }
+
+    return addresses;
+  }
+
   // ! SHA1 hash of the original input file.
   /**
    * Returns the SHA1 hash of the original input file.
@@ -727,7 +764,7 @@ public class Module implements ApiObject<INaviModule>, ViewContainer {
     }
 
     @Override
-    public void changedData(final CModule module, final byte[] data) {
+    public void changedData(final CModule module) {
       // TODO (timkornau): forward this functionality to the API.
     }
 
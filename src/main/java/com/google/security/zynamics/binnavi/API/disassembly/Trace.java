@@ -25,8 +25,10 @@ import com.google.security.zynamics.binnavi.disassembly.UnrelocatedAddress;
 import com.google.security.zynamics.zylib.disassembly.CAddress;
 import com.google.security.zynamics.zylib.general.ListenerProvider;
 
+import java.util.AbstractList;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.RandomAccess;
 
 // / A single debug trace.
 /**
@@ -40,11 +42,6 @@ public final class Trace implements
    */
   private final TraceList trace;
 
-  /**
-   * Events of the trace.
-   */
-  private final List<TraceEvent> events = new ArrayList<>();
-
   /**
    * Keeps the API trace object synchronized with the wrapped trace object.
    */
@@ -64,9 +61,6 @@ public final class Trace implements
   // / @endcond
   public Trace(final com.google.security.zynamics.binnavi.debug.models.trace.TraceList trace) {
     this.trace = trace;
-    for (final ITraceEvent event : this.trace) {
-      events.add(new TraceEvent(event));
-    }
     this.trace.addListener(listener);
   }
 
@@ -119,12 +113,14 @@ public final class Trace implements
 
   // ! Events that belong to the trace.
   /**
-   * Returns the debug events that were recorded during the trace.
+   * Returns the debug events that were recorded during the trace. The returned list is a read-only
+   * view of the events the trace had when this method was called. Events stored in the database are
+   * loaded when they are accessed through the list.
    *
    * @return A list of trace events.
    */
   public List<TraceEvent> getEvents() {
-    return new ArrayList<TraceEvent>(events);
+    return new EventList(trace.getEvents());
   }
 
   // ! Trace name.
@@ -208,6 +204,35 @@ public final class Trace implements
     return String.format("Trace '%s' [%d events]", getName(), trace.getEventCount());
   }
 
+  /**
+   * Read-only list that converts the events of the wrapped trace object when they are accessed.
+   */
+  private static final class EventList extends AbstractList<TraceEvent> implements RandomAccess {
+    /**
+     * The wrapped events.
+     */
+    private final List<ITraceEvent> events;
+
+    /**
+     * Creates a new event list.
+     *
+     * @param events The wrapped events.
+     */
+    private EventList(final List<ITraceEvent> events) {
+      this.events = events;
+    }
+
+    @Override
+    public TraceEvent get(final int index) {
+      return new TraceEvent(events.get(index));
+    }
+
+    @Override
+    public int size() {
+      return events.size();
+    }
+  }
+
   /**
    * Keeps the API trace object synchronized with the wrapped trace object.
    */
@@ -239,8 +264,6 @@ public final class Trace implements
     public void eventAdded(final TraceList trace, final ITraceEvent event) {
       final TraceEvent newEvent = new TraceEvent(event);
 
-      events.add(newEvent);
-
       for (final ITraceListener listener : listeners) {
         try {
           listener.addedEvent(Trace.this, newEvent);
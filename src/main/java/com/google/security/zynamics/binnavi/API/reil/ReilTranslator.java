@@ -22,6 +22,7 @@ import com.google.security.zynamics.binnavi.API.disassembly.BasicBlock;
 import com.google.security.zynamics.binnavi.API.disassembly.Function;
 import com.google.security.zynamics.binnavi.API.disassembly.Instruction;
 import com.google.security.zynamics.binnavi.API.disassembly.View;
+import com.google.security.zynamics.binnavi.REIL.CReilCache;
 import com.google.security.zynamics.binnavi.REIL.InstructionFinders;
 import com.google.security.zynamics.binnavi.REIL.ReilGraphConverter;
 import com.google.security.zynamics.binnavi.disassembly.INaviInstruction;
@@ -110,8 +111,8 @@ public final class ReilTranslator {
     Preconditions.checkNotNull(function, "Error: Function argument can't be null");
 
     try {
-      return new ReilFunction(
-          m_translator.translate(new StandardEnvironment(), function.getNative()));
+      return new ReilFunction(CReilCache.instance().translate(m_translator,
+          new StandardEnvironment(), function.getNative()));
     } catch (final com.google.security.zynamics.reil.translators.InternalTranslationException e) {
       throw new InternalTranslationException(e,
           InstructionFinders.findInstruction(function, e.getInstruction()));
@@ -132,7 +133,8 @@ public final class ReilTranslator {
     Preconditions.checkNotNull(view, "Error: View argument can't be null");
 
     try {
-      return new ReilFunction(m_translator.translate(new StandardEnvironment(), view.getNative()));
+      return new ReilFunction(CReilCache.instance().translate(m_translator,
+          new StandardEnvironment(), view.getNative()));
     } catch (final com.google.security.zynamics.reil.translators.InternalTranslationException e) {
       throw new InternalTranslationException(e,
           InstructionFinders.findInstruction(view, e.getInstruction()));
@@ -55,6 +55,7 @@ import com.google.security.zynamics.binnavi.Database.PostgreSQL.Loaders.PostgreS
 import com.google.security.zynamics.binnavi.Database.PostgreSQL.Loaders.PostgreSQLProjectCallgraphLoader;
 import com.google.security.zynamics.binnavi.Database.PostgreSQL.Loaders.PostgreSQLProjectFlowgraphsLoader;
 import com.google.security.zynamics.binnavi.Database.PostgreSQL.Loaders.PostgreSQLProjectMixedGraphsLoader;
+import com.google.security.zynamics.binnavi.Database.PostgreSQL.Loaders.PostgreSQLReferencesLoader;
 import com.google.security.zynamics.binnavi.Database.PostgreSQL.Loaders.PostgreSQLTracesLoader;
 import com.google.security.zynamics.binnavi.Database.PostgreSQL.Loaders.PostgreSQLViewLoader;
 import com.google.security.zynamics.binnavi.Database.PostgreSQL.Loaders.PostgreSQLViewsLoader;
@@ -66,6 +67,7 @@ import com.google.security.zynamics.binnavi.debug.debugger.DebuggerTemplate;
 import com.google.security.zynamics.binnavi.debug.debugger.DebuggerTemplateManager;
 import com.google.security.zynamics.binnavi.debug.models.trace.TraceList;
 import com.google.security.zynamics.binnavi.disassembly.CCallgraph;
+import com.google.security.zynamics.binnavi.disassembly.CIncomingReference;
 import com.google.security.zynamics.binnavi.disassembly.COperandTreeNode;
 import com.google.security.zynamics.binnavi.disassembly.CProject;
 import com.google.security.zynamics.binnavi.disassembly.UnrelocatedAddress;
@@ -111,6 +113,7 @@ import java.io.InputStreamReader;
 import java.math.BigInteger;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
@@ -745,6 +748,17 @@ public abstract class AbstractSQLProvider implements SQLProvider {
     return PostgreSQLDataFunctions.loadData(this, module);
   }
 
+  @Override
+  public byte[] loadData(final CModule module, final long offset, final int length)
+      throws CouldntLoadDataException {
+    return PostgreSQLDataFunctions.loadData(this, module, offset, length);
+  }
+
+  @Override
+  public int loadDataLength(final CModule module) throws CouldntLoadDataException {
+    return PostgreSQLDataFunctions.loadDataLength(this, module);
+  }
+
   @Override
   public DebuggerTemplateManager loadDebuggers() throws CouldntLoadDataException {
     PostgresSQLDebuggerFunctions.loadDebuggers(this, getDebuggerManager());
@@ -783,6 +797,19 @@ public abstract class AbstractSQLProvider implements SQLProvider {
     return PostgreSQLFunctionsLoader.loadFunctions(this, module, views);
   }
 
+  @Override
+  public List<INaviFunction> loadFunctionsByAddress(final INaviModule module,
+      final Collection<IAddress> functionAddresses) throws CouldntLoadDataException {
+    return PostgreSQLFunctionsLoader.loadFunctionsByAddress(this, module, functionAddresses);
+  }
+
+  @Override
+  public List<CIncomingReference> loadIncomingReferences(final INaviModule module,
+      final IAddress target, final CIncomingReference after, final int count)
+      throws CouldntLoadDataException {
+    return PostgreSQLReferencesLoader.loadIncomingReferences(this, module, target, after, count);
+  }
+
   @Override
   public IFilledList<INaviView> loadMixedgraphs(final CModule module)
       throws CouldntLoadDataException {
@@ -866,7 +893,19 @@ public abstract class AbstractSQLProvider implements SQLProvider {
   @Override
   public MutableDirectedGraph<INaviViewNode, INaviEdge> loadView(final INaviView view)
       throws CouldntLoadDataException, CPartialLoadException {
-    return PostgreSQLViewLoader.loadView(this, view, getModules(), nodeTagManager);
+    // Views are loaded on a pooled read-only connection so that loading a view does not wait for
+    // long running writes on the main connection.
+    try {
+      final CPooledConnection readConnection = connection.acquireReadConnection();
+
+      try {
+        return PostgreSQLViewLoader.loadView(this, view, getModules(), nodeTagManager);
+      } finally {
+        readConnection.close();
+      }
+    } catch (final SQLException exception) {
+      throw new CouldntLoadDataException(exception);
+    }
   }
 
   @Override
@@ -1007,6 +1046,13 @@ public abstract class AbstractSQLProvider implements SQLProvider {
     PostgreSQLModuleFunctions.setImageBase(this, module, addr);
   }
 
+  @Override
+  public void setMemberOffsets(final List<Integer> members, final List<Integer> offsets,
+      final INaviModule module) throws CouldntSaveDataException {
+    PostgreSQLTypeFunctions.setMemberOffsets(getConnection().getConnection(), members, offsets,
+        module);
+  }
+
   @Override
   public void setModules(final List<INaviModule> modules) {
     this.modules = modules;
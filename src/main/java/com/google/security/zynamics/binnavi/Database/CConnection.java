@@ -32,6 +32,11 @@ import com.google.security.zynamics.binnavi.Resources.Constants;
 /**
  * wrapper class for database connections. The idea is to use this class to log and count SQL
  * queries in order to look for inefficiencies and slow queries
+ *
+ * Besides the main connection that is used for all writes, the class manages a bounded pool of
+ * read-only connections. A thread that borrowed a read-only connection through {@link
+ * #acquireReadConnection()} runs all its queries on that connection, so long running loads do not
+ * block the main connection and several loads can run at the same time.
  */
 public final class CConnection {
   /**
@@ -44,6 +49,11 @@ public final class CConnection {
    */
   private static final int MAXIMUM_OUTPUT_SIZE = 2048;
 
+  /**
+   * Maximum number of read-only connections borrowed at the same time.
+   */
+  private static final int READ_POOL_SIZE = 8;
+
   /**
    * Configuration for the database connection.
    */
@@ -59,6 +69,11 @@ public final class CConnection {
    */
   private Connection m_connection;
 
+  /**
+   * Pool of read-only connections.
+   */
+  private final CConnectionPool m_readPool;
+
   /**
    * Counts queries for debug output.
    */
@@ -97,6 +112,8 @@ public final class CConnection {
 
     testDriver();
     connect(url, m_properties);
+
+    m_readPool = new CConnectionPool(url, m_properties, READ_POOL_SIZE);
   }
 
   /**
@@ -109,7 +126,7 @@ public final class CConnection {
    */
   private void connect(final String databaseUrl, final Properties properties) throws SQLException {
     if (m_connection != null) {
-      closeConnection();
+      closeWriteConnection();
     }
     try {
       m_connection = DriverManager.getConnection(databaseUrl, properties);
@@ -150,9 +167,9 @@ public final class CConnection {
   }
 
   /**
-   * Closes the connection to the database.
+   * Closes the main connection to the database.
    */
-  public void closeConnection() {
+  private void closeWriteConnection() {
     try {
       if (m_connection != null) {
         m_connection.close();
@@ -164,6 +181,27 @@ public final class CConnection {
     m_connection = null;
   }
 
+  /**
+   * Borrows a read-only connection from the connection pool and binds it to the current thread.
+   * Until the returned object is closed, all queries of the current thread are executed on the
+   * borrowed connection. The borrowed connection must not be used for modifications.
+   *
+   * @return The borrowed connection.
+   *
+   * @throws SQLException Thrown if no connection could be opened.
+   */
+  public CPooledConnection acquireReadConnection() throws SQLException {
+    return m_readPool.acquire();
+  }
+
+  /**
+   * Closes the connection to the database.
+   */
+  public void closeConnection() {
+    closeWriteConnection();
+    m_readPool.close();
+  }
+
   /**
    * Executes a query SQL statement.
    * 
@@ -175,7 +213,9 @@ public final class CConnection {
    * @throws SQLException Thrown if the query could not be executed.
    */
   public ResultSet executeQuery(final String query, final boolean retry) throws SQLException {
-    if (!isConnectionValid()) {
+    final CPooledConnection pooledConnection = m_readPool.current();
+
+    if ((pooledConnection == null) && !isConnectionValid()) {
       connect(getURL(), m_properties);
     }
 
@@ -189,7 +229,7 @@ public final class CConnection {
     ResultSet retSet = null;
 
     final PreparedStatement prep =
-        m_connection.prepareStatement(query, ResultSet.TYPE_SCROLL_INSENSITIVE,
+        getConnection().prepareStatement(query, ResultSet.TYPE_SCROLL_INSENSITIVE,
             ResultSet.CONCUR_READ_ONLY);
 
     try {
@@ -271,12 +311,54 @@ public final class CConnection {
   }
 
   /**
-   * Returns the connection to the SQL database.
+   * Returns the connection to the SQL database. If the current thread borrowed a read-only
+   * connection, that connection is returned.
    * 
    * @return The connection to the SQL database.
    */
   public Connection getConnection() {
-    return m_connection;
+    final CPooledConnection pooledConnection = m_readPool.current();
+
+    return pooledConnection == null ? m_connection : pooledConnection.getConnection();
+  }
+
+  /**
+   * Prepares a parameterized read query. If the current thread borrowed a read-only connection,
+   * the statement is taken from the statement cache of that connection, so loading the same kind
+   * of object again skips parsing and planning the query. The statement must be passed to {@link
+   * #releaseStatement(PreparedStatement)} instead of being closed.
+   *
+   * @param query The query to prepare.
+   *
+   * @return The prepared statement.
+   *
+   * @throws SQLException Thrown if the statement could not be prepared.
+   */
+  public PreparedStatement prepareReadStatement(final String query) throws SQLException {
+    Preconditions.checkNotNull(query, "IE03439: Query argument can not be null");
+
+    final CPooledConnection pooledConnection = m_readPool.current();
+
+    return pooledConnection == null ? m_connection.prepareStatement(query)
+        : pooledConnection.prepareStatement(query);
+  }
+
+  /**
+   * Releases a statement created by {@link #prepareReadStatement(String)}. Cached statements stay
+   * open for the next load, all other statements are closed.
+   *
+   * @param statement The statement to release.
+   *
+   * @throws SQLException Thrown if the statement could not be released.
+   */
+  public void releaseStatement(final PreparedStatement statement) throws SQLException {
+    final CPooledConnection pooledConnection = m_readPool.current();
+
+    if ((pooledConnection != null) && pooledConnection.isCached(statement)) {
+      statement.clearParameters();
+    } else {
+      statement.close();
+    }
   }
 
   /**
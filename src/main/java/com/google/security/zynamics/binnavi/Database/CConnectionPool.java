@@ -0,0 +1,199 @@
+// Copyright 2011-2016 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.security.zynamics.binnavi.Database;
+
+import com.google.security.zynamics.binnavi.Log.NaviLogger;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Properties;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Bounded pool of read-only database connections. Connections are opened lazily when they are
+ * first needed and are bound to the borrowing thread until they are returned, so nested borrows of
+ * one thread share the same connection.
+ */
+final class CConnectionPool {
+  /**
+   * Seconds to wait when checking whether an idle connection is still usable.
+   */
+  private static final int VALIDATION_TIMEOUT = 2;
+
+  /**
+   * URL of the database.
+   */
+  private final String m_url;
+
+  /**
+   * Properties used to open new connections.
+   */
+  private final Properties m_properties;
+
+  /**
+   * Limits the number of borrowed connections.
+   */
+  private final Semaphore m_permits;
+
+  /**
+   * Connections that are currently not borrowed.
+   */
+  private final Deque<CPooledConnection> m_idle = new ArrayDeque<>();
+
+  /**
+   * Connection borrowed by the current thread.
+   */
+  private final ThreadLocal<CPooledConnection> m_bound = new ThreadLocal<>();
+
+  /**
+   * Set once the pool was closed.
+   */
+  private boolean m_closed = false;
+
+  /**
+   * Creates a new connection pool.
+   *
+   * @param url URL of the database.
+   * @param properties Properties used to open new connections.
+   * @param size Maximum number of connections borrowed at the same time.
+   */
+  CConnectionPool(final String url, final Properties properties, final int size) {
+    m_url = url;
+    m_properties = properties;
+    m_permits = new Semaphore(size, true);
+  }
+
+  /**
+   * Takes a usable idle connection from the pool.
+   *
+   * @return The idle connection or null if there is none.
+   */
+  private synchronized CPooledConnection takeIdle() {
+    while (!m_idle.isEmpty()) {
+      final CPooledConnection connection = m_idle.pop();
+
+      try {
+        if (connection.getConnection().isValid(VALIDATION_TIMEOUT)) {
+          return connection;
+        }
+      } catch (final SQLException exception) {
+        // Fall through and discard the connection.
+      }
+
+      connection.closeConnection();
+    }
+
+    return null;
+  }
+
+  /**
+   * Borrows a connection. If the current thread already borrowed a connection, that connection is
+   * returned again. Otherwise the method blocks until a connection is available.
+   *
+   * @return The borrowed connection.
+   *
+   * @throws SQLException Thrown if a new connection could not be opened.
+   */
+  CPooledConnection acquire() throws SQLException {
+    CPooledConnection connection = m_bound.get();
+
+    if (connection == null) {
+      try {
+        m_permits.acquire();
+      } catch (final InterruptedException exception) {
+        Thread.currentThread().interrupt();
+        throw new SQLException("Interrupted while waiting for a database connection", exception);
+      }
+
+      try {
+        connection = takeIdle();
+
+        if (connection == null) {
+          final Connection jdbcConnection = DriverManager.getConnection(m_url, m_properties);
+          jdbcConnection.setReadOnly(true);
+          connection = new CPooledConnection(this, jdbcConnection);
+        }
+      } catch (final SQLException | RuntimeException exception) {
+        m_permits.release();
+        throw exception;
+      }
+
+      m_bound.set(connection);
+    }
+
+    connection.acquired();
+
+    return connection;
+  }
+
+  /**
+   * Closes the pool and all idle connections. Borrowed connections are closed when they are
+   * returned.
+   */
+  synchronized void close() {
+    m_closed = true;
+
+    for (final CPooledConnection connection : m_idle) {
+      connection.closeConnection();
+    }
+
+    m_idle.clear();
+  }
+
+  /**
+   * Returns the connection borrowed by the current thread.
+   *
+   * @return The borrowed connection or null if the current thread did not borrow a connection.
+   */
+  CPooledConnection current() {
+    return m_bound.get();
+  }
+
+  /**
+   * Returns a borrowed connection to the pool.
+   *
+   * @param connection The connection to return.
+   */
+  void release(final CPooledConnection connection) {
+    if ((m_bound.get() != connection) || !connection.released()) {
+      return;
+    }
+
+    m_bound.remove();
+
+    try {
+      if (!connection.getConnection().getAutoCommit()) {
+        connection.getConnection().rollback();
+        connection.getConnection().setAutoCommit(true);
+      }
+
+      synchronized (this) {
+        if (m_closed) {
+          connection.closeConnection();
+        } else {
+          m_idle.push(connection);
+        }
+      }
+    } catch (final SQLException exception) {
+      NaviLogger.warning("Error: Discarding pooled connection after exception: %s", exception);
+      connection.closeConnection();
+    } finally {
+      m_permits.release();
+    }
+  }
+}
@@ -15,6 +15,7 @@
 package com.google.security.zynamics.binnavi.Database;
 
 import com.google.common.base.Preconditions;
+import com.google.common.cache.CacheStats;
 import com.google.security.zynamics.binnavi.CUtilityFunctions;
 import com.google.security.zynamics.binnavi.Database.Exceptions.CouldntConnectException;
 import com.google.security.zynamics.binnavi.Database.Exceptions.CouldntInitializeDatabaseException;
@@ -32,6 +33,9 @@ import com.google.security.zynamics.binnavi.Database.Interfaces.IDatabaseListene
 import com.google.security.zynamics.binnavi.Database.Interfaces.IDatabaseLoadProgressReporter;
 import com.google.security.zynamics.binnavi.Database.Interfaces.SQLProvider;
 import com.google.security.zynamics.binnavi.Database.PostgreSQL.Notifications.NotificationChannel;
+import com.google.security.zynamics.binnavi.Database.cache.EdgeCache;
+import com.google.security.zynamics.binnavi.Database.cache.InstructionCache;
+import com.google.security.zynamics.binnavi.Database.cache.NodeCache;
 import com.google.security.zynamics.binnavi.Database.PostgreSQL.Notifications.PostgreSQLNotificationProvider;
 import com.google.security.zynamics.binnavi.Gui.Users.CUserManager;
 import com.google.security.zynamics.binnavi.Log.NaviLogger;
@@ -345,6 +349,27 @@ public final class CDatabase implements IDatabase, IDatabaseObject {
     return content;
   }
 
+  @Override
+  public CacheStats getEdgeCacheStatistics() {
+    Preconditions.checkState(isConnected(), "IE03447: Database is not connected");
+
+    return EdgeCache.get(provider).getStatistics();
+  }
+
+  @Override
+  public CacheStats getInstructionCacheStatistics() {
+    Preconditions.checkState(isConnected(), "IE03448: Database is not connected");
+
+    return InstructionCache.get(provider).getStatistics();
+  }
+
+  @Override
+  public CacheStats getNodeCacheStatistics() {
+    Preconditions.checkState(isConnected(), "IE03449: Database is not connected");
+
+    return NodeCache.get(provider).getStatistics();
+  }
+
   @Override
   public boolean inSameDatabase(final IDatabaseObject provider) {
     return provider.inSameDatabase(provider);
@@ -397,6 +422,14 @@ public final class CDatabase implements IDatabase, IDatabaseObject {
         throw new InvalidDatabaseVersionException(databaseVersion);
       }
 
+      try {
+        // Databases of the current version can still lack indexes that were added to the schema
+        // after they were created.
+        provider.updateDatabase();
+      } catch (final CouldntUpdateDatabaseException exception) {
+        CUtilityFunctions.logException(exception);
+      }
+
       if (!loadReporter.report(LoadEvents.LOADING_USERS)) {
         throw new LoadCancelledException();
       }
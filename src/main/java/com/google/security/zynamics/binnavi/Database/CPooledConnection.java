@@ -0,0 +1,183 @@
+// Copyright 2011-2016 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.security.zynamics.binnavi.Database;
+
+import com.google.security.zynamics.binnavi.Log.NaviLogger;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Read-only database connection that was borrowed from the connection pool of a {@link
+ * CConnection}. While the connection is borrowed, it is bound to the borrowing thread and all
+ * queries that thread executes through the {@link CConnection} use it. Closing the object returns
+ * the connection to the pool.
+ *
+ * The connection keeps the read statements prepared through {@link
+ * CConnection#prepareReadStatement(String)} open, so the queries of the loaders are parsed and
+ * planned once per connection and not once per load.
+ */
+public final class CPooledConnection implements AutoCloseable {
+  /**
+   * Maximum number of prepared statements kept open per connection.
+   */
+  private static final int STATEMENT_CACHE_SIZE = 64;
+
+  /**
+   * The pool the connection belongs to.
+   */
+  private final CConnectionPool m_pool;
+
+  /**
+   * The JDBC connection.
+   */
+  private final Connection m_connection;
+
+  /**
+   * Prepared statements of the connection, ordered from least recently to most recently used.
+   */
+  private final Map<String, PreparedStatement> m_statements =
+      new LinkedHashMap<String, PreparedStatement>(16, 0.75f, true) {
+        private static final long serialVersionUID = -3305467253421855405L;
+
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<String, PreparedStatement> eldest) {
+          if (size() <= STATEMENT_CACHE_SIZE) {
+            return false;
+          }
+
+          closeStatement(eldest.getValue());
+
+          return true;
+        }
+      };
+
+  /**
+   * Number of times the connection was borrowed by the thread it is bound to.
+   */
+  private int m_leases = 0;
+
+  /**
+   * Creates a new pooled connection.
+   *
+   * @param pool The pool the connection belongs to.
+   * @param connection The JDBC connection.
+   */
+  CPooledConnection(final CConnectionPool pool, final Connection connection) {
+    m_pool = pool;
+    m_connection = connection;
+  }
+
+  /**
+   * Closes a prepared statement without throwing.
+   *
+   * @param statement The statement to close.
+   */
+  private static void closeStatement(final PreparedStatement statement) {
+    try {
+      statement.close();
+    } catch (final SQLException exception) {
+      NaviLogger.warning("Error: Closing a cached statement failed with exception: %s",
+          exception);
+    }
+  }
+
+  /**
+   * Increments the lease counter.
+   */
+  void acquired() {
+    m_leases++;
+  }
+
+  /**
+   * Closes the JDBC connection and all cached statements.
+   */
+  void closeConnection() {
+    for (final PreparedStatement statement : m_statements.values()) {
+      closeStatement(statement);
+    }
+
+    m_statements.clear();
+
+    try {
+      m_connection.close();
+    } catch (final SQLException exception) {
+      NaviLogger.severe("Error: Closing the database connection failed with exception: %s",
+          exception);
+    }
+  }
+
+  /**
+   * Returns whether a statement is kept open by the statement cache of the connection.
+   *
+   * @param statement The statement to check.
+   *
+   * @return True, if the statement is cached. False, otherwise.
+   */
+  boolean isCached(final PreparedStatement statement) {
+    return m_statements.containsValue(statement);
+  }
+
+  /**
+   * Returns the cached prepared statement for a query. The statement is prepared if the query was
+   * not prepared on this connection before.
+   *
+   * @param query The query of the statement.
+   *
+   * @return The prepared statement.
+   *
+   * @throws SQLException Thrown if the statement could not be prepared.
+   */
+  PreparedStatement prepareStatement(final String query) throws SQLException {
+    PreparedStatement statement = m_statements.get(query);
+
+    if ((statement == null) || statement.isClosed()) {
+      statement = m_connection.prepareStatement(query);
+      m_statements.put(query, statement);
+    }
+
+    return statement;
+  }
+
+  /**
+   * Decrements the lease counter.
+   *
+   * @return True, if the connection is not borrowed anymore.
+   */
+  boolean released() {
+    return --m_leases == 0;
+  }
+
+  /**
+   * Returns the connection to the pool. Nested borrows of the same thread only return the
+   * connection once the outermost borrow is closed.
+   */
+  @Override
+  public void close() {
+    m_pool.release(this);
+  }
+
+  /**
+   * Returns the JDBC connection.
+   *
+   * @return The JDBC connection.
+   */
+  public Connection getConnection() {
+    return m_connection;
+  }
+}
@@ -14,6 +14,7 @@
 
 package com.google.security.zynamics.binnavi.Database.Interfaces;
 
+import com.google.common.cache.CacheStats;
 import com.google.security.zynamics.binnavi.Database.CDatabaseConfiguration;
 import com.google.security.zynamics.binnavi.Database.Exceptions.CouldntConnectException;
 import com.google.security.zynamics.binnavi.Database.Exceptions.CouldntInitializeDatabaseException;
@@ -96,6 +97,33 @@ public interface IDatabase extends IDatabaseObject {
    */
   IDatabaseContent getContent();
 
+  /**
+   * Returns the statistics of the edge cache of the database.
+   * 
+   * @return The statistics of the edge cache.
+   * 
+   * @throws IllegalStateException Thrown if the database is not connected.
+   */
+  CacheStats getEdgeCacheStatistics();
+
+  /**
+   * Returns the statistics of the instruction cache of the database.
+   * 
+   * @return The statistics of the instruction cache.
+   * 
+   * @throws IllegalStateException Thrown if the database is not connected.
+   */
+  CacheStats getInstructionCacheStatistics();
+
+  /**
+   * Returns the statistics of the node cache of the database.
+   * 
+   * @return The statistics of the node cache.
+   * 
+   * @throws IllegalStateException Thrown if the database is not connected.
+   */
+  CacheStats getNodeCacheStatistics();
+
   /**
    * Determines whether a connection to the database exists.
    * 
@@ -0,0 +1,29 @@
+// Copyright 2011-2016 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.security.zynamics.binnavi.Database.Interfaces;
+
+/**
+ * Interface used to show the user information about the progress of saving a trace.
+ */
+public interface ITraceSaveProgressReporter {
+  /**
+   * Invoked periodically while the events of a trace are written to the database. Events are
+   * written twice, once for the event itself and once for its register values.
+   *
+   * @param written Number of events written so far.
+   * @param total Total number of events to write.
+   */
+  void savedEvents(int written, int total);
+}
@@ -37,6 +37,7 @@ import com.google.security.zynamics.binnavi.debug.debugger.DebuggerTemplate;
 import com.google.security.zynamics.binnavi.debug.debugger.DebuggerTemplateManager;
 import com.google.security.zynamics.binnavi.debug.models.trace.TraceList;
 import com.google.security.zynamics.binnavi.disassembly.CCallgraph;
+import com.google.security.zynamics.binnavi.disassembly.CIncomingReference;
 import com.google.security.zynamics.binnavi.disassembly.COperandTreeNode;
 import com.google.security.zynamics.binnavi.disassembly.CProject;
 import com.google.security.zynamics.binnavi.disassembly.UnrelocatedAddress;
@@ -1297,6 +1298,30 @@ public interface SQLProvider extends AddressSpaceConfigurationBackend, AddressSp
    */
   byte[] loadData(CModule module) throws CouldntLoadDataException;
 
+  /**
+   * Loads a range of the data of a module from the database.
+   *
+   * @param module The module whose data is loaded.
+   * @param offset Offset of the first byte to load.
+   * @param length Number of bytes to load.
+   *
+   * @return The loaded range of the module data.
+   *
+   * @throws CouldntLoadDataException Thrown if the module data could not be loaded.
+   */
+  byte[] loadData(CModule module, long offset, int length) throws CouldntLoadDataException;
+
+  /**
+   * Loads the length of the data of a module from the database.
+   *
+   * @param module The module whose data length is loaded.
+   *
+   * @return The number of bytes of the module data.
+   *
+   * @throws CouldntLoadDataException Thrown if the data length could not be loaded.
+   */
+  int loadDataLength(CModule module) throws CouldntLoadDataException;
+
   /**
    * Loads all debugger templates of a database.
    *
@@ -1351,6 +1376,36 @@ public interface SQLProvider extends AddressSpaceConfigurationBackend, AddressSp
   List<INaviFunction> loadFunctions(INaviModule module, final List<IFlowgraphView> views)
       throws CouldntLoadDataException;
 
+  /**
+   * Loads a number of functions of a module at once.
+   *
+   * @param module The module which owns the functions.
+   * @param functionAddresses The addresses of the functions to load.
+   *
+   * @return The loaded functions. Functions that were not found are not part of the result.
+   *
+   * @throws CouldntLoadDataException Thrown if the functions could not be loaded.
+   */
+  List<INaviFunction> loadFunctionsByAddress(INaviModule module,
+      Collection<IAddress> functionAddresses) throws CouldntLoadDataException;
+
+  /**
+   * Loads a page of the references of a module that point to a given address from the
+   * cross-reference index.
+   *
+   * @param module The module whose references are loaded.
+   * @param target The address the references point to.
+   * @param after The last reference of the previous page or null to load the first page.
+   * @param count The maximum number of references to load.
+   *
+   * @return The loaded references ordered by source address, operand position, expression ID, and
+   *         reference type.
+   *
+   * @throws CouldntLoadDataException Thrown if the references could not be loaded.
+   */
+  List<CIncomingReference> loadIncomingReferences(INaviModule module, IAddress target,
+      CIncomingReference after, int count) throws CouldntLoadDataException;
+
   /**
    * Loads the non-native mixed-graph views of a module.
    *
@@ -1888,6 +1943,19 @@ public interface SQLProvider extends AddressSpaceConfigurationBackend, AddressSp
    */
   void setImageBase(INaviModule module, IAddress address) throws CouldntSaveDataException;
 
+  /**
+   * Sets the offsets of a list of members in the database with a single statement.
+   *
+   * @param members The ids of the members whose offsets should be set.
+   * @param offsets The new offsets of the members, in the same order as the member ids.
+   * @param module The module that contains the given members.
+   *
+   * @throws CouldntSaveDataException Thrown if the member offsets could not be written to the
+   *         database.
+   */
+  void setMemberOffsets(List<Integer> members, List<Integer> offsets, INaviModule module)
+      throws CouldntSaveDataException;
+
   void setModules(final List<INaviModule> modules);
 
   /**
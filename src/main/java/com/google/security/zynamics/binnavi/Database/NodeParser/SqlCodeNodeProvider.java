@@ -14,17 +14,26 @@
 
 package com.google.security.zynamics.binnavi.Database.NodeParser;
 
-import com.google.security.zynamics.binnavi.Database.PostgreSQL.PostgreSQLHelpers;
 import com.google.security.zynamics.binnavi.disassembly.CReference;
+import com.google.security.zynamics.zylib.disassembly.CAddress;
 import com.google.security.zynamics.zylib.disassembly.IAddress;
 import com.google.security.zynamics.zylib.disassembly.ReferenceType;
 
+import java.math.BigInteger;
 import java.sql.Array;
 import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
+import java.sql.Types;
+import java.util.HashMap;
+import java.util.Map;
 
 /**
- * Provides instruction data from a database.
+ * Provides instruction data from a database. The provider only moves forward through the result
+ * set, so it can be used with streaming result sets that keep only part of the rows in memory.
+ *
+ *  To support {@link #prev()} without a scrollable result set, the provider copies every row it
+ * reads and keeps the previously read row. Moving back is therefore limited to a single row.
  */
 public final class SqlCodeNodeProvider implements ICodeNodeProvider {
   /**
@@ -32,6 +41,42 @@ public final class SqlCodeNodeProvider implements ICodeNodeProvider {
    */
   private final ResultSet m_resultSet;
 
+  /**
+   * Maps the lower case column labels of the result set to the indices of the copied row values.
+   */
+  private Map<String, Integer> m_columns = null;
+
+  /**
+   * The column types of the result set. See {@link Types}.
+   */
+  private int[] m_columnTypes = null;
+
+  /**
+   * The current row or null if the provider is before the first or after the last row.
+   */
+  private Object[] m_currentRow = null;
+
+  /**
+   * The row before the current row or null if there is no such row.
+   */
+  private Object[] m_previousRow = null;
+
+  /**
+   * The row that was current before {@link #prev()} was called. It is returned by the next call
+   * to {@link #next()} before the result set is advanced again.
+   */
+  private Object[] m_nextRow = null;
+
+  /**
+   * Flag that says whether the provider was moved past the last row.
+   */
+  private boolean m_afterLast = false;
+
+  /**
+   * Flag that says whether {@link #prev()} was called after the last row was passed.
+   */
+  private boolean m_nextIsAfterLast = false;
+
   /**
    * Creates a new SQL provider object.
    * 
@@ -41,342 +86,314 @@ public final class SqlCodeNodeProvider implements ICodeNodeProvider {
     m_resultSet = resultSet;
   }
 
+  /**
+   * Copies the current row of the result set.
+   *
+   * @return The copied values of the current row.
+   *
+   * @throws SQLException Thrown if the row could not be read.
+   */
+  private Object[] copyRow() throws SQLException {
+    if (m_columns == null) {
+      final ResultSetMetaData metaData = m_resultSet.getMetaData();
+      m_columns = new HashMap<String, Integer>();
+      m_columnTypes = new int[metaData.getColumnCount()];
+
+      for (int i = 0; i < m_columnTypes.length; i++) {
+        m_columns.put(metaData.getColumnLabel(i + 1).toLowerCase(), i);
+        m_columnTypes[i] = metaData.getColumnType(i + 1);
+      }
+    }
+
+    final Object[] row = new Object[m_columnTypes.length];
+
+    for (int i = 0; i < row.length; i++) {
+      switch (m_columnTypes[i]) {
+        case Types.BINARY:
+        case Types.VARBINARY:
+        case Types.LONGVARBINARY:
+          row[i] = m_resultSet.getBytes(i + 1);
+          break;
+        case Types.ARRAY:
+          final Array array = m_resultSet.getArray(i + 1);
+          row[i] = array == null ? null : array.getArray();
+          break;
+        case Types.BIT:
+        case Types.BOOLEAN:
+          final boolean value = m_resultSet.getBoolean(i + 1);
+          row[i] = m_resultSet.wasNull() ? null : value;
+          break;
+        default:
+          row[i] = m_resultSet.getString(i + 1);
+          break;
+      }
+    }
+
+    return row;
+  }
+
+  /**
+   * Reads an address from a column of the current row.
+   */
+  private IAddress getAddress(final String column) throws ParserException {
+    final String value = getString(column);
+    return value == null ? null : new CAddress(new BigInteger(value));
+  }
+
+  /**
+   * Reads a double value from a column of the current row. Null values are returned as 0.
+   */
+  private double getDouble(final String column) throws ParserException {
+    final String value = getString(column);
+    return value == null ? 0 : Double.parseDouble(value);
+  }
+
+  /**
+   * Reads an integer value from a column of the current row.
+   */
+  private Integer getInteger(final String column) throws ParserException {
+    final String value = getString(column);
+    return value == null ? null : Integer.valueOf(value);
+  }
+
+  /**
+   * Reads an integer value from a column of the current row. Null values are returned as 0.
+   */
+  private int getInt(final String column) throws ParserException {
+    final Integer value = getInteger(column);
+    return value == null ? 0 : value;
+  }
+
+  /**
+   * Reads a boolean value from a column of the current row. Null values are returned as false.
+   */
+  private boolean getBoolean(final String column) throws ParserException {
+    final Object value = getValue(column);
+    if (value instanceof Boolean) {
+      return (Boolean) value;
+    }
+    return value != null && ("t".equals(value) || "true".equals(value));
+  }
+
+  /**
+   * Reads a string value from a column of the current row.
+   */
+  private String getString(final String column) throws ParserException {
+    final Object value = getValue(column);
+    return value == null ? null : value.toString();
+  }
+
+  /**
+   * Reads the copied value of a column of the current row.
+   */
+  private Object getValue(final String column) throws ParserException {
+    if (m_currentRow == null) {
+      throw new ParserException("Error: The provider is not positioned on a row");
+    }
+
+    final Integer index = m_columns.get(column);
+
+    if (index == null) {
+      throw new ParserException(String.format("Error: Unknown column '%s'", column));
+    }
+
+    return m_currentRow[index];
+  }
+
   @Override
   public IAddress getInstructionAddress() throws ParserException {
-    try {
-      return PostgreSQLHelpers.loadAddress(m_resultSet, "instruction_address");
-    } catch (final SQLException e) {
-      throw new ParserException(e);
-    }
+    return getAddress("instruction_address");
   }
 
   @Override
   public String getInstructionArchitecture() throws ParserException {
-    try {
-      return PostgreSQLHelpers.readString(m_resultSet, "architecture");
-    } catch (final SQLException e) {
-      throw new ParserException(e);
-    }
+    return getString("architecture");
   }
 
   @Override
   public int getBorderColor() throws ParserException {
-    try {
-      return m_resultSet.getInt("bordercolor");
-    } catch (final SQLException e) {
-      throw new ParserException(e);
-    }
+    return getInt("bordercolor");
   }
 
   @Override
   public int getColor() throws ParserException {
-    try {
-      return m_resultSet.getInt("color");
-    } catch (final SQLException e) {
-      throw new ParserException(e);
-    }
+    return getInt("color");
   }
 
   @Override
   public byte[] getData() throws ParserException {
-    try {
-      return m_resultSet.getBytes("instruction_data");
-    } catch (final SQLException e) {
-      throw new ParserException(e);
-    }
+    return (byte[]) getValue("instruction_data");
   }
 
   @Override
   public int getExpressionTreeId() throws ParserException {
-    try {
-      return m_resultSet.getInt("expression_tree_id");
-    } catch (final SQLException e) {
-      throw new ParserException(e);
-    }
+    return getInt("expression_tree_id");
   }
 
   @Override
   public int getExpressionTreeType() throws ParserException {
-    try {
-      return m_resultSet.getInt("expression_tree_type");
-    } catch (final SQLException e) {
-      throw new ParserException(e);
-    }
+    return getInt("expression_tree_type");
   }
 
   @Override
   public IAddress getFunctionAddress() throws ParserException {
-    try {
-      return PostgreSQLHelpers.loadAddress(m_resultSet, "function_address");
-    } catch (final SQLException e) {
-      throw new ParserException(e);
-    }
+    return getAddress("function_address");
   }
 
   @Override
   public Integer getGlobalInstructionCommentId() throws ParserException {
-    try {
-      final int instructionCommentId = m_resultSet.getInt("global_instruction_comment");
-      if (m_resultSet.wasNull()) {
-        return null;
-      }
-      return instructionCommentId;
-    } catch (final SQLException e) {
-      throw new ParserException(e);
-    }
+    return getInteger("global_instruction_comment");
   }
 
   @Override
   public Integer getLocalInstructionCommentId() throws ParserException {
-    try {
-      final int localInstructionCommentId = m_resultSet.getInt("local_instruction_comment");
-      if (m_resultSet.wasNull()) {
-        return null;
-      }
-      return localInstructionCommentId;
-    } catch (final SQLException e) {
-      throw new ParserException(e);
-    }
+    return getInteger("local_instruction_comment");
   }
 
   @Override
   public Integer getGlobalNodeCommentId() throws ParserException {
-    try {
-      final int globalCodeNodeCommentId = m_resultSet.getInt("global_code_node_comment");
-      if (m_resultSet.wasNull()) {
-        return null;
-      }
-      return globalCodeNodeCommentId;
-    } catch (final SQLException e) {
-      throw new ParserException(e);
-    }
+    return getInteger("global_code_node_comment");
   }
 
   @Override
   public Integer getLocalNodeCommentId() throws ParserException {
-    try {
-      final int localCommentId = m_resultSet.getInt("local_code_node_comment");
-      if (m_resultSet.wasNull()) {
-        return null;
-      }
-
-      return localCommentId;
-    } catch (final SQLException exception) {
-      throw new ParserException(exception);
-    }
+    return getInteger("local_code_node_comment");
   }
 
   @Override
   public double getHeight() throws ParserException {
-    try {
-      return m_resultSet.getDouble("height");
-    } catch (final SQLException e) {
-      throw new ParserException(e);
-    }
+    return getDouble("height");
   }
 
   @Override
   public String getImmediate() throws ParserException {
-    try {
-      return PostgreSQLHelpers.readString(m_resultSet, "immediate");
-    } catch (final SQLException e) {
-      throw new ParserException(e);
-    }
+    return getString("immediate");
   }
 
   @Override
   public String getMnemonic() throws ParserException {
-    try {
-      return PostgreSQLHelpers.readString(m_resultSet, "mnemonic");
-    } catch (final SQLException e) {
-      throw new ParserException(e);
-    }
+    return getString("mnemonic");
   }
 
   @Override
   public int getModule() throws ParserException {
-    try {
-      return m_resultSet.getInt("module_id");
-    } catch (final SQLException e) {
-      throw new ParserException(e);
-    }
+    return getInt("module_id");
   }
 
   @Override
   public int getNodeId() throws ParserException {
-    try {
-      return m_resultSet.getInt("node_id");
-    } catch (final SQLException e) {
-      throw new ParserException(e);
-    }
+    return getInt("node_id");
   }
 
   @Override
   public Integer getOperandPosition() throws ParserException {
-    try {
-      final int position = m_resultSet.getInt("operand_position");
-      return m_resultSet.wasNull() ? null : position;
-    } catch (final SQLException e) {
-      throw new ParserException(e);
-    }
+    return getInteger("operand_position");
   }
 
   @Override
   public IAddress getParentFunction() throws ParserException {
-    try {
-      return PostgreSQLHelpers.loadAddress(m_resultSet, "parent_function");
-    } catch (final SQLException e) {
-      throw new ParserException(e);
-    }
+    return getAddress("parent_function");
   }
 
   @Override
   public int getParentId() throws ParserException {
-    try {
-      return m_resultSet.getInt("expression_tree_parent_id");
-    } catch (final SQLException e) {
-      throw new ParserException(e);
-    }
+    return getInt("expression_tree_parent_id");
   }
 
   @Override
   public CReference getReference() throws ParserException {
-    try {
-      final IAddress address = PostgreSQLHelpers.loadAddress(m_resultSet, "target");
-      if (address != null) {
-        return new CReference(PostgreSQLHelpers.loadAddress(m_resultSet, "target"),
-            ReferenceType.valueOf(m_resultSet.getString("address_references_type").toUpperCase()));
-      } else {
-        return null;
-      }
-    } catch (final SQLException e) {
-      throw new ParserException(e);
+    final IAddress address = getAddress("target");
+    if (address != null) {
+      return new CReference(address,
+          ReferenceType.valueOf(getString("address_references_type").toUpperCase()));
+    } else {
+      return null;
     }
   }
 
   @Override
   public String getReplacement() throws ParserException {
-    try {
-      return PostgreSQLHelpers.readString(m_resultSet, "replacement");
-    } catch (final SQLException e) {
-      throw new ParserException(e);
-    }
+    return getString("replacement");
   }
 
   @Override
   public int getSubstitutionOffset() throws ParserException {
-    try {
-      return m_resultSet.getInt("expression_types_offset");
-    } catch (final SQLException e) {
-      throw new ParserException(e);
-    }
+    return getInt("expression_types_offset");
   }
 
   @Override
   public int getSubstitutionPosition() throws ParserException {
-    try {
-      return m_resultSet.getInt("expression_types_position");
-    } catch (final SQLException exception) {
-      throw new ParserException(exception);
-    }
+    return getInt("expression_types_position");
   }
 
   @Override
   public Integer getSubstitutionTypeId() throws ParserException {
-    try {
-      final Integer typeId = m_resultSet.getInt("expression_types_type");
-      if (m_resultSet.wasNull()) {
-        return null;
-      } else {
-        return typeId;
-      }
-    } catch (final SQLException e) {
-      throw new ParserException(e);
-    }
+    return getInteger("expression_types_type");
   }
 
-
   @Override
   public String getSymbol() throws ParserException {
-    try {
-      return PostgreSQLHelpers.readString(m_resultSet, "symbol");
-    } catch (final SQLException e) {
-      throw new ParserException(e);
-    }
+    return getString("symbol");
   }
 
   @Override
   public Integer getTypeInstanceId() throws ParserException {
-    try {
-      final Integer typeInstanceId = m_resultSet.getInt("type_instance_id");
-      if (m_resultSet.wasNull()) {
-        return null;
-      } else {
-        return typeInstanceId;
-      }
-    } catch (final SQLException exception) {
-      throw new ParserException(exception);
-    }
+    return getInteger("type_instance_id");
   }
 
   @Override
   public double getWidth() throws ParserException {
-    try {
-      return m_resultSet.getDouble("width");
-    } catch (final SQLException e) {
-      throw new ParserException(e);
-    }
+    return getDouble("width");
   }
 
   @Override
   public double getX() throws ParserException {
-    try {
-      return m_resultSet.getDouble("x");
-    } catch (final SQLException e) {
-      throw new ParserException(e);
-    }
+    return getDouble("x");
   }
 
   @Override
   public double getY() throws ParserException {
-    try {
-      return m_resultSet.getDouble("y");
-    } catch (final SQLException e) {
-      throw new ParserException(e);
-    }
+    return getDouble("y");
   }
 
   @Override
   public boolean isAfterLast() throws ParserException {
-    try {
-      return m_resultSet.isAfterLast();
-    } catch (final SQLException e) {
-      throw new ParserException(e);
-    }
+    // Forward-only result sets do not reliably support isAfterLast while rows are fetched in
+    // batches, so the position is tracked here.
+    return m_afterLast;
   }
 
   @Override
   public boolean isSelected() throws ParserException {
-    try {
-      return m_resultSet.getBoolean("selected");
-    } catch (final SQLException e) {
-      throw new ParserException(e);
-    }
+    return getBoolean("selected");
   }
 
   @Override
   public boolean isVisible() throws ParserException {
-    try {
-      return m_resultSet.getBoolean("visible");
-    } catch (final SQLException e) {
-      throw new ParserException(e);
-    }
+    return getBoolean("visible");
   }
 
   @Override
   public boolean next() throws ParserException {
+    if (m_nextRow != null || m_nextIsAfterLast) {
+      // Return to the row that was current before prev() was called.
+      m_previousRow = m_currentRow;
+      m_currentRow = m_nextRow;
+      m_afterLast = m_nextIsAfterLast;
+      m_nextRow = null;
+      m_nextIsAfterLast = false;
+      return !m_afterLast;
+    }
+
+    if (m_afterLast) {
+      return false;
+    }
+
     try {
-      return m_resultSet.next();
+      m_previousRow = m_currentRow;
+      m_afterLast = !m_resultSet.next();
+      m_currentRow = m_afterLast ? null : copyRow();
+      return !m_afterLast;
     } catch (final SQLException e) {
       throw new ParserException(e);
     }
@@ -384,24 +401,25 @@ public final class SqlCodeNodeProvider implements ICodeNodeProvider {
 
   @Override
   public boolean prev() throws ParserException {
-    try {
-      return m_resultSet.previous();
-    } catch (final SQLException e) {
-      throw new ParserException(e);
+    if (m_nextRow != null || m_nextIsAfterLast) {
+      throw new ParserException("Error: The provider can only move back by a single row");
     }
+
+    m_nextRow = m_currentRow;
+    m_nextIsAfterLast = m_afterLast;
+    m_currentRow = m_previousRow;
+    m_previousRow = null;
+    m_afterLast = false;
+    return m_currentRow != null;
   }
 
   @Override
   public Integer[] getSubstitutionPath() throws ParserException {
-    try {
-      final Array array = m_resultSet.getArray("expression_types_path");
-      if (m_resultSet.wasNull()) {
-        return new Integer[0];
-      } else {
-        return (Integer[]) array.getArray();
-      }
-    } catch (final SQLException exception) {
-      throw new ParserException(exception);
+    final Object value = getValue("expression_types_path");
+    if (value == null) {
+      return new Integer[0];
+    } else {
+      return (Integer[]) value;
     }
   }
 }
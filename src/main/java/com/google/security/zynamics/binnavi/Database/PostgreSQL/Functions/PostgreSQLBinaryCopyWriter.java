@@ -0,0 +1,224 @@
+// Copyright 2011-2016 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.security.zynamics.binnavi.Database.PostgreSQL.Functions;
+
+import com.google.common.base.Preconditions;
+import com.google.security.zynamics.binnavi.Database.CConnection;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.PGCopyOutputStream;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+
+/**
+ * Streams rows into a table using the binary format of the PostgreSQL COPY command. Rows are
+ * written directly into the buffer of the copy stream, so no SQL strings are built and no rows are
+ * held in memory after they were written.
+ */
+public final class PostgreSQLBinaryCopyWriter {
+  /**
+   * Signature at the beginning of binary COPY data.
+   */
+  private static final byte[] SIGNATURE =
+      {'P', 'G', 'C', 'O', 'P', 'Y', '\n', (byte) 0xFF, '\r', '\n', 0};
+
+  /**
+   * Size of the copy buffer in bytes.
+   */
+  private static final int BUFFER_SIZE = 1 << 16;
+
+  /**
+   * Stream that sends data to the database.
+   */
+  private final PGCopyOutputStream m_copyStream;
+
+  /**
+   * Encodes the binary data written to the copy stream.
+   */
+  private final DataOutputStream m_output;
+
+  /**
+   * Number of rows written so far.
+   */
+  private int m_rowCount = 0;
+
+  /**
+   * Starts a new binary COPY operation.
+   *
+   * @param connection Connection to the database.
+   * @param table The table the rows are written to.
+   * @param columns The columns of the table that are written for each row.
+   *
+   * @throws SQLException Thrown if the COPY operation could not be started.
+   */
+  public PostgreSQLBinaryCopyWriter(final CConnection connection, final String table,
+      final String columns) throws SQLException {
+    Preconditions.checkNotNull(connection, "IE03429: Connection argument can not be null");
+    Preconditions.checkNotNull(table, "IE03430: Table argument can not be null");
+    Preconditions.checkNotNull(columns, "IE03431: Columns argument can not be null");
+
+    m_copyStream = new PGCopyOutputStream((PGConnection) connection.getConnection(),
+        "COPY " + table + "(" + columns + ") FROM STDIN WITH (FORMAT BINARY)", BUFFER_SIZE);
+    m_output = new DataOutputStream(m_copyStream);
+
+    try {
+      m_output.write(SIGNATURE);
+      // Flags field and header extension length.
+      m_output.writeInt(0);
+      m_output.writeInt(0);
+    } catch (final IOException exception) {
+      cancel();
+      throw new SQLException(exception);
+    }
+  }
+
+  /**
+   * Aborts the COPY operation. None of the written rows are stored in the database.
+   */
+  public void cancel() {
+    try {
+      if (m_copyStream.isActive()) {
+        m_copyStream.cancelCopy();
+      }
+    } catch (final SQLException exception) {
+      // The COPY operation is aborted anyway.
+    }
+  }
+
+  /**
+   * Finishes the COPY operation and stores all written rows in the database.
+   *
+   * @return The number of rows stored in the database.
+   *
+   * @throws SQLException Thrown if the rows could not be stored.
+   */
+  public long finish() throws SQLException {
+    try {
+      // File trailer.
+      m_output.writeShort(-1);
+      m_output.flush();
+    } catch (final IOException exception) {
+      cancel();
+      throw new SQLException(exception);
+    }
+
+    return m_copyStream.endCopy();
+  }
+
+  /**
+   * Returns the number of rows written so far.
+   *
+   * @return The number of rows written so far.
+   */
+  public int getRowCount() {
+    return m_rowCount;
+  }
+
+  /**
+   * Starts a new row. All fields of the row must be written after calling this method.
+   *
+   * @param fieldCount The number of fields of the row.
+   *
+   * @throws SQLException Thrown if the data could not be sent to the database.
+   */
+  public void startRow(final int fieldCount) throws SQLException {
+    try {
+      m_output.writeShort(fieldCount);
+      m_rowCount++;
+    } catch (final IOException exception) {
+      throw new SQLException(exception);
+    }
+  }
+
+  /**
+   * Writes a bigint field.
+   *
+   * @param value The value of the field.
+   *
+   * @throws SQLException Thrown if the data could not be sent to the database.
+   */
+  public void writeBigInt(final long value) throws SQLException {
+    try {
+      m_output.writeInt(8);
+      m_output.writeLong(value);
+    } catch (final IOException exception) {
+      throw new SQLException(exception);
+    }
+  }
+
+  /**
+   * Writes a bytea field.
+   *
+   * @param value The value of the field.
+   *
+   * @throws SQLException Thrown if the data could not be sent to the database.
+   */
+  public void writeBytes(final byte[] value) throws SQLException {
+    if (value == null) {
+      writeNull();
+      return;
+    }
+
+    try {
+      m_output.writeInt(value.length);
+      m_output.write(value);
+    } catch (final IOException exception) {
+      throw new SQLException(exception);
+    }
+  }
+
+  /**
+   * Writes an integer field.
+   *
+   * @param value The value of the field.
+   *
+   * @throws SQLException Thrown if the data could not be sent to the database.
+   */
+  public void writeInt(final int value) throws SQLException {
+    try {
+      m_output.writeInt(4);
+      m_output.writeInt(value);
+    } catch (final IOException exception) {
+      throw new SQLException(exception);
+    }
+  }
+
+  /**
+   * Writes a NULL field.
+   *
+   * @throws SQLException Thrown if the data could not be sent to the database.
+   */
+  public void writeNull() throws SQLException {
+    try {
+      m_output.writeInt(-1);
+    } catch (final IOException exception) {
+      throw new SQLException(exception);
+    }
+  }
+
+  /**
+   * Writes a text or character varying field.
+   *
+   * @param value The value of the field.
+   *
+   * @throws SQLException Thrown if the data could not be sent to the database.
+   */
+  public void writeString(final String value) throws SQLException {
+    writeBytes(value == null ? null : value.getBytes(StandardCharsets.UTF_8));
+  }
+}
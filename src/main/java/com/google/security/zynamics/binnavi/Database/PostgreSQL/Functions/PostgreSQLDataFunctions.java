@@ -131,4 +131,96 @@ public final class PostgreSQLDataFunctions {
       throw new CouldntLoadDataException(e);
     }
   }
+
+  /**
+   * Loads a range of the data of a module from the database. Only the overlapping parts of the
+   * stored data chunks are transferred, so large module data can be fetched piece by piece.
+   * 
+   * The module must be a module stored in the database.
+   * 
+   * @param provider Provides the connection to the database.
+   * @param module The module whose data is loaded.
+   * @param offset Offset of the first byte to load.
+   * @param length Number of bytes to load.
+   * 
+   * @return The loaded range of the module data.
+   * 
+   * @throws CouldntLoadDataException Thrown if the module data could not be loaded.
+   */
+  public static byte[] loadData(final AbstractSQLProvider provider, final CModule module,
+      final long offset, final int length) throws CouldntLoadDataException {
+    Preconditions.checkNotNull(provider, "IE03465: Provider argument can not be null");
+    Preconditions.checkNotNull(module, "IE03466: Module argument can not be null");
+    Preconditions.checkArgument(module.inSameDatabase(provider),
+        "IE03467: Module is not stored in the given database");
+    Preconditions.checkArgument((offset >= 0) && (length >= 0),
+        "IE03468: Range can not be negative");
+
+    final long end = offset + length;
+
+    final String query = "SELECT substring(data"
+        + " FROM (GREATEST(?, part_start) - part_start + 1)::int"
+        + " FOR (LEAST(?, part_end) - GREATEST(?, part_start))::int) AS data FROM"
+        + " (SELECT part_id, data,"
+        + " SUM(octet_length(data)) OVER (ORDER BY part_id) - octet_length(data) AS part_start,"
+        + " SUM(octet_length(data)) OVER (ORDER BY part_id) AS part_end FROM "
+        + CTableNames.DATA_PARTS_TABLE + " WHERE module_id = ?) AS parts"
+        + " WHERE part_start < ? AND part_end > ? ORDER BY part_id ASC";
+
+    final List<byte[]> dataList = new ArrayList<>();
+
+    try (PreparedStatement statement =
+        provider.getConnection().getConnection().prepareStatement(query)) {
+      statement.setLong(1, offset);
+      statement.setLong(2, end);
+      statement.setLong(3, offset);
+      statement.setInt(4, module.getConfiguration().getId());
+      statement.setLong(5, end);
+      statement.setLong(6, offset);
+
+      try (ResultSet resultSet = statement.executeQuery()) {
+        while (resultSet.next()) {
+          dataList.add(resultSet.getBytes("data"));
+        }
+      }
+    } catch (final SQLException exception) {
+      throw new CouldntLoadDataException(exception);
+    }
+
+    return ByteHelpers.combine(dataList);
+  }
+
+  /**
+   * Loads the length of the data of a module from the database without transferring the data.
+   * 
+   * The module must be a module stored in the database.
+   * 
+   * @param provider Provides the connection to the database.
+   * @param module The module whose data length is loaded.
+   * 
+   * @return The number of bytes of the module data.
+   * 
+   * @throws CouldntLoadDataException Thrown if the data length could not be loaded.
+   */
+  public static int loadDataLength(final AbstractSQLProvider provider, final CModule module)
+      throws CouldntLoadDataException {
+    Preconditions.checkNotNull(provider, "IE03469: Provider argument can not be null");
+    Preconditions.checkNotNull(module, "IE03470: Module argument can not be null");
+    Preconditions.checkArgument(module.inSameDatabase(provider),
+        "IE03471: Module is not stored in the given database");
+
+    final String query = "SELECT COALESCE(SUM(octet_length(data)), 0) AS length FROM "
+        + CTableNames.DATA_PARTS_TABLE + " WHERE module_id = ?";
+
+    try (PreparedStatement statement =
+        provider.getConnection().getConnection().prepareStatement(query)) {
+      statement.setInt(1, module.getConfiguration().getId());
+
+      try (ResultSet resultSet = statement.executeQuery()) {
+        return resultSet.next() ? (int) resultSet.getLong("length") : 0;
+      }
+    } catch (final SQLException exception) {
+      throw new CouldntLoadDataException(exception);
+    }
+  }
 }
@@ -472,6 +472,27 @@ public final class PostgreSQLDatabaseFunctions {
   }
 
 
+  /**
+   * Creates the indexes that were added to the database schema after the database was created.
+   * Indexes that already exist are left untouched.
+   *
+   * @param connection The connection to the database.
+   * @throws CouldntUpdateDatabaseException if an index could not be created.
+   */
+  private static void createMissingIndexes(final CConnection connection)
+      throws CouldntUpdateDatabaseException {
+    try {
+      // Indexes are relations too, so hasTable finds them in pg_class.
+      if (!PostgreSQLHelpers.hasTable(connection, "bn_address_references_module_id_target_idx")) {
+        connection.executeUpdate("CREATE INDEX bn_address_references_module_id_target_idx ON "
+            + CTableNames.ADDRESS_REFERENCES_TABLE + " USING btree "
+            + "(module_id, target, address, \"position\", expression_id, type)", true);
+      }
+    } catch (final CouldntLoadDataException | SQLException exception) {
+      throw new CouldntUpdateDatabaseException(exception.toString(), 42);
+    }
+  }
+
   /**
    * Performs an update of a postgresql database with the resource passed as argument.
    * 
@@ -530,6 +551,8 @@ public final class PostgreSQLDatabaseFunctions {
         databaseUpdater(provider.getConnection(), "com/google/security/zynamics/binnavi/data/"
             + "postgresql_convert_5_0_0_to_5_0_1.sql");
       }
+
+      createMissingIndexes(provider.getConnection());
     } catch (final CouldntLoadDataException exception) {
       CUtilityFunctions.logException(exception);
     }
@@ -17,7 +17,6 @@ package com.google.security.zynamics.binnavi.Database.PostgreSQL.Functions;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.util.Locale;
 
 import com.google.common.base.Preconditions;
 import com.google.security.zynamics.binnavi.Database.AbstractSQLProvider;
@@ -25,6 +24,7 @@ import com.google.security.zynamics.binnavi.Database.CConnection;
 import com.google.security.zynamics.binnavi.Database.CTableNames;
 import com.google.security.zynamics.binnavi.Database.Exceptions.CouldntDeleteException;
 import com.google.security.zynamics.binnavi.Database.Exceptions.CouldntSaveDataException;
+import com.google.security.zynamics.binnavi.Database.Interfaces.ITraceSaveProgressReporter;
 import com.google.security.zynamics.binnavi.Database.PostgreSQL.PostgreSQLHelpers;
 import com.google.security.zynamics.binnavi.debug.models.trace.TraceList;
 import com.google.security.zynamics.binnavi.debug.models.trace.TraceRegister;
@@ -33,6 +33,11 @@ import com.google.security.zynamics.binnavi.disassembly.INaviModule;
 import com.google.security.zynamics.binnavi.disassembly.INaviProject;
 
 public final class PostgreSQLTraceFunctions {
+  /**
+   * Number of written events between two progress reports.
+   */
+  private static final int PROGRESS_INTERVAL = 10000;
+
   /**
    * You are not supposed to intantiate this class.
    */
@@ -113,53 +118,67 @@ public final class PostgreSQLTraceFunctions {
    *
    * @param connection Connection to the database.
    * @param trace The trace whose events are saved.
+   * @param reporter Reports the progress of the operation. This argument can be null.
    *
    * @throws CouldntSaveDataException Thrown if the events could not be saved.
    */
-  private static void saveEvents(final CConnection connection, final TraceList trace)
-      throws CouldntSaveDataException {
-    final String queryPrefix = "INSERT INTO " + CTableNames.TRACE_EVENT_TABLE
-        + "(trace_id, position, tid, module_id, address, type) VALUES";
+  private static void saveEvents(final CConnection connection, final TraceList trace,
+      final ITraceSaveProgressReporter reporter) throws CouldntSaveDataException {
+    try {
+      final PostgreSQLBinaryCopyWriter writer = new PostgreSQLBinaryCopyWriter(connection,
+          CTableNames.TRACE_EVENT_TABLE, "trace_id, position, tid, module_id, address, type");
 
-    final StringBuilder stringBuilder = new StringBuilder(queryPrefix);
+      try {
+        final int total = trace.getEventCount();
 
-    int position = 0;
+        int position = 0;
 
-    for (final ITraceEvent traceEvent : trace) {
-      final String moduleString = traceEvent.getOffset().getModule() == null ? "null"
-          : String.valueOf(traceEvent.getOffset().getModule().getConfiguration().getId());
+        for (final ITraceEvent traceEvent : trace) {
+          final INaviModule module = traceEvent.getOffset().getModule();
 
-      stringBuilder.append(String.format(Locale.ENGLISH,
-          "(%d, %d, %d, %s, %s, %d)",
-          trace.getId(),
-          position,
-          traceEvent.getThreadId(),
-          moduleString,
-          traceEvent.getOffset().getAddress().getAddress().toBigInteger().toString(),
-          1));
+          writer.startRow(6);
+          writer.writeInt(trace.getId());
+          writer.writeInt(position);
+          writer.writeInt((int) traceEvent.getThreadId());
 
-      ++position;
+          if (module == null) {
+            writer.writeNull();
+          } else {
+            writer.writeInt(module.getConfiguration().getId());
+          }
 
-      if (trace.getEventCount() > position) {
-        stringBuilder.append(", ");
-      }
-    }
+          writer.writeBigInt(traceEvent.getOffset().getAddress().getAddress().toLong());
+          writer.writeInt(1);
 
-    try {
-      final PreparedStatement prep =
-          connection.getConnection().prepareStatement(stringBuilder.toString());
-      try {
-        prep.execute();
-      } catch (final SQLException exception) {
-        throw new CouldntSaveDataException(exception);
-      } finally {
-        prep.close();
+          ++position;
+
+          reportProgress(reporter, position, total);
+        }
+
+        writer.finish();
+      } catch (final SQLException | RuntimeException exception) {
+        writer.cancel();
+        throw exception;
       }
     } catch (final SQLException exception) {
       throw new CouldntSaveDataException(exception);
     }
   }
 
+  /**
+   * Reports the progress of a save operation if necessary.
+   *
+   * @param reporter Reports the progress of the operation. This argument can be null.
+   * @param written Number of events written so far.
+   * @param total Total number of events to write.
+   */
+  private static void reportProgress(final ITraceSaveProgressReporter reporter, final int written,
+      final int total) {
+    if ((reporter != null) && (((written % PROGRESS_INTERVAL) == 0) || (written == total))) {
+      reporter.savedEvents(written, total);
+    }
+  }
+
   /**
    * Creates a new trace in a module.
    *
@@ -253,6 +272,21 @@ public final class PostgreSQLTraceFunctions {
    */
   public static void save(final AbstractSQLProvider provider, final TraceList trace)
       throws CouldntSaveDataException {
+    save(provider, trace, null);
+  }
+
+  /**
+   * Saves a trace to the database. Events and register values are streamed to the database with
+   * the COPY command.
+   *
+   * @param provider The SQL provider that provides the connection.
+   * @param trace The trace to save to the database.
+   * @param reporter Reports the progress of the operation. This argument can be null.
+   *
+   * @throws CouldntSaveDataException Thrown if the trace could not be saved to the database.
+   */
+  public static void save(final AbstractSQLProvider provider, final TraceList trace,
+      final ITraceSaveProgressReporter reporter) throws CouldntSaveDataException {
     Preconditions.checkNotNull(provider, "IE00579: Provider argument can not be null");
     Preconditions.checkNotNull(trace, "IE00580: List argument can not be null");
     Preconditions.checkArgument(trace.inSameDatabase(provider),
@@ -261,8 +295,8 @@ public final class PostgreSQLTraceFunctions {
     final CConnection connection = provider.getConnection();
 
     if (trace.getEventCount() != 0) {
-      saveEvents(connection, trace);
-      saveEventValues(connection, trace);
+      saveEvents(connection, trace, reporter);
+      saveEventValues(connection, trace, reporter);
     }
   }
 
@@ -276,36 +310,54 @@ public final class PostgreSQLTraceFunctions {
    */
   public static void saveEventValues(final CConnection connection, final TraceList trace)
       throws CouldntSaveDataException {
+    saveEventValues(connection, trace, null);
+  }
+
+  /**
+   * Saves the event values of a trace.
+   *
+   * @param connection Connection to the database.
+   * @param trace Trace whose event values are saved.
+   * @param reporter Reports the progress of the operation. This argument can be null.
+   *
+   * @throws CouldntSaveDataException Thrown if the data could not be saved.
+   */
+  public static void saveEventValues(final CConnection connection, final TraceList trace,
+      final ITraceSaveProgressReporter reporter) throws CouldntSaveDataException {
     Preconditions.checkNotNull(connection, "IE02412: connection argument can not be null");
     Preconditions.checkNotNull(trace, "IE02413: trace argument can not be null");
 
-    final String query = "INSERT INTO " + CTableNames.TRACE_EVENT_VALUES_TABLE
-        + "(trace_id, position, register_name, register_value, memory_value) VALUES "
-        + "(?, ?, ?, ?, ?)";
-
     try {
-      final PreparedStatement preparedStatement =
-          connection.getConnection().prepareStatement(query);
+      final PostgreSQLBinaryCopyWriter writer =
+          new PostgreSQLBinaryCopyWriter(connection, CTableNames.TRACE_EVENT_VALUES_TABLE,
+              "trace_id, position, register_name, register_value, memory_value");
 
-      int position = 0;
+      try {
+        final int total = trace.getEventCount();
+
+        int position = 0;
+
+        for (final ITraceEvent traceEvent : trace) {
+          for (final TraceRegister register : traceEvent.getRegisterValues()) {
+            writer.startRow(5);
+            writer.writeInt(trace.getId());
+            writer.writeInt(position);
+            writer.writeString(register.getName());
+            writer.writeBigInt(register.getValue().toLong());
+            writer.writeBytes(register.getMemory());
+          }
 
-      for (final ITraceEvent traceEvent : trace) {
-        for (final TraceRegister register : traceEvent.getRegisterValues()) {
-          preparedStatement.setInt(1, trace.getId());
-          preparedStatement.setInt(2, position);
-          preparedStatement.setString(3, register.getName());
-          preparedStatement.setLong(4, register.getValue().toLong());
-          preparedStatement.setBytes(5, register.getMemory());
+          ++position;
 
-          preparedStatement.addBatch();
+          reportProgress(reporter, position, total);
         }
-        ++position;
-      }
-      preparedStatement.executeBatch();
 
-      preparedStatement.close();
-    }
- catch (final SQLException exception) {
+        writer.finish();
+      } catch (final SQLException | RuntimeException exception) {
+        writer.cancel();
+        throw exception;
+      }
+    } catch (final SQLException exception) {
       throw new CouldntSaveDataException(exception);
     }
   }
@@ -1208,6 +1208,44 @@ public class PostgreSQLTypeFunctions {
     }
   }
 
+  /**
+   * Sets the offsets of a list of members with a single statement.
+   *
+   * @param connection The connection to the database.
+   * @param members The ids of the members whose offsets should be set.
+   * @param offsets The new offsets of the members, in the same order as the member ids.
+   * @param module The module that contains the members.
+   * @throws CouldntSaveDataException Thrown if the member offsets could not be updated.
+   */
+  public static void setMemberOffsets(final Connection connection,
+      final List<Integer> members,
+      final List<Integer> offsets,
+      final INaviModule module) throws CouldntSaveDataException {
+    Preconditions.checkNotNull(members, "Error: members argument can not be null.");
+    Preconditions.checkNotNull(offsets, "Error: offsets argument can not be null.");
+    Preconditions.checkArgument(members.size() == offsets.size(),
+        "Error: every member requires exactly one offset.");
+    if (members.isEmpty()) {
+      return;
+    }
+    try {
+      final PreparedStatement statement = connection.prepareStatement("UPDATE "
+          + CTableNames.TYPE_MEMBERS_TABLE + " AS member SET \"offset\" = updated.new_offset "
+          + "FROM (SELECT UNNEST(?::int4[]) AS id, UNNEST(?::int4[]) AS new_offset) AS updated "
+          + "WHERE member.module_id = ? AND member.id = updated.id");
+      try {
+        statement.setArray(1, connection.createArrayOf("int4", members.toArray()));
+        statement.setArray(2, connection.createArrayOf("int4", offsets.toArray()));
+        statement.setInt(3, module.getConfiguration().getId());
+        statement.executeUpdate();
+      } finally {
+        statement.close();
+      }
+    } catch (final SQLException exception) {
+      throw new CouldntSaveDataException(exception);
+    }
+  }
+
   /**
    * Increments the offsets of all members which have an offset > startOffset.
    *
@@ -14,6 +14,7 @@
 
 package com.google.security.zynamics.binnavi.Database.PostgreSQL.Loaders;
 
+import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
@@ -26,6 +27,7 @@ import com.google.security.zynamics.binnavi.Database.Exceptions.CPartialLoadExce
 import com.google.security.zynamics.binnavi.Database.NodeParser.CCodeNodeParser;
 import com.google.security.zynamics.binnavi.Database.NodeParser.ParserException;
 import com.google.security.zynamics.binnavi.Database.NodeParser.SqlCodeNodeProvider;
+import com.google.security.zynamics.binnavi.Database.PostgreSQL.PostgreSQLHelpers;
 import com.google.security.zynamics.binnavi.disassembly.INaviModule;
 import com.google.security.zynamics.binnavi.disassembly.INaviViewNode;
 import com.google.security.zynamics.binnavi.disassembly.views.INaviView;
@@ -35,6 +37,12 @@ import com.google.security.zynamics.binnavi.disassembly.views.INaviView;
  * Contains code for loading code nodes.
  */
 public final class PostgreSQLCodeNodeLoader {
+  /**
+   * Number of rows fetched from the database at once. Only this many rows of the result set are
+   * held in memory while the code nodes are parsed.
+   */
+  private static final int FETCH_SIZE = 2000;
+
   /**
    * You are not supposed to instantiate this class.
    */
@@ -63,20 +71,44 @@ public final class PostgreSQLCodeNodeLoader {
     Preconditions.checkNotNull(modules, "Error: modules argument can not be null");
 
     final String query = " SELECT * FROM load_code_nodes(?) ";
-    final PreparedStatement statement =
-        provider.getConnection().getConnection()
-            .prepareStatement(query, ResultSet.TYPE_SCROLL_SENSITIVE, ResultSet.CONCUR_READ_ONLY);
-    statement.setInt(1, view.getConfiguration().getId());
-    final ResultSet resultSet = statement.executeQuery();
+
+    // The PostgreSQL driver only streams rows of forward-only result sets in batches of the fetch
+    // size if the statement runs inside a transaction. Otherwise the complete result is
+    // materialized before the first row is returned.
+    final Connection connection = provider.getConnection().getConnection();
+    final boolean startedTransaction = connection.getAutoCommit();
+
+    if (startedTransaction) {
+      PostgreSQLHelpers.beginTransaction(provider.getConnection());
+    }
+
+    boolean successful = false;
+
+    final PreparedStatement statement = provider.getConnection().prepareReadStatement(query);
 
     try {
-      final CCodeNodeParser parser =
-          new CCodeNodeParser(new SqlCodeNodeProvider(resultSet), modules, provider);
-      nodes.addAll(parser.parse());
-    } catch (final ParserException e) {
-      CUtilityFunctions.logException(e);
+      statement.setFetchSize(FETCH_SIZE);
+      statement.setInt(1, view.getConfiguration().getId());
+
+      try (final ResultSet resultSet = statement.executeQuery()) {
+        final CCodeNodeParser parser =
+            new CCodeNodeParser(new SqlCodeNodeProvider(resultSet), modules, provider);
+        nodes.addAll(parser.parse());
+      } catch (final ParserException e) {
+        CUtilityFunctions.logException(e);
+      }
+
+      successful = true;
     } finally {
-      resultSet.close();
+      provider.getConnection().releaseStatement(statement);
+
+      if (startedTransaction) {
+        if (successful) {
+          PostgreSQLHelpers.endTransaction(provider.getConnection());
+        } else {
+          PostgreSQLHelpers.rollback(provider.getConnection());
+        }
+      }
     }
   }
 }
@@ -86,59 +86,62 @@ public final class PostgreSQLFunctionNodeLoader {
         new HashMap<Integer, INaviFunctionNode>();
 
     try {
-      final PreparedStatement statement =
-          provider.getConnection().getConnection().prepareStatement(query);
-
-      statement.setInt(1, view.getConfiguration().getId());
-
-      final ResultSet resultSet = statement.executeQuery();
+      final PreparedStatement statement = provider.getConnection().prepareReadStatement(query);
 
       try {
-        while (resultSet.next()) {
-          final int moduleId = resultSet.getInt("module_id");
-          final INaviModule module = provider.findModule(moduleId);
-
-          if (!module.isLoaded()) {
-            try {
-              module.load();
-            } catch (final CouldntLoadDataException e) {
-              throw new CPartialLoadException(
-                  "E00064: The view could not be loaded because not all modules that form the view are loaded",
-                  module);
-            } catch (final LoadCancelledException e) {
-              throw new CPartialLoadException(
-                  "E00065: The view could not be loaded because not all modules that form the view are loaded",
-                  module);
+        statement.setInt(1, view.getConfiguration().getId());
+
+        final ResultSet resultSet = statement.executeQuery();
+
+        try {
+          while (resultSet.next()) {
+            final int moduleId = resultSet.getInt("module_id");
+            final INaviModule module = provider.findModule(moduleId);
+
+            if (!module.isLoaded()) {
+              try {
+                module.load();
+              } catch (final CouldntLoadDataException e) {
+                throw new CPartialLoadException(
+                    "E00064: The view could not be loaded because not all modules that form the view are loaded",
+                    module);
+              } catch (final LoadCancelledException e) {
+                throw new CPartialLoadException(
+                    "E00065: The view could not be loaded because not all modules that form the view are loaded",
+                    module);
+              }
             }
-          }
 
-          final IAddress address = PostgreSQLHelpers.loadAddress(resultSet, "function");
-          final INaviFunction function =
-              module.getContent().getFunctionContainer().getFunction(address);
-          final int nodeId = resultSet.getInt("id");
-          Integer commentId = resultSet.getInt("local_comment");
-          if (resultSet.wasNull()) {
-            commentId = null;
-          }
-          final double posX = resultSet.getDouble("x");
-          final double posY = resultSet.getDouble("y");
-          final double width = resultSet.getDouble("width");
-          final double height = resultSet.getDouble("height");
-          final Color color = new Color(resultSet.getInt("color"));
-          final boolean selected = resultSet.getBoolean("selected");
-          final boolean visible = resultSet.getBoolean("visible");
-
-          final INaviFunctionNode functionNode =
-              new CFunctionNode(nodeId, function, posX, posY, width, height, color, selected,
-                  visible, null, new HashSet<CTag>(), provider);
-          nodes.add(functionNode);
-
-          if (commentId != null) {
-            commentIdToFunctionNode.put(commentId, functionNode);
+            final IAddress address = PostgreSQLHelpers.loadAddress(resultSet, "function");
+            final INaviFunction function =
+                module.getContent().getFunctionContainer().getFunction(address);
+            final int nodeId = resultSet.getInt("id");
+            Integer commentId = resultSet.getInt("local_comment");
+            if (resultSet.wasNull()) {
+              commentId = null;
+            }
+            final double posX = resultSet.getDouble("x");
+            final double posY = resultSet.getDouble("y");
+            final double width = resultSet.getDouble("width");
+            final double height = resultSet.getDouble("height");
+            final Color color = new Color(resultSet.getInt("color"));
+            final boolean selected = resultSet.getBoolean("selected");
+            final boolean visible = resultSet.getBoolean("visible");
+
+            final INaviFunctionNode functionNode =
+                new CFunctionNode(nodeId, function, posX, posY, width, height, color, selected,
+                    visible, null, new HashSet<CTag>(), provider);
+            nodes.add(functionNode);
+
+            if (commentId != null) {
+              commentIdToFunctionNode.put(commentId, functionNode);
+            }
           }
+        } finally {
+          resultSet.close();
         }
       } finally {
-        resultSet.close();
+        provider.getConnection().releaseStatement(statement);
       }
 
       if (!commentIdToFunctionNode.isEmpty()) {
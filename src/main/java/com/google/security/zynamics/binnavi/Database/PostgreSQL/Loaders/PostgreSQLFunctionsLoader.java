@@ -38,6 +38,7 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Types;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -194,10 +195,60 @@ public final class PostgreSQLFunctionsLoader {
     try {
       final PreparedStatement statement =
           provider.getConnection().getConnection().prepareStatement(query);
-      statement.setInt(1, module.getConfiguration().getId());
-      statement.setObject(2, address.toBigInteger(), Types.BIGINT);
-      final ResultSet resultSet = statement.executeQuery();
-      return Iterables.getFirst(parseFunctionInformation(resultSet, provider, module), null);
+
+      try {
+        statement.setInt(1, module.getConfiguration().getId());
+        statement.setObject(2, address.toBigInteger(), Types.BIGINT);
+        final ResultSet resultSet = statement.executeQuery();
+        return Iterables.getFirst(parseFunctionInformation(resultSet, provider, module), null);
+      } finally {
+        statement.close();
+      }
+    } catch (final SQLException exception) {
+      throw new CouldntLoadDataException(exception);
+    }
+  }
+
+  /**
+   * Loads a number of functions of a module with a single query.
+   *
+   * @param provider The {@link SQLProvider} to access the database with.
+   * @param module The {@link INaviModule} in which the functions are located.
+   * @param addresses The addresses of the functions to load.
+   *
+   * @return The functions that were found.
+   *
+   * @throws CouldntLoadDataException if the function information could not be loaded from the
+   *         database.
+   */
+  public static List<INaviFunction> loadFunctionsByAddress(final SQLProvider provider,
+      final INaviModule module, final Collection<IAddress> addresses)
+      throws CouldntLoadDataException {
+    checkArguments(provider, module);
+    Preconditions.checkNotNull(addresses, "IE03444: Addresses argument can not be null");
+
+    final String query = " SELECT information.* FROM unnest(?) AS addresses(address) "
+        + " CROSS JOIN LATERAL load_function_information(?, addresses.address) AS information ";
+
+    final Object[] addressArray = new Object[addresses.size()];
+    int index = 0;
+    for (final IAddress address : addresses) {
+      addressArray[index++] = address.toLong();
+    }
+
+    try {
+      final PreparedStatement statement =
+          provider.getConnection().getConnection().prepareStatement(query);
+
+      try {
+        statement.setArray(1,
+            provider.getConnection().getConnection().createArrayOf("int8", addressArray));
+        statement.setInt(2, module.getConfiguration().getId());
+        final ResultSet resultSet = statement.executeQuery();
+        return parseFunctionInformation(resultSet, provider, module);
+      } finally {
+        statement.close();
+      }
     } catch (final SQLException exception) {
       throw new CouldntLoadDataException(exception);
     }
@@ -222,9 +273,14 @@ public final class PostgreSQLFunctionsLoader {
     try {
       final PreparedStatement statement =
           provider.getConnection().getConnection().prepareStatement(query);
-      statement.setInt(1, module.getConfiguration().getId());
-      final ResultSet resultSet = statement.executeQuery();
-      return parseFunctionInformation(resultSet, provider, module);
+
+      try {
+        statement.setInt(1, module.getConfiguration().getId());
+        final ResultSet resultSet = statement.executeQuery();
+        return parseFunctionInformation(resultSet, provider, module);
+      } finally {
+        statement.close();
+      }
     } catch (final SQLException e) {
       throw new CouldntLoadDataException(e);
     }
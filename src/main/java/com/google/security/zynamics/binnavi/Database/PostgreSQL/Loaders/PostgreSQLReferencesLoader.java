@@ -0,0 +1,113 @@
+// Copyright 2011-2016 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.security.zynamics.binnavi.Database.PostgreSQL.Loaders;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.google.common.base.Preconditions;
+import com.google.security.zynamics.binnavi.Database.CTableNames;
+import com.google.security.zynamics.binnavi.Database.Exceptions.CouldntLoadDataException;
+import com.google.security.zynamics.binnavi.Database.Interfaces.SQLProvider;
+import com.google.security.zynamics.binnavi.Database.PostgreSQL.PostgreSQLHelpers;
+import com.google.security.zynamics.binnavi.disassembly.CIncomingReference;
+import com.google.security.zynamics.binnavi.disassembly.INaviModule;
+import com.google.security.zynamics.zylib.disassembly.IAddress;
+import com.google.security.zynamics.zylib.disassembly.ReferenceType;
+
+/**
+ * Loads references from the cross-reference index of the database. The index is the address
+ * references table which is filled when a module is imported and kept up to date when operand
+ * references are added or removed.
+ */
+public final class PostgreSQLReferencesLoader {
+  /**
+   * You are not supposed to instantiate this class.
+   */
+  private PostgreSQLReferencesLoader() {
+    // You are not supposed to instantiate this class.
+  }
+
+  /**
+   * Loads a page of the references of a module that point to a given address. Pages are selected
+   * with a range condition on the (module_id, target, address, position, expression_id, type)
+   * index instead of OFFSET, so every page costs a single index range scan regardless of how many
+   * pages were read before.
+   *
+   * @param provider The SQL provider that provides the connection.
+   * @param module The module whose references are loaded.
+   * @param target The address the references point to.
+   * @param after The last reference of the previous page or null to load the first page.
+   * @param count The maximum number of references to load.
+   *
+   * @return The loaded references.
+   *
+   * @throws CouldntLoadDataException Thrown if the references could not be loaded.
+   */
+  public static List<CIncomingReference> loadIncomingReferences(final SQLProvider provider,
+      final INaviModule module, final IAddress target, final CIncomingReference after,
+      final int count) throws CouldntLoadDataException {
+    Preconditions.checkNotNull(provider, "IE03455: Provider argument can not be null");
+    Preconditions.checkNotNull(module, "IE03456: Module argument can not be null");
+    Preconditions.checkArgument(module.inSameDatabase(provider),
+        "IE03457: Module is not part of this database");
+    Preconditions.checkNotNull(target, "IE03458: Target argument can not be null");
+    Preconditions.checkArgument(count > 0, "IE03459: Count argument must be positive");
+
+    final String pageCondition = after == null ? ""
+        : " AND (address, position, expression_id, type)"
+            + " > (?, ?, ?, ?::address_reference_type)";
+    final String query = "SELECT address, position, expression_id, type FROM "
+        + CTableNames.ADDRESS_REFERENCES_TABLE + " WHERE module_id = ? AND target = ?"
+        + pageCondition + " ORDER BY address, position, expression_id, type LIMIT ?";
+
+    final List<CIncomingReference> references = new ArrayList<CIncomingReference>();
+
+    try (PreparedStatement statement =
+        provider.getConnection().getConnection().prepareStatement(query)) {
+      int index = 1;
+
+      statement.setInt(index++, module.getConfiguration().getId());
+      statement.setObject(index++, target.toBigInteger(), Types.BIGINT);
+
+      if (after != null) {
+        statement.setObject(index++, after.getAddress().toBigInteger(), Types.BIGINT);
+        statement.setInt(index++, after.getOperandPosition());
+        statement.setInt(index++, after.getExpressionId());
+        statement.setString(index++, after.getType().toString().toLowerCase());
+      }
+
+      statement.setInt(index, count);
+
+      try (ResultSet resultSet = statement.executeQuery()) {
+        while (resultSet.next()) {
+          references.add(new CIncomingReference(PostgreSQLHelpers.loadAddress(resultSet, "address"),
+              resultSet.getInt("position"),
+              resultSet.getInt("expression_id"),
+              ReferenceType.valueOf(resultSet.getString("type").toUpperCase()),
+              target));
+        }
+      }
+    } catch (final SQLException exception) {
+      throw new CouldntLoadDataException(exception);
+    }
+
+    return references;
+  }
+}
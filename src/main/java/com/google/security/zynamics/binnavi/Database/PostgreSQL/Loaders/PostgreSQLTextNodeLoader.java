@@ -69,46 +69,51 @@ public final class PostgreSQLTextNodeLoader {
     final String query =
         "SELECT id, comment_id, x, y, width, height, color, selected, visible " + " FROM "
             + CTableNames.NODES_TABLE + " JOIN " + CTableNames.TEXT_NODES_TABLE
-            + " ON id = node_id " + " WHERE view_id = " + view.getConfiguration().getId();
+            + " ON id = node_id " + " WHERE view_id = ?";
 
     // TODO (timkornau): the SQL code in here needs to go into a stored procedure in the
     // database. Also the commentId code has to be checked again and other conditions need to be
     // made possible.
 
     try {
-      final PreparedStatement statement =
-          provider.getConnection().getConnection().prepareStatement(query);
-
-      final ResultSet resultSet = statement.executeQuery();
+      final PreparedStatement statement = provider.getConnection().prepareReadStatement(query);
 
       try {
-        while (resultSet.next()) {
-          final int nodeId = resultSet.getInt("id");
-          Integer commentId = resultSet.getInt("comment_id");
-          if (resultSet.wasNull()) {
-            commentId = null;
-          }
-
-          final double xPos = resultSet.getDouble("x");
-          final double yPos = resultSet.getDouble("y");
-          final double width = resultSet.getDouble("width");
-          final double height = resultSet.getDouble("height");
-          final Color color = new Color(resultSet.getInt("color"));
-          final boolean selected = resultSet.getBoolean("selected");
-          final boolean visible = resultSet.getBoolean("visible");
-
-          final INaviTextNode textNode =
-              new CTextNode(nodeId, xPos, yPos, width, height, color, selected, visible,
-                  new HashSet<CTag>(), null, provider);
-
-          if (commentId != null) {
-            commentIdToTextNode.put(commentId, textNode);
+        statement.setInt(1, view.getConfiguration().getId());
+
+        final ResultSet resultSet = statement.executeQuery();
+
+        try {
+          while (resultSet.next()) {
+            final int nodeId = resultSet.getInt("id");
+            Integer commentId = resultSet.getInt("comment_id");
+            if (resultSet.wasNull()) {
+              commentId = null;
+            }
+
+            final double xPos = resultSet.getDouble("x");
+            final double yPos = resultSet.getDouble("y");
+            final double width = resultSet.getDouble("width");
+            final double height = resultSet.getDouble("height");
+            final Color color = new Color(resultSet.getInt("color"));
+            final boolean selected = resultSet.getBoolean("selected");
+            final boolean visible = resultSet.getBoolean("visible");
+
+            final INaviTextNode textNode =
+                new CTextNode(nodeId, xPos, yPos, width, height, color, selected, visible,
+                    new HashSet<CTag>(), null, provider);
+
+            if (commentId != null) {
+              commentIdToTextNode.put(commentId, textNode);
+            }
+
+            nodes.add(textNode);
           }
-
-          nodes.add(textNode);
+        } finally {
+          resultSet.close();
         }
       } finally {
-        resultSet.close();
+        provider.getConnection().releaseStatement(statement);
       }
 
       if (!commentIdToTextNode.isEmpty()) {
@@ -17,10 +17,11 @@ package com.google.security.zynamics.binnavi.Database.PostgreSQL.Loaders;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import com.google.common.base.Preconditions;
-import com.google.common.collect.Lists;
 import com.google.security.zynamics.binnavi.Database.AbstractSQLProvider;
 import com.google.security.zynamics.binnavi.Database.CConnection;
 import com.google.security.zynamics.binnavi.Database.CTableNames;
@@ -31,6 +32,8 @@ import com.google.security.zynamics.binnavi.debug.models.trace.TraceEvent;
 import com.google.security.zynamics.binnavi.debug.models.trace.TraceList;
 import com.google.security.zynamics.binnavi.debug.models.trace.TraceRegister;
 import com.google.security.zynamics.binnavi.debug.models.trace.TraceEventType;
+import com.google.security.zynamics.binnavi.debug.models.trace.interfaces.ITraceEvent;
+import com.google.security.zynamics.binnavi.debug.models.trace.interfaces.ITraceEventLoader;
 import com.google.security.zynamics.binnavi.disassembly.UnrelocatedAddress;
 import com.google.security.zynamics.binnavi.disassembly.INaviModule;
 import com.google.security.zynamics.zylib.disassembly.CAddress;
@@ -49,121 +52,8 @@ public final class PostgreSQLTracesLoader {
   }
 
   /**
-   * Searches for a module with the given ID.
-   *
-   * @param modules The modules to search through.
-   * @param moduleId Module ID to search for.
-   *
-   * @return The module with the ID or null if no module was found.
-   */
-  private static INaviModule findModule(final List<? extends INaviModule> modules,
-      final int moduleId) {
-    for (final INaviModule module : modules) {
-      if (module.getConfiguration().getId() == moduleId) {
-        return module;
-      }
-    }
-
-    return null;
-  }
-
-  /**
-   * Loads the trace events of a trace list from the database.
-   *
-   * @param connection The connection to the database.
-   * @param traceList The trace list whose events are loaded.
-   * @param modules List of all modules stored in the database.
-   *
-   * @throws SQLException Thrown if the trace events could not be loaded.
-   */
-  private static void loadTraceEvents(final CConnection connection, final TraceList traceList,
-      final List<? extends INaviModule> modules) throws SQLException {
-    final List<List<TraceRegister>> values = loadTraceEventValues(connection, traceList);
-
-    final String query = "select tid, module_id, address, type from "
-        + CTableNames.TRACE_EVENT_TABLE + " where trace_id = " + traceList.getId()
-        + " order by position asc";
-
-    final ResultSet resultSet = connection.executeQuery(query, true);
-
-    int counter = 0;
-
-    try {
-      while (resultSet.next()) {
-        final long tid = resultSet.getLong("tid");
-
-        final int moduleId = resultSet.getInt("module_id");
-        final INaviModule module = resultSet.wasNull() ? null : findModule(modules, moduleId);
-
-        final BreakpointAddress address = new BreakpointAddress(module,
-            new UnrelocatedAddress(PostgreSQLHelpers.loadAddress(resultSet, "address")));
-        final int event = resultSet.getInt("type");
-
-        traceList.addEvent(new TraceEvent(tid, address, TraceEventType.parseInt(event),
-            values.isEmpty() ? new ArrayList<TraceRegister>() : values.get(counter)));
-        counter++;
-      }
-    } finally {
-      resultSet.close();
-    }
-  }
-
-  /**
-   * Loads the event values of a trace from the database.
-   *
-   * @param connection Connection to the database.
-   * @param traceList The trace to load.
-   *
-   * @return The event values.
-   *
-   * @throws SQLException Thrown if the values could not be loaded.
-   */
-  private static List<List<TraceRegister>> loadTraceEventValues(final CConnection connection,
-      final TraceList traceList) throws SQLException {
-    final List<List<TraceRegister>> values = new ArrayList<>();
-
-    final String query = "select position, register_name, register_value, memory_value from "
-        + CTableNames.TRACE_EVENT_VALUES_TABLE + " where trace_id = " + traceList.getId()
-        + " order by position asc";
-
-    final ResultSet resultSet = connection.executeQuery(query, true);
-
-    int currentPosition = -1;
-
-    try {
-      List<TraceRegister> registers = new ArrayList<TraceRegister>();
-
-      while (resultSet.next()) {
-        final int position = resultSet.getInt("position");
-
-        if (position != currentPosition) {
-          if (!registers.isEmpty()) {
-            values.add(Lists.newArrayList(registers));
-            registers = new FilledList<TraceRegister>();
-          }
-
-          currentPosition = position;
-        }
-
-        final String name = PostgreSQLHelpers.readString(resultSet, "register_name");
-        final long value = resultSet.getLong("register_value");
-        final byte[] memory = resultSet.getBytes("memory_value");
-
-        registers.add(new TraceRegister(name, new CAddress(value), memory));
-      }
-
-      if (!registers.isEmpty()) {
-        values.add(Lists.newArrayList(registers));
-      }
-    } finally {
-      resultSet.close();
-    }
-
-    return values;
-  }
-
-  /**
-   * Loads all traces of a view container.
+   * Loads all traces of a view container. Only the metadata of the traces is loaded, the trace
+   * events are loaded on demand when they are accessed.
    *
    * @param provider The connection to the database.
    * @param tableName The table name of the view container.
@@ -182,12 +72,16 @@ public final class PostgreSQLTracesLoader {
     Preconditions.checkNotNull(tableName, "IE00591: Table name argument can not be null");
     Preconditions.checkNotNull(columnName, "IE00592: Column name argument can not be null");
 
-    final String query = "select id, name, description from " + CTableNames.TRACES_TABLE + " join "
-        + tableName + " on " + tableName + ".trace_id = " + CTableNames.TRACES_TABLE + ".id where "
-        + tableName + "." + columnName + " = " + containerId;
+    final String query = "select id, name, description, "
+        + "(select coalesce(max(position) + 1, 0) from " + CTableNames.TRACE_EVENT_TABLE + " where trace_id = " + CTableNames.TRACES_TABLE
+        + ".id) as event_count from " + CTableNames.TRACES_TABLE + " join " + tableName + " on "
+        + tableName + ".trace_id = " + CTableNames.TRACES_TABLE + ".id where " + tableName + "."
+        + columnName + " = " + containerId;
 
     final CConnection connection = provider.getConnection();
 
+    final TraceEventLoader loader = new TraceEventLoader(connection, modules);
+
     final IFilledList<TraceList> traces = new FilledList<TraceList>();
 
     try {
@@ -199,11 +93,9 @@ public final class PostgreSQLTracesLoader {
           final String name = PostgreSQLHelpers.readString(resultSet, "name");
           final String description = PostgreSQLHelpers.readString(resultSet, "description");
 
-          final TraceList traceList = new TraceList(traceId, name, description, provider);
+          final int eventCount = resultSet.getInt("event_count");
 
-          loadTraceEvents(connection, traceList, modules);
-
-          traces.add(traceList);
+          traces.add(new TraceList(traceId, name, description, provider, loader, eventCount));
         }
       } finally {
         resultSet.close();
@@ -214,4 +106,125 @@ public final class PostgreSQLTracesLoader {
 
     return traces;
   }
+
+  /**
+   * Loads pages of trace events from the database. Pages are selected by a range of event
+   * positions, so every page is read through the primary key index of the event tables no matter
+   * how far into the trace it is.
+   */
+  private static final class TraceEventLoader implements ITraceEventLoader {
+    /**
+     * The connection to the database.
+     */
+    private final CConnection connection;
+
+    /**
+     * Modules stored in the database, indexed by module ID.
+     */
+    private final Map<Integer, INaviModule> modules = new HashMap<>();
+
+    /**
+     * Creates a new event loader.
+     *
+     * @param connection The connection to the database.
+     * @param modules List of all modules stored in the database.
+     */
+    private TraceEventLoader(final CConnection connection,
+        final List<? extends INaviModule> modules) {
+      this.connection = connection;
+
+      for (final INaviModule module : modules) {
+        this.modules.put(module.getConfiguration().getId(), module);
+      }
+    }
+
+    /**
+     * Loads the event values of a range of trace events.
+     *
+     * @param traceList The trace whose event values are loaded.
+     * @param fromPosition Position of the first event.
+     * @param toPosition Position after the last event.
+     *
+     * @return The event values, indexed by event position.
+     *
+     * @throws SQLException Thrown if the values could not be loaded.
+     */
+    private Map<Integer, List<TraceRegister>> loadEventValues(final TraceList traceList,
+        final int fromPosition, final int toPosition) throws SQLException {
+      final Map<Integer, List<TraceRegister>> values = new HashMap<>();
+
+      final String query = "select position, register_name, register_value, memory_value from "
+          + CTableNames.TRACE_EVENT_VALUES_TABLE + " where trace_id = " + traceList.getId()
+          + " and position >= " + fromPosition + " and position < " + toPosition
+          + " order by position asc";
+
+      final ResultSet resultSet = connection.executeQuery(query, true);
+
+      try {
+        while (resultSet.next()) {
+          final int position = resultSet.getInt("position");
+
+          List<TraceRegister> registers = values.get(position);
+
+          if (registers == null) {
+            registers = new ArrayList<>();
+            values.put(position, registers);
+          }
+
+          final String name = PostgreSQLHelpers.readString(resultSet, "register_name");
+          final long value = resultSet.getLong("register_value");
+          final byte[] memory = resultSet.getBytes("memory_value");
+
+          registers.add(new TraceRegister(name, new CAddress(value), memory));
+        }
+      } finally {
+        resultSet.close();
+      }
+
+      return values;
+    }
+
+    @Override
+    public List<ITraceEvent> loadEvents(final TraceList traceList, final int fromPosition,
+        final int toPosition) throws CouldntLoadDataException {
+      final List<ITraceEvent> events = new ArrayList<>(toPosition - fromPosition);
+
+      try {
+        final Map<Integer, List<TraceRegister>> values =
+            loadEventValues(traceList, fromPosition, toPosition);
+
+        final String query = "select position, tid, module_id, address, type from "
+            + CTableNames.TRACE_EVENT_TABLE + " where trace_id = " + traceList.getId()
+            + " and position >= " + fromPosition + " and position < " + toPosition
+            + " order by position asc";
+
+        final ResultSet resultSet = connection.executeQuery(query, true);
+
+        try {
+          while (resultSet.next()) {
+            final int position = resultSet.getInt("position");
+            final long tid = resultSet.getLong("tid");
+
+            final int moduleId = resultSet.getInt("module_id");
+            final INaviModule module = resultSet.wasNull() ? null : modules.get(moduleId);
+
+            final BreakpointAddress address = new BreakpointAddress(module,
+                new UnrelocatedAddress(PostgreSQLHelpers.loadAddress(resultSet, "address")));
+            final int event = resultSet.getInt("type");
+
+            final List<TraceRegister> registers = values.get(position);
+
+            events.add(new TraceEvent(tid, address, TraceEventType.parseInt(event),
+                registers == null ? new ArrayList<TraceRegister>() : registers));
+          }
+        } finally {
+          resultSet.close();
+        }
+      } catch (final SQLException exception) {
+        throw new CouldntLoadDataException(exception);
+      }
+
+      return events;
+    }
+  }
 }
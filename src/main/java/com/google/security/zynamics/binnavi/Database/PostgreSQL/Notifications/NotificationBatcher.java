@@ -0,0 +1,130 @@
+// Copyright 2011-2016 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.google.security.zynamics.binnavi.Database.PostgreSQL.Notifications;
+
+import org.postgresql.PGNotification;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Collects received database notifications into batches. While notifications keep arriving, they
+ * are collected into one batch so that repeated changes of the same object are processed once and
+ * the follow-up queries of the batch can be combined. A batch is due once a poll brings no new
+ * notifications or once its oldest notification is older than the coalescing window.
+ */
+final class NotificationBatcher {
+  /**
+   * Maximum number of milliseconds notifications are collected before they are processed.
+   */
+  private final long m_window;
+
+  /**
+   * Notifications that were received but not yet processed, keyed by channel and payload. A
+   * notification with the same channel and payload as a pending one describes the same change of
+   * the same object, so only the latest of them is kept at the position of the latest one.
+   */
+  private final Map<String, PGNotification> m_pendingNotifications = new LinkedHashMap<>();
+
+  /**
+   * Number of notifications received for the pending batch, including coalesced ones.
+   */
+  private int m_receivedNotifications = 0;
+
+  /**
+   * Time in nanoseconds at which the oldest pending notification was received.
+   */
+  private long m_batchStart = 0;
+
+  /**
+   * Creates a new batcher.
+   *
+   * @param window Maximum number of milliseconds notifications are collected before they are
+   *        processed.
+   */
+  NotificationBatcher(final long window) {
+    m_window = window;
+  }
+
+  /**
+   * Adds a received notification to the pending batch.
+   *
+   * @param notification The received notification.
+   * @param time Time in nanoseconds at which the notification was received.
+   */
+  void add(final PGNotification notification, final long time) {
+    if (m_pendingNotifications.isEmpty()) {
+      m_batchStart = time;
+    }
+
+    final String key = notification.getName() + " " + notification.getParameter();
+    m_pendingNotifications.remove(key);
+    m_pendingNotifications.put(key, notification);
+    m_receivedNotifications++;
+  }
+
+  /**
+   * Returns the time at which the oldest notification of the pending batch was received.
+   *
+   * @return The start of the pending batch in nanoseconds.
+   */
+  long getBatchStart() {
+    return m_batchStart;
+  }
+
+  /**
+   * Returns the number of notifications received for the pending batch.
+   *
+   * @return The number of received notifications, including coalesced ones.
+   */
+  int getReceivedNotifications() {
+    return m_receivedNotifications;
+  }
+
+  /**
+   * Returns whether the pending batch should be processed now.
+   *
+   * @param received True, if the last poll brought new notifications.
+   * @param time The current time in nanoseconds.
+   *
+   * @return True, if the pending batch is due. False, if it is empty or still collecting.
+   */
+  boolean isDue(final boolean received, final long time) {
+    if (m_pendingNotifications.isEmpty()) {
+      return false;
+    }
+
+    return !received || (TimeUnit.NANOSECONDS.toMillis(time - m_batchStart) >= m_window);
+  }
+
+  /**
+   * Removes the pending batch.
+   *
+   * @return The notifications of the batch in the order of their latest arrival.
+   */
+  Collection<PGNotification> take() {
+    final Collection<PGNotification> notifications =
+        new ArrayList<>(m_pendingNotifications.values());
+
+    m_pendingNotifications.clear();
+    m_receivedNotifications = 0;
+
+    return notifications;
+  }
+}
@@ -0,0 +1,93 @@
+// Copyright 2011-2016 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.security.zynamics.binnavi.Database.PostgreSQL.Notifications;
+
+/**
+ * Collects statistics about the database notifications processed by a
+ * {@link PostgreSQLNotificationProvider}. The lag of a batch is the time between the arrival of the
+ * oldest notification of the batch and the end of its processing.
+ */
+public final class NotificationStatistics {
+  /**
+   * Number of notifications received from the database.
+   */
+  private long receivedNotifications = 0;
+
+  /**
+   * Number of received notifications that were dropped because a later notification in the same
+   * batch described the same change.
+   */
+  private long coalescedNotifications = 0;
+
+  /**
+   * Number of processed notification batches.
+   */
+  private long processedBatches = 0;
+
+  /**
+   * Sum of the lags of all processed batches in milliseconds.
+   */
+  private long totalLag = 0;
+
+  /**
+   * Lag of the last processed batch in milliseconds.
+   */
+  private long lastLag = 0;
+
+  /**
+   * Largest lag of any processed batch in milliseconds.
+   */
+  private long maximumLag = 0;
+
+  /**
+   * Records a processed notification batch.
+   *
+   * @param received Number of notifications received for the batch.
+   * @param processed Number of notifications left after coalescing.
+   * @param lag Lag of the batch in milliseconds.
+   */
+  synchronized void recordBatch(final int received, final int processed, final long lag) {
+    receivedNotifications += received;
+    coalescedNotifications += received - processed;
+    processedBatches++;
+    totalLag += lag;
+    lastLag = lag;
+    maximumLag = Math.max(maximumLag, lag);
+  }
+
+  public synchronized long getAverageLag() {
+    return processedBatches == 0 ? 0 : totalLag / processedBatches;
+  }
+
+  public synchronized long getCoalescedNotifications() {
+    return coalescedNotifications;
+  }
+
+  public synchronized long getLastLag() {
+    return lastLag;
+  }
+
+  public synchronized long getMaximumLag() {
+    return maximumLag;
+  }
+
+  public synchronized long getProcessedBatches() {
+    return processedBatches;
+  }
+
+  public synchronized long getReceivedNotifications() {
+    return receivedNotifications;
+  }
+}
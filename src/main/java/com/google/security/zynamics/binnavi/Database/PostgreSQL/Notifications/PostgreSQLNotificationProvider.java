@@ -58,6 +58,16 @@ import java.util.concurrent.TimeUnit;
  * BinNavi can but not must react.
  */
 public class PostgreSQLNotificationProvider {
+  /**
+   * Milliseconds between two polls of the notification queue.
+   */
+  private static final long POLL_INTERVAL = 100;
+
+  /**
+   * Maximum number of milliseconds notifications are collected before they are processed.
+   */
+  private static final long COALESCING_WINDOW = 500;
+
   /**
    * The set of channels for which we want to receive notifications.
    */
@@ -90,6 +100,11 @@ public class PostgreSQLNotificationProvider {
   private final ListenerProvider<PostgreSQLNotificationListener> m_listeners =
       new ListenerProvider<>();
 
+  /**
+   * Statistics about the processed notifications.
+   */
+  private final NotificationStatistics m_statistics = new NotificationStatistics();
+
   /**
    * Keeps track of all notification providers. One for each database.
    */
@@ -242,6 +257,15 @@ public class PostgreSQLNotificationProvider {
     return ImmutableSet.copyOf(m_channels);
   }
 
+  /**
+   * Returns the statistics about the notifications processed by this provider.
+   *
+   * @return The notification statistics.
+   */
+  public NotificationStatistics getStatistics() {
+    return m_statistics;
+  }
+
   /**
    * Adds the set of channel names to the set of listened channels.
    *
@@ -264,7 +288,8 @@ public class PostgreSQLNotificationProvider {
    * Activates the scheduler and queues the notification poller.
    */
   public synchronized void startPolling() {
-    m_scheduler.scheduleAtFixedRate(m_notificationPoller, 0, 500, TimeUnit.MILLISECONDS);
+    m_scheduler.scheduleAtFixedRate(m_notificationPoller, 0, POLL_INTERVAL,
+        TimeUnit.MILLISECONDS);
   }
 
   /**
@@ -298,16 +323,15 @@ public class PostgreSQLNotificationProvider {
     private final Set<NotificationChannel> m_currentListenedChannels =
         new HashSet<>();
 
-    public CNotificationQueuePoller() {}
+    /**
+     * Collects the received notifications into batches.
+     */
+    private final NotificationBatcher m_batcher = new NotificationBatcher(COALESCING_WINDOW);
 
-    private void poll() throws SQLException, CouldntLoadDataException {
-      final org.postgresql.PGNotification notifications[] =
-          ((org.postgresql.PGConnection) m_connection.getConnection()).getNotifications();
-
-      if (notifications == null) {
-        return;
-      }
+    public CNotificationQueuePoller() {}
 
+    private void process(final Collection<PGNotification> notifications)
+        throws CouldntLoadDataException {
       final Collection<PGNotification> commentNotifications = Lists.newArrayList();
       final Collection<PGNotification> viewNotifications = Lists.newArrayList();
       final Collection<PGNotification> functionNotifications = Lists.newArrayList();
@@ -315,10 +339,6 @@ public class PostgreSQLNotificationProvider {
       final Collection<PGNotification> typeInstanceNotifications = Lists.newArrayList();
 
       for (final PGNotification notification : notifications) {
-        if (notification.getPID() == m_backendPID) {
-          continue; // In this case we are not really interested about the notification as we have
-                    // triggered the change
-        }
         if (notification.getName().equalsIgnoreCase(NotificationChannel.comment_changes.name())) {
           commentNotifications.add(notification);
           continue;
@@ -369,6 +389,59 @@ public class PostgreSQLNotificationProvider {
       typeInstancesParser.inform(parsedTypeInstanceNotifications, m_provider);
     }
 
+    /**
+     * Moves the notifications that arrived since the last poll to the pending notifications.
+     *
+     * @return True, if new notifications arrived. False, otherwise.
+     */
+    private boolean receive() throws SQLException {
+      final org.postgresql.PGNotification notifications[] =
+          ((org.postgresql.PGConnection) m_connection.getConnection()).getNotifications();
+
+      if (notifications == null) {
+        return false;
+      }
+
+      boolean received = false;
+
+      for (final PGNotification notification : notifications) {
+        if (notification.getPID() == m_backendPID) {
+          continue; // In this case we are not really interested about the notification as we have
+                    // triggered the change
+        }
+        m_batcher.add(notification, System.nanoTime());
+        received = true;
+      }
+
+      return received;
+    }
+
+    private void poll() throws SQLException, CouldntLoadDataException {
+      final boolean received = receive();
+
+      // Keep collecting while notifications arrive, but never longer than the coalescing window.
+      if (!m_batcher.isDue(received, System.nanoTime())) {
+        return;
+      }
+
+      final int receivedNotifications = m_batcher.getReceivedNotifications();
+      final long batchStart = m_batcher.getBatchStart();
+      final Collection<PGNotification> notifications = m_batcher.take();
+
+      try {
+        process(notifications);
+      } finally {
+        final long lag = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - batchStart);
+        m_statistics.recordBatch(receivedNotifications, notifications.size(), lag);
+
+        // Batches are always delayed by the coalescing window, only slow processing is reported.
+        if (lag > COALESCING_WINDOW + POLL_INTERVAL) {
+          NaviLogger.info("Processed %d of %d database notifications with a lag of %d ms",
+              notifications.size(), receivedNotifications, lag);
+        }
+      }
+    }
+
     private void syncListenedChannels() {
       if (m_channels.equals(m_currentListenedChannels)) {
         return;
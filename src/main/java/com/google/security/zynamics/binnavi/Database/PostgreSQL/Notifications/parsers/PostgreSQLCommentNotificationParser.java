@@ -57,6 +57,7 @@ import org.postgresql.PGNotification;
 import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashSet;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -770,82 +771,128 @@ public class PostgreSQLCommentNotificationParser implements
         "Error: commentNotifications argument can not be null");
     Preconditions.checkNotNull(provider, "IE02524: provider argument can not be null");
 
-    for (final PGNotification notification : commentNotifications) {
-      final String notificationParameter = notification.getParameter();
-      final String tableName = notificationParameter.split("\\s")[0];
+    final Collection<CommentNotification> pendingNotifications = new ArrayList<>();
+
+    try {
+      for (final PGNotification notification : commentNotifications) {
+        final String notificationParameter = notification.getParameter();
+        final String tableName = notificationParameter.split("\\s")[0];
 
-      try {
         switch (tableName) {
           case CTableNames.CODENODE_INSTRUCTIONS_TABLE:
-            informNotification(
-                processNodeLocalInstructionCommentNotification(notification, provider), provider);
+            addNotification(pendingNotifications,
+                processNodeLocalInstructionCommentNotification(notification, provider));
             break;
           case CTableNames.INSTRUCTIONS_TABLE:
-            informNotification(processInstructionGlobalCommentNotification(notification, provider),
-                provider);
+            addNotification(pendingNotifications,
+                processInstructionGlobalCommentNotification(notification, provider));
             break;
           case CTableNames.CODE_NODES_TABLE:
-            informNotification(processNodeLocalNodeCommentNotification(notification, provider),
-                provider);
+            addNotification(pendingNotifications,
+                processNodeLocalNodeCommentNotification(notification, provider));
             break;
           case CTableNames.GLOBAL_NODE_COMMENTS_TABLE:
-            informNotification(processNodeGlobalCommentNotification(notification, provider),
-                provider);
+            pendingNotifications.addAll(
+                processNodeGlobalCommentNotification(notification, provider));
             break;
           case CTableNames.EDGES_TABLE:
-            informNotification(processEdgeLocalCommentNotification(notification, provider),
-                provider);
+            addNotification(pendingNotifications,
+                processEdgeLocalCommentNotification(notification, provider));
             break;
           case CTableNames.GLOBAL_EDGE_COMMENTS_TABLE:
-            informNotification(processEdgeGlobalCommentNotification(notification, provider),
-                provider);
+            pendingNotifications.addAll(
+                processEdgeGlobalCommentNotification(notification, provider));
             break;
           case CTableNames.FUNCTION_NODES_TABLE:
-            informNotification(processFunctionNodeCommentNotification(notification, provider),
-                provider);
+            addNotification(pendingNotifications,
+                processFunctionNodeCommentNotification(notification, provider));
             break;
           case CTableNames.FUNCTIONS_TABLE:
-            informNotification(processFunctionCommentNotification(notification, provider),
-                provider);
+            addNotification(pendingNotifications,
+                processFunctionCommentNotification(notification, provider));
             break;
           case CTableNames.TEXT_NODES_TABLE:
-            informNotification(processTextNodeCommentNotification(notification, provider),
-                provider);
+            addNotification(pendingNotifications,
+                processTextNodeCommentNotification(notification, provider));
             break;
           case CTableNames.GROUP_NODES_TABLE:
-            informNotification(processGroupNodeCommentNotification(notification, provider),
-                provider);
+            addNotification(pendingNotifications,
+                processGroupNodeCommentNotification(notification, provider));
             break;
           case CTableNames.TYPE_INSTANCE_TABLE:
-            informNotification(processTypeInstanceCommentNotification(notification, provider),
-                provider);
+            addNotification(pendingNotifications,
+                processTypeInstanceCommentNotification(notification, provider));
             break;
           case CTableNames.COMMENTS_TABLE:
-            informNotification(processCommentNotification(notification, provider), provider);
+            // Edits and deletes are checked against the comments known to the comment manager, so
+            // all earlier notifications must have been applied before this one is parsed.
+            informNotifications(pendingNotifications, provider);
+            pendingNotifications.clear();
+            addNotification(pendingNotifications,
+                processCommentNotification(notification, provider));
             break;
           default:
             NaviLogger.warning("Table name %s not known", tableName);
         }
-      } catch (CouldntLoadDataException exception) {
-        NaviLogger.severe(
-            "Error: Could not successfully parse the database comment notification: %s",
-            notification.toString());
       }
+    } finally {
+      // Notifications parsed before a failing one are still applied.
+      informNotifications(pendingNotifications, provider);
     }
+
     return new ArrayList<>(); // TODO(timkornau): change the interface to not return anything here.
   }
 
-  private static void informNotification(final CommentNotification notification,
-      final SQLProvider provider) throws CouldntLoadDataException {
+  private static void addNotification(final Collection<CommentNotification> notifications,
+      final CommentNotification notification) {
     if (notification != null) {
-      notification.inform(CommentManager.get(provider));
+      notifications.add(notification);
     }
   }
 
-  private static void informNotification(final Collection<CommentNotification> notifications,
-      final SQLProvider provider) throws CouldntLoadDataException {
-    for (CommentNotification notification : notifications) {
-      informNotification(notification, provider);
+  /**
+   * Informs the comment manager about a batch of parsed comment notifications. The comment chains
+   * of all appended comments in the batch are loaded with a single query before the notifications
+   * are applied in their original order.
+   *
+   * @param notifications The parsed comment notifications.
+   * @param provider The {@link SQLProvider} which is used to communicate with the database.
+   */
+  private static void informNotifications(final Collection<CommentNotification> notifications,
+      final SQLProvider provider) {
+    if (notifications.isEmpty()) {
+      return;
+    }
+
+    final CommentManager manager = CommentManager.get(provider);
+
+    final Collection<Integer> appendedCommentIds = new HashSet<>();
+    for (final CommentNotification notification : notifications) {
+      if ((notification.getOperation() == CommentOperation.APPEND)
+          && (notification.getCommentId() != null)) {
+        appendedCommentIds.add(notification.getCommentId());
+      }
+    }
+
+    try {
+      manager.prefetchAppendedComments(appendedCommentIds);
+    } catch (final CouldntLoadDataException exception) {
+      // Not fatal, every appended comment is then loaded on its own.
+      NaviLogger.warning("Error: Could not prefetch the appended comments: %s", exception);
+    }
+
+    try {
+      for (final CommentNotification notification : notifications) {
+        try {
+          notification.inform(manager);
+        } catch (final CouldntLoadDataException exception) {
+          NaviLogger.severe(
+              "Error: Could not successfully parse the database comment notification: %s",
+              notification.toString());
+        }
+      }
+    } finally {
+      manager.clearPrefetchedComments();
     }
   }
 
@@ -31,6 +31,12 @@ import org.postgresql.PGNotification;
 import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -41,16 +47,21 @@ public class PostgreSQLFunctionNotificationParser implements
       + "\\s(INSERT|UPDATE|DELETE)" + "\\s(\\d*)" + "\\s(\\d*)$";
 
   private void informFunctionNotification(final FunctionNotificationContainer container,
-      final SQLProvider provider) throws CouldntLoadDataException {
+      final SQLProvider provider,
+      final Map<Integer, Map<IAddress, INaviFunction>> databaseFunctions)
+      throws CouldntLoadDataException {
     if (container.getDatabaseOperation().equals("INSERT")) {
       return; // we do not care about function creation currently.
     } else if (container.getDatabaseOperation().equals("UPDATE")) {
       final IAddress functionAddress = container.getFunctionAddress();
       final Integer moduleId = container.getModuleId();
-      final INaviModule module = provider.findModule(moduleId);
       final INaviFunction function =
           FunctionManager.get(provider).getFunction(functionAddress, moduleId);
-      final INaviFunction databaseFunction = provider.loadFunction(module, functionAddress);
+      final INaviFunction databaseFunction =
+          databaseFunctions.get(moduleId).get(functionAddress);
+      if (databaseFunction == null) {
+        return; // the function is not in the database anymore.
+      }
 
       function.setDescriptionInternal(databaseFunction.getDescription());
       function.setNameInternal(databaseFunction.getName());
@@ -71,6 +82,59 @@ public class PostgreSQLFunctionNotificationParser implements
     }
   }
 
+  /**
+   * Loads the current database state of all functions with an update notification. The functions
+   * of each module are loaded with a single query, so a bulk change of many functions does not
+   * result in one query per function.
+   *
+   * @param containers The parsed function notifications.
+   * @param provider The {@link SQLProvider} used to access the database.
+   *
+   * @return The loaded functions indexed by module id and function address.
+   *
+   * @throws CouldntLoadDataException if the functions could not be loaded from the database.
+   */
+  private static Map<Integer, Map<IAddress, INaviFunction>> loadUpdatedFunctions(
+      final Collection<FunctionNotificationContainer> containers, final SQLProvider provider)
+      throws CouldntLoadDataException {
+    final Map<Integer, Set<IAddress>> updatedAddresses = new LinkedHashMap<>();
+    for (final FunctionNotificationContainer container : containers) {
+      if (container.getDatabaseOperation().equals("UPDATE")) {
+        if (!updatedAddresses.containsKey(container.getModuleId())) {
+          updatedAddresses.put(container.getModuleId(), new LinkedHashSet<IAddress>());
+        }
+        updatedAddresses.get(container.getModuleId()).add(container.getFunctionAddress());
+      }
+    }
+
+    final Map<Integer, Map<IAddress, INaviFunction>> databaseFunctions = new HashMap<>();
+    for (final Map.Entry<Integer, Set<IAddress>> entry : updatedAddresses.entrySet()) {
+      final INaviModule module = provider.findModule(entry.getKey());
+      final List<INaviFunction> localFunctions = new ArrayList<>();
+      for (final IAddress address : entry.getValue()) {
+        final INaviFunction function =
+            FunctionManager.get(provider).getFunction(address, entry.getKey());
+        if (function != null) {
+          localFunctions.add(function);
+        }
+      }
+
+      final Map<IAddress, INaviFunction> moduleFunctions = new HashMap<>();
+      for (final INaviFunction function :
+          provider.loadFunctionsByAddress(module, entry.getValue())) {
+        moduleFunctions.put(function.getAddress(), function);
+      }
+      databaseFunctions.put(entry.getKey(), moduleFunctions);
+
+      // Loaded functions register themselves with the function manager, but the notifications must
+      // update the functions that were already loaded.
+      for (final INaviFunction function : localFunctions) {
+        FunctionManager.get(provider).putFunction(function);
+      }
+    }
+    return databaseFunctions;
+  }
+
   private FunctionNotificationContainer parseFunctionNotification(final PGNotification notification,
       final SQLProvider provider) {
 
@@ -95,8 +159,11 @@ public class PostgreSQLFunctionNotificationParser implements
         "Error: parsedFunctionNotifications argument can not be null");
     Preconditions.checkNotNull(provider, "IE02740: provider argument can not be null");
 
+    final Map<Integer, Map<IAddress, INaviFunction>> databaseFunctions =
+        loadUpdatedFunctions(parsedFunctionNotifications, provider);
+
     for (final FunctionNotificationContainer container : parsedFunctionNotifications) {
-      informFunctionNotification(container, provider);
+      informFunctionNotification(container, provider, databaseFunctions);
     }
   }
 
@@ -14,7 +14,11 @@
 
 package com.google.security.zynamics.binnavi.Database.PostgreSQL.Savers;
 
+import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 
 
@@ -28,6 +32,7 @@ import com.google.security.zynamics.binnavi.Database.PostgreSQL.PostgreSQLHelper
 import com.google.security.zynamics.binnavi.disassembly.INaviEdge;
 import com.google.security.zynamics.binnavi.disassembly.INaviViewNode;
 import com.google.security.zynamics.binnavi.disassembly.views.CView;
+import com.google.security.zynamics.binnavi.disassembly.views.CViewContent;
 
 public final class PostgreSQLViewSaver {
   /**
@@ -59,6 +64,163 @@ public final class PostgreSQLViewSaver {
     connection.executeUpdate(query, true);
   }
 
+  /**
+   * Checks whether every statement of an executed batch updated exactly one row.
+   *
+   * @param updateCounts The update counts returned by the batch.
+   *
+   * @return True, if every statement updated exactly one row. False, otherwise.
+   */
+  private static boolean updatedSingleRows(final int[] updateCounts) {
+    for (final int updateCount : updateCounts) {
+      if ((updateCount != 1) && (updateCount != Statement.SUCCESS_NO_INFO)) {
+        return false;
+      }
+    }
+
+    return true;
+  }
+
+  /**
+   * Writes the coordinates, bends, and appearance of changed edges to the database.
+   *
+   * @param connection The connection to the database.
+   * @param edges The changed edges.
+   *
+   * @return True, if the rows of all edges were updated. False, if at least one edge has no row.
+   *
+   * @throws SQLException Thrown if the edges could not be updated.
+   */
+  private static boolean updateEdges(final CConnection connection,
+      final Collection<INaviEdge> edges) throws SQLException {
+    final String updateQuery = "UPDATE " + CTableNames.EDGES_TABLE
+        + " SET x1 = ?, y1 = ?, x2 = ?, y2 = ?, color = ?, visible = ?, selected = ?"
+        + " WHERE id = ?";
+
+    try (PreparedStatement statement = connection.getConnection().prepareStatement(updateQuery)) {
+      for (final INaviEdge edge : edges) {
+        statement.setDouble(1, edge.getX1());
+        statement.setDouble(2, edge.getY1());
+        statement.setDouble(3, edge.getX2());
+        statement.setDouble(4, edge.getY2());
+        statement.setInt(5, edge.getColor().getRGB());
+        statement.setBoolean(6, edge.isVisible());
+        statement.setBoolean(7, edge.isSelected());
+        statement.setInt(8, edge.getId());
+        statement.addBatch();
+      }
+
+      if (!updatedSingleRows(statement.executeBatch())) {
+        return false;
+      }
+    }
+
+    final String deleteQuery =
+        "DELETE FROM " + CTableNames.EDGE_PATHS_TABLE + " WHERE edge_id = ?";
+
+    try (PreparedStatement statement = connection.getConnection().prepareStatement(deleteQuery)) {
+      for (final INaviEdge edge : edges) {
+        statement.setInt(1, edge.getId());
+        statement.addBatch();
+      }
+
+      statement.executeBatch();
+    }
+
+    PostgreSQLEdgeSaver.fillEdgepathsTable(connection, new ArrayList<INaviEdge>(edges));
+
+    return true;
+  }
+
+  /**
+   * Writes the position, size, and appearance of changed nodes to the database.
+   *
+   * @param connection The connection to the database.
+   * @param viewId ID of the view the nodes belong to.
+   * @param nodes The changed nodes.
+   *
+   * @return True, if the rows of all nodes were updated. False, if at least one node has no row.
+   *
+   * @throws SQLException Thrown if the nodes could not be updated.
+   */
+  private static boolean updateNodes(final CConnection connection, final int viewId,
+      final Collection<INaviViewNode> nodes) throws SQLException {
+    final String query = "UPDATE " + CTableNames.NODES_TABLE
+        + " SET x = ?, y = ?, width = ?, height = ?, color = ?, bordercolor = ?, selected = ?,"
+        + " visible = ? WHERE id = ? AND view_id = ?";
+
+    try (PreparedStatement statement = connection.getConnection().prepareStatement(query)) {
+      for (final INaviViewNode node : nodes) {
+        statement.setDouble(1, node.getX());
+        statement.setDouble(2, node.getY());
+        statement.setDouble(3, node.getWidth());
+        statement.setDouble(4, node.getHeight());
+        statement.setInt(5, node.getColor().getRGB());
+        statement.setInt(6, node.getBorderColor().getRGB());
+        statement.setBoolean(7, node.isSelected());
+        statement.setBoolean(8, node.isVisible());
+        statement.setInt(9, node.getId());
+        statement.setInt(10, viewId);
+        statement.addBatch();
+      }
+
+      return updatedSingleRows(statement.executeBatch());
+    }
+  }
+
+  /**
+   * Writes only the nodes and edges of a view that changed since the view was last loaded or
+   * saved. This is only possible if no nodes or edges were added or removed in the meantime
+   * because the full save operation assigns new IDs to all nodes and edges.
+   *
+   * @param connection The connection to the database.
+   * @param viewId ID of the view to save.
+   * @param content Content of the view to save.
+   *
+   * @return True, if the changes were written. False, if the database rows do not match the view
+   *         anymore and the view must be written completely.
+   */
+  private static boolean saveChanges(final CConnection connection, final int viewId,
+      final CViewContent content) {
+    final Collection<INaviViewNode> nodes = content.getChangedNodes();
+    final Collection<INaviEdge> edges = content.getChangedEdges();
+
+    for (final INaviViewNode node : nodes) {
+      if (node.getId() <= 0) {
+        return false;
+      }
+    }
+
+    for (final INaviEdge edge : edges) {
+      if (edge.getId() <= 0) {
+        return false;
+      }
+    }
+
+    if (nodes.isEmpty() && edges.isEmpty()) {
+      return true;
+    }
+
+    try {
+      PostgreSQLHelpers.beginTransaction(connection);
+
+      if (updateNodes(connection, viewId, nodes) && updateEdges(connection, edges)) {
+        PostgreSQLHelpers.endTransaction(connection);
+        return true;
+      }
+    } catch (final SQLException exception) {
+      CUtilityFunctions.logException(exception);
+    }
+
+    try {
+      PostgreSQLHelpers.rollback(connection);
+    } catch (final SQLException exception) {
+      CUtilityFunctions.logException(exception);
+    }
+
+    return false;
+  }
+
   /**
    * Saves a view to the database.
    * 
@@ -73,11 +235,16 @@ public final class PostgreSQLViewSaver {
 
     final CConnection connection = provider.getConnection();
 
+    final int viewId = view.getConfiguration().getId();
+    final CViewContent content = (CViewContent) view.getContent();
+
+    if (!content.hasStructuralChanges() && saveChanges(connection, viewId, content)) {
+      return;
+    }
+
     try {
       PostgreSQLHelpers.beginTransaction(connection);
 
-      final int viewId = view.getConfiguration().getId();
-
       final List<INaviViewNode> nodes = view.getGraph().getNodes();
       final List<INaviEdge> edges = view.getGraph().getEdges();
 
@@ -0,0 +1,58 @@
+// Copyright 2011-2016 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.security.zynamics.binnavi.Database.cache;
+
+import com.google.security.zynamics.zylib.disassembly.IAddress;
+
+/**
+ * Cache key that identifies an address in a module. The module id and the address are stored as
+ * primitive values, so keys are cheap to create, hash, and compare.
+ */
+final class AddressKey {
+  /**
+   * The database id of the module.
+   */
+  private final int moduleId;
+
+  /**
+   * The address in the module.
+   */
+  private final long address;
+
+  /**
+   * Creates a new key.
+   *
+   * @param address The address in the module.
+   * @param moduleId The database id of the module.
+   */
+  AddressKey(final IAddress address, final int moduleId) {
+    this.address = address.toLong();
+    this.moduleId = moduleId;
+  }
+
+  @Override
+  public boolean equals(final Object other) {
+    if (!(other instanceof AddressKey)) {
+      return false;
+    }
+    final AddressKey key = (AddressKey) other;
+    return (address == key.address) && (moduleId == key.moduleId);
+  }
+
+  @Override
+  public int hashCode() {
+    return 31 * (int) (address ^ (address >>> 32)) + moduleId;
+  }
+}
@@ -0,0 +1,116 @@
+// Copyright 2011-2016 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.security.zynamics.binnavi.Database.cache;
+
+import com.google.common.base.Preconditions;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.Weigher;
+
+/**
+ * Settings shared by the instruction, node, and edge caches of all databases. Changed settings only
+ * apply to caches that are created afterwards, that is to databases that are connected afterwards.
+ *
+ * Each cache consists of two layers. The registry layer maps ids to all live objects. It holds its
+ * values weakly and is not bounded, because notifications about changes in the database are only
+ * applied to objects that are found in it. The retention layer is optional and holds recently
+ * used objects softly, so recently closed views are still in the registry when they are reopened.
+ * Only the retention layer is limited by weight. One weight unit roughly corresponds to one
+ * instruction or one operand tree node.
+ */
+public final class CacheSettings {
+  /**
+   * Default maximum weight of each retention layer.
+   */
+  public static final int DEFAULT_MAXIMUM_WEIGHT = 4000000;
+
+  /**
+   * Maximum weight of each retention layer.
+   */
+  private static int maximumWeight = DEFAULT_MAXIMUM_WEIGHT;
+
+  /**
+   * Flag that indicates whether cached objects are softly retained.
+   */
+  private static boolean softValues = false;
+
+  /**
+   * You are not supposed to instantiate this class.
+   */
+  private CacheSettings() {
+  }
+
+  /**
+   * Creates a cache builder for a registry layer. The registry holds its values weakly, so objects
+   * are removed once they are no longer referenced from elsewhere.
+   *
+   * @return The configured cache builder.
+   */
+  static CacheBuilder<Object, Object> newRegistryBuilder() {
+    return CacheBuilder.newBuilder().weakValues().recordStats();
+  }
+
+  /**
+   * Creates a cache builder for a retention layer that is configured according to the current
+   * settings. Without soft retention the layer retains nothing.
+   *
+   * @param weigher Determines the weight of the retained objects.
+   *
+   * @return The configured cache builder.
+   */
+  static synchronized <K, V> CacheBuilder<K, V> newRetentionBuilder(
+      final Weigher<? super K, ? super V> weigher) {
+    final CacheBuilder<Object, Object> builder =
+        CacheBuilder.newBuilder().maximumWeight(softValues ? maximumWeight : 0).softValues();
+    return builder.weigher(weigher);
+  }
+
+  /**
+   * Returns the maximum weight of each retention layer.
+   *
+   * @return The maximum weight of each retention layer.
+   */
+  public static synchronized int getMaximumWeight() {
+    return maximumWeight;
+  }
+
+  /**
+   * Determines whether cached objects are softly retained.
+   *
+   * @return True, if cached objects are softly retained. False, if they are only retained while
+   *         they are referenced from elsewhere.
+   */
+  public static synchronized boolean isSoftValues() {
+    return softValues;
+  }
+
+  /**
+   * Changes the maximum weight of each retention layer.
+   *
+   * @param weight The new maximum weight.
+   */
+  public static synchronized void setMaximumWeight(final int weight) {
+    Preconditions.checkArgument(weight > 0, "IE03446: Weight argument must be positive");
+    maximumWeight = weight;
+  }
+
+  /**
+   * Changes whether cached objects are softly retained.
+   *
+   * @param soft True, to retain cached objects softly.
+   */
+  public static synchronized void setSoftValues(final boolean soft) {
+    softValues = soft;
+  }
+}
@@ -18,9 +18,11 @@ import com.google.common.base.Function;
 import com.google.common.base.Preconditions;
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.cache.Weigher;
 import com.google.common.collect.ImmutableCollection;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
-import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.security.zynamics.binnavi.Database.Interfaces.SQLProvider;
 import com.google.security.zynamics.binnavi.Database.Interfaces.SQLProviderListener;
@@ -34,61 +36,39 @@ import com.google.security.zynamics.zylib.disassembly.IAddress;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
 
 public class EdgeCache {
 
-  private class EdgeIdentifier {
-    private IAddress sourceAddress;
-    private Integer sourceModuleId;
-    private IAddress targetAddress;
-    private Integer targetModuleId;
-
-    public EdgeIdentifier(final IAddress sourceAddress, final Integer sourceModuleId,
-        final IAddress targetAddress, final Integer targetModuleId) {
-      this.sourceAddress = sourceAddress;
-      this.sourceModuleId = sourceModuleId;
-      this.targetAddress = targetAddress;
-      this.targetModuleId = targetModuleId;
-    }
-
-    @Override
-    public int hashCode() {
-      return Objects.hash(this.sourceAddress, this.sourceModuleId, this.targetAddress,
-          this.targetModuleId);
-    }
-
-    @Override
-    public boolean equals(Object other) {
-      if (this == other) {
-        return true;
-      }
-      if (other instanceof EdgeIdentifier) {
-        return Objects.equals(sourceAddress, ((EdgeIdentifier) other).sourceAddress)
-            && Objects.equals(sourceModuleId, ((EdgeIdentifier) other).sourceModuleId)
-            && Objects.equals(targetAddress, ((EdgeIdentifier) other).targetAddress)
-            && Objects.equals(targetModuleId, ((EdgeIdentifier) other).targetModuleId);
-      }
-      return false;
-    }
-  }
-
   private static Map<SQLProvider, EdgeCache> caches = new HashMap<>();
 
   /**
-   * The edges by id cache stores weak values of the actual edges to evict them from the cache when
-   * no further references exist which reference them.
+   * Weighs all edges equally.
+   */
+  private static final Weigher<Integer, INaviEdge> EDGE_WEIGHER =
+      new Weigher<Integer, INaviEdge>() {
+        @Override
+        public int weigh(final Integer edgeId, final INaviEdge edge) {
+          return 1;
+        }
+      };
+
+  /**
+   * Registry of all live edges. See {@link CacheSettings}.
    * https://code.google.com/p/guava-libraries/wiki/CachesExplained
    */
-   Cache<Integer, INaviEdge> edgesByIdCache = CacheBuilder.newBuilder().weakValues().build();
+  final Cache<Integer, INaviEdge> edgesByIdCache = CacheSettings.newRegistryBuilder().build();
+
+  /**
+   * Keeps recently added edges alive in the registry.
+   */
+  private final Cache<Integer, INaviEdge> retainedEdges =
+      CacheSettings.newRetentionBuilder(EDGE_WEIGHER).build();
 
   /**
-   * The edge address to edge id cache is stores a list of the edge ids. This cache can in the
-   * current design not be evicted as there is no way to have weak references work on the list of
-   * node ids. Therefore we are leaking memory here. An alternative approach here would be to do the
-   * evictions manually.
+   * Maps source and target addresses to edge ids. Like the registry it is not bounded, so every
+   * registered edge can be found by its addresses.
    */
-   Cache<EdgeIdentifier, List<Integer>> edgeAddressToEdgeIdsCache =
+  final Cache<EdgeKey, List<Integer>> edgeAddressToEdgeIdsCache =
       CacheBuilder.newBuilder().build();
 
   private SQLProvider provider;
@@ -123,6 +103,7 @@ public class EdgeCache {
         });
 
     edgesByIdCache.putAll(edgesMap);
+    retainedEdges.putAll(edgesMap);
 
     for (final INaviEdge edge : edges) {
       if (edge.getSource() instanceof IAddressNode && edge.getTarget() instanceof IAddressNode) {
@@ -150,15 +131,15 @@ public class EdgeCache {
 
   private void UpdateAddressModuleIdCache(IAddress sourceAddress, Integer sourceModuleId,
       IAddress targetAddress, Integer targetModuleId, INaviEdge edge) {
-    final EdgeIdentifier edgeAddressModuleIds =
-        new EdgeIdentifier(sourceAddress, sourceModuleId, targetAddress, targetModuleId);
-    List<Integer> edgeIds = edgeAddressToEdgeIdsCache.getIfPresent(edgeAddressModuleIds);
-    if (edgeIds != null) {
-      edgeIds.add(edge.getId());
-    } else {
-      edgeIds = Lists.newArrayList(edge.getId());
+    final EdgeKey edgeAddressModuleIds =
+        new EdgeKey(sourceAddress, sourceModuleId, targetAddress, targetModuleId);
+    final List<Integer> edgeIds = edgeAddressToEdgeIdsCache.getIfPresent(edgeAddressModuleIds);
+    if (edgeIds == null) {
+      edgeAddressToEdgeIdsCache.put(edgeAddressModuleIds, ImmutableList.of(edge.getId()));
+    } else if (!edgeIds.contains(edge.getId())) {
+      edgeAddressToEdgeIdsCache.put(edgeAddressModuleIds,
+          ImmutableList.<Integer>builder().addAll(edgeIds).add(edge.getId()).build());
     }
-    edgeAddressToEdgeIdsCache.put(edgeAddressModuleIds, edgeIds);
   }
 
   private Integer getModuleId(final INaviCodeNode node) {
@@ -179,12 +160,24 @@ public class EdgeCache {
 
   public ImmutableCollection<INaviEdge> getEdgeBySourceAndTarget(final IAddress sourceAddress,
       final Integer sourceModuleId, final IAddress targetAddress, final Integer targetModuleId) {
-    final EdgeIdentifier edgeAddressModuleIds =
-        new EdgeIdentifier(sourceAddress, sourceModuleId, targetAddress, targetModuleId);
+    final EdgeKey edgeAddressModuleIds =
+        new EdgeKey(sourceAddress, sourceModuleId, targetAddress, targetModuleId);
     final List<Integer> edgeIds = edgeAddressToEdgeIdsCache.getIfPresent(edgeAddressModuleIds);
+    if (edgeIds == null) {
+      return ImmutableList.of();
+    }
     return edgesByIdCache.getAllPresent(edgeIds).values();
   }
 
+  /**
+   * Returns the hit and eviction statistics of the edge cache.
+   *
+   * @return The statistics of the edge cache.
+   */
+  public CacheStats getStatistics() {
+    return edgesByIdCache.stats();
+  }
+
   /**
    * Internal listener class to keep informed about changes in the {@link SQLProvider provider}.
    */
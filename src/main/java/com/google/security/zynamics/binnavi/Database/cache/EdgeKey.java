@@ -0,0 +1,77 @@
+// Copyright 2011-2016 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.security.zynamics.binnavi.Database.cache;
+
+import com.google.security.zynamics.zylib.disassembly.IAddress;
+
+/**
+ * Cache key that identifies an edge by the addresses and modules of its source and target. All
+ * components are stored as primitive values.
+ */
+final class EdgeKey {
+  /**
+   * The database id of the module of the source node.
+   */
+  private final int sourceModuleId;
+
+  /**
+   * The address of the source node.
+   */
+  private final long sourceAddress;
+
+  /**
+   * The database id of the module of the target node.
+   */
+  private final int targetModuleId;
+
+  /**
+   * The address of the target node.
+   */
+  private final long targetAddress;
+
+  /**
+   * Creates a new key.
+   *
+   * @param sourceAddress The address of the source node.
+   * @param sourceModuleId The database id of the module of the source node.
+   * @param targetAddress The address of the target node.
+   * @param targetModuleId The database id of the module of the target node.
+   */
+  EdgeKey(final IAddress sourceAddress, final int sourceModuleId, final IAddress targetAddress,
+      final int targetModuleId) {
+    this.sourceAddress = sourceAddress.toLong();
+    this.sourceModuleId = sourceModuleId;
+    this.targetAddress = targetAddress.toLong();
+    this.targetModuleId = targetModuleId;
+  }
+
+  @Override
+  public boolean equals(final Object other) {
+    if (!(other instanceof EdgeKey)) {
+      return false;
+    }
+    final EdgeKey key = (EdgeKey) other;
+    return (sourceAddress == key.sourceAddress) && (targetAddress == key.targetAddress)
+        && (sourceModuleId == key.sourceModuleId) && (targetModuleId == key.targetModuleId);
+  }
+
+  @Override
+  public int hashCode() {
+    int result = (int) (sourceAddress ^ (sourceAddress >>> 32));
+    result = 31 * result + (int) (targetAddress ^ (targetAddress >>> 32));
+    result = 31 * result + sourceModuleId;
+    return 31 * result + targetModuleId;
+  }
+}
@@ -14,18 +14,19 @@
 
 package com.google.security.zynamics.binnavi.Database.cache;
 
-import com.google.common.base.Function;
 import com.google.common.base.Preconditions;
 import com.google.common.cache.Cache;
-import com.google.common.cache.CacheBuilder;
-import com.google.common.collect.Maps;
+import com.google.common.cache.CacheStats;
+import com.google.common.cache.Weigher;
 import com.google.security.zynamics.binnavi.Database.Interfaces.SQLProvider;
 import com.google.security.zynamics.binnavi.Database.Interfaces.SQLProviderListener;
+import com.google.security.zynamics.binnavi.disassembly.COperandTree;
 import com.google.security.zynamics.binnavi.disassembly.INaviInstruction;
+import com.google.security.zynamics.binnavi.disassembly.INaviOperandTreeNode;
 import com.google.security.zynamics.zylib.disassembly.IAddress;
-import com.google.security.zynamics.zylib.general.Pair;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 public class InstructionCache {
@@ -33,8 +34,28 @@ public class InstructionCache {
   private static Map<SQLProvider, InstructionCache> caches =
       new HashMap<SQLProvider, InstructionCache>();
 
-  Cache<Pair<IAddress, Integer>, INaviInstruction> instructionByAddressCache =
-      CacheBuilder.newBuilder().weakValues().build();
+  /**
+   * Weighs instructions by the size of their operand trees.
+   */
+  private static final Weigher<AddressKey, INaviInstruction> INSTRUCTION_WEIGHER =
+      new Weigher<AddressKey, INaviInstruction>() {
+        @Override
+        public int weigh(final AddressKey key, final INaviInstruction instruction) {
+          return getWeight(instruction);
+        }
+      };
+
+  /**
+   * Registry of all live instructions. See {@link CacheSettings}.
+   */
+  final Cache<AddressKey, INaviInstruction> instructionByAddressCache =
+      CacheSettings.newRegistryBuilder().build();
+
+  /**
+   * Keeps recently added instructions alive in the registry.
+   */
+  private final Cache<AddressKey, INaviInstruction> retainedInstructions =
+      CacheSettings.newRetentionBuilder(INSTRUCTION_WEIGHER).build();
 
   private SQLProvider provider;
 
@@ -53,29 +74,71 @@ public class InstructionCache {
     return caches.get(provider);
   }
 
+  /**
+   * Counts the nodes of an operand tree.
+   */
+  private static int getNodeCount(final INaviOperandTreeNode node) {
+    int count = 1;
+    for (final INaviOperandTreeNode child : node.getChildren()) {
+      count += getNodeCount(child);
+    }
+    return count;
+  }
+
+  /**
+   * Returns the cache weight of an instruction, which is one for the instruction itself plus one
+   * for every node of its operand trees.
+   *
+   * @param instruction The instruction to weigh.
+   *
+   * @return The weight of the instruction.
+   */
+  static int getWeight(final INaviInstruction instruction) {
+    int weight = 1;
+    final List<COperandTree> operands = instruction.getOperands();
+    if (operands != null) {
+      for (final COperandTree operand : operands) {
+        if (operand.getRootNode() != null) {
+          weight += getNodeCount(operand.getRootNode());
+        }
+      }
+    }
+    return weight;
+  }
+
+  private static AddressKey getKey(final INaviInstruction instruction) {
+    return new AddressKey(
+        instruction.getAddress(), instruction.getModule().getConfiguration().getId());
+  }
+
   private void close() {
     caches.remove(provider);
     provider.removeListener(providerListener);
   }
 
   public void addInstructions(final Iterable<INaviInstruction> instructions) {
-    instructionByAddressCache.putAll(
-        Maps.uniqueIndex(instructions, new Function<INaviInstruction, Pair<IAddress, Integer>>() {
-          @Override
-          public Pair<IAddress, Integer> apply(final INaviInstruction instruction) {
-            return new Pair<IAddress, Integer>(
-                instruction.getAddress(), instruction.getModule().getConfiguration().getId());
-          }
-        }));
+    for (final INaviInstruction instruction : instructions) {
+      addInstruction(instruction);
+    }
   }
 
   public INaviInstruction getInstructionByAddress(final IAddress address, final Integer moduleId) {
-    return instructionByAddressCache.getIfPresent(new Pair<IAddress, Integer>(address, moduleId));
+    return instructionByAddressCache.getIfPresent(new AddressKey(address, moduleId));
+  }
+
+  /**
+   * Returns the hit and eviction statistics of the cache.
+   *
+   * @return The statistics of the cache.
+   */
+  public CacheStats getStatistics() {
+    return instructionByAddressCache.stats();
   }
 
   public void addInstruction(final INaviInstruction instruction) {
-    instructionByAddressCache.put(new Pair<IAddress, Integer>(
-        instruction.getAddress(), instruction.getModule().getConfiguration().getId()), instruction);
+    final AddressKey key = getKey(instruction);
+    instructionByAddressCache.put(key, instruction);
+    retainedInstructions.put(key, instruction);
   }
 
   /**
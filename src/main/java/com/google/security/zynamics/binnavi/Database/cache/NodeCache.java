@@ -18,8 +18,11 @@ import com.google.common.base.Function;
 import com.google.common.base.Preconditions;
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.cache.Weigher;
 import com.google.common.collect.ImmutableCollection;
-import com.google.common.collect.Lists;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Maps;
 import com.google.security.zynamics.binnavi.Database.Interfaces.SQLProvider;
 import com.google.security.zynamics.binnavi.Database.Interfaces.SQLProviderListener;
@@ -31,41 +34,38 @@ import com.google.security.zynamics.zylib.disassembly.IAddress;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
 
 public class NodeCache {
 
-  private class NodeIdentifier {
-    private IAddress address;
-    private Integer moduleId;
-
-    public NodeIdentifier(final IAddress address, final Integer moduleId) {
-      this.address = address;
-      this.moduleId = moduleId;
-    }
+  private static Map<SQLProvider, NodeCache> caches = new HashMap<>();
 
-    @Override
-    public int hashCode() {
-      return Objects.hash(this.address, this.moduleId);
-    }
+  /**
+   * Weighs nodes by the number of instructions they contain.
+   */
+  private static final Weigher<Integer, INaviViewNode> NODE_WEIGHER =
+      new Weigher<Integer, INaviViewNode>() {
+        @Override
+        public int weigh(final Integer nodeId, final INaviViewNode node) {
+          return node instanceof INaviCodeNode ? 1 + ((INaviCodeNode) node).instructionCount() : 1;
+        }
+      };
 
-    @Override
-    public boolean equals(Object other) {
-      if (this == other) {
-        return true;
-      }
-      if (other instanceof NodeIdentifier) {
-        return Objects.equals(address, ((NodeIdentifier) other).address)
-            && Objects.equals(moduleId, ((NodeIdentifier) other).moduleId);
-      }
-      return false;
-    }
-  }
+  /**
+   * Registry of all live nodes. See {@link CacheSettings}.
+   */
+  final Cache<Integer, INaviViewNode> nodeByIdCache = CacheSettings.newRegistryBuilder().build();
 
-  private static Map<SQLProvider, NodeCache> caches = new HashMap<>();
+  /**
+   * Keeps recently added nodes alive in the registry.
+   */
+  private final Cache<Integer, INaviViewNode> retainedNodes =
+      CacheSettings.newRetentionBuilder(NODE_WEIGHER).build();
 
-  Cache<Integer, INaviViewNode> nodeByIdCache = CacheBuilder.newBuilder().weakValues().build();
-  Cache<NodeIdentifier, List<Integer>> addressModuleIdNodeIdsCache =
+  /**
+   * Maps node addresses to node ids. Like the registry it is not bounded, so every registered node
+   * can be found by its address.
+   */
+  final Cache<AddressKey, List<Integer>> addressModuleIdNodeIdsCache =
       CacheBuilder.newBuilder().build();
 
   private final SQLProvider provider;
@@ -93,17 +93,24 @@ public class NodeCache {
   public ImmutableCollection<INaviViewNode> getNodeByAddress(final IAddress nodeAddress,
       final Integer moduleId) {
     final List<Integer> nodeIds =
-        addressModuleIdNodeIdsCache.getIfPresent(new NodeIdentifier(nodeAddress, moduleId));
+        addressModuleIdNodeIdsCache.getIfPresent(new AddressKey(nodeAddress, moduleId));
+    if (nodeIds == null) {
+      return ImmutableList.of();
+    }
     return nodeByIdCache.getAllPresent(nodeIds).values();
   }
 
   public void addNodes(final List<INaviViewNode> nodes) {
-    nodeByIdCache.putAll(Maps.uniqueIndex(nodes, new Function<INaviViewNode, Integer>() {
-      @Override
-      public Integer apply(final INaviViewNode node) {
-        return node.getId();
-      }
-    }));
+    final ImmutableMap<Integer, INaviViewNode> nodesMap =
+        Maps.uniqueIndex(nodes, new Function<INaviViewNode, Integer>() {
+          @Override
+          public Integer apply(final INaviViewNode node) {
+            return node.getId();
+          }
+        });
+
+    nodeByIdCache.putAll(nodesMap);
+    retainedNodes.putAll(nodesMap);
 
     for (final INaviViewNode node : nodes) {
       if (node instanceof INaviCodeNode) {
@@ -124,20 +131,29 @@ public class NodeCache {
 
   private void UpdateAddressModuleIdCache(IAddress nodeAddress, Integer moduleId,
       INaviViewNode node) {
-    final NodeIdentifier nodeAddressModuleId = new NodeIdentifier(nodeAddress, moduleId);
-    List<Integer> nodeIds = addressModuleIdNodeIdsCache.getIfPresent(nodeAddressModuleId);
-    if (nodeIds != null) {
-      nodeIds.add(node.getId());
-    } else {
-      nodeIds = Lists.newArrayList(node.getId());
+    final AddressKey nodeAddressModuleId = new AddressKey(nodeAddress, moduleId);
+    final List<Integer> nodeIds = addressModuleIdNodeIdsCache.getIfPresent(nodeAddressModuleId);
+    if (nodeIds == null) {
+      addressModuleIdNodeIdsCache.put(nodeAddressModuleId, ImmutableList.of(node.getId()));
+    } else if (!nodeIds.contains(node.getId())) {
+      addressModuleIdNodeIdsCache.put(nodeAddressModuleId,
+          ImmutableList.<Integer>builder().addAll(nodeIds).add(node.getId()).build());
     }
-    addressModuleIdNodeIdsCache.put(nodeAddressModuleId, nodeIds);
   }
 
   public INaviViewNode getNodeById(final Integer nodeId) {
     return nodeByIdCache.getIfPresent(nodeId);
   }
 
+  /**
+   * Returns the hit and eviction statistics of the node cache.
+   *
+   * @return The statistics of the node cache.
+   */
+  public CacheStats getStatistics() {
+    return nodeByIdCache.stats();
+  }
+
   /**
    * Internal listener class to keep informed about changes in the {@link SQLProvider provider}.
    */
@@ -18,9 +18,16 @@ package com.google.security.zynamics.binnavi.Gui.Debug.BreakpointTable;
 import com.google.common.base.Preconditions;
 import com.google.security.zynamics.binnavi.debug.debugger.BackEndDebuggerProvider;
 import com.google.security.zynamics.binnavi.debug.debugger.interfaces.IDebugger;
+import com.google.security.zynamics.binnavi.debug.models.breakpoints.BreakpointAddress;
+import com.google.security.zynamics.binnavi.debug.models.breakpoints.BreakpointManager;
 import com.google.security.zynamics.binnavi.debug.models.breakpoints.enums.BreakpointType;
 import com.google.security.zynamics.zylib.general.Pair;
 
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
 /**
  * Provides convenience functions that are useful in more than one class of the breakpoint table
  * package.
@@ -66,4 +73,37 @@ public final class CBreakpointTableHelpers {
 
     throw new IllegalArgumentException("IE01338: Invalid row number");
   }
+
+  /**
+   * Given a number of rows of the breakpoint table, this function collects the addresses of the
+   * breakpoints of these rows grouped by the breakpoint managers they belong to. This allows
+   * callers to update all breakpoints of a breakpoint manager in a single operation.
+   *
+   * @param debuggerProvider The debuggers that are used to fill the breakpoint table.
+   * @param rows Rows of the breakpoint table.
+   *
+   * @return The addresses of the breakpoints identified by the rows, grouped by breakpoint manager.
+   *
+   * @throws IllegalArgumentException Thrown if the debugger provider argument is null or any of the
+   *         rows is out of bounds.
+   */
+  public static Map<BreakpointManager, Set<BreakpointAddress>> findBreakpointAddresses(
+      final BackEndDebuggerProvider debuggerProvider, final int[] rows) {
+    final Map<BreakpointManager, Set<BreakpointAddress>> addresses = new LinkedHashMap<>();
+
+    for (final int row : rows) {
+      final Pair<IDebugger, Integer> breakpoint = findBreakpoint(debuggerProvider, row);
+      final BreakpointManager manager = breakpoint.first().getBreakpointManager();
+
+      Set<BreakpointAddress> managerAddresses = addresses.get(manager);
+      if (managerAddresses == null) {
+        managerAddresses = new HashSet<>();
+        addresses.put(manager, managerAddresses);
+      }
+      managerAddresses.add(
+          manager.getBreakpoint(BreakpointType.REGULAR, breakpoint.second()).getAddress());
+    }
+
+    return addresses;
+  }
 }
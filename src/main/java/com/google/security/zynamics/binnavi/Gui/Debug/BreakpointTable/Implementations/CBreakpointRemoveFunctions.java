@@ -14,15 +14,14 @@
 
 package com.google.security.zynamics.binnavi.Gui.Debug.BreakpointTable.Implementations;
 
-import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.Map.Entry;
 import java.util.Set;
 
 import javax.swing.JFrame;
 import javax.swing.JOptionPane;
 
 import com.google.common.base.Preconditions;
-import com.google.common.collect.Sets;
 import com.google.security.zynamics.binnavi.Gui.Debug.BreakpointTable.CBreakpointTableHelpers;
 import com.google.security.zynamics.binnavi.Gui.GraphWindows.Implementations.CGraphDebugger;
 import com.google.security.zynamics.binnavi.debug.debugger.BackEndDebuggerProvider;
@@ -97,25 +96,9 @@ public final class CBreakpointRemoveFunctions {
         "IE01886: Debugger provider argument can not be null");
     Preconditions.checkNotNull(rows, "IE02253: Rows argument can't be null");
 
-    final ArrayList<Pair<IDebugger, BreakpointAddress>> addresses =
-        new ArrayList<Pair<IDebugger, BreakpointAddress>>();
-
-    for (final int row : rows) {
-      final Pair<IDebugger, Integer> breakpoint =
-          CBreakpointTableHelpers.findBreakpoint(debuggerProvider, row);
-
-      final BreakpointManager manager = breakpoint.first().getBreakpointManager();
-      final int breakpointIndex = breakpoint.second();
-
-      addresses.add(new Pair<IDebugger, BreakpointAddress>(breakpoint.first(), manager
-          .getBreakpoint(BreakpointType.REGULAR, breakpointIndex).getAddress()));
-    }
-
-    for (final Pair<IDebugger, BreakpointAddress> p : addresses) {
-      final BreakpointManager manager = p.first().getBreakpointManager();
-      final BreakpointAddress address = p.second();
-
-      manager.setBreakpointStatus(Sets.newHashSet(address), BreakpointType.REGULAR,
+    for (final Entry<BreakpointManager, Set<BreakpointAddress>> entry : CBreakpointTableHelpers
+        .findBreakpointAddresses(debuggerProvider, rows).entrySet()) {
+      entry.getKey().setBreakpointStatus(entry.getValue(), BreakpointType.REGULAR,
           BreakpointStatus.BREAKPOINT_DELETING);
     }
   }
@@ -132,10 +115,13 @@ public final class CBreakpointRemoveFunctions {
     for (final IDebugger debugger : debuggerProvider) {
       final BreakpointManager manager = debugger.getBreakpointManager();
 
-      for (int i = 0; i < manager.getNumberOfBreakpoints(BreakpointType.REGULAR); i++) {
-        manager
-            .setBreakpointStatus(BreakpointType.REGULAR, BreakpointStatus.BREAKPOINT_DISABLED, i);
+      final Set<BreakpointAddress> addresses = new HashSet<BreakpointAddress>();
+
+      for (final Breakpoint breakpoint : manager.getBreakpoints(BreakpointType.REGULAR)) {
+        addresses.add(breakpoint.getAddress());
       }
+      manager.setBreakpointStatus(addresses, BreakpointType.REGULAR,
+          BreakpointStatus.BREAKPOINT_DISABLED);
     }
   }
 
@@ -180,15 +166,10 @@ public final class CBreakpointRemoveFunctions {
         "IE01919: Debugger provider argument can not be null");
     Preconditions.checkNotNull(rows, "IE02254: Rows argument can't be null");
 
-    for (final int row : rows) {
-      final Pair<IDebugger, Integer> breakpoint =
-          CBreakpointTableHelpers.findBreakpoint(debuggerProvider, row);
-
-      final BreakpointManager manager = breakpoint.first().getBreakpointManager();
-      final int breakpointIndex = breakpoint.second();
-
-      manager.setBreakpointStatus(BreakpointType.REGULAR, BreakpointStatus.BREAKPOINT_DISABLED,
-          breakpointIndex);
+    for (final Entry<BreakpointManager, Set<BreakpointAddress>> entry : CBreakpointTableHelpers
+        .findBreakpointAddresses(debuggerProvider, rows).entrySet()) {
+      entry.getKey().setBreakpointStatus(entry.getValue(), BreakpointType.REGULAR,
+          BreakpointStatus.BREAKPOINT_DISABLED);
     }
   }
 
@@ -15,6 +15,7 @@
 package com.google.security.zynamics.binnavi.Gui.Debug.BreakpointTable.Implementations;
 
 import java.util.HashSet;
+import java.util.Map.Entry;
 import java.util.Set;
 
 import com.google.common.base.Preconditions;
@@ -22,6 +23,7 @@ import com.google.security.zynamics.binnavi.Gui.Debug.BreakpointTable.CBreakpoin
 import com.google.security.zynamics.binnavi.Gui.GraphWindows.Implementations.CGraphDebugger;
 import com.google.security.zynamics.binnavi.debug.debugger.BackEndDebuggerProvider;
 import com.google.security.zynamics.binnavi.debug.debugger.interfaces.IDebugger;
+import com.google.security.zynamics.binnavi.debug.models.breakpoints.Breakpoint;
 import com.google.security.zynamics.binnavi.debug.models.breakpoints.BreakpointAddress;
 import com.google.security.zynamics.binnavi.debug.models.breakpoints.BreakpointManager;
 import com.google.security.zynamics.binnavi.debug.models.breakpoints.enums.BreakpointStatus;
@@ -93,9 +95,12 @@ public final class CBreakpointSetFunctions {
    * @param manager The breakpoints manager whose breakpoints are enabled.
    */
   private static void enableAll(final BreakpointManager manager) {
-    for (int i = 0; i < manager.getNumberOfBreakpoints(BreakpointType.REGULAR); i++) {
-      manager.setBreakpointStatus(BreakpointType.REGULAR, BreakpointStatus.BREAKPOINT_ENABLED, i);
+    final Set<BreakpointAddress> addresses = new HashSet<BreakpointAddress>();
+    for (final Breakpoint breakpoint : manager.getBreakpoints(BreakpointType.REGULAR)) {
+      addresses.add(breakpoint.getAddress());
     }
+    manager.setBreakpointStatus(addresses, BreakpointType.REGULAR,
+        BreakpointStatus.BREAKPOINT_ENABLED);
   }
 
   /**
@@ -156,15 +161,10 @@ public final class CBreakpointSetFunctions {
       final int[] rows) {
     checkArguments(debuggerProvider, rows);
 
-    for (final int row : rows) {
-      final Pair<IDebugger, Integer> breakpoint =
-          CBreakpointTableHelpers.findBreakpoint(debuggerProvider, row);
-
-      final BreakpointManager manager = breakpoint.first().getBreakpointManager();
-      final int breakpointIndex = breakpoint.second();
-
-      manager.setBreakpointStatus(BreakpointType.REGULAR, BreakpointStatus.BREAKPOINT_ENABLED,
-          breakpointIndex);
+    for (final Entry<BreakpointManager, Set<BreakpointAddress>> entry : CBreakpointTableHelpers
+        .findBreakpointAddresses(debuggerProvider, rows).entrySet()) {
+      entry.getKey().setBreakpointStatus(entry.getValue(), BreakpointType.REGULAR,
+          BreakpointStatus.BREAKPOINT_ENABLED);
     }
   }
 
@@ -27,20 +27,28 @@ import com.google.security.zynamics.binnavi.Gui.Progress.CDefaultProgressOperati
 import com.google.security.zynamics.binnavi.Gui.errordialog.NaviErrorDialog;
 import com.google.security.zynamics.binnavi.Importers.CFailedImport;
 import com.google.security.zynamics.binnavi.Importers.CImporterFactory;
+import com.google.security.zynamics.binnavi.Log.NaviLogger;
+import com.google.security.zynamics.binnavi.REIL.CModuleTranslator;
+import com.google.security.zynamics.binnavi.REIL.CReilCache;
+import com.google.security.zynamics.binnavi.REIL.IModuleTranslationListener;
+import com.google.security.zynamics.binnavi.disassembly.INaviFunction;
 import com.google.security.zynamics.binnavi.disassembly.INaviModule;
 import com.google.security.zynamics.binnavi.disassembly.algorithms.CViewInserter;
 import com.google.security.zynamics.binnavi.disassembly.views.CView;
 import com.google.security.zynamics.binnavi.disassembly.views.INaviView;
+import com.google.security.zynamics.reil.ReilFunction;
 import com.google.security.zynamics.zylib.gui.CMessageBox;
 
 import java.io.FileNotFoundException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.swing.JFrame;
 import javax.swing.JOptionPane;
 import javax.swing.JTree;
+import javax.swing.SwingUtilities;
 
 /**
  * Contains helper functions for working with modules.
@@ -235,4 +243,82 @@ public final class CModuleFunctions {
       }
     }
   }
+
+  /**
+   * Translates all functions of a module to REIL code in the background and stores the results in
+   * the REIL cache. Later REIL translations of the functions and their native views are read from
+   * the cache instead of being translated again.
+   *
+   * @param parent Parent frame used for dialogs.
+   * @param module The module to translate. The module must be loaded.
+   */
+  public static void translateModule(final JFrame parent, final INaviModule module) {
+    Preconditions.checkNotNull(module, "IE03480: Module argument can not be null");
+    Preconditions.checkArgument(module.isLoaded(), "IE03481: Module must be loaded first");
+
+    new Thread() {
+      @Override
+      public void run() {
+        final CDefaultProgressOperation operation =
+            new CDefaultProgressOperation("", false, false);
+        operation.getProgressPanel().setMaximum(module.getFunctionCount());
+        operation.getProgressPanel().setText(
+            "Translating module to REIL" + ": " + module.getConfiguration().getName());
+
+        final AtomicInteger failed = new AtomicInteger();
+
+        final CModuleTranslator translator =
+            new CModuleTranslator(module, CReilCache.instance());
+
+        try {
+          translator.fillPersistentCache(new IModuleTranslationListener() {
+            /**
+             * Shows the progress of the translation. The listener is invoked from the worker
+             * threads of the translator, so the progress bar is updated on the event dispatch
+             * thread.
+             */
+            private void showProgress(final int finished) {
+              SwingUtilities.invokeLater(new Runnable() {
+                @Override
+                public void run() {
+                  operation.getProgressPanel().setValue(finished);
+                }
+              });
+            }
+
+            @Override
+            public void translatedFunction(final INaviFunction function, final ReilFunction code,
+                final int finished, final int total) {
+              showProgress(finished);
+            }
+
+            @Override
+            public void translationFailed(final INaviFunction function,
+                final Exception exception, final int finished, final int total) {
+              NaviLogger.warning("Function %s could not be translated to REIL: %s",
+                  function.getName(), exception);
+
+              failed.incrementAndGet();
+              showProgress(finished);
+            }
+          });
+        } finally {
+          translator.dispose();
+          operation.stop();
+        }
+
+        if (failed.get() != 0) {
+          SwingUtilities.invokeLater(new Runnable() {
+            @Override
+            public void run() {
+              CMessageBox.showWarning(parent, String.format(
+                  "%d functions of the module '%s' could not be translated to REIL code. "
+                      + "Please check the log for more information.", failed.get(),
+                  module.getConfiguration().getName()));
+            }
+          });
+        }
+      }
+    }.start();
+  }
 }
@@ -0,0 +1,66 @@
+// Copyright 2011-2016 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.google.security.zynamics.binnavi.Gui.MainWindow.ProjectTree.Actions;
+
+import java.awt.event.ActionEvent;
+
+import javax.swing.AbstractAction;
+import javax.swing.JComponent;
+import javax.swing.JFrame;
+import javax.swing.SwingUtilities;
+
+import com.google.common.base.Preconditions;
+import com.google.security.zynamics.binnavi.Gui.MainWindow.Implementations.CModuleFunctions;
+import com.google.security.zynamics.binnavi.disassembly.INaviModule;
+
+/**
+ * Action that can be used to translate all functions of a module to REIL ahead of time.
+ */
+public final class CTranslateModuleAction extends AbstractAction {
+  /**
+   * Used for serialization.
+   */
+  private static final long serialVersionUID = -5538826470133563317L;
+
+  /**
+   * Parent window used for dialogs.
+   */
+  private final JComponent m_parent;
+
+  /**
+   * The module whose functions are translated.
+   */
+  private final INaviModule m_module;
+
+  /**
+   * Creates a new action object.
+   *
+   * @param parent Parent window used for dialogs.
+   * @param module The module whose functions are translated.
+   */
+  public CTranslateModuleAction(final JComponent parent, final INaviModule module) {
+    super("Translate module to REIL");
+
+    m_parent = Preconditions.checkNotNull(parent, "IE03484: Parent argument can not be null");
+    m_module = Preconditions.checkNotNull(module, "IE03485: Module argument can not be null");
+  }
+
+  @Override
+  public void actionPerformed(final ActionEvent event) {
+    CModuleFunctions.translateModule((JFrame) SwingUtilities.getWindowAncestor(m_parent),
+        m_module);
+  }
+}
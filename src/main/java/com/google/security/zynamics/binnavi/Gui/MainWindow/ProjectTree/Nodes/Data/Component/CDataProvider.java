@@ -15,6 +15,7 @@
 package com.google.security.zynamics.binnavi.Gui.MainWindow.ProjectTree.Nodes.Data.Component;
 
 import com.google.security.zynamics.binnavi.CUtilityFunctions;
+import com.google.security.zynamics.binnavi.Database.Exceptions.CouldntLoadDataException;
 import com.google.security.zynamics.binnavi.disassembly.INaviModule;
 import com.google.security.zynamics.binnavi.disassembly.Modules.CModule;
 import com.google.security.zynamics.binnavi.disassembly.Modules.CModuleListenerAdapter;
@@ -23,13 +24,13 @@ import com.google.security.zynamics.zylib.general.ListenerProvider;
 import com.google.security.zynamics.zylib.gui.JHexPanel.IDataChangedListener;
 import com.google.security.zynamics.zylib.gui.JHexPanel.IDataProvider;
 
-import java.util.Arrays;
-
-
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Data provider for the data that is shown in the hex display of the project window when the Data
- * node is selected.
+ * node is selected. Ranges are read through the module, so only the visible part of the module
+ * data is fetched from the database. Missing ranges are fetched in the background, so the event
+ * dispatch thread never waits for the database.
  */
 public final class CDataProvider implements IDataProvider {
   /**
@@ -49,9 +50,9 @@ public final class CDataProvider implements IDataProvider {
   private final IModuleListener m_moduleListener = new InternalModuleListener();
 
   /**
-   * Data is cached for performance reasons.
+   * Flag that says whether a range of the module data is currently fetched in the background.
    */
-  private byte[] m_data;
+  private final AtomicBoolean m_prefetching = new AtomicBoolean(false);
 
   /**
    * Creates a new data provider object.
@@ -60,7 +61,6 @@ public final class CDataProvider implements IDataProvider {
    */
   public CDataProvider(final INaviModule module) {
     m_module = module;
-    m_data = module.getData();
 
     module.addListener(m_moduleListener);
   }
@@ -79,22 +79,58 @@ public final class CDataProvider implements IDataProvider {
 
   @Override
   public byte[] getData() {
-    return m_data; // OK to return this because speed > safety here
+    try {
+      return m_module.getData();
+    } catch (final CouldntLoadDataException exception) {
+      CUtilityFunctions.logException(exception);
+
+      return new byte[0];
+    }
   }
 
   @Override
   public byte[] getData(final long offset, final int length) {
-    return Arrays.copyOfRange(getData(), (int) offset, (int) (offset + length));
+    try {
+      return m_module.getData(offset, length);
+    } catch (final CouldntLoadDataException exception) {
+      CUtilityFunctions.logException(exception);
+
+      return new byte[length];
+    }
   }
 
   @Override
   public int getDataLength() {
-    return m_data.length;
+    return m_module.getDataLength();
   }
 
   @Override
   public boolean hasData(final long start, final int length) {
-    return true;
+    if (m_module.hasData(start, length)) {
+      return true;
+    }
+
+    // The hex view asks again until the range is available, so only one range is fetched at a
+    // time. If the range can not be fetched, the next request tries again.
+    if (m_prefetching.compareAndSet(false, true)) {
+      final Thread thread = new Thread(new Runnable() {
+        @Override
+        public void run() {
+          try {
+            m_module.getData(start, length);
+          } catch (final CouldntLoadDataException exception) {
+            CUtilityFunctions.logException(exception);
+          } finally {
+            m_prefetching.set(false);
+          }
+        }
+      }, "Module data prefetch");
+
+      thread.setDaemon(true);
+      thread.start();
+    }
+
+    return false;
   }
 
   @Override
@@ -122,9 +158,7 @@ public final class CDataProvider implements IDataProvider {
    */
   private class InternalModuleListener extends CModuleListenerAdapter {
     @Override
-    public void changedData(final CModule module, final byte[] data) {
-      m_data = module.getData();
-
+    public void changedData(final CModule module) {
       for (final IDataChangedListener listener : m_listeners) {
         try {
           listener.dataChanged();
@@ -27,6 +27,8 @@ import com.google.security.zynamics.binnavi.disassembly.types.TypeManager;
 import com.google.security.zynamics.binnavi.disassembly.views.INaviView;
 import com.google.security.zynamics.binnavi.disassembly.views.IViewContainer;
 import com.google.security.zynamics.binnavi.disassembly.views.IViewContainerListener;
+import com.google.security.zynamics.zylib.disassembly.CAddress;
+import com.google.security.zynamics.zylib.disassembly.IAddress;
 import com.google.security.zynamics.zylib.general.ListenerProvider;
 import com.google.security.zynamics.zylib.gui.CodeDisplay.CodeDisplay;
 import com.google.security.zynamics.zylib.gui.CodeDisplay.CodeDisplayCoordinate;
@@ -359,8 +361,12 @@ public class DataSectionComponent extends JPanel {
       final JPopupMenu popupMenu = new JPopupMenu();
       final TypeInstanceContainer instanceContainer =
           module.getContent().getTypeInstanceContainer();
-      final TypeInstance existingInstance = instanceContainer.getTypeInstance(
-          new TypeInstanceAddress(currentSection.getStartAddress(), offset));
+      // Edit the instance that covers the clicked byte, even if it starts before that byte.
+      final IAddress address = new CAddress(currentSection.getStartAddress().toLong() + offset);
+      final List<TypeInstance> existingInstances = instanceContainer.getTypeInstances(address,
+          new CAddress(address.toLong() + 1));
+      final TypeInstance existingInstance =
+          existingInstances.isEmpty() ? null : existingInstances.get(0);
       if (existingInstance != null) {
         popupMenu.add(new EditTypeInstanceAction(
             (JFrame) SwingUtilities.getAncestorOfClass(JFrame.class, DataSectionComponent.this),
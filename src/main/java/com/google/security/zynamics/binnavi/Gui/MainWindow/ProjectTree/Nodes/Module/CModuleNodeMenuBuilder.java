@@ -34,6 +34,7 @@ import com.google.security.zynamics.binnavi.Gui.MainWindow.ProjectTree.Actions.C
 import com.google.security.zynamics.binnavi.Gui.MainWindow.ProjectTree.Actions.CSearchTableAction;
 import com.google.security.zynamics.binnavi.Gui.MainWindow.ProjectTree.Actions.CStarModulesAction;
 import com.google.security.zynamics.binnavi.Gui.MainWindow.ProjectTree.Actions.CToggleStarsModulesAction;
+import com.google.security.zynamics.binnavi.Gui.MainWindow.ProjectTree.Actions.CTranslateModuleAction;
 import com.google.security.zynamics.binnavi.Gui.MainWindow.ProjectTree.Actions.CUnstarModulesAction;
 import com.google.security.zynamics.binnavi.Gui.MainWindow.ProjectTree.Nodes.CAbstractMenuBuilder;
 import com.google.security.zynamics.binnavi.Gui.MainWindow.ProjectTree.Updaters.CEmptyUpdater;
@@ -112,6 +113,11 @@ public final class CModuleNodeMenuBuilder extends CAbstractMenuBuilder {
    */
   private final Action m_searchAction;
 
+  /**
+   * Action class for translating the functions of a module to REIL.
+   */
+  private final Action m_translateAction;
+
   /**
    * Updates menu actions on changes in the module.
    */
@@ -158,6 +164,8 @@ public final class CModuleNodeMenuBuilder extends CAbstractMenuBuilder {
           CActionProxy.proxy(new CResolveFunctionsAction(projectTree, m_database, m_modules[0]));
       m_resolveAllAction = CActionProxy.proxy(
           new CResolveAllFunctionsSingleModuleAction(projectTree, m_database, m_modules[0]));
+      m_translateAction =
+          CActionProxy.proxy(new CTranslateModuleAction(projectTree, m_modules[0]));
 
       updateActions(m_modules[0]);
 
@@ -166,6 +174,7 @@ public final class CModuleNodeMenuBuilder extends CAbstractMenuBuilder {
       m_searchAction = null;
       m_resolveAction = null;
       m_resolveAllAction = null;
+      m_translateAction = null;
 
       updateActions(m_modules);
     }
@@ -262,6 +271,7 @@ public final class CModuleNodeMenuBuilder extends CAbstractMenuBuilder {
     m_resolveAction.setEnabled(module.isLoaded());
     m_resolveAllAction.setEnabled(module.isLoaded());
     m_searchAction.setEnabled(module.isLoaded());
+    m_translateAction.setEnabled(module.isLoaded());
   }
 
   private void updateActions(final INaviModule[] m_modules) {
@@ -295,6 +305,7 @@ public final class CModuleNodeMenuBuilder extends CAbstractMenuBuilder {
       menu.add(new JMenuItem(m_searchAction));
       menu.add(new JMenuItem(m_resolveAction));
       menu.add(new JMenuItem(m_resolveAllAction));
+      menu.add(new JMenuItem(m_translateAction));
     }
 
     menu.add(new JSeparator());
@@ -58,6 +58,18 @@ public final class NaviLogger {
     }
   }
 
+  /**
+   * Determines whether messages of a given log level are logged. This can be used to avoid
+   * building expensive log arguments.
+   * 
+   * @param level The log level to check.
+   * 
+   * @return True, if messages of the given level are logged. False, otherwise.
+   */
+  public static boolean isLoggable(final Level level) {
+    return log.isLoggable(level);
+  }
+
   /**
    * Changes the log level that decides what messages are logged.
    * 
@@ -0,0 +1,408 @@
+// Copyright 2011-2016 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.security.zynamics.binnavi.REIL;
+
+import com.google.common.base.Preconditions;
+import com.google.common.base.Supplier;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.security.zynamics.binnavi.Database.Exceptions.CouldntLoadDataException;
+import com.google.security.zynamics.binnavi.disassembly.INaviFunction;
+import com.google.security.zynamics.binnavi.disassembly.INaviInstruction;
+import com.google.security.zynamics.binnavi.disassembly.INaviModule;
+import com.google.security.zynamics.reil.ReilFunction;
+import com.google.security.zynamics.reil.translators.ITranslationEnvironment;
+import com.google.security.zynamics.reil.translators.InternalTranslationException;
+import com.google.security.zynamics.reil.translators.ReilTranslator;
+import com.google.security.zynamics.reil.translators.StandardEnvironment;
+import com.google.security.zynamics.zylib.disassembly.IAddress;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.swing.SwingUtilities;
+
+/**
+ * Translates all functions of a module to REIL code in parallel. The functions are distributed over
+ * the worker threads of a fork-join pool. Every worker uses its own REIL translator and every
+ * function is translated with a fresh translation environment. Translation results are kept in a
+ * bounded cache that is keyed by function address, so repeated translations of the same module only
+ * translate functions that were evicted or invalidated in the meantime. If a persistent REIL cache
+ * is given, functions whose native code did not change since the last translation are read from
+ * the persistent cache instead of being translated again.
+ */
+public final class CModuleTranslator {
+  /**
+   * Default number of translated functions kept in the result cache.
+   */
+  public static final int DEFAULT_CACHE_SIZE = 1000;
+
+  /**
+   * Tasks with fewer functions than this are not split any further.
+   */
+  private static final int SPLIT_THRESHOLD = 4;
+
+  /**
+   * Module whose functions are translated.
+   */
+  private final INaviModule m_module;
+
+  /**
+   * Creates the translation environment for each function.
+   */
+  private final Supplier<? extends ITranslationEnvironment> m_environmentFactory;
+
+  /**
+   * Caches translated functions by function address.
+   */
+  private final Cache<IAddress, ReilFunction> m_cache;
+
+  /**
+   * Persistent cache for translated functions. This field can be null.
+   */
+  private final CReilCache m_persistentCache;
+
+  /**
+   * Thread pool that executes the translation tasks.
+   */
+  private final ForkJoinPool m_pool;
+
+  /**
+   * Each worker thread uses its own translator object.
+   */
+  private final ThreadLocal<ReilTranslator<INaviInstruction>> m_translators =
+      new ThreadLocal<ReilTranslator<INaviInstruction>>() {
+        @Override
+        protected ReilTranslator<INaviInstruction> initialValue() {
+          return new ReilTranslator<INaviInstruction>();
+        }
+      };
+
+  /**
+   * Flag that is set when the running translation should be cancelled.
+   */
+  private volatile boolean m_cancelled = false;
+
+  /**
+   * Creates a new module translator that uses standard translation environments, the default cache
+   * size and one worker thread per available processor.
+   *
+   * @param module Module whose functions are translated.
+   */
+  public CModuleTranslator(final INaviModule module) {
+    this(module, null);
+  }
+
+  /**
+   * Creates a new module translator that uses standard translation environments, the default cache
+   * size and one worker thread per available processor.
+   *
+   * @param module Module whose functions are translated.
+   * @param persistentCache Persistent cache for translated functions. This argument can be null.
+   */
+  public CModuleTranslator(final INaviModule module, final CReilCache persistentCache) {
+    this(module, new Supplier<ITranslationEnvironment>() {
+      @Override
+      public ITranslationEnvironment get() {
+        return new StandardEnvironment();
+      }
+    }, DEFAULT_CACHE_SIZE, Runtime.getRuntime().availableProcessors(), persistentCache);
+  }
+
+  /**
+   * Creates a new module translator.
+   *
+   * @param module Module whose functions are translated.
+   * @param environmentFactory Creates the translation environment for each function.
+   * @param cacheSize Maximum number of translated functions kept in the result cache.
+   * @param parallelism Number of worker threads.
+   * @param persistentCache Persistent cache for translated functions. This argument can be null.
+   */
+  public CModuleTranslator(final INaviModule module,
+      final Supplier<? extends ITranslationEnvironment> environmentFactory, final int cacheSize,
+      final int parallelism, final CReilCache persistentCache) {
+    m_module = Preconditions.checkNotNull(module, "IE03414: Module argument can not be null");
+    m_environmentFactory = Preconditions.checkNotNull(environmentFactory,
+        "IE03415: Environment factory argument can not be null");
+    Preconditions.checkArgument(cacheSize >= 0, "IE03416: Cache size can not be negative");
+    Preconditions.checkArgument(parallelism > 0, "IE03417: Parallelism must be positive");
+
+    m_cache = CacheBuilder.newBuilder().maximumSize(cacheSize).build();
+    m_pool = new ForkJoinPool(parallelism);
+    m_persistentCache = persistentCache;
+  }
+
+  /**
+   * Loads a function if necessary and translates it to REIL code.
+   *
+   * @param function The function to translate.
+   * @param keep True, to keep the REIL code in the result cache. False, otherwise.
+   *
+   * @return The REIL code of the function.
+   */
+  private ReilFunction translate(final INaviFunction function, final boolean keep)
+      throws CouldntLoadDataException, InternalTranslationException {
+    final ReilFunction cached = m_cache.getIfPresent(function.getAddress());
+
+    if (cached != null) {
+      return cached;
+    }
+
+    final boolean wasLoaded = function.isLoaded();
+
+    if (!wasLoaded) {
+      function.load();
+    }
+
+    try {
+      final ITranslationEnvironment environment = m_environmentFactory.get();
+      final ReilFunction code = m_persistentCache == null
+          ? m_translators.get().translate(environment, function)
+          : m_persistentCache.translate(m_translators.get(), environment, function);
+
+      if (keep) {
+        m_cache.put(function.getAddress(), code);
+      }
+
+      return code;
+    } finally {
+      if (!wasLoaded) {
+        close(function);
+      }
+    }
+  }
+
+  /**
+   * Closes a function that was loaded for translation. Closing a function checks whether its views
+   * are open in a window, so this is done on the event dispatch thread instead of the worker
+   * thread.
+   *
+   * @param function The function to close.
+   */
+  private static void close(final INaviFunction function) {
+    SwingUtilities.invokeLater(new Runnable() {
+      @Override
+      public void run() {
+        if (function.isLoaded()) {
+          function.close();
+        }
+      }
+    });
+  }
+
+  /**
+   * Cancels the running translation. Functions that are already being translated are finished, all
+   * other functions are skipped.
+   */
+  public void cancel() {
+    m_cancelled = true;
+  }
+
+  /**
+   * Shuts down the worker threads of the translator. The translator can not be used anymore
+   * afterwards.
+   */
+  public void dispose() {
+    m_pool.shutdown();
+  }
+
+  /**
+   * Returns the cached REIL code of the function at the given address.
+   *
+   * @param address The address of the function.
+   *
+   * @return The cached REIL code or null if the function is not in the cache.
+   */
+  public ReilFunction getCachedCode(final IAddress address) {
+    Preconditions.checkNotNull(address, "IE03418: Address argument can not be null");
+
+    return m_cache.getIfPresent(address);
+  }
+
+  /**
+   * Removes the cached REIL code of the function at the given address. This must be called if the
+   * code of the function was modified.
+   *
+   * @param address The address of the function.
+   */
+  public void invalidate(final IAddress address) {
+    Preconditions.checkNotNull(address, "IE03419: Address argument can not be null");
+
+    m_cache.invalidate(address);
+  }
+
+  /**
+   * Removes all cached REIL code.
+   */
+  public void invalidateAll() {
+    m_cache.invalidateAll();
+  }
+
+  /**
+   * Returns whether the last translation was cancelled.
+   *
+   * @return True, if the last translation was cancelled. False, otherwise.
+   */
+  public boolean isCancelled() {
+    return m_cancelled;
+  }
+
+  /**
+   * Translates all functions of the module to REIL code. This method blocks until all functions
+   * were translated or the translation was cancelled. Functions that can not be loaded or
+   * translated are reported to the listener and are not part of the result.
+   *
+   * @param listener Listener that is notified about the translation progress. This argument can be
+   *        null.
+   *
+   * @return Maps the translated functions to their REIL code in the order of the functions in the
+   *         module. If the translation was cancelled, only the functions translated before the
+   *         cancellation are part of the result.
+   */
+  public Map<INaviFunction, ReilFunction> translate(final IModuleTranslationListener listener) {
+    Preconditions.checkArgument(m_module.isLoaded(), "IE03420: Module must be loaded first");
+
+    m_cancelled = false;
+
+    final List<INaviFunction> functions =
+        m_module.getContent().getFunctionContainer().getFunctions();
+    final ReilFunction[] results = new ReilFunction[functions.size()];
+
+    m_pool.invoke(new TranslationTask(functions, results, 0, functions.size(),
+        new AtomicInteger(), listener));
+
+    final Map<INaviFunction, ReilFunction> translated =
+        new LinkedHashMap<INaviFunction, ReilFunction>();
+
+    for (int i = 0; i < results.length; i++) {
+      if (results[i] != null) {
+        translated.put(functions.get(i), results[i]);
+      }
+    }
+
+    return translated;
+  }
+
+  /**
+   * Translates all functions of the module to REIL code and only keeps the results in the
+   * persistent cache. Unlike {@link #translate(IModuleTranslationListener)}, the REIL code of all
+   * functions is never held in memory at the same time. This method blocks until all functions
+   * were translated or the translation was cancelled.
+   *
+   * @param listener Listener that is notified about the translation progress. This argument can be
+   *        null.
+   */
+  public void fillPersistentCache(final IModuleTranslationListener listener) {
+    Preconditions.checkArgument(m_module.isLoaded(), "IE03482: Module must be loaded first");
+    Preconditions.checkState(m_persistentCache != null,
+        "IE03483: Translator does not have a persistent cache");
+
+    m_cancelled = false;
+
+    final List<INaviFunction> functions =
+        m_module.getContent().getFunctionContainer().getFunctions();
+
+    m_pool.invoke(new TranslationTask(functions, null, 0, functions.size(), new AtomicInteger(),
+        listener));
+  }
+
+  /**
+   * Fork-join task that translates a range of functions.
+   */
+  private class TranslationTask extends RecursiveAction {
+    private static final long serialVersionUID = 2614538911735043916L;
+
+    /**
+     * All functions of the module.
+     */
+    private final List<INaviFunction> m_functions;
+
+    /**
+     * Translation results indexed like the functions. This field is null if the results are not
+     * kept.
+     */
+    private final ReilFunction[] m_results;
+
+    /**
+     * Index of the first function translated by this task.
+     */
+    private final int m_start;
+
+    /**
+     * Index after the last function translated by this task.
+     */
+    private final int m_end;
+
+    /**
+     * Number of functions processed by all tasks.
+     */
+    private final AtomicInteger m_finished;
+
+    /**
+     * Listener that is notified about the translation progress.
+     */
+    private final IModuleTranslationListener m_listener;
+
+    private TranslationTask(final List<INaviFunction> functions, final ReilFunction[] results,
+        final int start, final int end, final AtomicInteger finished,
+        final IModuleTranslationListener listener) {
+      m_functions = functions;
+      m_results = results;
+      m_start = start;
+      m_end = end;
+      m_finished = finished;
+      m_listener = listener;
+    }
+
+    @Override
+    protected void compute() {
+      if (m_end - m_start > SPLIT_THRESHOLD) {
+        final int middle = (m_start + m_end) >>> 1;
+
+        invokeAll(new TranslationTask(m_functions, m_results, m_start, middle, m_finished,
+            m_listener), new TranslationTask(m_functions, m_results, middle, m_end, m_finished,
+            m_listener));
+
+        return;
+      }
+
+      for (int i = m_start; (i < m_end) && !m_cancelled; i++) {
+        final INaviFunction function = m_functions.get(i);
+
+        try {
+          final ReilFunction code = translate(function, m_results != null);
+
+          if (m_results != null) {
+            m_results[i] = code;
+          }
+
+          if (m_listener != null) {
+            m_listener.translatedFunction(function, code, m_finished.incrementAndGet(),
+                m_functions.size());
+          }
+        } catch (final CouldntLoadDataException | InternalTranslationException exception) {
+          if (m_listener != null) {
+            m_listener.translationFailed(function, exception, m_finished.incrementAndGet(),
+                m_functions.size());
+          }
+        }
+      }
+    }
+  }
+}
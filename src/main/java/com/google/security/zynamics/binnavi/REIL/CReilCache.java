@@ -0,0 +1,478 @@
+// Copyright 2011-2016 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.security.zynamics.binnavi.REIL;
+
+import com.google.common.base.Preconditions;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.security.zynamics.binnavi.Log.NaviLogger;
+import com.google.security.zynamics.binnavi.Resources.Constants;
+import com.google.security.zynamics.binnavi.disassembly.INaviFunction;
+import com.google.security.zynamics.binnavi.disassembly.INaviInstruction;
+import com.google.security.zynamics.binnavi.disassembly.INaviModule;
+import com.google.security.zynamics.binnavi.disassembly.views.INaviView;
+import com.google.security.zynamics.common.config.ConfigHelper;
+import com.google.security.zynamics.reil.ReilFunction;
+import com.google.security.zynamics.reil.ReilSerializer;
+import com.google.security.zynamics.reil.translators.ITranslationEnvironment;
+import com.google.security.zynamics.reil.translators.InternalTranslationException;
+import com.google.security.zynamics.reil.translators.ReilTranslator;
+import com.google.security.zynamics.zylib.disassembly.GraphType;
+import com.google.security.zynamics.zylib.disassembly.IBlockContainer;
+import com.google.security.zynamics.zylib.disassembly.ICodeContainer;
+import com.google.security.zynamics.zylib.disassembly.ICodeEdge;
+import com.google.security.zynamics.zylib.disassembly.IOperandTree;
+import com.google.security.zynamics.zylib.disassembly.IOperandTreeNode;
+import com.google.security.zynamics.zylib.disassembly.ViewType;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Persistent cache for REIL code of functions. Every function is stored in one file per
+ * translation environment below a directory of its module. The file starts with a hash of the
+ * translation environment and the native code of the function (instruction bytes, mnemonics,
+ * operand trees and control flow edges) followed by the REIL code in the format of
+ * {@link ReilSerializer}. Cached code is only returned if the hash still matches the
+ * current native code of the function, so modified functions are invalidated automatically.
+ *
+ * The native flow graph view of a function shares the cache entry of the function. Blocks and
+ * edges are hashed in address order, so a function and its view have the same hash.
+ */
+public final class CReilCache {
+  /**
+   * Version of the cache layout. Changing the version invalidates all existing cache entries.
+   */
+  private static final int CACHE_VERSION = 3;
+
+  /**
+   * Number of bytes of the function hash at the beginning of each cache file.
+   */
+  private static final int HASH_SIZE = 32;
+
+  /**
+   * File extension of cache files.
+   */
+  private static final String EXTENSION = ".reil";
+
+  /**
+   * Orders basic blocks by address.
+   */
+  private static final Comparator<ICodeContainer<INaviInstruction>> BLOCK_ORDER =
+      new Comparator<ICodeContainer<INaviInstruction>>() {
+        @Override
+        public int compare(final ICodeContainer<INaviInstruction> lhs,
+            final ICodeContainer<INaviInstruction> rhs) {
+          return lhs.getAddress().toBigInteger().compareTo(rhs.getAddress().toBigInteger());
+        }
+      };
+
+  /**
+   * Cache in the default directory that is shared by all REIL translations of the application.
+   */
+  private static CReilCache m_instance = null;
+
+  /**
+   * Directory where the cache files are stored.
+   */
+  private final File m_directory;
+
+  /**
+   * Creates a new REIL cache.
+   *
+   * @param directory Directory where the cache files are stored.
+   */
+  public CReilCache(final File directory) {
+    m_directory =
+        Preconditions.checkNotNull(directory, "IE03421: Directory argument can not be null");
+  }
+
+  /**
+   * Returns the default directory of the REIL cache.
+   *
+   * @return The default directory of the REIL cache.
+   */
+  public static File getDefaultDirectory() {
+    return new File(ConfigHelper.getConfigurationDirectory(
+        Constants.COMPANY_NAME, Constants.PROJECT_NAME), "reilcache");
+  }
+
+  /**
+   * Returns the cache in the default directory that is used by all REIL translations of the
+   * application.
+   *
+   * @return The shared REIL cache.
+   */
+  public static synchronized CReilCache instance() {
+    if (m_instance == null) {
+      m_instance = new CReilCache(getDefaultDirectory());
+    }
+
+    return m_instance;
+  }
+
+  /**
+   * Returns the function whose native flow graph is shown in a view.
+   *
+   * @param view The view.
+   *
+   * @return The function of the view or null if the view is not the native flow graph view of a
+   *         function.
+   */
+  private static INaviFunction getFunction(final INaviView view) {
+    final INaviModule module = view.getConfiguration().getModule();
+
+    if ((view.getType() != ViewType.Native) || (view.getGraphType() != GraphType.FLOWGRAPH)
+        || (module == null) || !module.isLoaded()) {
+      return null;
+    }
+
+    return module.getContent().getViewContainer().getFunction(view);
+  }
+
+  /**
+   * Adds an operand tree node and all its children to a hash.
+   */
+  private static void hashOperandNode(final Hasher hasher, final IOperandTreeNode node) {
+    hasher.putInt(node.getType().ordinal());
+    hasher.putString(node.getValue(), StandardCharsets.UTF_8);
+    hasher.putInt(node.getChildren().size());
+
+    for (final IOperandTreeNode child : node.getChildren()) {
+      hashOperandNode(hasher, child);
+    }
+  }
+
+  /**
+   * Returns the name that identifies a translation environment in cache keys.
+   */
+  private static String getEnvironmentName(final ITranslationEnvironment environment) {
+    return environment.getClass().getName();
+  }
+
+  /**
+   * Calculates the hash of the native code of a function.
+   *
+   * @param code The basic blocks of the function.
+   * @param environment The translation environment the REIL code is created with.
+   *
+   * @return The hash of the function.
+   */
+  static byte[] hash(final IBlockContainer<INaviInstruction> code,
+      final ITranslationEnvironment environment) {
+    final Hasher hasher = Hashing.sha256().newHasher();
+
+    hasher.putInt(CACHE_VERSION);
+    hasher.putString(getEnvironmentName(environment), StandardCharsets.UTF_8);
+
+    final List<ICodeContainer<INaviInstruction>> blocks =
+        new ArrayList<ICodeContainer<INaviInstruction>>(code.getBasicBlocks());
+    Collections.sort(blocks, BLOCK_ORDER);
+
+    for (final ICodeContainer<INaviInstruction> block : blocks) {
+      hasher.putString(block.getAddress().toHexString(), StandardCharsets.UTF_8);
+
+      for (final INaviInstruction instruction : block.getInstructions()) {
+        hasher.putString(instruction.getAddress().toHexString(), StandardCharsets.UTF_8);
+        hasher.putString(instruction.getArchitecture(), StandardCharsets.UTF_8);
+        hasher.putString(instruction.getMnemonic(), StandardCharsets.UTF_8);
+        hasher.putInt(instruction.getData().length);
+        hasher.putBytes(instruction.getData());
+        hasher.putInt(instruction.getOperands().size());
+
+        for (final IOperandTree operand : instruction.getOperands()) {
+          hashOperandNode(hasher, operand.getRootNode());
+        }
+      }
+
+      final List<String> edges = new ArrayList<String>();
+
+      for (final ICodeEdge<?> edge : block.getOutgoingEdges()) {
+        edges.add((edge.getType() == null ? -1 : edge.getType().ordinal()) + ":"
+            + (edge.getTarget() instanceof ICodeContainer
+                ? ((ICodeContainer<?>) edge.getTarget()).getAddress().toHexString() : ""));
+      }
+
+      Collections.sort(edges);
+      hasher.putInt(edges.size());
+
+      for (final String edge : edges) {
+        hasher.putString(edge, StandardCharsets.UTF_8);
+      }
+    }
+
+    return hasher.hash().asBytes();
+  }
+
+  /**
+   * Returns the cache directory of a module.
+   */
+  private File getDirectory(final INaviModule module) {
+    return new File(m_directory, String.valueOf(module.getConfiguration().getId()));
+  }
+
+  /**
+   * Returns the prefix of the names of all cache files of a function.
+   */
+  private static String getFilePrefix(final INaviFunction function) {
+    return function.getAddress().toHexString() + ".";
+  }
+
+  /**
+   * Returns the cache file of a function for a translation environment.
+   */
+  private File getFile(final INaviFunction function, final ITranslationEnvironment environment) {
+    return new File(getDirectory(function.getModule()),
+        getFilePrefix(function) + getEnvironmentName(environment) + EXTENSION);
+  }
+
+  /**
+   * Removes the cached REIL code of a function for all translation environments.
+   *
+   * @param function The function whose cached code is removed.
+   */
+  public void invalidate(final INaviFunction function) {
+    Preconditions.checkNotNull(function, "IE03422: Function argument can not be null");
+
+    final File[] files = getDirectory(function.getModule()).listFiles();
+
+    if (files == null) {
+      return;
+    }
+
+    for (final File file : files) {
+      if (file.getName().startsWith(getFilePrefix(function)) && !file.delete()) {
+        NaviLogger.warning("Could not delete REIL cache file %s", file);
+      }
+    }
+  }
+
+  /**
+   * Removes the cached REIL code of all functions of a module.
+   *
+   * @param module The module whose cached code is removed.
+   */
+  public void invalidate(final INaviModule module) {
+    Preconditions.checkNotNull(module, "IE03423: Module argument can not be null");
+
+    final File[] files = getDirectory(module).listFiles();
+
+    if (files == null) {
+      return;
+    }
+
+    for (final File file : files) {
+      if (!file.delete()) {
+        NaviLogger.warning("Could not delete REIL cache file %s", file);
+      }
+    }
+  }
+
+  /**
+   * Loads the cached REIL code of a function.
+   *
+   * @param function The function whose code is loaded. The function must be loaded.
+   * @param environment The translation environment the REIL code was created with.
+   *
+   * @return The cached REIL code or null if there is no up-to-date REIL code for the function.
+   */
+  public ReilFunction load(final INaviFunction function,
+      final ITranslationEnvironment environment) {
+    Preconditions.checkNotNull(function, "IE03424: Function argument can not be null");
+    Preconditions.checkNotNull(environment, "IE03473: Environment argument can not be null");
+    Preconditions.checkArgument(function.isLoaded(), "IE03425: Function must be loaded first");
+
+    return load(function, function, environment);
+  }
+
+  /**
+   * Loads the cached REIL code of a function.
+   *
+   * @param function The function whose code is loaded.
+   * @param code The basic blocks of the function.
+   * @param environment The translation environment the REIL code was created with.
+   *
+   * @return The cached REIL code or null if there is no up-to-date REIL code for the function.
+   */
+  private ReilFunction load(final INaviFunction function,
+      final IBlockContainer<INaviInstruction> code, final ITranslationEnvironment environment) {
+    final File file = getFile(function, environment);
+
+    if (!file.exists()) {
+      return null;
+    }
+
+    try {
+      // The file is read completely instead of being mapped. Mapped files stay locked on Windows
+      // until the mapping is garbage-collected, which makes replacing the file in store() fail.
+      final ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file.toPath()));
+
+      if (buffer.remaining() < HASH_SIZE) {
+        return null;
+      }
+
+      final byte[] storedHash = new byte[HASH_SIZE];
+      buffer.get(storedHash);
+
+      if (!Arrays.equals(storedHash, hash(code, environment))) {
+        return null;
+      }
+
+      final ReilFunction reilCode = ReilSerializer.deserialize(buffer);
+
+      // Use the name the translator gives to the code. The container can be renamed after the code
+      // was stored.
+      return new ReilFunction("REIL - " + code.getName(), reilCode.getGraph());
+    } catch (final IOException | IllegalArgumentException exception) {
+      NaviLogger.warning("Could not read REIL cache file %s: %s", file, exception);
+
+      return null;
+    }
+  }
+
+  /**
+   * Stores the REIL code of a function in the cache. Existing cache entries of the function are
+   * replaced.
+   *
+   * @param function The function whose code is stored. The function must be loaded.
+   * @param environment The translation environment the REIL code was created with.
+   * @param code The REIL code of the function.
+   */
+  public void store(final INaviFunction function, final ITranslationEnvironment environment,
+      final ReilFunction code) {
+    Preconditions.checkNotNull(function, "IE03426: Function argument can not be null");
+    Preconditions.checkNotNull(environment, "IE03474: Environment argument can not be null");
+    Preconditions.checkNotNull(code, "IE03427: Code argument can not be null");
+    Preconditions.checkArgument(function.isLoaded(), "IE03428: Function must be loaded first");
+
+    store(function, function, environment, code);
+  }
+
+  /**
+   * Stores the REIL code of a function in the cache.
+   *
+   * @param function The function whose code is stored.
+   * @param nativeCode The basic blocks of the function.
+   * @param environment The translation environment the REIL code was created with.
+   * @param code The REIL code of the function.
+   */
+  private void store(final INaviFunction function,
+      final IBlockContainer<INaviInstruction> nativeCode,
+      final ITranslationEnvironment environment, final ReilFunction code) {
+    final File file = getFile(function, environment);
+
+    try {
+      final Path directory = file.getParentFile().toPath();
+      Files.createDirectories(directory);
+
+      final byte[] data = ReilSerializer.serialize(code);
+      final ByteBuffer buffer = ByteBuffer.allocate(HASH_SIZE + data.length);
+      buffer.put(hash(nativeCode, environment));
+      buffer.put(data);
+
+      // Write to a temporary file first so readers never see partially written entries.
+      final Path temporary = Files.createTempFile(directory, "reil", ".tmp");
+
+      try {
+        Files.write(temporary, buffer.array());
+        Files.move(temporary, file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+            StandardCopyOption.ATOMIC_MOVE);
+      } finally {
+        Files.deleteIfExists(temporary);
+      }
+    } catch (final IOException exception) {
+      NaviLogger.warning("Could not write REIL cache file %s: %s", file, exception);
+    }
+  }
+
+  /**
+   * Returns the REIL code of a function. The code is loaded from the cache if it is up to date.
+   * Otherwise the function is translated and the result is stored in the cache.
+   *
+   * @param translator The translator used if the function is not in the cache.
+   * @param environment The translation environment of the REIL code.
+   * @param function The function whose code is returned. Functions that are not loaded are
+   *        translated without using the cache.
+   *
+   * @return The REIL code of the function.
+   *
+   * @throws InternalTranslationException Thrown if the function could not be translated.
+   */
+  public ReilFunction translate(final ReilTranslator<INaviInstruction> translator,
+      final ITranslationEnvironment environment, final INaviFunction function)
+      throws InternalTranslationException {
+    Preconditions.checkNotNull(translator, "IE03475: Translator argument can not be null");
+    Preconditions.checkNotNull(function, "IE03479: Function argument can not be null");
+
+    if (!function.isLoaded()) {
+      return translator.translate(environment, function);
+    }
+
+    ReilFunction code = load(function, environment);
+
+    if (code == null) {
+      code = translator.translate(environment, function);
+      store(function, function, environment, code);
+    }
+
+    return code;
+  }
+
+  /**
+   * Returns the REIL code of a view. If the view is the native flow graph view of a function, the
+   * code is loaded from the cache entry of the function if it is up to date. Otherwise the view is
+   * translated and, for native flow graph views, the result is stored in the cache.
+   *
+   * @param translator The translator used if the view is not in the cache.
+   * @param environment The translation environment of the REIL code.
+   * @param view The view whose code is returned.
+   *
+   * @return The REIL code of the view.
+   *
+   * @throws InternalTranslationException Thrown if the view could not be translated.
+   */
+  public ReilFunction translate(final ReilTranslator<INaviInstruction> translator,
+      final ITranslationEnvironment environment, final INaviView view)
+      throws InternalTranslationException {
+    Preconditions.checkNotNull(translator, "IE03476: Translator argument can not be null");
+    Preconditions.checkNotNull(environment, "IE03477: Environment argument can not be null");
+    Preconditions.checkNotNull(view, "IE03478: View argument can not be null");
+
+    final INaviFunction function = getFunction(view);
+
+    if (function == null) {
+      return translator.translate(environment, view);
+    }
+
+    ReilFunction code = load(function, view, environment);
+
+    if (code == null) {
+      code = translator.translate(environment, view);
+      store(function, view, environment, code);
+    }
+
+    return code;
+  }
+}
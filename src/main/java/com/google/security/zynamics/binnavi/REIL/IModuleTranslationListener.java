@@ -0,0 +1,45 @@
+// Copyright 2011-2016 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.security.zynamics.binnavi.REIL;
+
+import com.google.security.zynamics.binnavi.disassembly.INaviFunction;
+import com.google.security.zynamics.reil.ReilFunction;
+
+/**
+ * Interface for objects that want to be notified about the progress of a module translation.
+ * Listener methods are invoked from the worker threads of the translation pool and must be thread
+ * safe.
+ */
+public interface IModuleTranslationListener {
+  /**
+   * Invoked after a function was translated to REIL code.
+   *
+   * @param function The translated function.
+   * @param code The REIL code of the function.
+   * @param finished Number of functions that were already processed.
+   * @param total Total number of functions to process.
+   */
+  void translatedFunction(INaviFunction function, ReilFunction code, int finished, int total);
+
+  /**
+   * Invoked after a function could not be loaded or translated.
+   *
+   * @param function The function that could not be translated.
+   * @param exception The exception that caused the failure.
+   * @param finished Number of functions that were already processed.
+   * @param total Total number of functions to process.
+   */
+  void translationFailed(INaviFunction function, Exception exception, int finished, int total);
+}
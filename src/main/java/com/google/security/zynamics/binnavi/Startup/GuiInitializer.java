@@ -14,6 +14,7 @@
 
 package com.google.security.zynamics.binnavi.Startup;
 
+import com.google.security.zynamics.binnavi.Database.cache.CacheSettings;
 import com.google.security.zynamics.binnavi.Gui.HotKeys;
 import com.google.security.zynamics.binnavi.Log.NaviLogger;
 import com.google.security.zynamics.binnavi.Resources.Constants;
@@ -38,6 +39,20 @@ public final class GuiInitializer {
    */
   private GuiInitializer() {}
 
+  /**
+   * Sets up the size and the retention of the database caches.
+   */
+  private static void initializeCaches() {
+    final int maximumWeight =
+        ConfigManager.instance().getGeneralSettings().getCacheMaximumWeight();
+    if (maximumWeight > 0) {
+      CacheSettings.setMaximumWeight(maximumWeight);
+    } else {
+      NaviLogger.warning("Ignoring invalid cache weight %d from configuration file", maximumWeight);
+    }
+    CacheSettings.setSoftValues(ConfigManager.instance().getGeneralSettings().isCacheSoftValues());
+  }
+
   /**
    * Initializes the font sizes of the GUI.
    */
@@ -129,6 +144,7 @@ public final class GuiInitializer {
    */
   public static void initialize() {
     initializeLogging();
+    initializeCaches();
 
     System.setProperty(CMessageBox.DEFAULT_WINDOW_TITLE_PROPERTY, Constants.DEFAULT_WINDOW_TITLE);
     initializeFont();
@@ -38,6 +38,7 @@ import com.google.security.zynamics.binnavi.disassembly.algorithms.CUnInliner;
 import com.google.security.zynamics.binnavi.disassembly.types.BaseType;
 import com.google.security.zynamics.binnavi.disassembly.types.Section;
 import com.google.security.zynamics.binnavi.disassembly.types.SectionContainer;
+import com.google.security.zynamics.binnavi.disassembly.types.TypeInstance;
 import com.google.security.zynamics.binnavi.disassembly.types.TypeInstanceReference;
 import com.google.security.zynamics.binnavi.disassembly.types.TypeManager;
 import com.google.security.zynamics.binnavi.disassembly.views.INaviView;
@@ -142,6 +143,11 @@ public final class CCodeNodeMenu extends JPopupMenu {
     } else if (containingSections.size() > 1) {
       add(new GotoSectionMenu(containingSections, address, module));
     }
+    // The immediate can point into a type instance even if the operand does not reference it.
+    for (final TypeInstance instance : module.getContent().getTypeInstanceContainer()
+        .getTypeInstances(new CAddress(address), new CAddress(address + 1))) {
+      add(new GotoTypeInstanceAction(instance));
+    }
     addSeparator();
   }
 
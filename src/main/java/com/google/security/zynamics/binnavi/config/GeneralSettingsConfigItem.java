@@ -15,6 +15,7 @@
 package com.google.security.zynamics.binnavi.config;
 
 import com.google.common.collect.Lists;
+import com.google.security.zynamics.binnavi.Database.cache.CacheSettings;
 import com.google.security.zynamics.common.config.AbstractConfigItem;
 import com.google.security.zynamics.common.config.TypedPropertiesWrapper;
 
@@ -58,6 +59,15 @@ public class GeneralSettingsConfigItem extends AbstractConfigItem {
   private static final String DEFAULT_SCRIPTING_LANGUAGE_DEFAULT = "";
   private String defaultScriptingLanguage = DEFAULT_SCRIPTING_LANGUAGE_DEFAULT;
 
+  private static final String CACHE_MAXIMUM_WEIGHT = PROPERTY_PREFIX + "CacheMaximumWeight";
+  private static final int CACHE_MAXIMUM_WEIGHT_DEFAULT =
+      CacheSettings.DEFAULT_MAXIMUM_WEIGHT;
+  private int cacheMaximumWeight = CACHE_MAXIMUM_WEIGHT_DEFAULT;
+
+  private static final String CACHE_SOFT_VALUES = PROPERTY_PREFIX + "CacheSoftValues";
+  private static final boolean CACHE_SOFT_VALUES_DEFAULT = false;
+  private Boolean cacheSoftValues = CACHE_SOFT_VALUES_DEFAULT;
+
   private static final String PLUGINS_PREFIX = PROPERTY_PREFIX + "Plugins.";
   private static final String PLUGINS_COUNT = PLUGINS_PREFIX + "Count";
   private static final int PLUGINS_COUNT_DEFAULT = 0;
@@ -93,6 +103,9 @@ public class GeneralSettingsConfigItem extends AbstractConfigItem {
     logLevel = properties.getInteger(LOG_LEVEL, LOG_LEVEL_DEFAULT);
     defaultScriptingLanguage =
         properties.getString(DEFAULT_SCRIPTING_LANGUAGE, DEFAULT_SCRIPTING_LANGUAGE_DEFAULT);
+    cacheMaximumWeight =
+        properties.getInteger(CACHE_MAXIMUM_WEIGHT, CACHE_MAXIMUM_WEIGHT_DEFAULT);
+    cacheSoftValues = properties.getBoolean(CACHE_SOFT_VALUES, CACHE_SOFT_VALUES_DEFAULT);
     lastOpenWindow.load(properties);
     graphWindow.load(properties);
     lastDirectory = properties.getString(LAST_DIRECTORY, LAST_DIRECTORY_DEFAULT);
@@ -116,6 +129,8 @@ public class GeneralSettingsConfigItem extends AbstractConfigItem {
     if (defaultScriptingLanguage != null) {
       properties.setString(DEFAULT_SCRIPTING_LANGUAGE, defaultScriptingLanguage);
     }
+    properties.setInteger(CACHE_MAXIMUM_WEIGHT, cacheMaximumWeight);
+    properties.setBoolean(CACHE_SOFT_VALUES, cacheSoftValues);
     lastOpenWindow.store(properties);
     graphWindow.store(properties);
     properties.setString(LAST_DIRECTORY, lastDirectory);
@@ -194,6 +209,22 @@ public class GeneralSettingsConfigItem extends AbstractConfigItem {
     this.defaultScriptingLanguage = value;
   }
 
+  public Integer getCacheMaximumWeight() {
+    return cacheMaximumWeight;
+  }
+
+  public void setCacheMaximumWeight(final Integer value) {
+    this.cacheMaximumWeight = value;
+  }
+
+  public Boolean isCacheSoftValues() {
+    return cacheSoftValues;
+  }
+
+  public void setCacheSoftValues(final Boolean value) {
+    this.cacheSoftValues = value;
+  }
+
   public LastOpenWindowConfigItem getLastOpenWindow() {
     return lastOpenWindow;
   }
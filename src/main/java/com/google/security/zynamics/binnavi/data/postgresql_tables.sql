@@ -872,6 +872,9 @@ CREATE INDEX bn_address_references_module_id_idx
 CREATE INDEX bn_address_references_target_idx
   ON bn_address_references USING btree (target);
 
+CREATE INDEX bn_address_references_module_id_target_idx
+  ON bn_address_references USING btree (module_id, target, address, "position", expression_id, type);
+
 CREATE INDEX bn_address_references_type_idx
   ON bn_address_references USING btree (type);
 
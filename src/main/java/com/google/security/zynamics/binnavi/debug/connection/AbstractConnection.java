@@ -14,7 +14,11 @@
 
 package com.google.security.zynamics.binnavi.debug.connection;
 
+import com.google.common.base.Function;
 import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
 import com.google.security.zynamics.binnavi.Log.NaviLogger;
 import com.google.security.zynamics.binnavi.debug.connection.helpers.PacketIdGenerator;
 import com.google.security.zynamics.binnavi.debug.connection.interfaces.ClientReader;
@@ -46,7 +50,11 @@ import com.google.security.zynamics.binnavi.debug.connection.packets.commands.Si
 import com.google.security.zynamics.binnavi.debug.connection.packets.commands.SuspendThreadCommand;
 import com.google.security.zynamics.binnavi.debug.connection.packets.commands.TerminateCommand;
 import com.google.security.zynamics.binnavi.debug.connection.packets.commands.WriteMemoryCommand;
+import com.google.security.zynamics.binnavi.debug.connection.packets.replies.AuthenticationFailedReply;
+import com.google.security.zynamics.binnavi.debug.connection.packets.replies.DebuggerClosedUnexpectedlyReply;
 import com.google.security.zynamics.binnavi.debug.connection.packets.replies.DebuggerReply;
+import com.google.security.zynamics.binnavi.debug.connection.packets.replies.ReadMemoryReply;
+import com.google.security.zynamics.binnavi.debug.connection.packets.replies.RegistersReply;
 import com.google.security.zynamics.binnavi.debug.models.breakpoints.enums.BreakpointType;
 import com.google.security.zynamics.binnavi.debug.models.breakpoints.interfaces.Condition;
 import com.google.security.zynamics.binnavi.debug.models.targetinformation.DebuggerException;
@@ -57,12 +65,21 @@ import com.google.security.zynamics.zylib.disassembly.IAddress;
 
 import java.io.IOException;
 import java.math.BigInteger;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.LinkedBlockingQueue;
 
 /**
  * Base class for all concrete connection classes.
+ *
+ * Besides the fire-and-forget send methods, the connection offers pipelined request methods that
+ * return a future for the reply. Any number of these requests can be in flight at the same time;
+ * replies are matched to their requests by message ID when they are dispatched to the listeners.
  */
 public abstract class AbstractConnection implements DebugConnection {
   /**
@@ -95,6 +112,12 @@ public abstract class AbstractConnection implements DebugConnection {
    */
   private Thread workerThread;
 
+  /**
+   * Pipelined requests that are still waiting for their reply, keyed by message ID.
+   */
+  private final ConcurrentMap<Integer, SettableFuture<DebuggerReply>> pendingRequests =
+      new ConcurrentHashMap<>();
+
   /**
    * Creates a new abstract connection object.
    */
@@ -102,6 +125,15 @@ public abstract class AbstractConnection implements DebugConnection {
     // Create the thread that fetches debug events from the queue
     // and notifies all objects that want to be notified about these events.
     pipeFetcherThread = new PipeFetcher(eventQueue);
+
+    // Pending requests are completed after the regular listeners have processed the reply, so
+    // callers waiting for a future see the updated debugger state.
+    pipeFetcherThread.addProtocolEventListener(new DebugEventListener() {
+      @Override
+      public void receivedEvent(final DebuggerReply event) {
+        completeRequest(event);
+      }
+    });
   }
 
   /**
@@ -113,6 +145,75 @@ public abstract class AbstractConnection implements DebugConnection {
     return packetIdGenerator.next();
   }
 
+  /**
+   * Completes the pending request a reply belongs to. Replies that indicate a lost connection fail
+   * all pending requests.
+   *
+   * @param reply The reply received from the debug client.
+   */
+  private void completeRequest(final DebuggerReply reply) {
+    if ((reply instanceof DebuggerClosedUnexpectedlyReply)
+        || (reply instanceof AuthenticationFailedReply)) {
+      failPendingRequests(new IOException("Connection to the debug client was lost"));
+      return;
+    }
+
+    final SettableFuture<DebuggerReply> request = pendingRequests.remove(reply.getId());
+
+    if (request != null) {
+      request.set(reply);
+    }
+  }
+
+  /**
+   * Fails all pending requests.
+   *
+   * @param exception The exception passed to the futures of the pending requests.
+   */
+  private void failPendingRequests(final IOException exception) {
+    for (final Map.Entry<Integer, SettableFuture<DebuggerReply>> entry :
+        pendingRequests.entrySet()) {
+      if (pendingRequests.remove(entry.getKey(), entry.getValue())) {
+        entry.getValue().setException(exception);
+      }
+    }
+  }
+
+  /**
+   * Sends a command to the debug client without waiting for the reply.
+   *
+   * @param command The command to send.
+   * @param replyType The expected type of the reply.
+   *
+   * @return Future that receives the reply to the command. The future fails with an IOException if
+   *         the command could not be sent or the connection is lost before the reply arrives.
+   */
+  private <T extends DebuggerReply> ListenableFuture<T> sendRequest(final DebugCommand command,
+      final Class<T> replyType) {
+    final SettableFuture<DebuggerReply> request = SettableFuture.create();
+
+    // The request must be registered before sending because the reply can arrive before
+    // sendPacket returns.
+    pendingRequests.put(command.getPacketId(), request);
+
+    try {
+      sendPacket(command);
+    } catch (final IOException exception) {
+      pendingRequests.remove(command.getPacketId());
+      request.setException(exception);
+    }
+
+    return Futures.transform(request, new Function<DebuggerReply, T>() {
+      @Override
+      public T apply(final DebuggerReply reply) {
+        Preconditions.checkState(replyType.isInstance(reply),
+            "IE03433: Received reply of unexpected type %s", reply.getClass().getSimpleName());
+
+        return replyType.cast(reply);
+      }
+    });
+  }
+
   /**
    * Sends a debug message to the debug client.
    *
@@ -180,6 +281,86 @@ public abstract class AbstractConnection implements DebugConnection {
     pipeFetcherThread.removeProtocolEventListener(listener);
   }
 
+  /**
+   * Sends a pipelined Set Breakpoint request to the debug client.
+   *
+   * @param addresses Addresses of the breakpoints.
+   * @param type Type of the breakpoints.
+   *
+   * @return Future that receives the reply of the debug client.
+   */
+  public ListenableFuture<DebuggerReply> requestBreakpoints(final Set<RelocatedAddress> addresses,
+      final BreakpointType type) {
+    Preconditions.checkArgument(addresses.size() != 0, "IE03434: Addresses can not be empty");
+    return sendRequest(new SetBreakpointCommand(getMessageId(), addresses, type),
+        DebuggerReply.class);
+  }
+
+  /**
+   * Sends a pipelined Remove Breakpoint request to the debug client.
+   *
+   * @param addresses Addresses of the breakpoints.
+   * @param type Type of the breakpoints.
+   *
+   * @return Future that receives the reply of the debug client.
+   */
+  public ListenableFuture<DebuggerReply> requestBreakpointRemoval(
+      final Set<RelocatedAddress> addresses, final BreakpointType type) {
+    Preconditions.checkArgument(addresses.size() != 0, "IE03435: Addresses can not be empty");
+    return sendRequest(new RemoveBreakpointsCommand(getMessageId(), addresses, type),
+        DebuggerReply.class);
+  }
+
+  /**
+   * Sends a pipelined Read Memory request to the debug client.
+   *
+   * @param address The start address from where the memory is read.
+   * @param length The number of bytes to read.
+   *
+   * @return Future that receives the reply of the debug client.
+   */
+  public ListenableFuture<ReadMemoryReply> requestMemory(final IAddress address,
+      final int length) {
+    Preconditions.checkNotNull(address, "IE03436: Address argument can not be null");
+    return sendRequest(
+        new RequestMemoryCommand(getMessageId(), address, new CAddress(length)),
+        ReadMemoryReply.class);
+  }
+
+  /**
+   * Reads a memory range page by page. All page requests are sent before any reply is awaited, so
+   * reading the range takes roughly one round trip to the debug client.
+   *
+   * @param address The start address of the memory range.
+   * @param length The number of bytes to read.
+   * @param pageSize The maximum number of bytes requested per page.
+   *
+   * @return Future that receives the replies of all pages in address order.
+   */
+  public ListenableFuture<List<ReadMemoryReply>> requestMemoryRange(final IAddress address,
+      final long length, final int pageSize) {
+    Preconditions.checkNotNull(address, "IE03437: Address argument can not be null");
+    Preconditions.checkArgument(pageSize > 0, "IE03438: Page size must be positive");
+
+    final List<ListenableFuture<ReadMemoryReply>> pages = new ArrayList<>();
+
+    for (long offset = 0; offset < length; offset += pageSize) {
+      pages.add(requestMemory(new CAddress(address.toBigInteger().add(BigInteger.valueOf(offset))),
+          (int) Math.min(pageSize, length - offset)));
+    }
+
+    return Futures.allAsList(pages);
+  }
+
+  /**
+   * Sends a pipelined Get Registers request to the debug client.
+   *
+   * @return Future that receives the reply of the debug client.
+   */
+  public ListenableFuture<RegistersReply> requestRegisters() {
+    return sendRequest(new RequestRegistersCommand(getMessageId()), RegistersReply.class);
+  }
+
   /**
    * Sets a number of breakpoints.
    *
@@ -457,5 +638,7 @@ public abstract class AbstractConnection implements DebugConnection {
       pipeFetcherThread.shutdown();
       fetcherThread.interrupt();
     }
+
+    failPendingRequests(new IOException("Connection to the debug client was shut down"));
   }
 }
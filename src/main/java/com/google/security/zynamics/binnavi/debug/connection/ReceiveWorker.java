@@ -17,7 +17,7 @@ package com.google.security.zynamics.binnavi.debug.connection;
 import com.google.common.base.Preconditions;
 import com.google.security.zynamics.binnavi.CUtilityFunctions;
 import com.google.security.zynamics.binnavi.Log.NaviLogger;
-import com.google.security.zynamics.binnavi.debug.connection.helpers.DebugProtocolHelper;
+import com.google.security.zynamics.binnavi.debug.connection.helpers.BufferedClientReader;
 import com.google.security.zynamics.binnavi.debug.connection.interfaces.ClientReader;
 import com.google.security.zynamics.binnavi.debug.connection.packets.replies.AuthenticationFailedReply;
 import com.google.security.zynamics.binnavi.debug.connection.packets.replies.DebuggerReply;
@@ -30,6 +30,7 @@ import com.google.security.zynamics.binnavi.debug.connection.packets.replyparser
 
 import java.io.IOException;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.logging.Level;
 
 /**
  * Worker thread class that processes messages from the debug client.
@@ -41,9 +42,10 @@ public final class ReceiveWorker implements Runnable {
   private boolean peacefulShutdown = false;
 
   /**
-   * Input stream that reads data from the debug client.
+   * Input stream that reads data from the debug client. The reply parsers read from the same
+   * buffered stream.
    */
-  private final ClientReader workerInputStream;
+  private final BufferedClientReader workerInputStream;
 
   /**
    * Data is read from the debug client as long as this flag is false.
@@ -74,10 +76,11 @@ public final class ReceiveWorker implements Runnable {
    */
   public ReceiveWorker(final ClientReader inputStream,
       final LinkedBlockingQueue<DebuggerReply> eventQueue) {
-    workerInputStream =
-        Preconditions.checkNotNull(inputStream, "IE00743: Input stream can not be null");
+    Preconditions.checkNotNull(inputStream, "IE00743: Input stream can not be null");
     this.eventQueue = Preconditions.checkNotNull(eventQueue, "IE00744: Event queue can't be null");
-    parserFactory = new ParserFactory(inputStream);
+    workerInputStream = inputStream instanceof BufferedClientReader
+        ? (BufferedClientReader) inputStream : new BufferedClientReader(inputStream);
+    parserFactory = new ParserFactory(workerInputStream);
   }
 
   /**
@@ -104,7 +107,7 @@ public final class ReceiveWorker implements Runnable {
 
         try {
           // Read the type and the ID of the next message
-          messageType = (int) DebugProtocolHelper.readDWord(workerInputStream);
+          messageType = (int) workerInputStream.readDWord();
 
           if (waitingForAuthentication) {
             // The first message expected from the debug client is a simple 'NAVI'.
@@ -120,10 +123,13 @@ public final class ReceiveWorker implements Runnable {
             }
           }
 
-          messageId = (int) DebugProtocolHelper.readDWord(workerInputStream);
-          if (messageType != DebugCommandType.RESP_READ_MEMORY_SUCCESS) {
-            NaviLogger.info(String.format("Debug message of type %d %s arrived", messageType,
-                DebugCommandType.getMessageName(messageType)));
+          messageId = (int) workerInputStream.readDWord();
+
+          // Checking the log level first keeps message formatting off the hot path.
+          if (messageType != DebugCommandType.RESP_READ_MEMORY_SUCCESS
+              && NaviLogger.isLoggable(Level.INFO)) {
+            NaviLogger.info("Debug message of type %d %s arrived", messageType,
+                DebugCommandType.getMessageName(messageType));
           }
 
         } catch (final IOException ex) {
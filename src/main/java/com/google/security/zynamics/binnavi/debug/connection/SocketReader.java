@@ -17,18 +17,21 @@ package com.google.security.zynamics.binnavi.debug.connection;
 import com.google.common.base.Preconditions;
 import com.google.security.zynamics.binnavi.debug.connection.interfaces.ClientReader;
 
-import java.io.BufferedInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.Socket;
 
 /**
- * Reader class that is used for TCP/IP connections to the debug client.
+ * Reader class that is used for TCP/IP connections to the debug client. The reader is not buffered
+ * itself because the receive worker reads through a {@link
+ * com.google.security.zynamics.binnavi.debug.connection.helpers.BufferedClientReader} that
+ * transfers all available bytes in bulk.
  */
 public final class SocketReader implements ClientReader {
   /**
    * Input stream that is used to read data from the debug client.
    */
-  private final BufferedInputStream m_InputStream;
+  private final InputStream m_InputStream;
 
   /**
    * Creates a new socket reader object.
@@ -39,7 +42,7 @@ public final class SocketReader implements ClientReader {
    */
   public SocketReader(final Socket socket) throws IOException {
     Preconditions.checkNotNull(socket, "IE00745: Socket can not be null");
-    m_InputStream = new BufferedInputStream(socket.getInputStream());
+    m_InputStream = socket.getInputStream();
   }
 
   /**
@@ -0,0 +1,258 @@
+// Copyright 2011-2016 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.security.zynamics.binnavi.debug.connection.helpers;
+
+import com.google.common.base.Preconditions;
+import com.google.security.zynamics.binnavi.Log.NaviLogger;
+import com.google.security.zynamics.binnavi.debug.connection.interfaces.ClientReader;
+import com.google.security.zynamics.binnavi.debug.connection.packets.arguments.DebugArgumentType;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Reader that reads data from the debug client in bulk into a byte buffer and decodes the fields of
+ * the debug protocol directly from that buffer. All bytes that are available from the underlying
+ * reader are transferred with a single read call, so decoding a message usually does not touch the
+ * underlying reader at all.
+ *
+ * Reply parsers and the receive worker must share the same buffered reader because bytes that were
+ * read ahead are only available through this reader.
+ */
+public final class BufferedClientReader implements ClientReader {
+  /**
+   * Size of the read buffer in bytes.
+   */
+  private static final int BUFFER_SIZE = 1 << 16;
+
+  /**
+   * The reader the data is read from.
+   */
+  private final ClientReader source;
+
+  /**
+   * Holds the bytes that were read from the underlying reader but not yet consumed. The buffer is
+   * always in read mode.
+   */
+  private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+
+  /**
+   * Creates a new buffered reader.
+   *
+   * @param source The reader the data is read from.
+   */
+  public BufferedClientReader(final ClientReader source) {
+    this.source = Preconditions.checkNotNull(source, "IE03432: Source argument can not be null");
+    buffer.limit(0);
+  }
+
+  /**
+   * Makes sure that at least the given number of bytes is in the buffer.
+   *
+   * @param count The number of bytes required. This must not exceed the buffer size.
+   *
+   * @throws IOException Thrown if the bytes could not be read.
+   */
+  private void ensure(final int count) throws IOException {
+    if (buffer.remaining() >= count) {
+      return;
+    }
+
+    buffer.compact();
+
+    try {
+      while (buffer.position() < count) {
+        final int read = readFromSource(buffer.array(), buffer.arrayOffset() + buffer.position(),
+            buffer.remaining());
+
+        buffer.position(buffer.position() + read);
+      }
+    } finally {
+      buffer.flip();
+    }
+  }
+
+  /**
+   * Reads a DWORD value and compares it to an expected value.
+   *
+   * @param expectedValue The expected value of the DWORD.
+   *
+   * @return The read DWORD value.
+   */
+  private long readDWord(final long expectedValue) {
+    final long value = buffer.getInt() & 0xFFFFFFFFL;
+
+    if (value != expectedValue) {
+      NaviLogger.severe("Error: Received value does not match expected value");
+    }
+
+    return value;
+  }
+
+  /**
+   * Reads as many bytes from the underlying reader as are available without blocking. If no bytes
+   * are available, the method blocks until a single byte can be read.
+   *
+   * @param data Destination buffer.
+   * @param offset Offset at which to start storing bytes.
+   * @param length Maximum number of bytes to read.
+   *
+   * @return The number of bytes read.
+   *
+   * @throws IOException Thrown if the end of the stream was reached or reading failed.
+   */
+  private int readFromSource(final byte[] data, final int offset, final int length)
+      throws IOException {
+    final int available = source.available();
+
+    if (available > 0) {
+      final int read = source.read(data, offset, Math.min(available, length));
+
+      if (read == -1) {
+        throw new IOException("End of input stream");
+      }
+
+      return read;
+    }
+
+    final int value = source.read();
+
+    if (value == -1) {
+      throw new IOException("End of input stream");
+    }
+
+    data[offset] = (byte) value;
+
+    return 1;
+  }
+
+  @Override
+  public int available() throws IOException {
+    return buffer.remaining() + source.available();
+  }
+
+  @Override
+  public int read() throws IOException {
+    return buffer.hasRemaining() ? buffer.get() & 0xFF : source.read();
+  }
+
+  @Override
+  public int read(final byte[] data, final int offset, final int length) throws IOException {
+    if (!buffer.hasRemaining()) {
+      return source.read(data, offset, length);
+    }
+
+    final int count = Math.min(length, buffer.remaining());
+
+    buffer.get(data, offset, count);
+
+    return count;
+  }
+
+  /**
+   * Reads an address argument.
+   *
+   * @return The address that was read.
+   *
+   * @throws IOException Thrown if reading the address failed.
+   */
+  public long readAddress() throws IOException {
+    ensure(16);
+
+    readDWord(8); // discard length
+    readDWord(DebugArgumentType.ADDRESS.getValue());
+
+    return buffer.getLong();
+  }
+
+  /**
+   * Reads a number of bytes. Bytes that are already buffered are copied from the buffer, large
+   * remainders are read directly into the result array.
+   *
+   * @param length The number of bytes to read.
+   *
+   * @return The bytes that were read.
+   *
+   * @throws IOException Thrown if the bytes could not be read.
+   */
+  public byte[] readBytes(final int length) throws IOException {
+    final byte[] data = new byte[length];
+
+    int read = 0;
+
+    while (read < length) {
+      if (!buffer.hasRemaining()) {
+        if (length - read >= buffer.capacity()) {
+          read += readFromSource(data, read, length - read);
+          continue;
+        }
+
+        ensure(1);
+      }
+
+      final int count = Math.min(length - read, buffer.remaining());
+
+      buffer.get(data, read, count);
+      read += count;
+    }
+
+    return data;
+  }
+
+  /**
+   * Reads a data argument.
+   *
+   * @return The bytes of the data argument.
+   *
+   * @throws IOException Thrown if reading the data argument failed.
+   */
+  public byte[] readData() throws IOException {
+    ensure(8);
+
+    final int length = buffer.getInt();
+    readDWord(DebugArgumentType.DATA.getValue());
+
+    return readBytes(length);
+  }
+
+  /**
+   * Reads a DWORD value.
+   *
+   * @return The read DWORD value.
+   *
+   * @throws IOException Thrown if reading the value failed.
+   */
+  public long readDWord() throws IOException {
+    ensure(4);
+
+    return buffer.getInt() & 0xFFFFFFFFL;
+  }
+
+  /**
+   * Reads a thread ID argument.
+   *
+   * @return The thread ID that was read.
+   *
+   * @throws IOException Thrown if reading the thread ID failed.
+   */
+  public long readThreadId() throws IOException {
+    ensure(12);
+
+    readDWord(4); // discard length
+    readDWord(DebugArgumentType.INTEGER.getValue());
+
+    return buffer.getInt() & 0xFFFFFFFFL;
+  }
+}
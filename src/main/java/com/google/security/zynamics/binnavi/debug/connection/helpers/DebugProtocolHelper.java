@@ -23,7 +23,8 @@ import java.io.IOException;
 
 /**
  * This class provides a collection of helper classes used for reading values from a binary stream
- * into values used by the debug protocol classes.
+ * into values used by the debug protocol classes. Values read from a {@link BufferedClientReader}
+ * are decoded directly from its buffer.
  */
 public final class DebugProtocolHelper {
   /**
@@ -88,6 +89,10 @@ public final class DebugProtocolHelper {
    * @throws IOException Thrown if reading from the input stream fails.
    */
   public static long readAddress(final ClientReader inputStream) throws IOException {
+    if (inputStream instanceof BufferedClientReader) {
+      return ((BufferedClientReader) inputStream).readAddress();
+    }
+
     // read address from socket
     readDWord(inputStream, 8); // discard length
     readDWord(inputStream, DebugArgumentType.ADDRESS.getValue());
@@ -111,6 +116,10 @@ public final class DebugProtocolHelper {
    * @throws IOException Thrown if reading from the stream fails.
    */
   public static byte[] readData(final ClientReader inputStream) throws IOException {
+    if (inputStream instanceof BufferedClientReader) {
+      return ((BufferedClientReader) inputStream).readData();
+    }
+
     final int length = (int) readDWord(inputStream);
     readDWord(inputStream, DebugArgumentType.DATA.getValue());
 
@@ -127,6 +136,10 @@ public final class DebugProtocolHelper {
    * @throws IOException Thrown if reading from the stream fails.
    */
   public static long readDWord(final ClientReader inputStream) throws IOException {
+    if (inputStream instanceof BufferedClientReader) {
+      return ((BufferedClientReader) inputStream).readDWord();
+    }
+
     long dword, readByte;
     readByte = inputStream.read();
 
@@ -169,6 +182,10 @@ public final class DebugProtocolHelper {
    * @throws IOException Thrown if reading from the input stream fails.
    */
   public static long readThreadId(final ClientReader inputStream) throws IOException {
+    if (inputStream instanceof BufferedClientReader) {
+      return ((BufferedClientReader) inputStream).readThreadId();
+    }
+
     // read TID from socket
     readDWord(inputStream, 4); // discard length
     readDWord(inputStream, DebugArgumentType.INTEGER.getValue());
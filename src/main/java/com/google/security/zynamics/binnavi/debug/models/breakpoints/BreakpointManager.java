@@ -173,16 +173,18 @@ public final class BreakpointManager {
 
   private void setBreakpointsStatus(final Set<BreakpointAddress> addresses,
       final BreakpointStatus newStatus, final BreakpointStorage storage) {
-    if (storage.getBreakPointsByAddress(addresses).isEmpty()) {
-      return;
-    }
-
     final Map<Breakpoint, BreakpointStatus> breakpointToStatus = Maps.newHashMap();
 
     for (final BreakpointAddress breakpointAddress : addresses) {
-      breakpointToStatus.put(storage.get(breakpointAddress),
-          storage.getBreakpointStatus(breakpointAddress));
-      storage.setBreakpointStatus(breakpointAddress, newStatus);
+      final Breakpoint breakpoint = storage.get(breakpointAddress);
+      if (breakpoint != null) {
+        breakpointToStatus.put(breakpoint, storage.getBreakpointStatus(breakpointAddress));
+        storage.setBreakpointStatus(breakpointAddress, newStatus);
+      }
+    }
+
+    if (breakpointToStatus.isEmpty()) {
+      return;
     }
 
     for (final BreakpointManagerListener listener : listeners) {
@@ -104,8 +104,7 @@ class DefaultBreakpointStorage implements BreakpointStorage {
 
   @Override
   public void remove(final Breakpoint breakpoint) {
-    // TODO: check if this can be optimized.
-    moduleToBreakpoint.get(breakpoint.getAddress().getModule()).remove(breakpoint);
+    moduleToBreakpoint.remove(breakpoint.getAddress().getModule(), breakpoint);
     breakpointAddressToBreakpoint.remove(breakpoint.getAddress());
     breakpointAddressToStatus.remove(breakpoint.getAddress());
   }
@@ -114,7 +113,9 @@ class DefaultBreakpointStorage implements BreakpointStorage {
   public void removeBreakpoints(final Set<BreakpointAddress> addresses) {
     for (final BreakpointAddress breakpointAddres : addresses) {
       final Breakpoint breakpoint = breakpointAddressToBreakpoint.remove(breakpointAddres);
-      moduleToBreakpoint.get(breakpointAddres.getModule()).remove(breakpoint);
+      if (breakpoint != null) {
+        moduleToBreakpoint.remove(breakpointAddres.getModule(), breakpoint);
+      }
       breakpointAddressToStatus.remove(breakpointAddres);
     }
   }
@@ -15,15 +15,20 @@
 package com.google.security.zynamics.binnavi.debug.models.breakpoints;
 
 import com.google.common.base.Preconditions;
+import com.google.common.base.Predicates;
+import com.google.common.collect.Iterables;
 import com.google.security.zynamics.binnavi.debug.models.breakpoints.enums.BreakpointStatus;
 import com.google.security.zynamics.binnavi.debug.models.breakpoints.interfaces.IndexedBreakpointStorage;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 
 /**
  * The GUI needs to be able to retrieve regular breakpoints via an index (for the breakpoints table)
- * so we store them in a list as well.
+ * so we store them in a list as well. The list keeps the order in which the breakpoints were added,
+ * so the indices of the remaining breakpoints only shift when breakpoints in front of them are
+ * removed.
  */
 public class RegularBreakpointStorage extends DefaultBreakpointStorage implements
     IndexedBreakpointStorage {
@@ -54,4 +59,15 @@ public class RegularBreakpointStorage extends DefaultBreakpointStorage implement
     super.remove(breakpoint);
     breakpoints.remove(breakpoint);
   }
+
+  @Override
+  public void removeBreakpoints(final Set<BreakpointAddress> addresses) {
+    // The breakpoints must be determined before they are removed because the addresses can be a
+    // view on the addresses of this storage.
+    final Set<Breakpoint> removedBreakpoints = getBreakPointsByAddress(addresses);
+    super.removeBreakpoints(addresses);
+
+    // Compacts the list in a single pass instead of searching it once per removed breakpoint.
+    Iterables.removeIf(breakpoints, Predicates.in(removedBreakpoints));
+  }
 }
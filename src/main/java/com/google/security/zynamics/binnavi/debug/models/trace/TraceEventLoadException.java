@@ -0,0 +1,40 @@
+// Copyright 2011-2016 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.security.zynamics.binnavi.debug.models.trace;
+
+import com.google.security.zynamics.binnavi.Database.Exceptions.CouldntLoadDataException;
+
+/**
+ * Exception that is thrown when stored events of a trace list are accessed but could not be loaded
+ * from the database. Code that can not handle checked exceptions, like iterators, throws this
+ * exception. The original load exception is available as the cause.
+ */
+public final class TraceEventLoadException extends RuntimeException {
+  private static final long serialVersionUID = -3590870347227826311L;
+
+  /**
+   * Creates a new exception object.
+   *
+   * @param cause The exception that was thrown while loading the events.
+   */
+  public TraceEventLoadException(final CouldntLoadDataException cause) {
+    super(cause);
+  }
+
+  @Override
+  public synchronized CouldntLoadDataException getCause() {
+    return (CouldntLoadDataException) super.getCause();
+  }
+}
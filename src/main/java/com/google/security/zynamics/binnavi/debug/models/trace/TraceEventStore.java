@@ -0,0 +1,494 @@
+// Copyright 2011-2016 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.security.zynamics.binnavi.debug.models.trace;
+
+import com.google.common.base.Preconditions;
+import com.google.common.primitives.Ints;
+import com.google.security.zynamics.binnavi.debug.models.breakpoints.BreakpointAddress;
+import com.google.security.zynamics.binnavi.debug.models.trace.interfaces.ITraceEvent;
+import com.google.security.zynamics.binnavi.disassembly.INaviModule;
+import com.google.security.zynamics.binnavi.disassembly.UnrelocatedAddress;
+import com.google.security.zynamics.zylib.disassembly.CAddress;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+/**
+ * Column-oriented storage for the events of a trace. Thread IDs, addresses, event types and modules
+ * are stored in primitive arrays. Register values are delta-encoded: every event only stores the
+ * registers whose value or memory changed since the previous event, and a full snapshot is stored
+ * at regular intervals or whenever the set of recorded registers changes. Events are returned as
+ * lightweight views that decode their data on access.
+ *
+ * Events can only be appended, so the first n events never change once they were added. All
+ * methods of this class are thread-safe.
+ */
+final class TraceEventStore {
+  /**
+   * Maximum number of events between two full register snapshots.
+   */
+  private static final int KEYFRAME_INTERVAL = 64;
+
+  /**
+   * Initial capacity of the event columns.
+   */
+  private static final int INITIAL_CAPACITY = 16;
+
+  /**
+   * Thread IDs of the events.
+   */
+  private long[] threadIds = new long[INITIAL_CAPACITY];
+
+  /**
+   * Addresses of the events.
+   */
+  private long[] addresses = new long[INITIAL_CAPACITY];
+
+  /**
+   * Ordinals of the event types.
+   */
+  private byte[] types = new byte[INITIAL_CAPACITY];
+
+  /**
+   * Indices of the event modules in the module table or -1 for events without module.
+   */
+  private int[] moduleIndices = new int[INITIAL_CAPACITY];
+
+  /**
+   * Indices of the register layouts of the events.
+   */
+  private int[] layoutIndices = new int[INITIAL_CAPACITY];
+
+  /**
+   * Index of the first register entry of each event.
+   */
+  private int[] entryStart = new int[INITIAL_CAPACITY];
+
+  /**
+   * Events that store a full register snapshot.
+   */
+  private final BitSet keyframes = new BitSet();
+
+  /**
+   * Number of stored events.
+   */
+  private int size = 0;
+
+  /**
+   * Positions of the registers of the register entries in their layout.
+   */
+  private int[] entrySlots = new int[INITIAL_CAPACITY];
+
+  /**
+   * Register values of the register entries.
+   */
+  private long[] entryValues = new long[INITIAL_CAPACITY];
+
+  /**
+   * Memory of the register entries. Identical memory arrays of consecutive events are shared.
+   */
+  private byte[][] entryMemory = new byte[INITIAL_CAPACITY][];
+
+  /**
+   * Number of stored register entries.
+   */
+  private int entryCount = 0;
+
+  /**
+   * Modules of the events.
+   */
+  private final List<INaviModule> modules = new ArrayList<>();
+
+  /**
+   * Maps modules to their index in the module table.
+   */
+  private final Map<INaviModule, Integer> moduleTable = new IdentityHashMap<>();
+
+  /**
+   * Interned register names.
+   */
+  private final List<String> registerNames = new ArrayList<>();
+
+  /**
+   * Maps register names to their index in the register name table.
+   */
+  private final Map<String, Integer> registerNameTable = new HashMap<>();
+
+  /**
+   * Register layouts. A layout is the ordered list of register name indices of an event.
+   */
+  private final List<int[]> layouts = new ArrayList<>();
+
+  /**
+   * Maps register layouts to their index in the layout table.
+   */
+  private final Map<List<Integer>, Integer> layoutTable = new HashMap<>();
+
+  /**
+   * Layout of the last added event.
+   */
+  private int lastLayout = -1;
+
+  /**
+   * Register values of the last added event.
+   */
+  private long[] lastValues = new long[0];
+
+  /**
+   * Register memory of the last added event.
+   */
+  private byte[][] lastMemory = new byte[0][];
+
+  /**
+   * Returns the index of a module in the module table.
+   */
+  private int internModule(final INaviModule module) {
+    if (module == null) {
+      return -1;
+    }
+
+    final Integer index = moduleTable.get(module);
+
+    if (index != null) {
+      return index;
+    }
+
+    moduleTable.put(module, modules.size());
+    modules.add(module);
+
+    return modules.size() - 1;
+  }
+
+  /**
+   * Returns the index of the layout of the given registers in the layout table.
+   */
+  private int internLayout(final List<TraceRegister> registers) {
+    final int[] layout = new int[registers.size()];
+
+    for (int i = 0; i < layout.length; i++) {
+      final String name = registers.get(i).getName();
+
+      Integer nameIndex = registerNameTable.get(name);
+
+      if (nameIndex == null) {
+        nameIndex = registerNames.size();
+        registerNameTable.put(name, nameIndex);
+        registerNames.add(name);
+      }
+
+      layout[i] = nameIndex;
+    }
+
+    final List<Integer> key = Ints.asList(layout);
+    final Integer index = layoutTable.get(key);
+
+    if (index != null) {
+      return index;
+    }
+
+    layoutTable.put(key, layouts.size());
+    layouts.add(layout);
+
+    return layouts.size() - 1;
+  }
+
+  /**
+   * Makes sure that the event columns can hold one more event.
+   */
+  private void ensureEventCapacity() {
+    if (size < threadIds.length) {
+      return;
+    }
+
+    final int capacity = threadIds.length * 2;
+
+    threadIds = Arrays.copyOf(threadIds, capacity);
+    addresses = Arrays.copyOf(addresses, capacity);
+    types = Arrays.copyOf(types, capacity);
+    moduleIndices = Arrays.copyOf(moduleIndices, capacity);
+    layoutIndices = Arrays.copyOf(layoutIndices, capacity);
+    entryStart = Arrays.copyOf(entryStart, capacity);
+  }
+
+  /**
+   * Appends a register entry to the entry columns.
+   */
+  private void addEntry(final int slot, final long value, final byte[] memory) {
+    if (entryCount == entrySlots.length) {
+      final int capacity = entrySlots.length * 2;
+
+      entrySlots = Arrays.copyOf(entrySlots, capacity);
+      entryValues = Arrays.copyOf(entryValues, capacity);
+      entryMemory = Arrays.copyOf(entryMemory, capacity);
+    }
+
+    entrySlots[entryCount] = slot;
+    entryValues[entryCount] = value;
+    entryMemory[entryCount] = memory;
+    entryCount++;
+  }
+
+  /**
+   * Returns the index after the last register entry of an event.
+   */
+  private int getEntryEnd(final int index) {
+    return index + 1 == size ? entryCount : entryStart[index + 1];
+  }
+
+  /**
+   * Appends an event to the store.
+   *
+   * @param event The event to append.
+   *
+   * @return The index of the appended event.
+   */
+  public synchronized int add(final ITraceEvent event) {
+    ensureEventCapacity();
+
+    final BreakpointAddress offset = event.getOffset();
+    final List<TraceRegister> registers = event.getRegisterValues();
+
+    threadIds[size] = event.getThreadId();
+    addresses[size] = offset.getAddress().getAddress().toLong();
+    types[size] = (byte) event.getType().ordinal();
+    moduleIndices[size] = internModule(offset.getModule());
+    entryStart[size] = entryCount;
+
+    final int layout = internLayout(registers);
+    final boolean keyframe = (layout != lastLayout) || ((size % KEYFRAME_INTERVAL) == 0);
+
+    layoutIndices[size] = layout;
+
+    if (keyframe) {
+      keyframes.set(size);
+    }
+
+    if (layout != lastLayout) {
+      lastLayout = layout;
+      lastValues = new long[registers.size()];
+      lastMemory = new byte[registers.size()][];
+    }
+
+    for (int slot = 0; slot < registers.size(); slot++) {
+      final TraceRegister register = registers.get(slot);
+      final long value = register.getValue().toLong();
+      final byte[] memory = register.getMemory();
+
+      final boolean sameMemory = Arrays.equals(memory, lastMemory[slot]);
+
+      if (keyframe || !sameMemory || (value != lastValues[slot])) {
+        final byte[] storedMemory = sameMemory ? lastMemory[slot] : memory;
+
+        addEntry(slot, value, storedMemory);
+
+        lastValues[slot] = value;
+        lastMemory[slot] = storedMemory;
+      }
+    }
+
+    return size++;
+  }
+
+  /**
+   * Determines whether an event is a view of an event of this store.
+   *
+   * @param event The event to check.
+   *
+   * @return True, if the event belongs to this store. False, otherwise.
+   */
+  public boolean contains(final ITraceEvent event) {
+    return (event instanceof StoredTraceEvent) && (((StoredTraceEvent) event).getStore() == this);
+  }
+
+  /**
+   * Returns a view of the event with the given index.
+   *
+   * @param index The index of the event.
+   *
+   * @return The event with the given index.
+   */
+  public ITraceEvent get(final int index) {
+    Preconditions.checkElementIndex(index, size());
+
+    return new StoredTraceEvent(index);
+  }
+
+  /**
+   * Returns the register values of an event.
+   */
+  private synchronized List<TraceRegister> getRegisterValues(final int index) {
+    int keyframe = index;
+
+    while (!keyframes.get(keyframe)) {
+      keyframe--;
+    }
+
+    final int[] layout = layouts.get(layoutIndices[index]);
+    final long[] values = new long[layout.length];
+    final byte[][] memory = new byte[layout.length][];
+
+    for (int event = keyframe; event <= index; event++) {
+      for (int entry = entryStart[event]; entry < getEntryEnd(event); entry++) {
+        values[entrySlots[entry]] = entryValues[entry];
+        memory[entrySlots[entry]] = entryMemory[entry];
+      }
+    }
+
+    final List<TraceRegister> registers = new ArrayList<>(layout.length);
+
+    for (int slot = 0; slot < layout.length; slot++) {
+      registers.add(new TraceRegister(registerNames.get(layout[slot]), new CAddress(values[slot]),
+          memory[slot]));
+    }
+
+    return registers;
+  }
+
+  /**
+   * Returns an unmodifiable view of a range of events. The view is not affected by events that are
+   * added to the store later.
+   *
+   * @param fromIndex Index of the first event in the range.
+   * @param toIndex Index after the last event in the range.
+   *
+   * @return The view of the events.
+   */
+  public List<ITraceEvent> range(final int fromIndex, final int toIndex) {
+    Preconditions.checkPositionIndexes(fromIndex, toIndex, size());
+
+    return new EventRange(fromIndex, toIndex);
+  }
+
+  /**
+   * Returns the number of stored events.
+   *
+   * @return The number of stored events.
+   */
+  public synchronized int size() {
+    return size;
+  }
+
+  /**
+   * Unmodifiable view of a range of events.
+   */
+  private final class EventRange extends AbstractList<ITraceEvent> implements RandomAccess {
+    /**
+     * Index of the first event in the range.
+     */
+    private final int fromIndex;
+
+    /**
+     * Index after the last event in the range.
+     */
+    private final int toIndex;
+
+    private EventRange(final int fromIndex, final int toIndex) {
+      this.fromIndex = fromIndex;
+      this.toIndex = toIndex;
+    }
+
+    @Override
+    public ITraceEvent get(final int index) {
+      Preconditions.checkElementIndex(index, size());
+
+      return new StoredTraceEvent(fromIndex + index);
+    }
+
+    @Override
+    public int size() {
+      return toIndex - fromIndex;
+    }
+
+    @Override
+    public List<ITraceEvent> subList(final int from, final int to) {
+      Preconditions.checkPositionIndexes(from, to, size());
+
+      return new EventRange(fromIndex + from, fromIndex + to);
+    }
+  }
+
+  /**
+   * Lightweight view of a stored event.
+   */
+  private final class StoredTraceEvent implements ITraceEvent {
+    /**
+     * Index of the event in the store.
+     */
+    private final int index;
+
+    private StoredTraceEvent(final int index) {
+      this.index = index;
+    }
+
+    @Override
+    public boolean equals(final Object rhs) {
+      if (!(rhs instanceof StoredTraceEvent)) {
+        return false;
+      }
+
+      final StoredTraceEvent event = (StoredTraceEvent) rhs;
+
+      return (getStore() == event.getStore()) && (index == event.index);
+    }
+
+    @Override
+    public BreakpointAddress getOffset() {
+      synchronized (TraceEventStore.this) {
+        final int moduleIndex = moduleIndices[index];
+
+        return new BreakpointAddress(moduleIndex == -1 ? null : modules.get(moduleIndex),
+            new UnrelocatedAddress(new CAddress(addresses[index])));
+      }
+    }
+
+    @Override
+    public List<TraceRegister> getRegisterValues() {
+      return TraceEventStore.this.getRegisterValues(index);
+    }
+
+    /**
+     * Returns the store the event belongs to.
+     */
+    private TraceEventStore getStore() {
+      return TraceEventStore.this;
+    }
+
+    @Override
+    public long getThreadId() {
+      synchronized (TraceEventStore.this) {
+        return threadIds[index];
+      }
+    }
+
+    @Override
+    public TraceEventType getType() {
+      synchronized (TraceEventStore.this) {
+        return TraceEventType.values()[types[index]];
+      }
+    }
+
+    @Override
+    public int hashCode() {
+      return (31 * System.identityHashCode(getStore())) + index;
+    }
+  }
+}
@@ -16,21 +16,47 @@ package com.google.security.zynamics.binnavi.debug.models.trace;
 
 import com.google.common.base.Preconditions;
 import com.google.security.zynamics.binnavi.CUtilityFunctions;
+import com.google.security.zynamics.binnavi.Database.Exceptions.CouldntLoadDataException;
 import com.google.security.zynamics.binnavi.Database.Exceptions.CouldntSaveDataException;
 import com.google.security.zynamics.binnavi.Database.Interfaces.SQLProvider;
 import com.google.security.zynamics.binnavi.debug.models.trace.interfaces.ITraceEvent;
+import com.google.security.zynamics.binnavi.debug.models.trace.interfaces.ITraceEventLoader;
 import com.google.security.zynamics.binnavi.debug.models.trace.interfaces.ITraceListListener;
 import com.google.security.zynamics.binnavi.disassembly.IDatabaseObject;
 import com.google.security.zynamics.zylib.general.ListenerProvider;
 
+import java.util.AbstractList;
 import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
 
 /**
- * Represents a list of trace events.
+ * Represents a list of trace events. The events are kept in a compact column-oriented store, so
+ * the event objects returned by the list are lightweight views that decode their data on access.
+ *
+ * Events that are already stored in the database are not loaded together with the trace list.
+ * They are loaded on demand in pages of consecutive events and only a limited number of pages is
+ * kept in memory at the same time. Events added to the list later follow the stored events.
+ *
+ * Pages are loaded synchronously on the thread that accesses the events. Accessing stored events
+ * that are not in memory therefore blocks on the database, and code running on the event dispatch
+ * thread should only access events that it knows to be loaded or access them from a background
+ * thread.
  */
 public final class TraceList implements Iterable<ITraceEvent>, IDatabaseObject {
+  /**
+   * Number of stored events that are loaded at once.
+   */
+  private static final int PAGE_SIZE = 4096;
+
+  /**
+   * Maximum number of pages of stored events that are kept in memory.
+   */
+  private static final int RESIDENT_PAGES = 16;
+
   /**
    * The database id of the trace list.
    */
@@ -47,9 +73,33 @@ public final class TraceList implements Iterable<ITraceEvent>, IDatabaseObject {
   private String traceDescription;
 
   /**
-   * List of individual events managed by the event list.
+   * Stores the events that were added to the event list after it was loaded.
+   */
+  private final TraceEventStore traceEvents = new TraceEventStore();
+
+  /**
+   * Loads the stored events of the list. This field is null for lists without stored events.
+   */
+  private final ITraceEventLoader eventLoader;
+
+  /**
+   * Number of events of the list that are stored in the database.
+   */
+  private final int storedEventCount;
+
+  /**
+   * Pages of stored events that are currently in memory, ordered from least recently to most
+   * recently used.
    */
-  private final List<ITraceEvent> traceEvents = new ArrayList<>();
+  private final Map<Integer, TraceEventStore> residentPages =
+      new LinkedHashMap<Integer, TraceEventStore>(16, 0.75f, true) {
+        private static final long serialVersionUID = 6148713604781325394L;
+
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<Integer, TraceEventStore> eldest) {
+          return size() > RESIDENT_PAGES;
+        }
+      };
 
   /**
    * Listeners that are notified about changes in the event list.
@@ -71,12 +121,84 @@ public final class TraceList implements Iterable<ITraceEvent>, IDatabaseObject {
    */
   public TraceList(final int id, final String name, final String description,
       final SQLProvider provider) {
+    this(id, name, description, provider, null, 0);
+  }
+
+  /**
+   * Creates a new trace list whose stored events are loaded on demand.
+   *
+   * @param id The database id of the trace list.
+   * @param name The name of the trace list.
+   * @param description The description of the trace list.
+   * @param provider The SQL provider that is used to synchronize the event list with the database.
+   * @param loader Loads the stored events of the trace list. This argument can only be null if
+   *        there are no stored events.
+   * @param eventCount Number of events of the trace list that are stored in the database.
+   */
+  public TraceList(final int id, final String name, final String description,
+      final SQLProvider provider, final ITraceEventLoader loader, final int eventCount) {
     Preconditions.checkArgument(id >= 0, "IE00777: ID argument can not be null");
     traceName = Preconditions.checkNotNull(name, "IE00778: Name can not be null");
     traceDescription = Preconditions.checkNotNull(description, "IE00779: Comment can not be null");
     sqlProvider =
         Preconditions.checkNotNull(provider, "IE00780: Provider argument can not be null");
+    Preconditions.checkArgument(eventCount >= 0, "IE03441: Event count can not be negative");
+    Preconditions.checkArgument((loader != null) || (eventCount == 0),
+        "IE03440: Loader argument can not be null if there are stored events");
+    eventLoader = loader;
     this.id = id;
+    storedEventCount = eventCount;
+  }
+
+  /**
+   * Returns the page of stored events with the given index. If the page is not in memory, it is
+   * loaded and the least recently used page is discarded.
+   *
+   * @param pageIndex The index of the page.
+   *
+   * @return The events of the page.
+   *
+   * @throws CouldntLoadDataException Thrown if the page could not be loaded.
+   */
+  private synchronized TraceEventStore loadPage(final int pageIndex)
+      throws CouldntLoadDataException {
+    TraceEventStore page = residentPages.get(pageIndex);
+
+    if (page == null) {
+      final int fromPosition = pageIndex * PAGE_SIZE;
+      final int toPosition = Math.min(fromPosition + PAGE_SIZE, storedEventCount);
+
+      page = new TraceEventStore();
+
+      for (final ITraceEvent event : eventLoader.loadEvents(this, fromPosition, toPosition)) {
+        page.add(event);
+      }
+
+      if (page.size() != toPosition - fromPosition) {
+        throw new CouldntLoadDataException("IE03443: Stored trace events are not contiguous");
+      }
+
+      residentPages.put(pageIndex, page);
+    }
+
+    return page;
+  }
+
+  /**
+   * Determines whether an event is a view of a stored event that is currently in memory.
+   *
+   * @param event The event to check.
+   *
+   * @return True, if the event belongs to a resident page. False, otherwise.
+   */
+  private synchronized boolean isResident(final ITraceEvent event) {
+    for (final TraceEventStore page : residentPages.values()) {
+      if (page.contains(event)) {
+        return true;
+      }
+    }
+
+    return false;
   }
 
   /**
@@ -86,13 +208,13 @@ public final class TraceList implements Iterable<ITraceEvent>, IDatabaseObject {
    */
   public void addEvent(final ITraceEvent event) {
     Preconditions.checkNotNull(event, "IE00781: Trace event can not be null");
-    if (traceEvents.contains(event)) {
+    if (traceEvents.contains(event) || isResident(event)) {
       throw new IllegalStateException("IE00782: Trace event already belongs to the trace list");
     }
-    traceEvents.add(event);
+    final ITraceEvent storedEvent = traceEvents.get(traceEvents.add(event));
     for (final ITraceListListener listener : listeners) {
       try {
-        listener.eventAdded(this, event);
+        listener.eventAdded(this, storedEvent);
       } catch (final Exception exception) {
         CUtilityFunctions.logException(exception);
       }
@@ -113,11 +235,91 @@ public final class TraceList implements Iterable<ITraceEvent>, IDatabaseObject {
   }
 
   public int getEventCount() {
-    return traceEvents.size();
+    return storedEventCount + traceEvents.size();
+  }
+
+  /**
+   * Returns the event at the given position of the trace. If the event is a stored event that is
+   * not in memory, its page is loaded from the database on the calling thread.
+   *
+   * @param index The position of the event.
+   *
+   * @return The event at the given position.
+   *
+   * @throws TraceEventLoadException Thrown if the page of the event could not be loaded.
+   */
+  public ITraceEvent getEvent(final int index) {
+    if (index >= storedEventCount) {
+      return traceEvents.get(index - storedEventCount);
+    }
+
+    Preconditions.checkElementIndex(index, storedEventCount);
+
+    try {
+      return loadPage(index / PAGE_SIZE).get(index % PAGE_SIZE);
+    } catch (final CouldntLoadDataException exception) {
+      throw new TraceEventLoadException(exception);
+    }
   }
 
+  /**
+   * Returns the events of the trace. The returned list is an unmodifiable view that does not copy
+   * any events. Events added to the trace later are not part of the returned list. Stored events
+   * are loaded when they are accessed through the view, which throws a
+   * {@link TraceEventLoadException} if they can not be loaded.
+   *
+   * @return The events of the trace.
+   */
   public List<ITraceEvent> getEvents() {
-    return new ArrayList<ITraceEvent>(traceEvents);
+    return getEvents(0, getEventCount());
+  }
+
+  /**
+   * Returns a range of events of the trace. The returned list is an unmodifiable view that does not
+   * copy any events.
+   *
+   * @param fromIndex Position of the first event in the range.
+   * @param toIndex Position after the last event in the range.
+   *
+   * @return The events in the range.
+   */
+  public List<ITraceEvent> getEvents(final int fromIndex, final int toIndex) {
+    if (storedEventCount == 0) {
+      return traceEvents.range(fromIndex, toIndex);
+    }
+
+    Preconditions.checkPositionIndexes(fromIndex, toIndex, getEventCount());
+
+    return new EventRange(fromIndex, toIndex);
+  }
+
+  /**
+   * Loads a range of events of the trace. Unlike the views returned by
+   * {@link #getEvents(int, int)}, the returned list keeps the loaded events in memory for as long
+   * as it is used.
+   *
+   * @param fromIndex Position of the first event in the range.
+   * @param toIndex Position after the last event in the range.
+   *
+   * @return The events in the range.
+   *
+   * @throws CouldntLoadDataException Thrown if stored events in the range could not be loaded.
+   */
+  public List<ITraceEvent> loadEvents(final int fromIndex, final int toIndex)
+      throws CouldntLoadDataException {
+    Preconditions.checkPositionIndexes(fromIndex, toIndex, getEventCount());
+
+    final List<ITraceEvent> events = new ArrayList<ITraceEvent>(toIndex - fromIndex);
+
+    for (int index = fromIndex; index < Math.min(toIndex, storedEventCount); index++) {
+      events.add(loadPage(index / PAGE_SIZE).get(index % PAGE_SIZE));
+    }
+
+    for (int index = Math.max(fromIndex, storedEventCount); index < toIndex; index++) {
+      events.add(traceEvents.get(index - storedEventCount));
+    }
+
+    return events;
   }
 
   public int getId() {
@@ -138,9 +340,13 @@ public final class TraceList implements Iterable<ITraceEvent>, IDatabaseObject {
     return provider.equals(sqlProvider);
   }
 
+  /**
+   * Iterates over the events of the trace. The iterator throws a {@link TraceEventLoadException}
+   * if stored events can not be loaded.
+   */
   @Override
   public Iterator<ITraceEvent> iterator() {
-    return traceEvents.iterator();
+    return getEvents().iterator();
   }
 
   public void removeListener(final ITraceListListener listener) {
@@ -182,4 +388,49 @@ public final class TraceList implements Iterable<ITraceEvent>, IDatabaseObject {
       }
     }
   }
+
+  /**
+   * Unmodifiable view of a range of events that spans stored and added events.
+   */
+  private final class EventRange extends AbstractList<ITraceEvent> implements RandomAccess {
+    /**
+     * Index of the first event in the range.
+     */
+    private final int fromIndex;
+
+    /**
+     * Index after the last event in the range.
+     */
+    private final int toIndex;
+
+    /**
+     * Creates a new range view.
+     *
+     * @param fromIndex Index of the first event in the range.
+     * @param toIndex Index after the last event in the range.
+     */
+    private EventRange(final int fromIndex, final int toIndex) {
+      this.fromIndex = fromIndex;
+      this.toIndex = toIndex;
+    }
+
+    @Override
+    public ITraceEvent get(final int index) {
+      Preconditions.checkElementIndex(index, size());
+
+      return getEvent(fromIndex + index);
+    }
+
+    @Override
+    public int size() {
+      return toIndex - fromIndex;
+    }
+
+    @Override
+    public List<ITraceEvent> subList(final int from, final int to) {
+      Preconditions.checkPositionIndexes(from, to, size());
+
+      return new EventRange(fromIndex + from, fromIndex + to);
+    }
+  }
 }
@@ -0,0 +1,40 @@
+// Copyright 2011-2016 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.security.zynamics.binnavi.debug.models.trace.interfaces;
+
+import com.google.security.zynamics.binnavi.Database.Exceptions.CouldntLoadDataException;
+import com.google.security.zynamics.binnavi.debug.models.trace.TraceList;
+
+import java.util.List;
+
+/**
+ * Interface that must be implemented by all objects that load the stored events of trace lists on
+ * demand.
+ */
+public interface ITraceEventLoader {
+  /**
+   * Loads a range of stored events of a trace list.
+   *
+   * @param traceList The trace list whose events are loaded.
+   * @param fromPosition Position of the first event to load.
+   * @param toPosition Position after the last event to load.
+   *
+   * @return The loaded events ordered by position.
+   *
+   * @throws CouldntLoadDataException Thrown if the events could not be loaded.
+   */
+  List<ITraceEvent> loadEvents(TraceList traceList, int fromPosition, int toPosition)
+      throws CouldntLoadDataException;
+}
@@ -0,0 +1,133 @@
+// Copyright 2011-2016 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.security.zynamics.binnavi.disassembly;
+
+import com.google.common.base.Preconditions;
+import com.google.security.zynamics.zylib.disassembly.IAddress;
+import com.google.security.zynamics.zylib.disassembly.ReferenceType;
+
+/**
+ * Represents a code or data reference as seen from its target. Incoming references are read from
+ * the cross-reference index of the database without loading the instructions they originate
+ * from.
+ */
+public final class CIncomingReference {
+  /**
+   * Address of the instruction the reference originates from.
+   */
+  private final IAddress m_address;
+
+  /**
+   * Position of the operand the reference belongs to.
+   */
+  private final int m_operandPosition;
+
+  /**
+   * ID of the operand expression the reference belongs to.
+   */
+  private final int m_expressionId;
+
+  /**
+   * The type of the reference.
+   */
+  private final ReferenceType m_type;
+
+  /**
+   * The address the reference points to.
+   */
+  private final IAddress m_target;
+
+  /**
+   * Creates a new incoming reference object.
+   *
+   * @param address Address of the instruction the reference originates from.
+   * @param operandPosition Position of the operand the reference belongs to.
+   * @param expressionId ID of the operand expression the reference belongs to.
+   * @param type The type of the reference.
+   * @param target The address the reference points to.
+   */
+  public CIncomingReference(final IAddress address, final int operandPosition,
+      final int expressionId, final ReferenceType type, final IAddress target) {
+    m_address = Preconditions.checkNotNull(address, "IE03450: Address argument can not be null");
+    m_operandPosition = operandPosition;
+    m_expressionId = expressionId;
+    m_type = Preconditions.checkNotNull(type, "IE03451: Type argument can not be null");
+    m_target = Preconditions.checkNotNull(target, "IE03452: Target argument can not be null");
+  }
+
+  @Override
+  public boolean equals(final Object rhs) {
+    if (!(rhs instanceof CIncomingReference)) {
+      return false;
+    }
+
+    final CIncomingReference rhsReference = (CIncomingReference) rhs;
+
+    return m_address.equals(rhsReference.m_address)
+        && (m_operandPosition == rhsReference.m_operandPosition)
+        && (m_expressionId == rhsReference.m_expressionId) && (m_type == rhsReference.m_type)
+        && m_target.equals(rhsReference.m_target);
+  }
+
+  /**
+   * Returns the address of the instruction the reference originates from.
+   *
+   * @return The source address of the reference.
+   */
+  public IAddress getAddress() {
+    return m_address;
+  }
+
+  /**
+   * Returns the ID of the operand expression the reference belongs to.
+   *
+   * @return The operand expression ID.
+   */
+  public int getExpressionId() {
+    return m_expressionId;
+  }
+
+  /**
+   * Returns the position of the operand the reference belongs to.
+   *
+   * @return The operand position.
+   */
+  public int getOperandPosition() {
+    return m_operandPosition;
+  }
+
+  /**
+   * Returns the address the reference points to.
+   *
+   * @return The target address of the reference.
+   */
+  public IAddress getTarget() {
+    return m_target;
+  }
+
+  /**
+   * Returns the type of the reference.
+   *
+   * @return The type of the reference.
+   */
+  public ReferenceType getType() {
+    return m_type;
+  }
+
+  @Override
+  public int hashCode() {
+    return (m_address.hashCode() * 31 + m_operandPosition) * 31 + m_expressionId;
+  }
+}
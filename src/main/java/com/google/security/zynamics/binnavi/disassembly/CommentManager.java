@@ -34,6 +34,7 @@ import com.google.security.zynamics.zylib.general.ListenerProvider;
 import com.google.security.zynamics.zylib.general.Pair;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -61,6 +62,13 @@ public final class CommentManager {
    */
   private final Map<Integer, IComment> commentIdToComment = new HashMap<Integer, IComment>();
 
+  /**
+   * Comment chains of appended comments that were loaded ahead of time, indexed by the id of the
+   * appended comment.
+   */
+  private final Map<Integer, ArrayList<IComment>> prefetchedComments =
+      new HashMap<Integer, ArrayList<IComment>>();
+
   /**
    * Objects that want to be notified about changes in global comments.
    */
@@ -204,7 +212,10 @@ public final class CommentManager {
     Preconditions.checkNotNull(strategy, "IE02539: strategy argument can not be null");
     Preconditions.checkNotNull(commentId, "IE02540: commentId argument can not be null");
 
-    final ArrayList<IComment> currentDataBaseComments = provider.loadCommentById(commentId);
+    ArrayList<IComment> currentDataBaseComments = prefetchedComments.remove(commentId);
+    if (currentDataBaseComments == null) {
+      currentDataBaseComments = provider.loadCommentById(commentId);
+    }
 
     strategy.saveComments(currentDataBaseComments);
     for (final IComment comment : currentDataBaseComments) {
@@ -2101,6 +2112,30 @@ public final class CommentManager {
     unloadComment(new SectionCommentingStrategy(section), comments);
   }
 
+  /**
+   * Loads the comment chains of a number of appended comments with a single query. Appending one
+   * of these comments later on uses the prefetched chain instead of querying the database again.
+   *
+   * @param commentIds The ids of the appended comments.
+   *
+   * @throws CouldntLoadDataException if the comments could not be loaded from the database.
+   */
+  public synchronized void prefetchAppendedComments(final Collection<Integer> commentIds)
+      throws CouldntLoadDataException {
+    Preconditions.checkNotNull(commentIds, "IE03445: commentIds argument can not be null");
+    if (commentIds.isEmpty()) {
+      return;
+    }
+    prefetchedComments.putAll(provider.loadMultipleCommentsById(commentIds));
+  }
+
+  /**
+   * Discards all comment chains that were prefetched but not used.
+   */
+  public synchronized void clearPrefetchedComments() {
+    prefetchedComments.clear();
+  }
+
   /**
    * Removes a listener object from the global comment dialog.
    *
@@ -106,11 +106,34 @@ extends IModule<INaviView, INaviFunction>, IDatabaseObject, IStaredItem {
   int getCustomViewCount();
 
   /**
-   * Returns the binary data of the module.
+   * Returns the binary data of the module. Data loaded from the database is fetched in full, so
+   * prefer reading ranges of large module data.
    *
    * @return The binary data of the module.
+   *
+   * @throws CouldntLoadDataException Thrown if the data could not be loaded from the database.
+   */
+  byte[] getData() throws CouldntLoadDataException;
+
+  /**
+   * Returns a range of the binary data of the module. Data loaded from the database is fetched
+   * on demand.
+   *
+   * @param offset Offset of the first byte to return.
+   * @param length Number of bytes to return.
+   *
+   * @return The requested range of the binary data.
+   *
+   * @throws CouldntLoadDataException Thrown if the data could not be loaded from the database.
+   */
+  byte[] getData(long offset, int length) throws CouldntLoadDataException;
+
+  /**
+   * Returns the number of bytes of the binary data of the module.
+   *
+   * @return The length of the binary data.
    */
-  byte[] getData();
+  int getDataLength();
 
   /**
    * Returns the number of functions in this module. This number equals the number of native Flow
@@ -120,6 +143,24 @@ extends IModule<INaviView, INaviFunction>, IDatabaseObject, IStaredItem {
    */
   int getFunctionCount();
 
+  /**
+   * Returns a page of the references of the module that point to the given address. The
+   * references are read from the cross-reference index of the database, so neither the views nor
+   * the instructions of the module need to be loaded. Pages are ordered by source address, operand
+   * position, expression ID, and reference type.
+   *
+   * @param target The address the references point to.
+   * @param after The last reference of the previous page or null to load the first page.
+   * @param count The maximum number of references to load.
+   *
+   * @return The references of the page. If fewer than count references are returned, there are
+   *         no more pages.
+   *
+   * @throws CouldntLoadDataException Thrown if the references could not be loaded.
+   */
+  List<CIncomingReference> getIncomingReferences(IAddress target, CIncomingReference after,
+      int count) throws CouldntLoadDataException;
+
   TypeManager getTypeManager();
 
   /**
@@ -143,6 +184,17 @@ extends IModule<INaviView, INaviFunction>, IDatabaseObject, IStaredItem {
   List<INaviView> getViewsWithAddresses(
       List<UnrelocatedAddress> addresses, boolean all) throws CouldntLoadDataException;
 
+  /**
+   * Returns whether a range of the binary data of the module can be read without accessing the
+   * database.
+   *
+   * @param offset Offset of the first byte of the range.
+   * @param length Number of bytes of the range.
+   *
+   * @return True, if the range is available locally. False, otherwise.
+   */
+  boolean hasData(long offset, int length);
+
   /**
    * Initializes the raw module.
    *
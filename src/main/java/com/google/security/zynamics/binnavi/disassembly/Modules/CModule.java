@@ -25,6 +25,7 @@ import com.google.security.zynamics.binnavi.Database.Interfaces.SQLProvider;
 import com.google.security.zynamics.binnavi.debug.debugger.DebuggerTemplate;
 import com.google.security.zynamics.binnavi.debug.models.trace.TraceList;
 import com.google.security.zynamics.binnavi.disassembly.CCallgraph;
+import com.google.security.zynamics.binnavi.disassembly.CIncomingReference;
 import com.google.security.zynamics.binnavi.disassembly.CInstruction;
 import com.google.security.zynamics.binnavi.disassembly.COperandTree;
 import com.google.security.zynamics.binnavi.disassembly.COperandTreeNode;
@@ -50,13 +51,17 @@ import com.google.security.zynamics.zylib.disassembly.IReference;
 import com.google.security.zynamics.zylib.general.Convert;
 import com.google.security.zynamics.zylib.general.ListenerProvider;
 
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
 
 /**
  * The CModule class represents a module that is stored in the database. Simple information provided
@@ -104,10 +109,16 @@ public final class CModule implements INaviModule {
   private final int m_customViewCount;
 
   /**
-   * Binary data of this module.
+   * Binary data of this module. Only used while the data was not loaded from the database.
    */
   private byte[] m_data = new byte[0];
 
+  /**
+   * Local cache of the binary data of this module. Null, until the data is loaded from the
+   * database.
+   */
+  private CModuleDataCache m_dataCache = null;
+
   /**
    * Initialization state of the module (between 0 and MAXINT).
    */
@@ -193,6 +204,29 @@ public final class CModule implements INaviModule {
     m_provider = provider;
   }
 
+  /**
+   * Frees the local data cache of the module, if there is one.
+   */
+  private void closeDataCache() {
+    if (m_dataCache != null) {
+      m_dataCache.close();
+      m_dataCache = null;
+    }
+  }
+
+  /**
+   * Notifies the listeners of the module that the module data changed.
+   */
+  private void notifyChangedData() {
+    for (final IModuleListener listener : m_listeners) {
+      try {
+        listener.changedData(this);
+      } catch (final Exception exception) {
+        CUtilityFunctions.logException(exception);
+      }
+    }
+  }
+
   @Override
   public synchronized void addListener(final IModuleListener listener) {
     m_listeners.addListener(listener);
@@ -230,6 +264,14 @@ public final class CModule implements INaviModule {
 
     m_content = null;
 
+    synchronized (this) {
+      closeDataCache();
+
+      m_data = new byte[0];
+    }
+
+    notifyChangedData();
+
     for (final IModuleListener listener : m_listeners) {
       try {
         listener.closedModule(this, oldNativeCallgraphView, oldFlowgraphs);
@@ -277,8 +319,42 @@ public final class CModule implements INaviModule {
   }
 
   @Override
-  public byte[] getData() {
-    return m_data.clone();
+  public byte[] getData() throws CouldntLoadDataException {
+    final CModuleDataCache dataCache;
+
+    synchronized (this) {
+      if (m_dataCache == null) {
+        return m_data.clone();
+      }
+
+      dataCache = m_dataCache;
+    }
+
+    // The module monitor is not held while the data cache accesses the database.
+    return dataCache.getData(0, dataCache.getLength());
+  }
+
+  @Override
+  public byte[] getData(final long offset, final int length) throws CouldntLoadDataException {
+    final CModuleDataCache dataCache;
+
+    synchronized (this) {
+      if (m_dataCache == null) {
+        Preconditions.checkArgument((offset >= 0) && (length >= 0)
+            && (offset + length <= m_data.length), "IE03472: Range is outside of the module data");
+
+        return Arrays.copyOfRange(m_data, (int) offset, (int) offset + length);
+      }
+
+      dataCache = m_dataCache;
+    }
+
+    return dataCache.getData(offset, length);
+  }
+
+  @Override
+  public synchronized int getDataLength() {
+    return m_dataCache == null ? m_data.length : m_dataCache.getLength();
   }
 
   @Override
@@ -286,6 +362,15 @@ public final class CModule implements INaviModule {
     return isLoaded() ? m_content.getFunctionContainer().getFunctionCount() : m_functionCount;
   }
 
+  @Override
+  public List<CIncomingReference> getIncomingReferences(final IAddress target,
+      final CIncomingReference after, final int count) throws CouldntLoadDataException {
+    Preconditions.checkNotNull(target, "IE03453: Target argument can not be null");
+    Preconditions.checkArgument(count > 0, "IE03454: Count argument must be positive");
+
+    return m_provider.loadIncomingReferences(this, target, after, count);
+  }
+
   @Override
   public TypeManager getTypeManager() {
     return typeManager;
@@ -312,6 +397,11 @@ public final class CModule implements INaviModule {
     return m_provider.getViewsWithAddresses(this, address, all);
   }
 
+  @Override
+  public synchronized boolean hasData(final long offset, final int length) {
+    return m_dataCache == null || m_dataCache.hasData(offset, length);
+  }
+
   @Override
   public void initialize() throws CouldntSaveDataException {
     synchronized (m_isInitializing) {
@@ -391,44 +481,142 @@ public final class CModule implements INaviModule {
 
       // TODO: Move loading into the content constructor
 
-      try {
+      // The load steps run concurrently. Progress is still reported in the original order from
+      // this thread, and each step is waited for right after its event was reported.
+      try (CModuleLoadPipeline pipeline = new CModuleLoadPipeline(m_provider.getConnection())) {
         if (!m_loadReporter.report(ModuleLoadEvents.Starting)) {
           throw new LoadCancelledException();
         }
 
+        final Future<ICallgraphView> nativeCallgraphStep =
+            pipeline.submit(new Callable<ICallgraphView>() {
+              @Override
+              public ICallgraphView call() throws CouldntLoadDataException {
+                return m_provider.loadNativeCallgraph(CModule.this);
+              }
+            });
+
+        final Future<ImmutableList<IFlowgraphView>> nativeFlowgraphsStep =
+            pipeline.submit(new Callable<ImmutableList<IFlowgraphView>>() {
+              @Override
+              public ImmutableList<IFlowgraphView> call()
+                  throws CouldntLoadDataException, LoadCancelledException {
+                // When loading views, an empty flow graph (imported function) can not
+                // be distinguished
+                // from an empty call graph. This leads to problems in modules without
+                // functions. In
+                // these cases, the empty call graph is loaded as an imported function
+                // view. This is
+                // obviously wrong, so we are correcting this here.
+                return pipeline.await(nativeCallgraphStep).getNodeCount() == 0
+                    ? new ImmutableList.Builder<IFlowgraphView>().build()
+                    : m_provider.loadNativeFlowgraphs(CModule.this);
+              }
+            });
+
+        final Future<List<ICallgraphView>> userCallgraphsStep =
+            pipeline.submit(new Callable<List<ICallgraphView>>() {
+              @Override
+              public List<ICallgraphView> call() throws CouldntLoadDataException {
+                return m_provider.loadCallgraphViews(CModule.this);
+              }
+            });
+
+        final Future<ImmutableList<IFlowgraphView>> userFlowgraphsStep =
+            pipeline.submit(new Callable<ImmutableList<IFlowgraphView>>() {
+              @Override
+              public ImmutableList<IFlowgraphView> call() throws CouldntLoadDataException {
+                return m_provider.loadFlowgraphs(CModule.this);
+              }
+            });
+
+        final Future<List<INaviView>> userMixedGraphsStep =
+            pipeline.submit(new Callable<List<INaviView>>() {
+              @Override
+              public List<INaviView> call() throws CouldntLoadDataException {
+                return m_provider.loadMixedgraphs(CModule.this);
+              }
+            });
+
+        final Future<TypeManager> typeManagerStep = pipeline.submit(new Callable<TypeManager>() {
+          @Override
+          public TypeManager call() throws CouldntLoadDataException {
+            return new TypeManager(new TypeManagerDatabaseBackend(m_provider, CModule.this));
+          }
+        });
+
+        final Future<List<INaviFunction>> functionsStep =
+            pipeline.submit(new Callable<List<INaviFunction>>() {
+              @Override
+              public List<INaviFunction> call()
+                  throws CouldntLoadDataException, LoadCancelledException {
+                // Note: the type manager needs to be loaded prior to functions, since a function
+                // might have an associated stack frame, which in turn needs the type system.
+                typeManager = pipeline.await(typeManagerStep);
+
+                return m_provider.loadFunctions(CModule.this, pipeline.await(nativeFlowgraphsStep));
+              }
+            });
+
+        final Future<ImmutableBiMap<INaviView, INaviFunction>> viewFunctionMapStep =
+            pipeline.submit(new Callable<ImmutableBiMap<INaviView, INaviFunction>>() {
+              @Override
+              public ImmutableBiMap<INaviView, INaviFunction> call()
+                  throws CouldntLoadDataException, LoadCancelledException {
+                return m_provider.loadViewFunctionMapping(pipeline.await(nativeFlowgraphsStep),
+                    pipeline.await(functionsStep), CModule.this);
+              }
+            });
+
+        final Future<CCallgraph> callgraphStep = pipeline.submit(new Callable<CCallgraph>() {
+          @Override
+          public CCallgraph call() throws CouldntLoadDataException, LoadCancelledException {
+            return m_provider.loadCallgraph(CModule.this,
+                pipeline.await(nativeCallgraphStep).getConfiguration().getId(),
+                pipeline.await(functionsStep));
+          }
+        });
+
+        final Future<List<TraceList>> tracesStep = pipeline.submit(new Callable<List<TraceList>>() {
+          @Override
+          public List<TraceList> call() throws CouldntLoadDataException {
+            return m_provider.loadTraces(CModule.this);
+          }
+        });
+
+        final Future<SectionContainer> sectionsStep =
+            pipeline.submit(new Callable<SectionContainer>() {
+              @Override
+              public SectionContainer call() throws CouldntLoadDataException {
+                return new SectionContainer(new SectionContainerBackend(m_provider, CModule.this));
+              }
+            });
+
         if (!m_loadReporter.report(ModuleLoadEvents.LoadingCallgraphView)) {
           throw new LoadCancelledException();
         }
-        final ICallgraphView nativeCallgraph = m_provider.loadNativeCallgraph(this);
+        final ICallgraphView nativeCallgraph = pipeline.await(nativeCallgraphStep);
 
         if (!m_loadReporter.report(ModuleLoadEvents.LoadingFlowgraphs)) {
           throw new LoadCancelledException();
         }
+        final ImmutableList<IFlowgraphView> nativeFlowgraphs =
+            pipeline.await(nativeFlowgraphsStep);
 
-        // When loading views, an empty flow graph (imported function) can not
-        // be distinguished
-        // from an empty call graph. This leads to problems in modules without
-        // functions. In
-        // these cases, the empty call graph is loaded as an imported function
-        // view. This is
-        // obviously wrong, so we are correcting this here.
-        final ImmutableList<IFlowgraphView> nativeFlowgraphs = nativeCallgraph.getNodeCount() == 0
-            ? new ImmutableList.Builder<IFlowgraphView>().build()
-            : m_provider.loadNativeFlowgraphs(this);
         if (!m_loadReporter.report(ModuleLoadEvents.LoadingCallgraphViews)) {
           throw new LoadCancelledException();
         }
-        final List<ICallgraphView> userCallgraphs = m_provider.loadCallgraphViews(this);
+        final List<ICallgraphView> userCallgraphs = pipeline.await(userCallgraphsStep);
 
         if (!m_loadReporter.report(ModuleLoadEvents.LoadingFlowgraphViews)) {
           throw new LoadCancelledException();
         }
-        final ImmutableList<IFlowgraphView> userFlowgraphs = m_provider.loadFlowgraphs(this);
+        final ImmutableList<IFlowgraphView> userFlowgraphs = pipeline.await(userFlowgraphsStep);
 
         if (!m_loadReporter.report(ModuleLoadEvents.LoadingMixedViews)) {
           throw new LoadCancelledException();
         }
-        final List<INaviView> userMixedGraphs = m_provider.loadMixedgraphs(this);
+        final List<INaviView> userMixedGraphs = pipeline.await(userMixedGraphsStep);
 
         if (!m_loadReporter.report(ModuleLoadEvents.LoadingCallgraph)) {
           throw new LoadCancelledException();
@@ -438,20 +626,15 @@ public final class CModule implements INaviModule {
           throw new LoadCancelledException();
         }
 
-        // Note: the type manager needs to be loaded prior to functions, since a function might
-        // have an associated stack frame, which in turn needs the type system.
-        typeManager = new TypeManager(new TypeManagerDatabaseBackend(m_provider, this));
-
-        final List<INaviFunction> functions = m_provider.loadFunctions(this, nativeFlowgraphs);
+        final List<INaviFunction> functions = pipeline.await(functionsStep);
         final ImmutableBiMap<INaviView, INaviFunction> viewFunctionMap =
-            m_provider.loadViewFunctionMapping(nativeFlowgraphs, functions, this);
-        final CCallgraph callgraph =
-            m_provider.loadCallgraph(this, nativeCallgraph.getConfiguration().getId(), functions);
+            pipeline.await(viewFunctionMapStep);
+        final CCallgraph callgraph = pipeline.await(callgraphStep);
 
         if (!m_loadReporter.report(ModuleLoadEvents.LoadingTraces)) {
           throw new LoadCancelledException();
         }
-        final List<TraceList> traces = m_provider.loadTraces(this);
+        final List<TraceList> traces = pipeline.await(tracesStep);
 
         if (!m_loadReporter.report(ModuleLoadEvents.LoadingGlobalVariables)) {
           throw new LoadCancelledException();
@@ -482,8 +665,7 @@ public final class CModule implements INaviModule {
           throw new LoadCancelledException();
         }
 
-        final SectionContainer sections =
-            new SectionContainer(new SectionContainerBackend(m_provider, this));
+        final SectionContainer sections = pipeline.await(sectionsStep);
 
         final TypeInstanceContainer typeInstances = new TypeInstanceContainer(
             new TypeInstanceContainerBackend(m_provider, this, typeManager, sections), m_provider);
@@ -516,7 +698,28 @@ public final class CModule implements INaviModule {
 
   @Override
   public void loadData() throws CouldntLoadDataException {
-    setData(m_provider.loadData(this));
+    final CModuleDataCache dataCache;
+
+    try {
+      dataCache = new CModuleDataCache(new IModuleDataLoader() {
+        @Override
+        public byte[] loadData(final long offset, final int length)
+            throws CouldntLoadDataException {
+          return m_provider.loadData(CModule.this, offset, length);
+        }
+      }, m_provider.loadDataLength(this));
+    } catch (final IOException exception) {
+      throw new CouldntLoadDataException(exception);
+    }
+
+    synchronized (this) {
+      closeDataCache();
+
+      m_data = new byte[0];
+      m_dataCache = dataCache;
+    }
+
+    notifyChangedData();
   }
 
   @Override
@@ -535,22 +738,24 @@ public final class CModule implements INaviModule {
 
   @Override
   public void saveData() throws CouldntSaveDataException {
-    m_provider.saveData(this, m_data);
+    try {
+      m_provider.saveData(this, getData());
+    } catch (final CouldntLoadDataException exception) {
+      throw new CouldntSaveDataException(exception);
+    }
   }
 
   @Override
   public void setData(final byte[] data) {
     Preconditions.checkNotNull(data, "IE00198: Data argument can not be null");
 
-    m_data = data.clone();
+    synchronized (this) {
+      closeDataCache();
 
-    for (final IModuleListener listener : m_listeners) {
-      try {
-        listener.changedData(this, data);
-      } catch (final Exception exception) {
-        CUtilityFunctions.logException(exception);
-      }
+      m_data = data.clone();
     }
+
+    notifyChangedData();
   }
 
   @Override
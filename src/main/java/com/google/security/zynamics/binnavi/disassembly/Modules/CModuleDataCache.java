@@ -0,0 +1,324 @@
+// Copyright 2011-2016 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.security.zynamics.binnavi.disassembly.Modules;
+
+import com.google.common.base.Preconditions;
+import com.google.security.zynamics.binnavi.CUtilityFunctions;
+import com.google.security.zynamics.binnavi.Database.Exceptions.CouldntLoadDataException;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Local cache for the binary data of a module. The data is stored in a temporary file that is
+ * memory-mapped in regions, so large module data does not occupy the Java heap. Chunks of the data
+ * are fetched from the database the first time they are accessed. The cache monitor is not held
+ * while chunks are fetched, so readers of already fetched data are never blocked by the database.
+ */
+public final class CModuleDataCache {
+  /**
+   * Number of bytes that are fetched from the database at once.
+   */
+  static final int CHUNK_SIZE = 64 * 1024;
+
+  /**
+   * Maximum number of consecutive chunks that are fetched with a single database query.
+   */
+  private static final int MAXIMUM_CHUNKS_PER_QUERY = 16;
+
+  /**
+   * Number of bytes that are mapped at once. Must be a multiple of the chunk size.
+   */
+  private static final int REGION_SIZE = 1024 * CHUNK_SIZE;
+
+  /**
+   * Loads missing data chunks.
+   */
+  private final IModuleDataLoader m_loader;
+
+  /**
+   * Total number of bytes of the module data.
+   */
+  private final int m_length;
+
+  /**
+   * Temporary file that backs the mapped regions.
+   */
+  private final File m_file;
+
+  /**
+   * Provides write access to the temporary file.
+   */
+  private final RandomAccessFile m_randomAccessFile;
+
+  /**
+   * Channel used to map the regions of the temporary file.
+   */
+  private final FileChannel m_channel;
+
+  /**
+   * Mapped regions of the temporary file. Regions are mapped the first time they are accessed.
+   */
+  private final MappedByteBuffer[] m_regions;
+
+  /**
+   * Chunks that were already fetched from the database.
+   */
+  private final BitSet m_loadedChunks;
+
+  /**
+   * Flag that says whether the cache was closed.
+   */
+  private boolean m_closed = false;
+
+  /**
+   * Creates a new module data cache.
+   *
+   * @param loader Loads missing data chunks.
+   * @param length Total number of bytes of the module data.
+   *
+   * @throws IOException Thrown if the temporary file could not be created.
+   */
+  public CModuleDataCache(final IModuleDataLoader loader, final int length) throws IOException {
+    m_loader = Preconditions.checkNotNull(loader, "IE03462: Loader argument can not be null");
+    Preconditions.checkArgument(length >= 0, "IE03463: Length argument can not be negative");
+
+    m_length = length;
+    m_file = File.createTempFile("binnavi-module-data", ".bin");
+    m_file.deleteOnExit();
+    m_randomAccessFile = new RandomAccessFile(m_file, "rw");
+    m_randomAccessFile.setLength(length);
+    m_channel = m_randomAccessFile.getChannel();
+    m_regions = new MappedByteBuffer[(length + REGION_SIZE - 1) / REGION_SIZE];
+    m_loadedChunks = new BitSet((length + CHUNK_SIZE - 1) / CHUNK_SIZE);
+  }
+
+  /**
+   * Copies bytes between the mapped regions and a byte array.
+   *
+   * @param offset Offset of the first byte in the module data.
+   * @param data The byte array.
+   * @param write True, to copy the array into the regions. False, to copy the regions into the
+   *        array.
+   *
+   * @throws IOException Thrown if a region could not be mapped.
+   */
+  private void copy(final long offset, final byte[] data, final boolean write) throws IOException {
+    int copied = 0;
+
+    while (copied < data.length) {
+      final long position = offset + copied;
+      final ByteBuffer region = getRegion((int) (position / REGION_SIZE)).duplicate();
+      region.position((int) (position % REGION_SIZE));
+
+      final int count = Math.min(region.remaining(), data.length - copied);
+
+      if (write) {
+        region.put(data, copied, count);
+      } else {
+        region.get(data, copied, count);
+      }
+
+      copied += count;
+    }
+  }
+
+  /**
+   * Makes sure that the cache was not closed yet.
+   *
+   * @throws CouldntLoadDataException Thrown if the cache was closed.
+   */
+  private void checkOpen() throws CouldntLoadDataException {
+    if (m_closed) {
+      throw new CouldntLoadDataException("Error: The module data cache was already closed");
+    }
+  }
+
+  /**
+   * Fetches all chunks of a range that are not yet in the cache. The chunks are fetched without
+   * holding the cache monitor. Chunks that are fetched concurrently by another thread are simply
+   * stored twice.
+   *
+   * @param firstChunk Index of the first chunk of the range.
+   * @param lastChunk Index of the last chunk of the range.
+   *
+   * @throws CouldntLoadDataException Thrown if the chunks could not be fetched or stored.
+   */
+  private void fetchMissingChunks(final int firstChunk, final int lastChunk)
+      throws CouldntLoadDataException {
+    int chunk = firstChunk;
+
+    while (true) {
+      final int end;
+
+      synchronized (this) {
+        checkOpen();
+
+        chunk = m_loadedChunks.nextClearBit(chunk);
+
+        if (chunk > lastChunk) {
+          return;
+        }
+
+        // Fetch the run of missing chunks up to the next loaded chunk in as few queries as
+        // possible.
+        final int nextLoaded = m_loadedChunks.nextSetBit(chunk);
+        final int runEnd = nextLoaded == -1 ? lastChunk + 1 : Math.min(nextLoaded, lastChunk + 1);
+        end = Math.min(runEnd, chunk + MAXIMUM_CHUNKS_PER_QUERY);
+      }
+
+      final long offset = (long) chunk * CHUNK_SIZE;
+      final int length = (int) Math.min((long) (end - chunk) * CHUNK_SIZE, m_length - offset);
+
+      final byte[] data = m_loader.loadData(offset, length);
+
+      if (data.length != length) {
+        throw new CouldntLoadDataException(String.format(
+            "Error: Expected %d bytes of module data at offset %d but received %d", length,
+            offset, data.length));
+      }
+
+      synchronized (this) {
+        checkOpen();
+
+        try {
+          copy(offset, data, true);
+        } catch (final IOException exception) {
+          throw new CouldntLoadDataException(exception);
+        }
+
+        m_loadedChunks.set(chunk, end);
+      }
+
+      chunk = end;
+    }
+  }
+
+  /**
+   * Returns a mapped region of the temporary file. The region is mapped if necessary.
+   *
+   * @param index Index of the region.
+   *
+   * @return The mapped region.
+   *
+   * @throws IOException Thrown if the region could not be mapped.
+   */
+  private MappedByteBuffer getRegion(final int index) throws IOException {
+    if (m_regions[index] == null) {
+      final long position = (long) index * REGION_SIZE;
+      m_regions[index] = m_channel.map(FileChannel.MapMode.READ_WRITE, position,
+          Math.min(REGION_SIZE, m_length - position));
+    }
+
+    return m_regions[index];
+  }
+
+  /**
+   * Frees the temporary file. The mapped regions are dropped and released by the garbage
+   * collector. Reading from a closed cache fails.
+   */
+  public synchronized void close() {
+    if (m_closed) {
+      return;
+    }
+
+    m_closed = true;
+    Arrays.fill(m_regions, null);
+
+    try {
+      m_channel.close();
+      m_randomAccessFile.close();
+    } catch (final IOException exception) {
+      CUtilityFunctions.logException(exception);
+    }
+
+    if (!m_file.delete()) {
+      m_file.deleteOnExit();
+    }
+  }
+
+  /**
+   * Returns a range of the module data. Chunks that were not accessed before are fetched from the
+   * database first.
+   *
+   * @param offset Offset of the first byte to return.
+   * @param length Number of bytes to return.
+   *
+   * @return The requested bytes.
+   *
+   * @throws CouldntLoadDataException Thrown if missing chunks could not be fetched.
+   */
+  public byte[] getData(final long offset, final int length) throws CouldntLoadDataException {
+    Preconditions.checkArgument((offset >= 0) && (length >= 0) && (offset + length <= m_length),
+        "IE03464: Range is outside of the module data");
+
+    final byte[] data = new byte[length];
+
+    if (length == 0) {
+      return data;
+    }
+
+    fetchMissingChunks((int) (offset / CHUNK_SIZE), (int) ((offset + length - 1) / CHUNK_SIZE));
+
+    synchronized (this) {
+      checkOpen();
+
+      try {
+        copy(offset, data, false);
+      } catch (final IOException exception) {
+        throw new CouldntLoadDataException(exception);
+      }
+    }
+
+    return data;
+  }
+
+  /**
+   * Returns whether a range of the module data is in the cache, so reading it does not access the
+   * database.
+   *
+   * @param offset Offset of the first byte of the range.
+   * @param length Number of bytes of the range.
+   *
+   * @return True, if the whole range is in the cache. False, otherwise.
+   */
+  public synchronized boolean hasData(final long offset, final int length) {
+    Preconditions.checkArgument((offset >= 0) && (length >= 0) && (offset + length <= m_length),
+        "IE03486: Range is outside of the module data");
+
+    if (length == 0) {
+      return true;
+    }
+
+    final int lastChunk = (int) ((offset + length - 1) / CHUNK_SIZE);
+
+    return !m_closed && (m_loadedChunks.nextClearBit((int) (offset / CHUNK_SIZE)) > lastChunk);
+  }
+
+  /**
+   * Returns the total number of bytes of the module data.
+   *
+   * @return The length of the module data.
+   */
+  public int getLength() {
+    return m_length;
+  }
+}
@@ -38,7 +38,7 @@ public class CModuleListenerAdapter implements IModuleListener {
   }
 
   @Override
-  public void changedData(final CModule module, final byte[] data) {
+  public void changedData(final CModule module) {
     // Empty default implementation
   }
 
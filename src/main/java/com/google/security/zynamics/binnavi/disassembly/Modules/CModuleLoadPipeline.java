@@ -0,0 +1,135 @@
+// Copyright 2011-2016 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.security.zynamics.binnavi.disassembly.Modules;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.security.zynamics.binnavi.Database.CConnection;
+import com.google.security.zynamics.binnavi.Database.CPooledConnection;
+import com.google.security.zynamics.binnavi.Database.Exceptions.CouldntLoadDataException;
+import com.google.security.zynamics.binnavi.Database.Exceptions.LoadCancelledException;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Runs the load steps of a module concurrently. Steps are executed in the order they are submitted.
+ * A step that depends on the result of another step waits for it with {@link #await(Future)}, so
+ * dependencies must be submitted before the steps that need them. Because the executor starts
+ * steps in submission order, a waiting step only ever waits for steps that are already running.
+ *
+ * Every step runs on its own pooled read-only database connection, so the queries of independent
+ * steps are executed by the database at the same time.
+ */
+final class CModuleLoadPipeline implements AutoCloseable {
+  /**
+   * Number of load steps executed at the same time.
+   */
+  private static final int THREAD_COUNT = 4;
+
+  /**
+   * Provides the pooled connections for the load steps. This field can be null.
+   */
+  private final CConnection connection;
+
+  /**
+   * Executes the load steps.
+   */
+  private final ExecutorService executor = Executors.newFixedThreadPool(THREAD_COUNT,
+      new ThreadFactoryBuilder().setDaemon(true).setNameFormat("Module Loader %d").build());
+
+  /**
+   * Creates a new load pipeline.
+   *
+   * @param connection Provides the pooled connections for the load steps. If this argument is
+   *        null, the steps use whatever connection the SQL provider uses.
+   */
+  public CModuleLoadPipeline(final CConnection connection) {
+    this.connection = connection;
+  }
+
+  /**
+   * Waits for a load step to complete.
+   *
+   * @param step The step to wait for.
+   *
+   * @return The result of the step.
+   *
+   * @throws CouldntLoadDataException Thrown if the step failed to load its data.
+   * @throws LoadCancelledException Thrown if loading was cancelled.
+   */
+  public <T> T await(final Future<T> step)
+      throws CouldntLoadDataException, LoadCancelledException {
+    try {
+      return step.get();
+    } catch (final InterruptedException exception) {
+      Thread.currentThread().interrupt();
+      throw new LoadCancelledException();
+    } catch (final CancellationException exception) {
+      throw new LoadCancelledException();
+    } catch (final ExecutionException exception) {
+      final Throwable cause = exception.getCause();
+
+      if (cause instanceof CouldntLoadDataException) {
+        throw (CouldntLoadDataException) cause;
+      } else if (cause instanceof LoadCancelledException) {
+        throw (LoadCancelledException) cause;
+      } else if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      } else if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+
+      throw new CouldntLoadDataException((Exception) cause);
+    }
+  }
+
+  /**
+   * Stops all load steps that are still running. Steps that have not started yet are discarded.
+   */
+  @Override
+  public void close() {
+    executor.shutdownNow();
+  }
+
+  /**
+   * Schedules a load step.
+   *
+   * @param step The step to execute.
+   *
+   * @return Future that provides the result of the step.
+   */
+  public <T> Future<T> submit(final Callable<T> step) {
+    return executor.submit(new Callable<T>() {
+      @Override
+      public T call() throws Exception {
+        if (connection == null) {
+          return step.call();
+        }
+
+        final CPooledConnection readConnection = connection.acquireReadConnection();
+
+        try {
+          return step.call();
+        } finally {
+          readConnection.close();
+        }
+      }
+    });
+  }
+}
@@ -0,0 +1,34 @@
+// Copyright 2011-2016 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.security.zynamics.binnavi.disassembly.Modules;
+
+import com.google.security.zynamics.binnavi.Database.Exceptions.CouldntLoadDataException;
+
+/**
+ * Interface for objects that load ranges of module data on demand.
+ */
+public interface IModuleDataLoader {
+  /**
+   * Loads a range of the module data.
+   *
+   * @param offset Offset of the first byte to load.
+   * @param length Number of bytes to load.
+   *
+   * @return The loaded bytes.
+   *
+   * @throws CouldntLoadDataException Thrown if the data could not be loaded.
+   */
+  byte[] loadData(long offset, int length) throws CouldntLoadDataException;
+}
@@ -41,12 +41,12 @@ public interface IModuleListener {
   void addedView(INaviModule module, INaviView view);
 
   /**
-   * Invoked after the data of a module changed.
+   * Invoked after the data of a module changed. The new data is not passed along because it is
+   * loaded from the database on demand; use the data accessors of the module to read it.
    * 
    * @param module The module whose data changed.
-   * @param data The new data of the module.
    */
-  void changedData(CModule module, byte[] data);
+  void changedData(CModule module);
 
   /**
    * Invoked after the debugger assigned to a module changed.
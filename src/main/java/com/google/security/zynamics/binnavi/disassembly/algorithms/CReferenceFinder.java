@@ -14,9 +14,13 @@
 
 package com.google.security.zynamics.binnavi.disassembly.algorithms;
 
+import com.google.common.base.Preconditions;
+import com.google.security.zynamics.binnavi.Database.Exceptions.CouldntLoadDataException;
+import com.google.security.zynamics.binnavi.disassembly.CIncomingReference;
 import com.google.security.zynamics.binnavi.disassembly.INaviCodeNode;
 import com.google.security.zynamics.binnavi.disassembly.INaviFunction;
 import com.google.security.zynamics.binnavi.disassembly.INaviInstruction;
+import com.google.security.zynamics.binnavi.disassembly.INaviModule;
 import com.google.security.zynamics.zylib.disassembly.IAddress;
 import com.google.security.zynamics.zylib.disassembly.IOperandTree;
 import com.google.security.zynamics.zylib.disassembly.IOperandTreeNode;
@@ -35,6 +39,11 @@ import java.util.Map;
  * Helper class for finding outgoing references.
  */
 public final class CReferenceFinder {
+  /**
+   * Number of references loaded from the database at once.
+   */
+  private static final int REFERENCE_PAGE_SIZE = 1000;
+
   /**
    * You are not supposed to instantiate this class.
    */
@@ -140,4 +149,38 @@ public final class CReferenceFinder {
 
     return references;
   }
+
+  /**
+   * Finds all references of a module that point to a given address. The references are read from
+   * the cross-reference index of the database page by page, so neither the views nor the
+   * instructions of the module have to be loaded.
+   *
+   * @param module The module to search through.
+   * @param target The address the references point to.
+   *
+   * @return The references that point to the given address.
+   *
+   * @throws CouldntLoadDataException Thrown if the references could not be loaded.
+   */
+  public static List<CIncomingReference> getIncomingReferences(final INaviModule module,
+      final IAddress target) throws CouldntLoadDataException {
+    Preconditions.checkNotNull(module, "IE03460: Module argument can not be null");
+    Preconditions.checkNotNull(target, "IE03461: Target argument can not be null");
+
+    final List<CIncomingReference> references = new ArrayList<CIncomingReference>();
+
+    List<CIncomingReference> page;
+    CIncomingReference last = null;
+
+    do {
+      page = module.getIncomingReferences(target, last, REFERENCE_PAGE_SIZE);
+
+      if (!page.isEmpty()) {
+        references.addAll(page);
+        last = page.get(page.size() - 1);
+      }
+    } while (page.size() == REFERENCE_PAGE_SIZE);
+
+    return references;
+  }
 }
@@ -15,13 +15,12 @@
 package com.google.security.zynamics.binnavi.disassembly.types;
 
 import com.google.common.base.Preconditions;
-import com.google.common.base.Predicate;
-import com.google.common.collect.Collections2;
-import com.google.common.collect.Lists;
 import com.google.security.zynamics.binnavi.Database.Exceptions.CouldntLoadDataException;
 import com.google.security.zynamics.binnavi.Database.Exceptions.CouldntSaveDataException;
 import com.google.security.zynamics.zylib.disassembly.IAddress;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
@@ -45,6 +44,30 @@ public class SectionContainer {
    */
   private final SectionContainerBackend backend;
 
+  /**
+   * The {@link Section sections} sorted by start address. Together with {@link #starts},
+   * {@link #ends} and {@link #maximumEnds} this forms an interval index that answers address
+   * queries with a binary search instead of checking every section. The index is rebuilt lazily
+   * after sections were added, removed or renamed, and is null until then.
+   */
+  private Section[] sectionsByStart = null;
+
+  /**
+   * The start address keys of {@link #sectionsByStart}.
+   */
+  private long[] starts;
+
+  /**
+   * The end address keys of {@link #sectionsByStart}.
+   */
+  private long[] ends;
+
+  /**
+   * For every position in {@link #sectionsByStart}, the largest end address key of all sections up
+   * to and including that position.
+   */
+  private long[] maximumEnds;
+
   /**
    * Creates a new {@link SectionContainer}.
    * 
@@ -63,6 +86,84 @@ public class SectionContainer {
     }
   }
 
+  /**
+   * Converts an address into a key whose signed order equals the unsigned order of the addresses.
+   * 
+   * @param address The address to convert.
+   * @return The key of the address.
+   */
+  private static long toKey(final IAddress address) {
+    return address.toLong() ^ Long.MIN_VALUE;
+  }
+
+  /**
+   * Builds the interval index over the section address ranges.
+   */
+  private void buildAddressIndex() {
+    final Section[] sorted = sections.toArray(new Section[sections.size()]);
+    Arrays.sort(sorted, new Comparator<Section>() {
+      @Override
+      public int compare(final Section lhs, final Section rhs) {
+        return Long.compare(toKey(lhs.getStartAddress()), toKey(rhs.getStartAddress()));
+      }
+    });
+
+    starts = new long[sorted.length];
+    ends = new long[sorted.length];
+    maximumEnds = new long[sorted.length];
+
+    long maximumEnd = Long.MIN_VALUE;
+
+    for (int i = 0; i < sorted.length; i++) {
+      starts[i] = toKey(sorted[i].getStartAddress());
+      ends[i] = toKey(sorted[i].getEndAddress());
+      maximumEnd = Math.max(maximumEnd, ends[i]);
+      maximumEnds[i] = maximumEnd;
+    }
+
+    sectionsByStart = sorted;
+  }
+
+  /**
+   * Returns all sections whose address range [start..end] overlaps the given range of keys.
+   * 
+   * @param first The key of the first address of the range.
+   * @param last The key of the last address of the range.
+   * @return The overlapping sections, sorted by start address.
+   */
+  private List<Section> findSections(final long first, final long last) {
+    if (sectionsByStart == null) {
+      buildAddressIndex();
+    }
+
+    // Find the last section that starts at or before the end of the range.
+    int low = 0;
+    int high = starts.length;
+
+    while (low < high) {
+      final int middle = (low + high) >>> 1;
+
+      if (starts[middle] <= last) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+
+    // Walk back until no earlier section can reach into the range.
+    final List<Section> result = new ArrayList<>();
+
+    for (int position = low - 1; (position >= 0) && (maximumEnds[position] >= first);
+        position--) {
+      if (ends[position] >= first) {
+        result.add(sectionsByStart[position]);
+      }
+    }
+
+    Collections.reverse(result);
+    return result;
+  }
+
   /**
    * Creates a new section instance and stores it in the database.
    * 
@@ -91,6 +192,7 @@ public class SectionContainer {
         backend.createSection(name, startAddress, endAddress, sectionPermission, data);
     sections.add(section);
     sectionsById.put(section.getId(), section);
+    sectionsByStart = null;
     return section;
   }
 
@@ -110,6 +212,7 @@ public class SectionContainer {
     backend.deleteSection(section);
     sections.remove(section);
     sectionsById.remove(section.getId());
+    sectionsByStart = null;
   }
 
   /**
@@ -122,18 +225,13 @@ public class SectionContainer {
    * </pre>
    * 
    * @param address The {@link IAddress} that the {@link Section} should contain.
-   * @return A {@link List} of {@link Section} elements which contain the {@link IAddress}.
+   * @return A {@link List} of {@link Section} elements which contain the {@link IAddress}, sorted
+   *         by start address.
    */
   public synchronized List<Section> findSections(final IAddress address) {
     Preconditions.checkNotNull(address, "Error: address argument can not be null");
-    final Predicate<Section> predicate = new Predicate<Section>() {
-      @Override
-      public boolean apply(final Section section) {
-        return (address.toBigInteger().compareTo(section.getStartAddress().toBigInteger()) >= 0 && address
-            .toBigInteger().compareTo(section.getEndAddress().toBigInteger()) <= 0);
-      }
-    };
-    return Lists.newArrayList(Collections2.filter(sections, predicate));
+    final long key = toKey(address);
+    return findSections(key, key);
   }
 
   /**
@@ -174,6 +272,7 @@ public class SectionContainer {
     final Section renamedSection = backend.renameSection(section, name);
     sections.set(sections.indexOf(section), renamedSection);
     sectionsById.put(renamedSection.getId(), renamedSection);
+    sectionsByStart = null;
     return renamedSection;
   }
 
@@ -36,9 +36,13 @@ import com.google.security.zynamics.zylib.disassembly.IAddress;
 import com.google.security.zynamics.zylib.general.ListenerProvider;
 
 import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Set;
 import java.util.TreeMap;
 
 /**
@@ -67,6 +71,31 @@ public final class TypeInstanceContainer {
   private final TreeMap<TypeInstanceAddress, TypeInstance> instancesByAddress =
       new TreeMap<>();
 
+  /**
+   * The {@link TypeInstance type instances} sorted by virtual address. Together with
+   * {@link #starts}, {@link #ends} and {@link #maximumEnds} this forms an interval index over the
+   * bytes covered by the instances, so that all instances in an address range can be found without
+   * checking every instance. The index is rebuilt lazily after instances were added or removed or
+   * types changed, and is null until then.
+   */
+  private TypeInstance[] instancesByStart = null;
+
+  /**
+   * The keys of the first bytes of {@link #instancesByStart}.
+   */
+  private long[] starts;
+
+  /**
+   * The keys of the last bytes of {@link #instancesByStart}.
+   */
+  private long[] ends;
+
+  /**
+   * For every position in {@link #instancesByStart}, the largest end key of all instances up to
+   * and including that position.
+   */
+  private long[] maximumEnds;
+
   /**
    * The {@link TypeInstanceContainerBackend} used to store and retrieve {@link TypeInstance}
    * information from the database.
@@ -94,6 +123,73 @@ public final class TypeInstanceContainer {
       final SQLProvider provider) throws CouldntLoadDataException {
     this.backend = Preconditions.checkNotNull(backend, "Error: backend argument can not be null");
     CommentManager.get(provider).addListener(new InternalCommentListener());
+    backend.getTypeManager().addListener(new InternalTypeListener());
+  }
+
+  /**
+   * Converts a virtual address into a key whose signed order equals the unsigned order of the
+   * addresses.
+   * 
+   * @param virtualAddress The virtual address to convert.
+   * @return The key of the virtual address.
+   */
+  private static long toKey(final long virtualAddress) {
+    return virtualAddress ^ Long.MIN_VALUE;
+  }
+
+  /**
+   * Builds the interval index over the bytes covered by the type instances.
+   */
+  private void buildAddressIndex() {
+    final TypeInstance[] sorted = instances.toArray(new TypeInstance[instances.size()]);
+    Arrays.sort(sorted, new Comparator<TypeInstance>() {
+      @Override
+      public int compare(final TypeInstance lhs, final TypeInstance rhs) {
+        return Long.compare(toKey(lhs.getAddress().getVirtualAddress()),
+            toKey(rhs.getAddress().getVirtualAddress()));
+      }
+    });
+
+    starts = new long[sorted.length];
+    ends = new long[sorted.length];
+    maximumEnds = new long[sorted.length];
+
+    long maximumEnd = Long.MIN_VALUE;
+
+    for (int i = 0; i < sorted.length; i++) {
+      final long virtualAddress = sorted[i].getAddress().getVirtualAddress();
+      final long size = Math.max(1, sorted[i].getBaseType().getByteSize());
+      starts[i] = toKey(virtualAddress);
+      // Instances that reach beyond the top of the address space end at its last byte.
+      final long end = toKey(virtualAddress + size - 1);
+      ends[i] = end < starts[i] ? Long.MAX_VALUE : end;
+      maximumEnd = Math.max(maximumEnd, ends[i]);
+      maximumEnds[i] = maximumEnd;
+    }
+
+    instancesByStart = sorted;
+  }
+
+  /**
+   * Adds a {@link TypeInstance} to the internal storage.
+   * 
+   * @param instance The {@link TypeInstance} to add.
+   */
+  private void addInstance(final TypeInstance instance) {
+    instancesByAddress.put(instance.getAddress(), instance);
+    instances.add(instance);
+    instancesByStart = null;
+  }
+
+  /**
+   * Removes a {@link TypeInstance} from the internal storage.
+   * 
+   * @param instance The {@link TypeInstance} to remove.
+   */
+  private void removeInstance(final TypeInstance instance) {
+    instancesByAddress.remove(instance.getAddress());
+    instances.remove(instance);
+    instancesByStart = null;
   }
 
   /**
@@ -222,8 +318,7 @@ public final class TypeInstanceContainer {
 
     final TypeInstance instance =
         backend.createTypeInstance(name, comment, baseType, section, sectionOffset);
-    instancesByAddress.put(instance.getAddress(), instance);
-    instances.add(instance);
+    addInstance(instance);
     notifyInstanceAdded(instance);
     return instance;
   }
@@ -293,8 +388,8 @@ public final class TypeInstanceContainer {
   public synchronized void deleteInstance(final Integer typeInstanceId) {
     Preconditions.checkNotNull(typeInstanceId, "Error: typeInstanceId argument can not be null");
     final TypeInstance backendInstance = backend.lookupTypeInstance(typeInstanceId);
-    final TypeInstance storedTypeInstance = instancesByAddress.remove(backendInstance.getAddress());
-    instances.remove(storedTypeInstance);
+    final TypeInstance storedTypeInstance = instancesByAddress.get(backendInstance.getAddress());
+    removeInstance(storedTypeInstance);
     backend.deleteInstanceInternal(backendInstance);
     notifyInstanceRemoved(storedTypeInstance);
   }
@@ -309,8 +404,7 @@ public final class TypeInstanceContainer {
   public synchronized void deleteInstance(final TypeInstance instance)
       throws CouldntDeleteException {
     Preconditions.checkNotNull(instance, "Error: instance argument can not be null");
-    instancesByAddress.remove(instance.getAddress());
-    instances.remove(instance);
+    removeInstance(instance);
     backend.deleteInstance(instance);
     notifyInstanceRemoved(instance);
   }
@@ -440,6 +534,58 @@ public final class TypeInstanceContainer {
             false).values();
   }
 
+  /**
+   * Returns all instances that cover at least one byte of the half-open range [start, end). An
+   * instance covers the bytes from its virtual address up to its virtual address plus the size of
+   * its base type, so instances that start before the range but reach into it are included. If end
+   * is not above start, the range is empty.
+   * 
+   * @param start The first {@link IAddress address} of the range.
+   * @param end The {@link IAddress address} after the last address of the range.
+   * @return The list of type instances overlapping the range, sorted by virtual address.
+   */
+  public synchronized List<TypeInstance> getTypeInstances(final IAddress start,
+      final IAddress end) {
+    Preconditions.checkNotNull(start, "Error: start argument can not be null");
+    Preconditions.checkNotNull(end, "Error: end argument can not be null");
+    final long first = toKey(start.toLong());
+    final long last = toKey(end.toLong());
+    final List<TypeInstance> result = new ArrayList<>();
+
+    if (first >= last) {
+      return result;
+    }
+
+    if (instancesByStart == null) {
+      buildAddressIndex();
+    }
+
+    // Find the last instance that starts before the end of the range.
+    int low = 0;
+    int high = starts.length;
+
+    while (low < high) {
+      final int middle = (low + high) >>> 1;
+
+      if (starts[middle] < last) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+
+    // Walk back until no earlier instance can reach into the range.
+    for (int position = low - 1; (position >= 0) && (maximumEnds[position] >= first);
+        position--) {
+      if (ends[position] >= first) {
+        result.add(instancesByStart[position]);
+      }
+    }
+
+    Collections.reverse(result);
+    return result;
+  }
+
   /**
    * Initializes the internal storage with the information from the database.
    * 
@@ -447,8 +593,7 @@ public final class TypeInstanceContainer {
    */
   public synchronized void initialize() throws CouldntLoadDataException {
     for (final TypeInstance instance : backend.loadTypeInstances()) {
-      instancesByAddress.put(instance.getAddress(), instance);
-      instances.add(instance);
+      addInstance(instance);
     }
 
     for (final TypeInstanceReference reference : backend.loadTypeInstanceReferences()) {
@@ -503,8 +648,7 @@ public final class TypeInstanceContainer {
       return reloadInstance(typeInstanceId);
     } else {
       final TypeInstance instance = backend.loadTypeInstance(typeInstanceId);
-      instancesByAddress.put(instance.getAddress(), instance);
-      instances.add(instance);
+      addInstance(instance);
       notifyInstanceAdded(instance);
       return instance;
     }
@@ -601,6 +745,53 @@ public final class TypeInstanceContainer {
   }
 
 
+  /**
+   * Drops the address index whenever types change, because the sizes of the type instances may
+   * have changed.
+   */
+  private class InternalTypeListener implements TypeChangedListener {
+    private void invalidateAddressIndex() {
+      synchronized (TypeInstanceContainer.this) {
+        instancesByStart = null;
+      }
+    }
+
+    @Override
+    public void memberAdded(final TypeMember member) {
+      invalidateAddressIndex();
+    }
+
+    @Override
+    public void memberDeleted(final TypeMember member) {
+      invalidateAddressIndex();
+    }
+
+    @Override
+    public void membersMoved(final Set<BaseType> affectedTypes) {
+      invalidateAddressIndex();
+    }
+
+    @Override
+    public void memberUpdated(final TypeMember member) {
+      invalidateAddressIndex();
+    }
+
+    @Override
+    public void typeAdded(final BaseType baseType) {
+      // New types have no instances yet.
+    }
+
+    @Override
+    public void typeDeleted(final BaseType deletedType) {
+      invalidateAddressIndex();
+    }
+
+    @Override
+    public void typesUpdated(final Set<BaseType> baseTypes) {
+      invalidateAddressIndex();
+    }
+  }
+
   /**
    * TODO(timkornau): describe
    */
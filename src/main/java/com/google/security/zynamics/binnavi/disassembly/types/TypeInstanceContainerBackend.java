@@ -470,6 +470,16 @@ public class TypeInstanceContainerBackend {
     return referenceLookup.get(new InstanceReferenceLookup(address, position, expressionId));
   }
 
+  /**
+   * Returns the {@link TypeManager} which holds the types the {@link TypeInstance instances} refer
+   * to.
+   *
+   * @return The {@link TypeManager} of the module.
+   */
+  TypeManager getTypeManager() {
+    return typeManager;
+  }
+
   /**
    * Queries the internal storage for the given type instance id.
    *
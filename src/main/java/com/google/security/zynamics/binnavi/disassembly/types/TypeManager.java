@@ -36,6 +36,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
@@ -208,6 +209,12 @@ public class TypeManager {
     }
   }
 
+  private void notifyMembersUpdated(final Set<TypeMember> updatedMembers) {
+    for (final TypeMember member : updatedMembers) {
+      notifyMemberUpdated(member);
+    }
+  }
+
   private void notifyMembersMoved(final Set<BaseType> affectedTypes) {
     for (final TypeChangedListener listener : typeListeners) {
       listener.membersMoved(affectedTypes);
@@ -389,12 +396,15 @@ public class TypeManager {
       final int moveDelta =
           (memberOffset + memberType.getBitSize()) - subsequentMembers.get(0).getBitOffset().get();
       if (moveDelta > 0) {
+        final Map<TypeMember, Integer> newOffsets = new LinkedHashMap<>();
         for (final TypeMember member : subsequentMembers) {
-          final int newOffset = member.getBitOffset().get() + moveDelta;
-          backend.updateStructureMember(member, member.getBaseType(), member.getName(), newOffset);
-          member.setOffset(Optional.of(newOffset));
-          notifyMemberUpdated(member);
+          newOffsets.put(member, member.getBitOffset().get() + moveDelta);
         }
+        saveMemberOffsets(newOffsets);
+        for (final TypeMember member : subsequentMembers) {
+          member.setOffset(Optional.of(newOffsets.get(member)));
+        }
+        notifyMembersUpdated(newOffsets.keySet());
       }
     }
 
@@ -404,7 +414,7 @@ public class TypeManager {
     notifyMemberCreation(member, affectedTypes);
     final Set<BaseType> inconsistentTypes = Sets.newHashSet(affectedTypes);
     inconsistentTypes.remove(containingType);
-    ensureConsistencyAfterTypeUpdate(affectedTypes, inconsistentTypes, originalTypeSizes);
+    ensureConsistencyAfterTypeUpdate(inconsistentTypes, originalTypeSizes);
     return member;
   }
 
@@ -585,8 +595,7 @@ public class TypeManager {
     notifyTypesUpdated(affectedTypes);
     notifyMemberDeleted(member);
     if (sizeChanged) {
-      ensureConsistencyAfterTypeUpdate(affectedTypes, Sets.newHashSet(affectedTypes),
-          originalTypeSizes);
+      ensureConsistencyAfterTypeUpdate(Sets.newHashSet(affectedTypes), originalTypeSizes);
     }
   }
 
@@ -958,13 +967,15 @@ public class TypeManager {
         updatedMember.getNumberOfElements(),
         updatedMember.getArgumentIndex());
     notifyMemberUpdated(updatedMember, affectedTypes);
-    for (final TypeMember member :
-        updatedMember.getParentType().getSubsequentMembers(updatedMember)) {
-      backend.updateStructureMember(member, member.getBaseType(), member.getName(),
-          member.getBitOffset().get() + memberSizeDelta);
+    if (memberSizeDelta != 0) {
+      final Map<TypeMember, Integer> newOffsets = new LinkedHashMap<>();
+      for (final TypeMember member :
+          updatedMember.getParentType().getSubsequentMembers(updatedMember)) {
+        newOffsets.put(member, member.getBitOffset().get() + memberSizeDelta);
+      }
+      saveMemberOffsets(newOffsets);
     }
-    ensureConsistencyAfterTypeUpdate(affectedTypes, Sets.newHashSet(affectedTypes),
-        originalTypeSizes);
+    ensureConsistencyAfterTypeUpdate(Sets.newHashSet(affectedTypes), originalTypeSizes);
   }
 
   public synchronized void updateUnionMember(final TypeMember updatedMember,
@@ -1036,8 +1047,7 @@ public class TypeManager {
     notifyTypesUpdated(affectedTypes);
     notifySubstitutionsChanged(affectedTypes);
     if (sizeChanged) {
-      ensureConsistencyAfterTypeUpdate(affectedTypes, Sets.newHashSet(affectedTypes),
-          originalTypeSizes);
+      ensureConsistencyAfterTypeUpdate(Sets.newHashSet(affectedTypes), originalTypeSizes);
     }
   }
 
@@ -1098,55 +1108,63 @@ public class TypeManager {
   /**
    * Recurses over a set of types whose member offsets need to be fixed due to a size change of a
    * single base type. Since the order in which member offsets are fixed is important, the
-   * implementation ensures that immediately affected types (i.e. types that have member of the
-   * changed base type) are changed before implicitly affected types.
+   * implementation ensures that the member types of a type are fixed before the type itself. Only
+   * types that transitively contain the changed type are visited, and only the members behind the
+   * first member whose type actually changed its size are moved.
+   *
+   * @param typeToFix The type whose member offsets should be fixed.
+   * @param inconsistentTypes The set of types that are still inconsistent due to the size change.
+   * @param oldSizes A mapping of all affected types to their sizes before the change.
+   * @param oldOffsets Collects the offsets of all moved members before they were moved.
+   * @param newOffsets Collects the new offsets of all moved members.
    */
-  // TODO(jannewger): oldSizes and affectedTypes could be merged into one Map.
-  private void adjustMemberOffsets(final BaseType structTypeToFix,
+  private static void adjustMemberOffsets(final BaseType typeToFix,
       final Set<BaseType> inconsistentTypes, final Map<BaseType, Integer> oldSizes,
-      final Set<BaseType> affectedTypes) throws CouldntSaveDataException {
-    if (!inconsistentTypes.contains(structTypeToFix)) {
+      final Map<TypeMember, Integer> oldOffsets, final Map<TypeMember, Integer> newOffsets) {
+    if (!inconsistentTypes.remove(typeToFix)) {
       return;
     }
-    // Find the first member that requires an update; all subsequent members require offset updates
-    // as well.
-    final List<TypeMember> affectedMembers =
-        determineMembersToUpdate(structTypeToFix, affectedTypes);
-    int sizeDelta = 0;
-    for (final TypeMember member : affectedMembers) {
-      final BaseType memberBaseType = member.getBaseType();
-      if (inconsistentTypes.contains(memberBaseType)) {
-        // If we encounter a type whose size was changed but that is not yet fixed, recurse.
-        adjustMemberOffsets(memberBaseType, inconsistentTypes, oldSizes, affectedTypes);
+    // The sizes of the member types must be final before the offsets of this type can be fixed.
+    for (final TypeMember member : typeToFix) {
+      if (inconsistentTypes.contains(member.getBaseType())) {
+        adjustMemberOffsets(member.getBaseType(), inconsistentTypes, oldSizes, oldOffsets,
+            newOffsets);
       }
+    }
+    if (typeToFix.getCategory() != BaseTypeCategory.STRUCT) {
+      return;
+    }
+    int sizeDelta = 0;
+    for (final TypeMember member : determineMembersToUpdate(typeToFix, oldSizes)) {
       if (sizeDelta != 0) {
-        Integer newOffset = member.getBitOffset().get() + sizeDelta;
-        // TODO(jannewger): collect all updateMember calls and send them out in one batch (once we
-        // have the global database lock).
-        backend.updateStructureMember(member, member.getBaseType(), member.getName(), newOffset);
-        notifyMemberUpdated(member);
+        final int newOffset = member.getBitOffset().get() + sizeDelta;
+        if (!oldOffsets.containsKey(member)) {
+          oldOffsets.put(member, member.getBitOffset().get());
+        }
         member.setOffset(Optional.of(newOffset));
+        newOffsets.put(member, newOffset);
       }
       // If the size of the member type changed we need to update the size delta as well since that
       // affects subsequent member offsets.
-      if (oldSizes.containsKey(memberBaseType)) {
-        sizeDelta += memberBaseType.getBitSize() - oldSizes.get(memberBaseType);
+      final Integer oldSize = oldSizes.get(member.getBaseType());
+      if (oldSize != null) {
+        sizeDelta += member.getBaseType().getBitSize() - oldSize;
       }
     }
-    inconsistentTypes.remove(structTypeToFix);
   }
 
+  /**
+   * Determines the members of a base type starting with the first member whose base type changed
+   * its size. All of these members except for the first one possibly need to be moved.
+   */
   private static ImmutableList<TypeMember> determineMembersToUpdate(final BaseType baseType,
-      final Set<BaseType> affectedTypes) {
+      final Map<BaseType, Integer> oldSizes) {
     final ImmutableList.Builder<TypeMember> builder = ImmutableList.<TypeMember>builder();
     boolean includeMember = false;
     for (TypeMember member : baseType) {
-      if (affectedTypes.contains(member.getBaseType())) {
-        // All members after the first one whose base type is contained in affectedTypes need
-        // to be updated.
-        if (!includeMember) {
-          includeMember = true;
-        }
+      if (!includeMember) {
+        final Integer oldSize = oldSizes.get(member.getBaseType());
+        includeMember = (oldSize != null) && (oldSize != member.getBaseType().getBitSize());
       }
       if (includeMember) {
         builder.add(member);
@@ -1157,25 +1175,48 @@ public class TypeManager {
 
   /**
    * Transitively propagates effects of a size change of a single base type through the type system.
+   * All moved members are written to the backend with a single update before listeners are
+   * notified about them. If the update fails, the moved members get their old offsets back.
    *
-   * @param affectedTypes The set of types that depend on the updated type.
    * @param inconsistentTypes The set of types that are still inconsistent due to the size change.
    * @param oldSizes A mapping of all affected types to their sizes before updatedType was changed.
    *
    * @throws CouldntSaveDataException Thrown if the transitive effects couldn't be written to the
    *         database.
    */
-  private void ensureConsistencyAfterTypeUpdate(final ImmutableSet<BaseType> affectedTypes,
-      final Set<BaseType> inconsistentTypes, final Map<BaseType, Integer> oldSizes)
-      throws CouldntSaveDataException {
+  private void ensureConsistencyAfterTypeUpdate(final Set<BaseType> inconsistentTypes,
+      final Map<BaseType, Integer> oldSizes) throws CouldntSaveDataException {
+    final Map<TypeMember, Integer> oldOffsets = new HashMap<>();
+    final Map<TypeMember, Integer> newOffsets = new LinkedHashMap<>();
     while (!inconsistentTypes.isEmpty()) {
-      final BaseType baseType = inconsistentTypes.iterator().next();
-      if (baseType.getCategory() == BaseTypeCategory.STRUCT) {
-        adjustMemberOffsets(baseType, inconsistentTypes, oldSizes, affectedTypes);
-      } else {
-        inconsistentTypes.remove(baseType);
+      adjustMemberOffsets(inconsistentTypes.iterator().next(), inconsistentTypes, oldSizes,
+          oldOffsets, newOffsets);
+    }
+    try {
+      saveMemberOffsets(newOffsets);
+    } catch (final CouldntSaveDataException exception) {
+      for (final Map.Entry<TypeMember, Integer> entry : oldOffsets.entrySet()) {
+        entry.getKey().setOffset(Optional.of(entry.getValue()));
       }
+      throw exception;
+    }
+    notifyMembersUpdated(newOffsets.keySet());
+  }
+
+  /**
+   * Writes the offsets of a set of members to the backend with a single update.
+   *
+   * @param newOffsets A mapping of members to their new offsets.
+   *
+   * @throws CouldntSaveDataException Thrown if the offsets couldn't be written to the database.
+   */
+  private void saveMemberOffsets(final Map<TypeMember, Integer> newOffsets)
+      throws CouldntSaveDataException {
+    if (newOffsets.isEmpty()) {
+      return;
     }
+    backend.setMemberOffsets(membersToIds(new ArrayList<>(newOffsets.keySet())),
+        new ArrayList<>(newOffsets.values()));
   }
 
   private final class TypesContainer {
@@ -263,6 +263,16 @@ public interface TypeManagerBackend {
       final List<Integer> implicitlyUpdatedMembers, final int implicitDelta)
       throws CouldntSaveDataException;
 
+  /**
+   * Sets the offsets of a list of members with a single update in the backend.
+   *
+   * @param members The ids of the members whose offsets should be set.
+   * @param offsets The new offsets of the members, in the same order as the member ids.
+   * @throws CouldntSaveDataException Thrown if the offsets could not be written to the database.
+   */
+  public void setMemberOffsets(final List<Integer> members, final List<Integer> offsets)
+      throws CouldntSaveDataException;
+
   /**
    * Updates the given type substitution in the back end.
    *
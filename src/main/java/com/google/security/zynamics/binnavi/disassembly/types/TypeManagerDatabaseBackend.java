@@ -116,6 +116,12 @@ final public class TypeManagerDatabaseBackend implements TypeManagerBackend {
         module);
   }
 
+  @Override
+  public void setMemberOffsets(final List<Integer> members, final List<Integer> offsets)
+      throws CouldntSaveDataException {
+    provider.setMemberOffsets(members, offsets, module);
+  }
+
   @Override
   public void updateSubstitution(final TypeSubstitution substitution, final BaseType baseType,
       final List<Integer> memberPath, final int offset) throws CouldntSaveDataException {
@@ -20,6 +20,7 @@ import com.google.common.collect.Collections2;
 import com.google.security.zynamics.binnavi.CUtilityFunctions;
 import com.google.security.zynamics.binnavi.Database.Interfaces.SQLProvider;
 import com.google.security.zynamics.binnavi.Gui.GraphWindows.CommentDialogs.Interfaces.IComment;
+import com.google.security.zynamics.binnavi.REIL.CReilCache;
 import com.google.security.zynamics.binnavi.Tagging.CTag;
 import com.google.security.zynamics.binnavi.disassembly.CCodeNode;
 import com.google.security.zynamics.binnavi.disassembly.CFunctionNode;
@@ -57,6 +58,7 @@ import com.google.security.zynamics.zylib.types.graphs.MutableDirectedGraph;
 import java.awt.Color;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -121,6 +123,22 @@ public final class CViewContent implements IViewContent {
    */
   private boolean m_wasModified = false;
 
+  /**
+   * Nodes whose position, size, or appearance changed since the last save operation.
+   */
+  private final Set<INaviViewNode> m_changedNodes = new HashSet<INaviViewNode>();
+
+  /**
+   * Edges whose coordinates, bends, or appearance changed since the last save operation.
+   */
+  private final Set<INaviEdge> m_changedEdges = new HashSet<INaviEdge>();
+
+  /**
+   * Flag that signals whether nodes or edges were added, removed, or structurally modified since
+   * the last save operation. Structural changes can not be written incrementally.
+   */
+  private boolean m_structureChanged = false;
+
   /**
    * Creates a new view content object.
    *
@@ -192,6 +210,7 @@ public final class CViewContent implements IViewContent {
    */
   private void addNode(final INaviViewNode node) {
     graph.addNode(node);
+    m_structureChanged = true;
 
     for (final INaviViewListener listener : listeners) {
       try {
@@ -256,6 +275,24 @@ public final class CViewContent implements IViewContent {
     }
   }
 
+  /**
+   * Remembers that the appearance of an edge changed since the last save operation.
+   *
+   * @param edge The changed edge.
+   */
+  private void markChanged(final IViewEdge<?> edge) {
+    m_changedEdges.add((INaviEdge) edge);
+  }
+
+  /**
+   * Remembers that the appearance of a node changed since the last save operation.
+   *
+   * @param node The changed node.
+   */
+  private void markChanged(final IViewNode<?> node) {
+    m_changedNodes.add((INaviViewNode) node);
+  }
+
   /**
    * Changes the modification state of the view.
    *
@@ -412,6 +449,7 @@ public final class CViewContent implements IViewContent {
 
     edge.addListener(m_internalEdgeListener);
     graph.addEdge(edge);
+    m_structureChanged = true;
 
     for (final INaviViewListener listener : listeners) {
       try {
@@ -513,6 +551,8 @@ public final class CViewContent implements IViewContent {
 
     graph.removeEdge(edge);
     edge.removeListener(m_internalEdgeListener);
+    m_changedEdges.remove(edge);
+    m_structureChanged = true;
 
     edge.getSource().removeChild(edge.getTarget());
     edge.getTarget().removeParent(edge.getSource());
@@ -547,6 +587,8 @@ public final class CViewContent implements IViewContent {
 
     graph.removeNode(node);
     node.removeListener(m_internalNodeListener);
+    m_changedNodes.remove(node);
+    m_structureChanged = true;
 
     for (final INaviViewListener listener : listeners) {
       try {
@@ -589,6 +631,8 @@ public final class CViewContent implements IViewContent {
 
       graph.removeNode(node);
       node.removeListener(m_internalNodeListener);
+      m_changedNodes.remove(node);
+      m_structureChanged = true;
 
       final INaviGroupNode parent = node.getParentGroup();
 
@@ -668,6 +712,25 @@ public final class CViewContent implements IViewContent {
     return graph.getNodes().size();
   }
 
+  /**
+   * Returns the edges whose coordinates, bends, or appearance changed since the last save
+   * operation.
+   *
+   * @return The changed edges.
+   */
+  public Set<INaviEdge> getChangedEdges() {
+    return Collections.unmodifiableSet(m_changedEdges);
+  }
+
+  /**
+   * Returns the nodes whose position, size, or appearance changed since the last save operation.
+   *
+   * @return The changed nodes.
+   */
+  public Set<INaviViewNode> getChangedNodes() {
+    return Collections.unmodifiableSet(m_changedNodes);
+  }
+
   /**
    * Returns the node tags used to tag nodes of this view.
    *
@@ -686,8 +749,8 @@ public final class CViewContent implements IViewContent {
   @Override
   public ReilFunction getReilCode() throws InternalTranslationException {
     if (m_reilFunction == null) {
-      final StandardEnvironment env = new StandardEnvironment();
-      m_reilFunction = m_translator.translate(env, view);
+      m_reilFunction =
+          CReilCache.instance().translate(m_translator, new StandardEnvironment(), view);
     }
     return m_reilFunction;
   }
@@ -696,9 +759,23 @@ public final class CViewContent implements IViewContent {
    * Saves the view.
    */
   public void save() {
+    m_changedNodes.clear();
+    m_changedEdges.clear();
+    m_structureChanged = false;
     setModified(false);
   }
 
+  /**
+   * Returns whether nodes or edges were added, removed, regrouped, or had their instructions or
+   * types changed since the last save operation. If this is not the case, only the nodes and edges
+   * returned by {@link #getChangedNodes()} and {@link #getChangedEdges()} need to be written.
+   *
+   * @return True, if the structure of the view changed. False, otherwise.
+   */
+  public boolean hasStructuralChanges() {
+    return m_structureChanged;
+  }
+
   /**
    * Returns whether the view was modified or not.
    *
@@ -712,6 +789,11 @@ public final class CViewContent implements IViewContent {
    * Updates the view on relevant changes in its edges.
    */
   private class InternalEdgeListener extends CNaviEdgeListenerAdapter {
+    @Override
+    public void addedBend(final IViewEdge<?> edge, final CBend path) {
+      markChanged(edge);
+    }
+
     @Override
     public void appendedGlobalEdgeComment(final INaviEdge naviEdge, final IComment comment) {
       for (final INaviViewListener listener : listeners) {
@@ -736,6 +818,8 @@ public final class CViewContent implements IViewContent {
 
     @Override
     public void changedColor(final CViewEdge<?> edge, final Color color) {
+      markChanged(edge);
+
       for (final INaviViewListener listener : listeners) {
         try {
           listener.changedColor(view, (CNaviViewEdge) edge, color);
@@ -745,8 +829,40 @@ public final class CViewContent implements IViewContent {
       }
     }
 
+    @Override
+    public void changedSelection(final IViewEdge<?> edge, final boolean selected) {
+      markChanged(edge);
+    }
+
+    @Override
+    public void changedSourceX(final CViewEdge<?> edge, final double sourceX) {
+      markChanged(edge);
+    }
+
+    @Override
+    public void changedSourceY(final CViewEdge<?> edge, final double sourceY) {
+      markChanged(edge);
+    }
+
+    @Override
+    public void changedTargetX(final CViewEdge<?> edge, final double targetX) {
+      markChanged(edge);
+    }
+
+    @Override
+    public void changedTargetY(final CViewEdge<?> edge, final double targetY) {
+      markChanged(edge);
+    }
+
+    @Override
+    public void changedType(final CViewEdge<?> edge, final EdgeType type) {
+      m_structureChanged = true;
+    }
+
     @Override
     public void changedVisibility(final IViewEdge<?> edge, final boolean visibility) {
+      markChanged(edge);
+
       for (final INaviViewListener listener : listeners) {
         try {
           listener.changedVisibility(view, edge);
@@ -756,6 +872,11 @@ public final class CViewContent implements IViewContent {
       }
     }
 
+    @Override
+    public void clearedBends(final IViewEdge<?> edge) {
+      markChanged(edge);
+    }
+
     @Override
     public void deletedGlobalEdgeComment(final INaviEdge naviEdge, final IComment comment) {
       for (final INaviViewListener listener : listeners) {
@@ -823,6 +944,16 @@ public final class CViewContent implements IViewContent {
         }
       }
     }
+
+    @Override
+    public void insertedBend(final IViewEdge<?> edge, final int index, final CBend path) {
+      markChanged(edge);
+    }
+
+    @Override
+    public void removedBend(final CViewEdge<?> edge, final int index, final CBend path) {
+      markChanged(edge);
+    }
   }
 
   /**
@@ -836,11 +967,13 @@ public final class CViewContent implements IViewContent {
       INaviFunctionNodeListener {
     @Override
     public void addedElement(final INaviGroupNode groupNode, final INaviViewNode node) {
+      m_structureChanged = true;
       setModified(true);
     }
 
     @Override
     public void addedInstruction(final INaviCodeNode codeNode, final INaviInstruction instruction) {
+      m_structureChanged = true;
       setModified(true);
     }
 
@@ -871,6 +1004,8 @@ public final class CViewContent implements IViewContent {
 
     @Override
     public void changedBorderColor(final IViewNode<?> node, final Color color) {
+      markChanged(node);
+
       for (final INaviViewListener listener : listeners) {
         try {
           listener.changedBorderColor(view, node, color);
@@ -882,6 +1017,7 @@ public final class CViewContent implements IViewContent {
 
     @Override
     public void changedColor(final IViewNode<?> node, final Color color) {
+      markChanged(node);
       setModified(true);
 
       for (final INaviViewListener listener : listeners) {
@@ -899,6 +1035,8 @@ public final class CViewContent implements IViewContent {
 
     @Override
     public void changedParentGroup(final INaviViewNode node, final INaviGroupNode groupNode) {
+      m_structureChanged = true;
+
       for (final INaviViewListener listener : listeners) {
         try {
           listener.changedParentGroup(view, node, groupNode);
@@ -910,6 +1048,8 @@ public final class CViewContent implements IViewContent {
 
     @Override
     public void changedSelection(final IViewNode<?> node, final boolean selected) {
+      markChanged(node);
+
       for (final INaviViewListener listener : listeners) {
         try {
           listener.changedSelection(view, node, selected);
@@ -920,10 +1060,14 @@ public final class CViewContent implements IViewContent {
     }
 
     @Override
-    public void changedState(final INaviGroupNode node) {}
+    public void changedState(final INaviGroupNode node) {
+      m_structureChanged = true;
+    }
 
     @Override
     public void changedVisibility(final IViewNode<?> node, final boolean visible) {
+      markChanged(node);
+
       for (final INaviViewListener listener : listeners) {
         try {
           listener.changedVisibility(view, node, visible);
@@ -983,6 +1127,8 @@ public final class CViewContent implements IViewContent {
 
     @Override
     public void heightChanged(final IViewNode<?> node, final double height) {
+      markChanged(node);
+
       for (final INaviViewListener listener : listeners) {
         try {
           listener.heightChanged(view, node, height);
@@ -1014,6 +1160,7 @@ public final class CViewContent implements IViewContent {
 
     @Override
     public void removedElement(final INaviGroupNode groupNode, final INaviViewNode node) {
+      m_structureChanged = true;
       setModified(true);
       if (groupNode.getNumberOfElements() == 0) {
         deleteNode(groupNode);
@@ -1024,6 +1171,7 @@ public final class CViewContent implements IViewContent {
     public void removedInstruction(final INaviCodeNode codeNode,
         final INaviInstruction instruction) {
       m_reilFunction = null;
+      m_structureChanged = true;
       setModified(true);
     }
 
@@ -1051,6 +1199,8 @@ public final class CViewContent implements IViewContent {
 
     @Override
     public void widthChanged(final IViewNode<?> node, final double width) {
+      markChanged(node);
+
       for (final INaviViewListener listener : listeners) {
         try {
           listener.widthChanged(view, node, width);
@@ -1062,6 +1212,8 @@ public final class CViewContent implements IViewContent {
 
     @Override
     public void xposChanged(final IViewNode<?> node, final double xpos) {
+      markChanged(node);
+
       for (final INaviViewListener listener : listeners) {
         try {
           listener.xposChanged(view, node, xpos);
@@ -1073,6 +1225,8 @@ public final class CViewContent implements IViewContent {
 
     @Override
     public void yposChanged(final IViewNode<?> node, final double ypos) {
+      markChanged(node);
+
       for (final INaviViewListener listener : listeners) {
         try {
           listener.yposChanged(view, node, ypos);
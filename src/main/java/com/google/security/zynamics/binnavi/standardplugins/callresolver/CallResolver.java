@@ -19,6 +19,8 @@ import com.google.security.zynamics.binnavi.API.debug.DebugException;
 import com.google.security.zynamics.binnavi.API.debug.Debugger;
 import com.google.security.zynamics.binnavi.API.debug.DebuggerBreakpointHitReply;
 import com.google.security.zynamics.binnavi.API.debug.DebuggerListenerAdapter;
+import com.google.security.zynamics.binnavi.API.debug.DebuggerModuleLoadedReply;
+import com.google.security.zynamics.binnavi.API.debug.DebuggerModuleUnloadedReply;
 import com.google.security.zynamics.binnavi.API.debug.DebuggerRequestTargetReply;
 import com.google.security.zynamics.binnavi.API.debug.DebuggerSingleStepReply;
 import com.google.security.zynamics.binnavi.API.debug.DebuggerTargetInformationReply;
@@ -114,6 +116,11 @@ public abstract class CallResolver {
    */
   private List<IndirectCall> indirectCallAddresses = null;
 
+  /**
+   * Finds the indirect calls that belong to breakpoint hits.
+   */
+  private IndirectCallResolver indirectCallResolver = null;
+
   /**
    * We are using this listener to keep all required modules loaded.
    */
@@ -150,6 +157,24 @@ public abstract class CallResolver {
     target.addListener(internalTargetListener);
   }
 
+  /**
+   * Adds the address of an indirect call to the addresses of its module.
+   *
+   * @param addresses Maps modules to the addresses of their indirect calls.
+   * @param indirectCall The indirect call whose address is added.
+   */
+  private static void addAddress(final Map<Module, List<Address>> addresses,
+      final IndirectCall indirectCall) {
+    List<Address> moduleAddresses = addresses.get(indirectCall.getModule());
+
+    if (moduleAddresses == null) {
+      moduleAddresses = new ArrayList<>();
+      addresses.put(indirectCall.getModule(), moduleAddresses);
+    }
+
+    moduleAddresses.add(indirectCall.getAddress());
+  }
+
   /**
    * Processes a hit breakpoint.
    *
@@ -169,6 +194,7 @@ public abstract class CallResolver {
    */
   private void findIndirectCallAddresses() {
     indirectCallAddresses = target.getIndirectCalls();
+    indirectCallResolver = new IndirectCallResolver(debugger, indirectCallAddresses);
     if (!indirectCallAddresses.isEmpty()) {
       // Only continue if we actually found indirect function calls.
       step++;
@@ -249,8 +275,8 @@ public abstract class CallResolver {
       }
 
       if (hitCounter.get(lastIndirectCallAddress) >= HIT_THRESHOLD) {
-        final IndirectCall indirectCall = IndirectCallResolver.findIndirectCall(debugger,
-            indirectCallAddresses, lastIndirectCallAddress);
+        final IndirectCall indirectCall =
+            indirectCallResolver.findIndirectCall(lastIndirectCallAddress);
 
         if (indirectCall != null) {
           removeBreakpoint(indirectCall);
@@ -278,13 +304,19 @@ public abstract class CallResolver {
   }
 
   private void removeBreakpoints() {
+    final Map<Module, List<Address>> addresses = new HashMap<>();
+
     for (final IndirectCall indirectCall : indirectCallAddresses) {
       if (!removedBreakpoints.contains(indirectCall)) {
-        try {
-          removeBreakpoint(indirectCall);
-        } catch (final Exception exception) {
-          Logger.logException(exception);
-        }
+        addAddress(addresses, indirectCall);
+      }
+    }
+
+    for (final Map.Entry<Module, List<Address>> entry : addresses.entrySet()) {
+      try {
+        debugger.getBreakpointManager().removeBreakpoints(entry.getKey(), entry.getValue());
+      } catch (final Exception exception) {
+        Logger.logException(exception);
       }
     }
   }
@@ -357,9 +389,16 @@ public abstract class CallResolver {
    * Sets breakpoints on all previously determined indirect function call addresses.
    */
   private void setBreakpoints() {
+    final Map<Module, List<Address>> addresses = new HashMap<>();
+
     for (final IndirectCall indirectCall : indirectCallAddresses) {
-      debugger.getBreakpointManager().setBreakpoint(indirectCall.getModule(),
-          indirectCall.getAddress());
+      addAddress(addresses, indirectCall);
+    }
+
+    // Setting the breakpoints of a module at once notifies the listeners only once per module
+    // instead of once per indirect call.
+    for (final Map.Entry<Module, List<Address>> entry : addresses.entrySet()) {
+      debugger.getBreakpointManager().setBreakpoints(entry.getKey(), entry.getValue());
     }
     step++;
   }
@@ -490,6 +529,7 @@ public abstract class CallResolver {
     removedBreakpoints.clear();
     lastHits.clear();
     indirectCallAddresses = null;
+    indirectCallResolver = null;
 
     step = 0;
   }
@@ -525,6 +565,20 @@ public abstract class CallResolver {
       }
     }
 
+    @Override
+    public void moduleLoaded(final DebuggerModuleLoadedReply reply) {
+      if (indirectCallResolver != null) {
+        indirectCallResolver.invalidate();
+      }
+    }
+
+    @Override
+    public void moduleUnloaded(final DebuggerModuleUnloadedReply reply) {
+      if (indirectCallResolver != null) {
+        indirectCallResolver.invalidate();
+      }
+    }
+
     @Override
     public void requestTarget(final DebuggerRequestTargetReply reply) {
       // The debugger is asking us for the path to the target process to be started.
@@ -15,40 +15,106 @@
 package com.google.security.zynamics.binnavi.standardplugins.callresolver;
 
 import java.math.BigInteger;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import com.google.security.zynamics.binnavi.API.debug.Debugger;
 import com.google.security.zynamics.binnavi.API.disassembly.Address;
-import com.google.security.zynamics.binnavi.API.disassembly.Module;
 
 
 /**
- * Contains a helper function that helps resolve functions.
+ * Finds indirect calls given their relocated call addresses.
  */
 public final class IndirectCallResolver {
   /**
-   * Searches for an indirect call given the relocated call address.
+   * The debugger that provides the relocation information.
+   */
+  private final Debugger debugger;
+
+  /**
+   * The indirect calls to search through.
+   */
+  private final List<IndirectCall> indirectCalls;
+
+  /**
+   * Maps the relocated addresses of the indirect calls to the indirect calls. The map is created
+   * on the first lookup because the relocation information is only available once the modules were
+   * loaded into the target process.
+   */
+  private Map<Address, IndirectCall> relocatedCalls = null;
+
+  /**
+   * Relocated addresses that were not found even after the map was created again. Lookups of these
+   * addresses do not create the map again until the resolver is invalidated.
+   */
+  private final Set<Address> missedAddresses = new HashSet<Address>();
+
+  /**
+   * Creates a new indirect call resolver.
    * 
    * @param debugger The debugger that provides the relocation information.
-   * @param indirectCallAddresses The list of indirect call addresses to search through.
+   * @param indirectCalls The indirect calls to search through.
+   */
+  public IndirectCallResolver(final Debugger debugger, final List<IndirectCall> indirectCalls) {
+    this.debugger = debugger;
+    this.indirectCalls = indirectCalls;
+  }
+
+  /**
+   * Maps the relocated addresses of all indirect calls to the indirect calls.
+   * 
+   * @return The created map.
+   */
+  private Map<Address, IndirectCall> relocateCalls() {
+    final Map<Address, IndirectCall> calls = new HashMap<Address, IndirectCall>();
+
+    for (final IndirectCall indirectCall : indirectCalls) {
+      calls.put(debugger.toImagebase(indirectCall.getModule(), indirectCall.getAddress()),
+          indirectCall);
+    }
+
+    return calls;
+  }
+
+  /**
+   * Searches for an indirect call given the relocated call address.
+   * 
    * @param callAddress The relocated call address to find.
    * 
-   * @return The found indirect call object.
+   * @return The found indirect call object or null if there is no indirect call at the given
+   *         address.
    */
-  public static IndirectCall findIndirectCall(final Debugger debugger,
-      final List<IndirectCall> indirectCallAddresses, final BigInteger callAddress) {
-    for (final IndirectCall indirectCall : indirectCallAddresses) {
-      final Module module = indirectCall.getModule();
-      final Address address = indirectCall.getAddress();
+  public IndirectCall findIndirectCall(final BigInteger callAddress) {
+    if (relocatedCalls == null) {
+      relocatedCalls = relocateCalls();
+    }
 
-      final Address rebasedAddress = debugger.toImagebase(module, address);
+    final Address address = new Address(callAddress);
+    IndirectCall indirectCall = relocatedCalls.get(address);
 
-      if (rebasedAddress.equals(new Address(callAddress))) {
-        return indirectCall;
+    if ((indirectCall == null) && !missedAddresses.contains(address)) {
+      // Modules can be relocated after the map was created, for example when a module is loaded
+      // into the target process only after the first breakpoint hit.
+      relocatedCalls = relocateCalls();
+      indirectCall = relocatedCalls.get(address);
+
+      if (indirectCall == null) {
+        missedAddresses.add(address);
       }
     }
 
-    return null;
+    return indirectCall;
   }
 
+  /**
+   * Drops the relocated addresses. This must be called when modules are loaded into or unloaded
+   * from the target process because this changes the relocated addresses of the indirect calls.
+   */
+  public void invalidate() {
+    relocatedCalls = null;
+    missedAddresses.clear();
+  }
 }
@@ -52,6 +52,8 @@ public final class OutputGraphGenerator {
       final List<IndirectCall> indirectCallAddresses,
       final Map<BigInteger, Set<ResolvedFunction>> resolvedAddresses) {
     final View view = target.createView();
+    final IndirectCallResolver resolver =
+        new IndirectCallResolver(target.getDebugger(), indirectCallAddresses);
 
     final Map<Function, FunctionNode> nodes = new HashMap<Function, FunctionNode>();
 
@@ -76,8 +78,7 @@ public final class OutputGraphGenerator {
       final BigInteger start = element.getKey();
       final Set<ResolvedFunction> targets = element.getValue();
 
-      final IndirectCall call =
-          IndirectCallResolver.findIndirectCall(target.getDebugger(), indirectCallAddresses, start);
+      final IndirectCall call = resolver.findIndirectCall(start);
 
       final FunctionNode sourceNode = nodes.get(call.getFunction());
 
@@ -114,6 +115,8 @@ public final class OutputGraphGenerator {
       final List<IndirectCall> indirectCallAddresses,
       final Map<BigInteger, Set<ResolvedFunction>> resolvedAddresses) {
     final View view = target.createView();
+    final IndirectCallResolver resolver =
+        new IndirectCallResolver(target.getDebugger(), indirectCallAddresses);
 
     final Map<Function, FunctionNode> nodes = new HashMap<Function, FunctionNode>();
 
@@ -121,8 +124,7 @@ public final class OutputGraphGenerator {
       final BigInteger start = element.getKey();
       final Set<ResolvedFunction> targets = element.getValue();
 
-      final IndirectCall call =
-          IndirectCallResolver.findIndirectCall(target.getDebugger(), indirectCallAddresses, start);
+      final IndirectCall call = resolver.findIndirectCall(start);
 
       FunctionNode sourceNode = nodes.get(call.getFunction());
 
@@ -16,6 +16,7 @@ package com.google.security.zynamics.reil;
 
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableBiMap;
+import com.google.common.collect.MapMaker;
 import com.google.security.zynamics.zylib.disassembly.CAddress;
 import com.google.security.zynamics.zylib.disassembly.ExpressionType;
 import com.google.security.zynamics.zylib.disassembly.IAddress;
@@ -23,7 +24,10 @@ import com.google.security.zynamics.zylib.disassembly.IInstruction;
 import com.google.security.zynamics.zylib.general.Convert;
 
 import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * This class provides some helper functions for working with REIL instructions.
@@ -166,6 +170,31 @@ public class ReilHelpers {
           .put(OPCODE_XOR, _OPCODE_XOR)
           .build();
 
+  /**
+   * Operands created by {@link #createOperand}, keyed by size and value. Translated code reuses
+   * the same registers, temporaries, and literals over and over, so equal operands are shared
+   * instead of allocating a new operand tree for every instruction. Operands are held weakly so
+   * operands of discarded REIL code can be collected.
+   */
+  private static final Map<OperandSize, ConcurrentMap<String, ReilOperand>> operandCache =
+      createOperandCache();
+
+  /**
+   * Creates the per-size maps of the shared operand cache.
+   *
+   * @return The operand cache.
+   */
+  private static Map<OperandSize, ConcurrentMap<String, ReilOperand>> createOperandCache() {
+    final Map<OperandSize, ConcurrentMap<String, ReilOperand>> cache =
+        new EnumMap<>(OperandSize.class);
+
+    for (final OperandSize size : OperandSize.values()) {
+      cache.put(size, new MapMaker().weakValues().<String, ReilOperand>makeMap());
+    }
+
+    return cache;
+  }
+
   /**
    * Creates a REIL instruction with two operands.
    *
@@ -533,11 +562,21 @@ public class ReilHelpers {
   }
 
   public static ReilOperand createOperand(final OperandSize size, final String value) {
+    final ConcurrentMap<String, ReilOperand> operands = operandCache.get(size);
+    final ReilOperand cachedOperand = operands.get(value);
+
+    if (cachedOperand != null) {
+      return cachedOperand;
+    }
+
     final ReilOperandNode root =
         new ReilOperandNode(size.toSizeString(), ExpressionType.SIZE_PREFIX);
     final ReilOperandNode child = new ReilOperandNode(value, getOperandType(value));
     ReilOperandNode.link(root, child);
-    return new ReilOperand(root);
+
+    final ReilOperand operand = new ReilOperand(root);
+    final ReilOperand previousOperand = operands.putIfAbsent(value, operand);
+    return previousOperand == null ? operand : previousOperand;
   }
 
   /**
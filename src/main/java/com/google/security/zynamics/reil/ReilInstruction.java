@@ -20,6 +20,7 @@ import com.google.security.zynamics.zylib.disassembly.IInstruction;
 import com.google.security.zynamics.zylib.disassembly.IOperandTree;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -36,9 +37,9 @@ public final class ReilInstruction implements IInstruction, Comparable<ReilInstr
   private IAddress address;
 
   /**
-   * Mnemonic of the REIL instruction.
+   * Mnemonic code of the REIL instruction.
    */
-  private final Integer mnemonic;
+  private final int mnemonic;
 
   /**
    * First operand of the REIL instruction.
@@ -56,9 +57,10 @@ public final class ReilInstruction implements IInstruction, Comparable<ReilInstr
   private final ReilOperand thirdOperand;
 
   /**
-   * Metadata of the REIL instruction.
+   * Metadata of the REIL instruction. Most instructions have no metadata, so the map is only
+   * allocated when the first piece of metadata is added.
    */
-  private final Map<String, String> metaData = new HashMap<>();
+  private Map<String, String> metaData = null;
 
   /**
    * Creates a new ReilInstruction object.
@@ -84,12 +86,25 @@ public final class ReilInstruction implements IInstruction, Comparable<ReilInstr
     this.address = address;
   }
 
+  /**
+   * Returns the metadata map without copying it.
+   * 
+   * @return The metadata map or an empty map if no metadata was added.
+   */
+  private Map<String, String> getMetaDataMap() {
+    return metaData == null ? Collections.<String, String>emptyMap() : metaData;
+  }
+
   /**
    * Creates the string representation of meta-data.
    * 
    * @return The string representation of meta-data.
    */
   private String getMetaDataString() {
+    if (metaData == null) {
+      return "";
+    }
+
     return metaData.keySet()
             .stream()
             .map(key -> key + " : " + metaData.get(key))
@@ -110,11 +125,11 @@ public final class ReilInstruction implements IInstruction, Comparable<ReilInstr
     final ReilInstruction rhsInstruction = (ReilInstruction) rhs;
 
     return address.equals(rhsInstruction.getAddress())
-        && rhsInstruction.getMnemonic().equals(mnemonic)
+        && (rhsInstruction.mnemonic == mnemonic)
         && firstOperand.equals(rhsInstruction.getFirstOperand())
         && secondOperand.equals(rhsInstruction.getSecondOperand())
         && thirdOperand.equals(rhsInstruction.getThirdOperand())
-        && metaData.equals(rhsInstruction.getMetaData());
+        && getMetaDataMap().equals(rhsInstruction.getMetaDataMap());
   }
 
   /**
@@ -158,7 +173,7 @@ public final class ReilInstruction implements IInstruction, Comparable<ReilInstr
    * @return A map of metadata information.
    */
   public Map<String, String> getMetaData() {
-    return new HashMap<>(metaData);
+    return metaData == null ? new HashMap<String, String>() : new HashMap<>(metaData);
   }
 
   /**
@@ -172,7 +187,7 @@ public final class ReilInstruction implements IInstruction, Comparable<ReilInstr
 
     Preconditions.checkNotNull(key, "Argument key can't be null");
 
-    return metaData.get(key);
+    return metaData == null ? null : metaData.get(key);
   }
 
   @Override
@@ -233,8 +248,12 @@ public final class ReilInstruction implements IInstruction, Comparable<ReilInstr
 
   @Override
   public int hashCode() {
-    return address.hashCode() * (mnemonic + 1) * firstOperand.hashCode() * secondOperand.hashCode()
-        * thirdOperand.hashCode() * metaData.hashCode();
+    // Combined additively, so an empty metadata map does not force every hash code to zero.
+    int result = address.hashCode() * 31 + mnemonic;
+    result = result * 31 + firstOperand.hashCode();
+    result = result * 31 + secondOperand.hashCode();
+    result = result * 31 + thirdOperand.hashCode();
+    return result * 31 + getMetaDataMap().hashCode();
   }
 
   /**
@@ -249,8 +268,14 @@ public final class ReilInstruction implements IInstruction, Comparable<ReilInstr
     Preconditions.checkNotNull(key, "Argument key can't be null");
 
     if (value == null) {
-      metaData.remove(key);
+      if (metaData != null) {
+        metaData.remove(key);
+      }
     } else {
+      if (metaData == null) {
+        metaData = new HashMap<>(2);
+      }
+
       metaData.put(key, value);
     }
   }
@@ -18,11 +18,28 @@ import com.google.common.base.Preconditions;
 import com.google.security.zynamics.zylib.disassembly.IOperandTree;
 
 /**
- * This class can be used to store information about the operands of REIL instructions.
+ * This class can be used to store information about the operands of REIL instructions. Operands
+ * are immutable, so operands created through {@link ReilHelpers#createOperand} are shared between
+ * instructions.
  */
 public class ReilOperand implements IOperandTree {
   private final ReilOperandNode m_root;
 
+  /**
+   * Size of the operand, decoded once from the root node.
+   */
+  private final OperandSize m_size;
+
+  /**
+   * Type of the operand, decoded once from the value.
+   */
+  private final OperandType m_type;
+
+  /**
+   * Value of the operand, taken from the child of the root node.
+   */
+  private final String m_value;
+
   /**
    * Creates a new ReilOperand object.
    * 
@@ -30,6 +47,9 @@ public class ReilOperand implements IOperandTree {
    */
   public ReilOperand(final ReilOperandNode root) {
     m_root = Preconditions.checkNotNull(root);
+    m_value = root.getChildren().get(0).getValue();
+    m_size = OperandSize.sizeStringToValue(root.getValue());
+    m_type = OperandType.getOperandType(m_value);
   }
 
   @Override
@@ -40,8 +60,8 @@ public class ReilOperand implements IOperandTree {
 
     final ReilOperand rhsOperand = (ReilOperand) rhs;
 
-    return getType().equals(rhsOperand.getType()) && getValue().equals(rhsOperand.getValue())
-        && getSize().equals(rhsOperand.getSize());
+    return (m_type == rhsOperand.m_type) && m_value.equals(rhsOperand.m_value)
+        && (m_size == rhsOperand.m_size);
   }
 
   @Override
@@ -55,7 +75,7 @@ public class ReilOperand implements IOperandTree {
    * @return The size of the operand.
    */
   public OperandSize getSize() {
-    return OperandSize.sizeStringToValue(m_root.getValue());
+    return m_size;
   }
 
   /**
@@ -64,7 +84,7 @@ public class ReilOperand implements IOperandTree {
    * @return The type of the operand.
    */
   public OperandType getType() {
-    return OperandType.getOperandType(getValue());
+    return m_type;
   }
 
   /**
@@ -73,12 +93,12 @@ public class ReilOperand implements IOperandTree {
    * @return The value of the operand.
    */
   public String getValue() {
-    return m_root.getChildren().get(0).getValue();
+    return m_value;
   }
 
   @Override
   public int hashCode() {
-    return getType().hashCode() * getValue().hashCode() * getSize().hashCode();
+    return m_type.hashCode() * m_value.hashCode() * m_size.hashCode();
   }
 
   /**
@@ -15,6 +15,7 @@
 package com.google.security.zynamics.reil;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 import com.google.common.base.Preconditions;
@@ -26,7 +27,11 @@ import com.google.security.zynamics.zylib.disassembly.IReplacement;
 public class ReilOperandNode implements IOperandTreeNode {
   private final String m_value;
 
-  private final List<IOperandTreeNode> children = new ArrayList<>();
+  /**
+   * Child nodes of the operand node. Most REIL operand nodes are leaves, so the list is only
+   * allocated when the first child is linked.
+   */
+  private List<IOperandTreeNode> children = Collections.emptyList();
 
   private final ExpressionType m_type;
 
@@ -36,6 +41,10 @@ public class ReilOperandNode implements IOperandTreeNode {
   }
 
   public static void link(final ReilOperandNode parent, final ReilOperandNode child) {
+    if (parent.children.isEmpty()) {
+      parent.children = new ArrayList<>(1);
+    }
+
     parent.children.add(child);
   }
 
@@ -0,0 +1,304 @@
+// Copyright 2011-2016 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.security.zynamics.reil;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Iterables;
+import com.google.security.zynamics.zylib.disassembly.CAddress;
+import com.google.security.zynamics.zylib.gui.zygraph.edges.EdgeType;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Converts REIL functions to and from a compact binary format. All strings (operand values, meta
+ * data and the function name) are stored once in a string table and referenced by index.
+ * Instructions store their mnemonic code and operand sizes as single bytes.
+ */
+public final class ReilSerializer {
+  /**
+   * Magic number at the beginning of serialized REIL functions.
+   */
+  private static final int MAGIC = 0x5245494C;
+
+  /**
+   * Version of the binary format.
+   */
+  private static final byte VERSION = 1;
+
+  /**
+   * Marks edges without edge type.
+   */
+  private static final int NO_EDGE_TYPE = 0xFF;
+
+  /**
+   * You are not supposed to instantiate this class.
+   */
+  private ReilSerializer() {
+  }
+
+  /**
+   * Returns the index of a string in the string table. Strings that are not yet in the table are
+   * added to it.
+   */
+  private static int intern(final String value, final Map<String, Integer> indices,
+      final List<String> strings) {
+    final Integer index = indices.get(value);
+
+    if (index != null) {
+      return index;
+    }
+
+    indices.put(value, strings.size());
+    strings.add(value);
+
+    return strings.size() - 1;
+  }
+
+  /**
+   * Reads a string from the buffer.
+   */
+  private static String readString(final ByteBuffer buffer) {
+    final byte[] bytes = new byte[readVarInt(buffer)];
+
+    buffer.get(bytes);
+
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Reads a variable-length encoded integer from the buffer.
+   */
+  private static int readVarInt(final ByteBuffer buffer) {
+    int value = 0;
+
+    for (int shift = 0; shift < 32; shift += 7) {
+      final int current = buffer.get() & 0xFF;
+
+      value |= (current & 0x7F) << shift;
+
+      if ((current & 0x80) == 0) {
+        return value;
+      }
+    }
+
+    throw new IllegalArgumentException("Error: Malformed variable-length integer");
+  }
+
+  /**
+   * Writes a variable-length encoded integer to the stream.
+   */
+  private static void writeVarInt(final DataOutputStream stream, final int value)
+      throws IOException {
+    int remaining = value;
+
+    while ((remaining & ~0x7F) != 0) {
+      stream.writeByte((remaining & 0x7F) | 0x80);
+      remaining >>>= 7;
+    }
+
+    stream.writeByte(remaining);
+  }
+
+  /**
+   * Deserializes a REIL function.
+   *
+   * @param buffer Buffer that contains the serialized function. The position of the buffer is
+   *        advanced to the end of the function.
+   *
+   * @return The deserialized function.
+   *
+   * @throws IllegalArgumentException Thrown if the buffer does not contain a valid function.
+   */
+  public static ReilFunction deserialize(final ByteBuffer buffer) {
+    Preconditions.checkNotNull(buffer, "Error: Argument buffer can't be null");
+
+    try {
+      Preconditions.checkArgument(buffer.getInt() == MAGIC, "Error: Invalid REIL data");
+      Preconditions.checkArgument(buffer.get() == VERSION, "Error: Unsupported REIL data version");
+
+      final String[] strings = new String[readVarInt(buffer)];
+
+      for (int i = 0; i < strings.length; i++) {
+        strings[i] = readString(buffer);
+      }
+
+      final int nameIndex = readVarInt(buffer);
+      final String name = nameIndex == 0 ? null : strings[nameIndex - 1];
+
+      final OperandSize[] sizes = OperandSize.values();
+      final List<ReilBlock> blocks = new ArrayList<ReilBlock>();
+
+      final int blockCount = readVarInt(buffer);
+
+      for (int i = 0; i < blockCount; i++) {
+        final int instructionCount = readVarInt(buffer);
+        final List<ReilInstruction> instructions = new ArrayList<ReilInstruction>(instructionCount);
+
+        for (int j = 0; j < instructionCount; j++) {
+          final byte[] address = new byte[buffer.get() & 0xFF];
+          buffer.get(address);
+
+          final String mnemonic = ReilHelpers.MnemonicCodeToMnemonic(buffer.get());
+
+          final ReilOperand[] operands = new ReilOperand[3];
+
+          for (int k = 0; k < operands.length; k++) {
+            final OperandSize size = sizes[buffer.get()];
+            operands[k] = ReilHelpers.createOperand(size, strings[readVarInt(buffer)]);
+          }
+
+          final ReilInstruction instruction =
+              new ReilInstruction(new CAddress(new BigInteger(1, address)), mnemonic, operands[0],
+                  operands[1], operands[2]);
+
+          final int metaDataCount = readVarInt(buffer);
+
+          for (int k = 0; k < metaDataCount; k++) {
+            instruction.setMetaData(strings[readVarInt(buffer)], strings[readVarInt(buffer)]);
+          }
+
+          instructions.add(instruction);
+        }
+
+        blocks.add(new ReilBlock(instructions));
+      }
+
+      final EdgeType[] types = EdgeType.values();
+      final List<ReilEdge> edges = new ArrayList<ReilEdge>();
+
+      final int edgeCount = readVarInt(buffer);
+
+      for (int i = 0; i < edgeCount; i++) {
+        final ReilBlock source = blocks.get(readVarInt(buffer));
+        final ReilBlock target = blocks.get(readVarInt(buffer));
+        final int type = buffer.get() & 0xFF;
+
+        final ReilEdge edge =
+            new ReilEdge(source, target, type == NO_EDGE_TYPE ? null : types[type]);
+
+        ReilBlock.link(source, target, edge);
+
+        edges.add(edge);
+      }
+
+      return new ReilFunction(name, new ReilGraph(blocks, edges));
+    } catch (final BufferUnderflowException | IndexOutOfBoundsException exception) {
+      throw new IllegalArgumentException("Error: Truncated or corrupted REIL data", exception);
+    }
+  }
+
+  /**
+   * Serializes a REIL function.
+   *
+   * @param function The function to serialize.
+   *
+   * @return The serialized function.
+   */
+  public static byte[] serialize(final ReilFunction function) {
+    Preconditions.checkNotNull(function, "Error: Argument function can't be null");
+
+    final Map<String, Integer> indices = new HashMap<String, Integer>();
+    final List<String> strings = new ArrayList<String>();
+
+    final ByteArrayOutputStream bodyBytes = new ByteArrayOutputStream();
+    final DataOutputStream body = new DataOutputStream(bodyBytes);
+
+    try {
+      final List<ReilBlock> blocks = function.getGraph().getNodes();
+      final Map<ReilBlock, Integer> blockIndices = new IdentityHashMap<ReilBlock, Integer>();
+
+      writeVarInt(body, blocks.size());
+
+      for (final ReilBlock block : blocks) {
+        blockIndices.put(block, blockIndices.size());
+
+        writeVarInt(body, Iterables.size(block.getInstructions()));
+
+        for (final ReilInstruction instruction : block) {
+          final byte[] address = instruction.getAddress().toBigInteger().toByteArray();
+          final int offset = (address.length > 1) && (address[0] == 0) ? 1 : 0;
+
+          body.writeByte(address.length - offset);
+          body.write(address, offset, address.length - offset);
+          body.writeByte(instruction.getMnemonicCode());
+
+          for (final ReilOperand operand : new ReilOperand[] {instruction.getFirstOperand(),
+              instruction.getSecondOperand(), instruction.getThirdOperand()}) {
+            body.writeByte(operand.getSize().ordinal());
+            writeVarInt(body, intern(operand.getValue(), indices, strings));
+          }
+
+          final Map<String, String> metaData = instruction.getMetaData();
+
+          writeVarInt(body, metaData.size());
+
+          for (final Map.Entry<String, String> entry : metaData.entrySet()) {
+            writeVarInt(body, intern(entry.getKey(), indices, strings));
+            writeVarInt(body, intern(entry.getValue(), indices, strings));
+          }
+        }
+      }
+
+      final List<ReilEdge> edges = function.getGraph().getEdges();
+
+      writeVarInt(body, edges.size());
+
+      for (final ReilEdge edge : edges) {
+        writeVarInt(body, blockIndices.get(edge.getSource()));
+        writeVarInt(body, blockIndices.get(edge.getTarget()));
+        body.writeByte(edge.getType() == null ? NO_EDGE_TYPE : edge.getType().ordinal());
+      }
+
+      final int nameIndex =
+          function.getName() == null ? 0 : intern(function.getName(), indices, strings) + 1;
+
+      final ByteArrayOutputStream resultBytes = new ByteArrayOutputStream(bodyBytes.size() + 64);
+      final DataOutputStream result = new DataOutputStream(resultBytes);
+
+      result.writeInt(MAGIC);
+      result.writeByte(VERSION);
+
+      writeVarInt(result, strings.size());
+
+      for (final String string : strings) {
+        final byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+
+        writeVarInt(result, bytes.length);
+        result.write(bytes);
+      }
+
+      writeVarInt(result, nameIndex);
+
+      bodyBytes.writeTo(result);
+      result.flush();
+
+      return resultBytes.toByteArray();
+    } catch (final IOException exception) {
+      // Byte array streams do not throw I/O exceptions.
+      throw new IllegalStateException(exception);
+    }
+  }
+}
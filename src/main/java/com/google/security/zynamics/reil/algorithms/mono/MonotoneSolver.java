@@ -14,9 +14,17 @@
 
 package com.google.security.zynamics.reil.algorithms.mono;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -85,6 +93,64 @@ public class MonotoneSolver<GraphNode, LatticeElement extends ILatticeElementMon
     this.debugger = debugger;
   }
 
+  /**
+   * Calculates a reverse postorder of the graph nodes with respect to the direction in which the
+   * walker propagates information. Nodes that are not influenced by any other node are used as the
+   * roots of the depth-first search; nodes that are only reachable through cycles are visited
+   * afterwards in the order of the graph.
+   *
+   * @return The graph nodes in reverse postorder.
+   */
+  private List<GraphNode> getReversePostorder() {
+    final List<GraphNode> nodes = graph.getNodes();
+
+    final List<GraphNode> roots = new ArrayList<>();
+
+    for (final GraphNode node : nodes) {
+      if (walker.getInfluencing(node).isEmpty()) {
+        roots.add(node);
+      }
+    }
+
+    roots.addAll(nodes);
+
+    final Set<GraphNode> visited = new HashSet<>();
+    final List<GraphNode> postorder = new ArrayList<>(nodes.size());
+
+    // Iterative depth-first search; every stack entry remembers the children left to visit.
+    final Deque<GraphNode> nodeStack = new ArrayDeque<>();
+    final Deque<Iterator<GraphNode>> childStack = new ArrayDeque<>();
+
+    for (final GraphNode root : roots) {
+      if (!visited.add(root)) {
+        continue;
+      }
+
+      nodeStack.push(root);
+      childStack.push(walker.getInfluenced(root).iterator());
+
+      while (!nodeStack.isEmpty()) {
+        final Iterator<GraphNode> children = childStack.peek();
+
+        if (children.hasNext()) {
+          final GraphNode child = children.next();
+
+          if (visited.add(child)) {
+            nodeStack.push(child);
+            childStack.push(walker.getInfluenced(child).iterator());
+          }
+        } else {
+          postorder.add(nodeStack.pop());
+          childStack.pop();
+        }
+      }
+    }
+
+    Collections.reverse(postorder);
+
+    return postorder;
+  }
+
   /**
    * Returns a list of current states associated with a list of given graph nodes.
    * 
@@ -175,4 +241,83 @@ public class MonotoneSolver<GraphNode, LatticeElement extends ILatticeElementMon
 
     return state;
   }
+
+  /**
+   * Run the code analysis with a priority worklist. Unlike {@link #solve()}, which re-evaluates all
+   * changed nodes in rounds, this mode processes one node at a time in reverse postorder of the
+   * information flow, updates its state in place and only re-queues the nodes influenced by a
+   * changed state. For monotone transformations both modes reach the same fixpoint, but the
+   * worklist mode usually needs far fewer calls to the transformation provider.
+   *
+   * @return The fixpoint state.
+   */
+  public IStateVector<GraphNode, LatticeElement> solveWorklist() {
+    final List<GraphNode> order = getReversePostorder();
+
+    final Map<GraphNode, Integer> priorities = new HashMap<>();
+
+    for (int i = 0; i < order.size(); i++) {
+      priorities.put(order.get(i), i);
+    }
+
+    final PriorityQueue<Integer> worklist = new PriorityQueue<>(Math.max(1, order.size()));
+    final boolean[] queued = new boolean[order.size()];
+
+    for (int i = 0; i < order.size(); i++) {
+      worklist.add(i);
+      queued[i] = true;
+    }
+
+    final List<IInfluencingState<LatticeElement, ObjectType>> influencingStates =
+        new ArrayList<>();
+
+    while (!worklist.isEmpty()) {
+      final int index = worklist.poll();
+      queued[index] = false;
+
+      final GraphNode node = order.get(index);
+
+      influencingStates.clear();
+
+      for (final IInfluencingNode<GraphNode, ObjectType> influencing : walker
+          .getInfluencing(node)) {
+        influencingStates.add(new InfluencingState<>(state.getState(influencing.getNode()),
+            influencing.getObject()));
+      }
+
+      final LatticeElement oldState = state.getState(node);
+
+      final LatticeElement transformedState = transformationList.transform(node, oldState,
+          lattice.combine(influencingStates));
+
+      if (debugger != null) {
+        debugger.updatedState(node, new ArrayList<>(influencingStates), transformedState);
+      }
+
+      if (transformedState.equals(oldState)) {
+        continue;
+      }
+
+      if (transformedState.lessThan(oldState)) {
+        throw new IllegalStateException("Non-monotone transformation detected");
+      }
+
+      state.setState(node, transformedState);
+
+      for (final GraphNode influenced : walker.getInfluenced(node)) {
+        final int influencedIndex = priorities.get(influenced);
+
+        if (!queued[influencedIndex]) {
+          queued[influencedIndex] = true;
+          worklist.add(influencedIndex);
+        }
+      }
+    }
+
+    if (debugger != null) {
+      debugger.updatedState(state);
+    }
+
+    return state;
+  }
 }
@@ -0,0 +1,391 @@
+// Copyright 2011-2016 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.security.zynamics.reil.interpreter;
+
+import com.google.common.base.Preconditions;
+import com.google.security.zynamics.reil.OperandSize;
+import com.google.security.zynamics.reil.OperandType;
+import com.google.security.zynamics.reil.ReilBlock;
+import com.google.security.zynamics.reil.ReilFunction;
+import com.google.security.zynamics.reil.ReilGraph;
+import com.google.security.zynamics.reil.ReilHelpers;
+import com.google.security.zynamics.reil.ReilInstruction;
+import com.google.security.zynamics.reil.ReilOperand;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * REIL code that was pre-compiled for the fast execution engine of the REIL interpreter. All REIL
+ * instructions are stored in dense arrays, register operands are replaced by integer slots and
+ * literals are parsed once. Pass objects of this class to
+ * {@link ReilInterpreter#interpret(CompiledReilCode, BigInteger)} to execute them.
+ */
+public final class CompiledReilCode {
+  /**
+   * Operand kind of empty operands.
+   */
+  static final int KIND_EMPTY = 0;
+
+  /**
+   * Operand kind of integer literals.
+   */
+  static final int KIND_LITERAL = 1;
+
+  /**
+   * Operand kind of register operands.
+   */
+  static final int KIND_REGISTER = 2;
+
+  /**
+   * Operand kind of sub-address operands.
+   */
+  static final int KIND_SUB_ADDRESS = 3;
+
+  /**
+   * Sorted native addresses of all native instructions.
+   */
+  private final long[] nativeAddresses;
+
+  /**
+   * Index of the first REIL instruction of each native instruction.
+   */
+  private final int[] instructionStart;
+
+  /**
+   * Number of REIL instructions of each native instruction.
+   */
+  private final int[] instructionCount;
+
+  /**
+   * Opcodes of all REIL instructions.
+   */
+  final int[] opcodes;
+
+  /**
+   * Operand kinds of all REIL instructions, three per instruction.
+   */
+  final int[] kinds;
+
+  /**
+   * Register slots or literal values of all operands, three per instruction.
+   */
+  final long[] values;
+
+  /**
+   * Sizes of all operands, three per instruction.
+   */
+  final OperandSize[] sizes;
+
+  /**
+   * Literal values of operands that do not fit into a long value, three per instruction. Entries
+   * are null for all other operands.
+   */
+  final BigInteger[] bigLiterals;
+
+  /**
+   * Target sub-addresses of JCC instructions with sub-address operands.
+   */
+  final int[] subTargets;
+
+  /**
+   * Flags that tell whether an instruction must be interpreted with BigInteger arithmetic.
+   */
+  final boolean[] requiresBigInteger;
+
+  /**
+   * Flags that tell whether the first and the second operand of an instruction are identical.
+   */
+  final boolean[] identicalInputs;
+
+  /**
+   * Masks that are used to find out whether the MSB of the second operand of a BSH instruction is
+   * set.
+   */
+  final long[] msbMasks;
+
+  /**
+   * Names of the registers that belong to the register slots.
+   */
+  private final String[] registerNames;
+
+  /**
+   * Creates a new compiled REIL code object.
+   */
+  private CompiledReilCode(final TreeMap<Long, List<ReilInstruction>> instructions) {
+    final int nativeCount = instructions.size();
+
+    nativeAddresses = new long[nativeCount];
+    instructionStart = new int[nativeCount];
+    instructionCount = new int[nativeCount];
+
+    int total = 0;
+
+    for (final List<ReilInstruction> list : instructions.values()) {
+      total += list.size();
+    }
+
+    opcodes = new int[total];
+    kinds = new int[3 * total];
+    values = new long[3 * total];
+    sizes = new OperandSize[3 * total];
+    bigLiterals = new BigInteger[3 * total];
+    subTargets = new int[total];
+    requiresBigInteger = new boolean[total];
+    identicalInputs = new boolean[total];
+    msbMasks = new long[total];
+
+    final Map<String, Integer> slots = new HashMap<String, Integer>();
+    final List<String> names = new ArrayList<String>();
+
+    int nativeIndex = 0;
+    int current = 0;
+
+    for (final Map.Entry<Long, List<ReilInstruction>> entry : instructions.entrySet()) {
+      nativeAddresses[nativeIndex] = entry.getKey();
+      instructionStart[nativeIndex] = current;
+      instructionCount[nativeIndex] = entry.getValue().size();
+
+      for (final ReilInstruction instruction : entry.getValue()) {
+        compileInstruction(current, instruction, slots, names);
+        current++;
+      }
+
+      nativeIndex++;
+    }
+
+    registerNames = names.toArray(new String[names.size()]);
+  }
+
+  /**
+   * Compiles REIL code that is given in the format that is used by
+   * {@link ReilInterpreter#interpret(HashMap, BigInteger)}.
+   *
+   * @param instructions Maps REIL addresses of native instructions to their REIL code.
+   *
+   * @return The compiled REIL code.
+   */
+  public static CompiledReilCode compile(final Map<BigInteger, List<ReilInstruction>> instructions) {
+    Preconditions.checkNotNull(instructions, "Error: Argument instructions can't be null");
+
+    final BigInteger reilFactor = BigInteger.valueOf(0x100);
+
+    final TreeMap<Long, List<ReilInstruction>> nativeInstructions =
+        new TreeMap<Long, List<ReilInstruction>>();
+
+    for (final Map.Entry<BigInteger, List<ReilInstruction>> entry : instructions.entrySet()) {
+      final BigInteger[] nativeAddress = entry.getKey().divideAndRemainder(reilFactor);
+
+      // The interpreter only ever looks for REIL addresses of native instructions.
+      if (nativeAddress[1].signum() == 0) {
+        nativeInstructions.put(nativeAddress[0].longValue(), entry.getValue());
+      }
+    }
+
+    return new CompiledReilCode(nativeInstructions);
+  }
+
+  /**
+   * Compiles the REIL code of a REIL function.
+   *
+   * @param function The function to compile.
+   *
+   * @return The compiled REIL code.
+   */
+  public static CompiledReilCode compile(final ReilFunction function) {
+    Preconditions.checkNotNull(function, "Error: Argument function can't be null");
+
+    return compile(function.getGraph());
+  }
+
+  /**
+   * Compiles the REIL code of a REIL graph. The instructions of all blocks are grouped by the native
+   * instructions they were translated from.
+   *
+   * @param graph The graph to compile.
+   *
+   * @return The compiled REIL code.
+   */
+  public static CompiledReilCode compile(final ReilGraph graph) {
+    Preconditions.checkNotNull(graph, "Error: Argument graph can't be null");
+
+    final TreeMap<Long, TreeMap<Long, ReilInstruction>> grouped =
+        new TreeMap<Long, TreeMap<Long, ReilInstruction>>();
+
+    for (final ReilBlock block : graph) {
+      for (final ReilInstruction instruction : block) {
+        final long address = instruction.getAddress().toLong();
+
+        TreeMap<Long, ReilInstruction> nativeInstruction = grouped.get(address >>> 8);
+
+        if (nativeInstruction == null) {
+          nativeInstruction = new TreeMap<Long, ReilInstruction>();
+          grouped.put(address >>> 8, nativeInstruction);
+        }
+
+        nativeInstruction.put(address, instruction);
+      }
+    }
+
+    final TreeMap<Long, List<ReilInstruction>> nativeInstructions =
+        new TreeMap<Long, List<ReilInstruction>>();
+
+    for (final Map.Entry<Long, TreeMap<Long, ReilInstruction>> entry : grouped.entrySet()) {
+      nativeInstructions.put(entry.getKey(),
+          new ArrayList<ReilInstruction>(entry.getValue().values()));
+    }
+
+    return new CompiledReilCode(nativeInstructions);
+  }
+
+  /**
+   * Returns the slot of a register. New slots are allocated for unknown registers.
+   */
+  private static int getSlot(final String register, final Map<String, Integer> slots,
+      final List<String> names) {
+    // The interpreter silently ignores a leading minus sign in front of register names.
+    final String name = register.charAt(0) == '-' ? register.substring(1) : register;
+
+    final Integer slot = slots.get(name);
+
+    if (slot != null) {
+      return slot;
+    }
+
+    slots.put(name, names.size());
+    names.add(name);
+
+    return names.size() - 1;
+  }
+
+  /**
+   * Compiles a single REIL instruction into the instruction arrays.
+   */
+  private void compileInstruction(final int index, final ReilInstruction instruction,
+      final Map<String, Integer> slots, final List<String> names) {
+    final int opcode = instruction.getMnemonicCode();
+
+    opcodes[index] = opcode;
+
+    final ReilOperand[] operands =
+        {instruction.getFirstOperand(), instruction.getSecondOperand(),
+            instruction.getThirdOperand()};
+
+    boolean big = false;
+
+    for (int i = 0; i < 3; i++) {
+      final ReilOperand operand = operands[i];
+      final int position = (3 * index) + i;
+      final OperandType type = operand.getType();
+
+      sizes[position] = operand.getSize();
+
+      if ((operand.getSize() != OperandSize.ADDRESS)
+          && (operand.getSize().getBitSize() > Long.SIZE)) {
+        big = true;
+      }
+
+      if (type == OperandType.INTEGER_LITERAL) {
+        final BigInteger value = new BigInteger(operand.getValue());
+
+        kinds[position] = KIND_LITERAL;
+        values[position] = value.longValue();
+
+        // Negative shift amounts are handled by the fast BSH implementation.
+        final boolean isNegativeShift =
+            (opcode == ReilHelpers._OPCODE_BSH) && (i == 1) && (value.bitLength() < Long.SIZE);
+
+        if (((value.signum() < 0) || (value.bitLength() >= Long.SIZE)) && !isNegativeShift) {
+          bigLiterals[position] = value;
+          big = true;
+        }
+      } else if (type == OperandType.REGISTER) {
+        kinds[position] = KIND_REGISTER;
+        values[position] = getSlot(operand.getValue(), slots, names);
+      } else if (type == OperandType.SUB_ADDRESS) {
+        final String[] parts = operand.getValue().split("\\.");
+
+        kinds[position] = KIND_SUB_ADDRESS;
+        values[position] = Long.parseLong(parts[0]);
+        subTargets[index] = Integer.parseInt(parts[1]);
+      } else {
+        kinds[position] = KIND_EMPTY;
+      }
+    }
+
+    requiresBigInteger[index] = big;
+    identicalInputs[index] = operands[0].getValue().equals(operands[1].getValue());
+
+    if ((opcode == ReilHelpers._OPCODE_BSH) && (operands[1].getSize() != OperandSize.ADDRESS)) {
+      msbMasks[index] = (long) Math.pow(2, operands[1].getSize().getBitSize() - 1);
+    }
+  }
+
+  /**
+   * Returns the number of REIL instructions of the native instruction with the given index.
+   */
+  int getInstructionCount(final int nativeIndex) {
+    return instructionCount[nativeIndex];
+  }
+
+  /**
+   * Returns the index of the first REIL instruction of the native instruction with the given index.
+   */
+  int getInstructionStart(final int nativeIndex) {
+    return instructionStart[nativeIndex];
+  }
+
+  /**
+   * Returns the index of the native instruction at the given address.
+   *
+   * @param nativeAddress The native address of the instruction.
+   *
+   * @return The index of the instruction or a negative value if there is no such instruction.
+   */
+  int getNativeIndex(final long nativeAddress) {
+    return Arrays.binarySearch(nativeAddresses, nativeAddress);
+  }
+
+  /**
+   * Returns the names of all registers used by the compiled code. The index of a name is the slot
+   * of the register.
+   */
+  String[] getRegisterNames() {
+    return registerNames.clone();
+  }
+
+  /**
+   * Returns the number of native instructions in the compiled code.
+   *
+   * @return The number of native instructions.
+   */
+  public int getNativeInstructionCount() {
+    return nativeAddresses.length;
+  }
+
+  /**
+   * Returns the number of REIL instructions in the compiled code.
+   *
+   * @return The number of REIL instructions.
+   */
+  public int getReilInstructionCount() {
+    return opcodes.length;
+  }
+}
@@ -0,0 +1,595 @@
+// Copyright 2011-2016 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.security.zynamics.reil.interpreter;
+
+import com.google.common.base.Preconditions;
+import com.google.security.zynamics.reil.OperandSize;
+import com.google.security.zynamics.reil.ReilHelpers;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Execution engine that interprets {@link CompiledReilCode}. Register values are kept in primitive
+ * arrays indexed by register slots and all arithmetic on operands of up to 64 bits is done on long
+ * values. Only operands that are larger than 64 bits, negative literals and unsigned values that
+ * do not fit into signed long arithmetic fall back to BigInteger arithmetic.
+ *
+ * The engine mirrors the semantics of the BigInteger based interpretation loop of
+ * {@link ReilInterpreter}.
+ */
+final class CompiledReilEngine {
+  private static final String SUB_PC = "sub_PC";
+
+  private static final BigInteger UNSIGNED_LONG_MASK = BigInteger.ONE.shiftLeft(64).subtract(
+      BigInteger.ONE);
+
+  /**
+   * The code executed by the engine.
+   */
+  private final CompiledReilCode code;
+
+  /**
+   * Maps register names to register slots.
+   */
+  private final Map<String, Integer> slots = new HashMap<String, Integer>();
+
+  /**
+   * Names of the registers of all slots.
+   */
+  private String[] names;
+
+  /**
+   * Values of all registers that are at most 64 bits large.
+   */
+  private long[] values;
+
+  /**
+   * Values of all registers that are larger than 64 bits. Entries are null for all other registers.
+   */
+  private BigInteger[] bigValues;
+
+  /**
+   * Sizes of all registers.
+   */
+  private OperandSize[] sizes;
+
+  /**
+   * Flags that tell whether a register is currently defined.
+   */
+  private boolean[] defined;
+
+  /**
+   * Creates a new engine for the given code.
+   *
+   * @param code The code to execute.
+   * @param registers The initial register values.
+   */
+  CompiledReilEngine(final CompiledReilCode code, final Map<String, ReilRegister> registers) {
+    this.code = code;
+
+    names = code.getRegisterNames();
+    values = new long[names.length];
+    bigValues = new BigInteger[names.length];
+    sizes = new OperandSize[names.length];
+    defined = new boolean[names.length];
+
+    for (int i = 0; i < names.length; i++) {
+      slots.put(names[i], i);
+    }
+
+    for (final ReilRegister register : registers.values()) {
+      setRegister(getSlot(register.getRegister()), register.getValue(), register.getSize());
+    }
+  }
+
+  private static long getLongMask(final OperandSize size) {
+    final int bits = size.getBitSize();
+
+    return bits >= Long.SIZE ? -1L : (1L << bits) - 1;
+  }
+
+  private static BigInteger getTruncateMask(final OperandSize size) {
+    return BigInteger.ONE.shiftLeft(size.getBitSize()).subtract(BigInteger.ONE);
+  }
+
+  private static BigInteger toUnsigned(final long value) {
+    return value >= 0 ? BigInteger.valueOf(value) : BigInteger.valueOf(value).and(
+        UNSIGNED_LONG_MASK);
+  }
+
+  /**
+   * Calculates the result of an arithmetic REIL instruction with BigInteger arithmetic.
+   */
+  private BigInteger computeBig(final int index, final BigInteger first, final BigInteger second) {
+    switch (code.opcodes[index]) {
+      case ReilHelpers._OPCODE_ADD:
+        return first.add(second);
+      case ReilHelpers._OPCODE_AND:
+        return first.and(second);
+      case ReilHelpers._OPCODE_BISZ:
+        return first.signum() == 0 ? BigInteger.ONE : BigInteger.ZERO;
+      case ReilHelpers._OPCODE_BSH:
+        if (second.signum() < 0) {
+          return first.shiftRight(second.negate().intValue());
+        } else if (second.and(BigInteger.valueOf(code.msbMasks[index])).signum() != 0) {
+          return first.shiftRight(BigInteger.ZERO.subtract(second).and(BigInteger.valueOf(0xFF))
+              .intValue());
+        } else {
+          return first.shiftLeft(second.intValue());
+        }
+      case ReilHelpers._OPCODE_DIV:
+        return first.divide(second);
+      case ReilHelpers._OPCODE_MOD:
+        return first.mod(second);
+      case ReilHelpers._OPCODE_MUL:
+        return first.multiply(second);
+      case ReilHelpers._OPCODE_OR:
+        return first.or(second);
+      case ReilHelpers._OPCODE_STR:
+        return first;
+      case ReilHelpers._OPCODE_SUB:
+        return first.subtract(second);
+      case ReilHelpers._OPCODE_XOR:
+        return first.xor(second);
+      default:
+        throw new IllegalStateException("Error: Unknown arithmetic instruction");
+    }
+  }
+
+  /**
+   * Interprets an arithmetic REIL instruction.
+   */
+  private void executeArithmetic(final int index, final boolean isBinary) {
+    final int position = 3 * index;
+
+    final boolean firstDefined = isOperandDefined(position);
+    final boolean secondDefined = !isBinary || isOperandDefined(position + 1);
+
+    final int target = (int) code.values[position + 2];
+    final OperandSize targetSize = code.sizes[position + 2];
+
+    if (!firstDefined || !secondDefined) {
+      if ((code.opcodes[index] == ReilHelpers._OPCODE_XOR) && code.identicalInputs[index]) {
+        setRegister(target, 0, targetSize);
+      } else {
+        assert false;
+      }
+
+      return;
+    }
+
+    if (!code.requiresBigInteger[index] && !isBigOperand(position)
+        && (!isBinary || !isBigOperand(position + 1))) {
+      final long first = loadLong(position);
+      final long second = isBinary ? loadLong(position + 1) : 0;
+
+      switch (code.opcodes[index]) {
+        case ReilHelpers._OPCODE_ADD:
+          setRegister(target, first + second, targetSize);
+          return;
+        case ReilHelpers._OPCODE_AND:
+          setRegister(target, first & second, targetSize);
+          return;
+        case ReilHelpers._OPCODE_BISZ:
+          setRegister(target, first == 0 ? 1 : 0, targetSize);
+          return;
+        case ReilHelpers._OPCODE_BSH:
+          if (executeShift(index, first, second, target, targetSize)) {
+            return;
+          }
+          break;
+        case ReilHelpers._OPCODE_DIV:
+          if ((first >= 0) && (second >= 0)) {
+            setRegister(target, first / second, targetSize);
+            return;
+          }
+          break;
+        case ReilHelpers._OPCODE_MOD:
+          if ((first >= 0) && (second > 0)) {
+            setRegister(target, first % second, targetSize);
+            return;
+          }
+          break;
+        case ReilHelpers._OPCODE_MUL:
+          setRegister(target, first * second, targetSize);
+          return;
+        case ReilHelpers._OPCODE_OR:
+          setRegister(target, first | second, targetSize);
+          return;
+        case ReilHelpers._OPCODE_STR:
+          setRegister(target, first, targetSize);
+          return;
+        case ReilHelpers._OPCODE_SUB:
+          setRegister(target, first - second, targetSize);
+          return;
+        case ReilHelpers._OPCODE_XOR:
+          setRegister(target, first ^ second, targetSize);
+          return;
+        default:
+          throw new IllegalStateException("Error: Unknown arithmetic instruction");
+      }
+    }
+
+    final BigInteger first = loadBig(position);
+    final BigInteger second = isBinary ? loadBig(position + 1) : BigInteger.ZERO;
+
+    setRegister(target, computeBig(index, first, second), targetSize);
+  }
+
+  /**
+   * Interprets a JCC instruction.
+   */
+  private void executeJcc(final int index, final int programCounter, final int subPc) {
+    final int position = 3 * index;
+
+    final boolean isTaken = isOperandDefined(position) && (isBigOperand(position)
+        ? loadBig(position).signum() != 0 : loadLong(position) != 0);
+
+    if (!isTaken) {
+      return;
+    }
+
+    if (code.kinds[position + 2] == CompiledReilCode.KIND_SUB_ADDRESS) {
+      setRegister(programCounter, code.values[position + 2], OperandSize.DWORD);
+      setRegister(subPc, code.subTargets[index], OperandSize.DWORD);
+    } else if (isOperandDefined(position + 2)) {
+      setRegister(programCounter, loadLong(position + 2), OperandSize.DWORD);
+    } else {
+      setRegister(programCounter, 0, OperandSize.DWORD);
+    }
+  }
+
+  /**
+   * Interprets a BSH instruction with long arithmetic.
+   *
+   * @return False, if the shift can not be calculated with long arithmetic.
+   */
+  private boolean executeShift(final int index, final long first, final long second,
+      final int target, final OperandSize targetSize) {
+    if ((first < 0) || (targetSize.getBitSize() > Long.SIZE)) {
+      return false;
+    }
+
+    final boolean isNegativeLiteral =
+        (code.kinds[(3 * index) + 1] == CompiledReilCode.KIND_LITERAL) && (second < 0);
+
+    if (isNegativeLiteral) {
+      setRegister(target, second <= -Long.SIZE ? 0 : first >>> -second, targetSize);
+    } else if (second < 0) {
+      return false;
+    } else if ((second & code.msbMasks[index]) != 0) {
+      final long amount = (-second) & 0xFF;
+
+      setRegister(target, amount >= Long.SIZE ? 0 : first >>> amount, targetSize);
+    } else {
+      final int amount = (int) second;
+
+      if (amount < 0) {
+        setRegister(target, -(long) amount >= Long.SIZE ? 0 : first >>> -amount, targetSize);
+      } else {
+        setRegister(target, amount >= Long.SIZE ? 0 : first << amount, targetSize);
+      }
+    }
+
+    return true;
+  }
+
+  /**
+   * Returns the slot of a register, allocating a new slot for unknown registers.
+   */
+  private int getSlot(final String register) {
+    final Integer slot = slots.get(register);
+
+    if (slot != null) {
+      return slot;
+    }
+
+    final int newSlot = names.length;
+
+    names = Arrays.copyOf(names, newSlot + 1);
+    values = Arrays.copyOf(values, newSlot + 1);
+    bigValues = Arrays.copyOf(bigValues, newSlot + 1);
+    sizes = Arrays.copyOf(sizes, newSlot + 1);
+    defined = Arrays.copyOf(defined, newSlot + 1);
+
+    names[newSlot] = register;
+    slots.put(register, newSlot);
+
+    return newSlot;
+  }
+
+  private long getValue(final int slot) {
+    Preconditions.checkArgument(defined[slot], "Error: Register has no value");
+
+    return bigValues[slot] == null ? values[slot] : bigValues[slot].longValue();
+  }
+
+  private boolean isBigOperand(final int position) {
+    if (code.kinds[position] == CompiledReilCode.KIND_LITERAL) {
+      return code.bigLiterals[position] != null;
+    } else {
+      return bigValues[(int) code.values[position]] != null;
+    }
+  }
+
+  private boolean isOperandDefined(final int position) {
+    final int kind = code.kinds[position];
+
+    return (kind == CompiledReilCode.KIND_LITERAL)
+        || ((kind == CompiledReilCode.KIND_REGISTER) && defined[(int) code.values[position]]);
+  }
+
+  private BigInteger loadBig(final int position) {
+    if (code.kinds[position] == CompiledReilCode.KIND_LITERAL) {
+      final BigInteger literal = code.bigLiterals[position];
+
+      return literal == null ? BigInteger.valueOf(code.values[position]) : literal;
+    } else {
+      final int slot = (int) code.values[position];
+
+      return bigValues[slot] == null ? toUnsigned(values[slot]) : bigValues[slot];
+    }
+  }
+
+  private long loadLong(final int position) {
+    if (code.kinds[position] == CompiledReilCode.KIND_LITERAL) {
+      return code.values[position];
+    } else {
+      final int slot = (int) code.values[position];
+
+      return bigValues[slot] == null ? values[slot] : bigValues[slot].longValue();
+    }
+  }
+
+  private void setRegister(final int slot, final BigInteger value, final OperandSize size) {
+    if (size.getBitSize() > Long.SIZE) {
+      values[slot] = 0;
+      bigValues[slot] = value.and(getTruncateMask(size));
+    } else {
+      values[slot] = value.longValue() & getLongMask(size);
+      bigValues[slot] = null;
+    }
+
+    sizes[slot] = size;
+    defined[slot] = true;
+  }
+
+  private void setRegister(final int slot, final long value, final OperandSize size) {
+    if (size.getBitSize() > Long.SIZE) {
+      setRegister(slot, BigInteger.valueOf(value), size);
+    } else {
+      values[slot] = value & getLongMask(size);
+      bigValues[slot] = null;
+      sizes[slot] = size;
+      defined[slot] = true;
+    }
+  }
+
+  /**
+   * Interprets a single REIL instruction.
+   */
+  private void step(final ReilMemory memory, final int index, final int programCounter,
+      final int subPc) {
+    final int position = 3 * index;
+
+    switch (code.opcodes[index]) {
+      case ReilHelpers._OPCODE_ADD:
+      case ReilHelpers._OPCODE_AND:
+      case ReilHelpers._OPCODE_BSH:
+      case ReilHelpers._OPCODE_DIV:
+      case ReilHelpers._OPCODE_MOD:
+      case ReilHelpers._OPCODE_MUL:
+      case ReilHelpers._OPCODE_OR:
+      case ReilHelpers._OPCODE_SUB:
+      case ReilHelpers._OPCODE_XOR:
+        executeArithmetic(index, true);
+        break;
+      case ReilHelpers._OPCODE_BISZ:
+      case ReilHelpers._OPCODE_STR:
+        executeArithmetic(index, false);
+        break;
+      case ReilHelpers._OPCODE_JCC:
+        executeJcc(index, programCounter, subPc);
+        break;
+      case ReilHelpers._OPCODE_LDM:
+        if (isOperandDefined(position)) {
+          final OperandSize targetSize = code.sizes[position + 2];
+
+          setRegister((int) code.values[position + 2],
+              memory.load(loadLong(position), targetSize.getByteSize()), targetSize);
+        } else {
+          assert false;
+        }
+        break;
+      case ReilHelpers._OPCODE_STM:
+        if (isOperandDefined(position) && isOperandDefined(position + 2)) {
+          memory.store(loadLong(position + 2), loadLong(position),
+              code.sizes[position].getByteSize());
+        } else {
+          assert false;
+        }
+        break;
+      case ReilHelpers._OPCODE_UNDEF:
+        defined[(int) code.values[position + 2]] = false;
+        break;
+      case ReilHelpers._OPCODE_NOP:
+      case ReilHelpers._OPCODE_UNKNOWN:
+        break;
+      default:
+        throw new IllegalArgumentException("invalid Mnemonic in REIL interpreting loop");
+    }
+  }
+
+  /**
+   * Returns all currently defined registers.
+   *
+   * @return The defined registers.
+   */
+  List<ReilRegister> getDefinedRegisters() {
+    final List<ReilRegister> registers = new ArrayList<ReilRegister>();
+
+    for (int i = 0; i < names.length; i++) {
+      if (defined[i]) {
+        registers.add(new ReilRegister(names[i], sizes[i], getVariableValue(i)));
+      }
+    }
+
+    return registers;
+  }
+
+  /**
+   * Returns the value of a register.
+   *
+   * @param register The name of the register.
+   *
+   * @return The value of the register.
+   */
+  BigInteger getVariableValue(final String register) {
+    final Integer slot = slots.get(register);
+
+    Preconditions.checkArgument((slot != null) && defined[slot], "Error: Register has no value");
+
+    return getVariableValue(slot);
+  }
+
+  private BigInteger getVariableValue(final int slot) {
+    return bigValues[slot] == null ? toUnsigned(values[slot]) : bigValues[slot];
+  }
+
+  /**
+   * Determines whether a register is currently defined.
+   *
+   * @param register The name of the register.
+   *
+   * @return True, if the register is defined. False, otherwise.
+   */
+  boolean isDefined(final String register) {
+    final Integer slot = slots.get(register);
+
+    return (slot != null) && defined[slot];
+  }
+
+  /**
+   * Runs the compiled code.
+   *
+   * @param interpreter The interpreter whose policies and memory are used.
+   * @param programCounterName The name of the program counter register.
+   *
+   * @throws InterpreterException Thrown if the program counter points to an invalid instruction.
+   */
+  void run(final ReilInterpreter interpreter, final String programCounterName)
+      throws InterpreterException {
+    final IInterpreterPolicy policy = interpreter.getInterpreterPolicy();
+    final ReilMemory memory = interpreter.getMemory();
+
+    final int programCounter = getSlot(programCounterName);
+    final int subPc = getSlot(SUB_PC);
+
+    while (true) {
+      final long pc = getValue(programCounter);
+
+      policy.nextInstruction(interpreter);
+
+      final int nativeIndex = code.getNativeIndex(pc);
+
+      if (nativeIndex < 0) {
+        throw new InterpreterException(String.format("Error: Instruction at offset %X not found",
+            ReilInterpreter.nativeToReil(BigInteger.valueOf(pc))));
+      }
+
+      final int start = code.getInstructionStart(nativeIndex);
+      final int count = code.getInstructionCount(nativeIndex);
+
+      if (count == 0) {
+        throw new InterpreterException(String.format(
+            "Error: Instruction at offset %X has invalid REIL code",
+            ReilInterpreter.nativeToReil(BigInteger.valueOf(pc))));
+      }
+
+      setRegister(subPc, 0, OperandSize.DWORD);
+
+      int current = 0;
+
+      while (current < count) {
+        step(memory, start + current, programCounter, subPc);
+
+        final int next = (int) getValue(subPc);
+
+        current = current == next ? next + 1 : next;
+
+        setRegister(subPc, current, OperandSize.DWORD);
+      }
+
+      final long pcNew = getValue(programCounter);
+
+      if (pcNew == 0xFFFFFFFFL) {
+        break;
+      }
+
+      final long nextPc = pc == pcNew ? pcNew + 1 : pcNew;
+
+      boolean found = false;
+
+      for (int i = 0; i < 10; i++) {
+        if (code.getNativeIndex(nextPc + i) >= 0) {
+          setRegister(programCounter, nextPc + i, OperandSize.DWORD);
+          found = true;
+          break;
+        }
+      }
+
+      if (!found) {
+        break;
+      }
+    }
+  }
+
+  /**
+   * Sets the value of a register.
+   *
+   * @param register The name of the register.
+   * @param value The new value of the register.
+   * @param size The size of the register.
+   * @param status The status of the register.
+   */
+  void setRegister(final String register, final BigInteger value, final OperandSize size,
+      final ReilRegisterStatus status) {
+    final int slot = getSlot(register);
+
+    if (status == ReilRegisterStatus.DEFINED) {
+      setRegister(slot, value, size);
+    } else {
+      defined[slot] = false;
+    }
+  }
+
+  /**
+   * Stores the register values of the engine in a register map.
+   *
+   * @param registers The map that receives the register values.
+   */
+  void storeRegisters(final Map<String, ReilRegister> registers) {
+    registers.clear();
+
+    for (final ReilRegister register : getDefinedRegisters()) {
+      registers.put(register.getRegister(), register);
+    }
+  }
+}
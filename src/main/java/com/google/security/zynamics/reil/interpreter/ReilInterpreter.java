@@ -53,6 +53,12 @@ public class ReilInterpreter {
    */
   private final ReilMemory memory;
 
+  /**
+   * Engine that executes compiled REIL code. This engine holds the register values while compiled
+   * code is executed and is null otherwise.
+   */
+  private CompiledReilEngine compiledEngine = null;
+
   /**
    * Creates a new REIL interpreter with the given options.
    *
@@ -541,9 +547,22 @@ public class ReilInterpreter {
   }
 
   public List<ReilRegister> getDefinedRegisters() {
+    if (compiledEngine != null) {
+      return compiledEngine.getDefinedRegisters();
+    }
+
     return new ArrayList<ReilRegister>(registers.values());
   }
 
+  /**
+   * Returns the interpreter policy of the interpreter.
+   *
+   * @return The interpreter policy of the interpreter
+   */
+  public IInterpreterPolicy getInterpreterPolicy() {
+    return interpreterPolicy;
+  }
+
   public ReilMemory getMemory() {
     return memory;
   }
@@ -563,6 +582,11 @@ public class ReilInterpreter {
    */
   public BigInteger getVariableValue(final String register) {
     Preconditions.checkNotNull(register, "Error: register argument can not be null");
+
+    if (compiledEngine != null) {
+      return compiledEngine.getVariableValue(register);
+    }
+
     Preconditions.checkArgument(registers.containsKey(register), "Error: Register has no value");
 
     return registers.get(register).getValue();
@@ -656,6 +680,43 @@ public class ReilInterpreter {
     interpreterPolicy.end();
   }
 
+  /**
+   * Interprets pre-compiled REIL code. This engine has the same semantics as
+   * {@link #interpret(HashMap, BigInteger)} and uses the same CPU and interpreter policies but works
+   * on primitive register slots and long arithmetic, so it is much faster for long emulation runs.
+   *
+   * @param code The compiled instructions to interpret
+   * @param entryPoint The offset of the first instruction to interpret
+   * @throws InterpreterException
+   */
+  public void interpret(final CompiledReilCode code, final BigInteger entryPoint)
+      throws InterpreterException {
+    Preconditions.checkNotNull(code, "Error: Argument code can't be null");
+    Preconditions.checkNotNull(entryPoint, "Error: Argument entryPoint can't be null");
+
+    cpuPolicy.start(this);
+    interpreterPolicy.start();
+
+    final String programCounter = cpuPolicy.getProgramCounter();
+
+    Preconditions.checkNotNull(programCounter,
+        "Error: CPU Policy returned an invalid program counter");
+
+    setRegister(programCounter, entryPoint, cpuPolicy.getRegisterSize(programCounter),
+        ReilRegisterStatus.DEFINED);
+
+    compiledEngine = new CompiledReilEngine(code, registers);
+
+    try {
+      compiledEngine.run(this, programCounter);
+    } finally {
+      compiledEngine.storeRegisters(registers);
+      compiledEngine = null;
+    }
+
+    interpreterPolicy.end();
+  }
+
   /**
    * Determines whether a register currently holds a value or not.
    *
@@ -664,6 +725,10 @@ public class ReilInterpreter {
    * @return True, if the register has a value. False, otherwise.
    */
   public boolean isDefined(final String register) {
+    if (compiledEngine != null) {
+      return compiledEngine.isDefined(register);
+    }
+
     System.out.println(registers.keySet());
     return registers.containsKey(register);
   }
@@ -701,6 +766,11 @@ public class ReilInterpreter {
    */
   public void setRegister(final String register, final BigInteger value, final OperandSize size,
       final ReilRegisterStatus status) {
+    if (compiledEngine != null) {
+      compiledEngine.setRegister(register, value, size, status);
+      return;
+    }
+
     final BigInteger truncatedValue = value.and(getTruncateMask(size));
 
     final ReilRegister r = new ReilRegister(register, size, truncatedValue);
@@ -15,14 +15,15 @@
 package com.google.security.zynamics.reil.interpreter;
 
 import com.google.common.base.Preconditions;
-import com.google.security.zynamics.zylib.general.memmanager.Memory;
+import com.google.security.zynamics.zylib.general.memmanager.SparseMemory;
 
 /**
- * Simulates memory used by the REIL interpreter.
+ * Simulates memory used by the REIL interpreter. The memory is backed by a page table so that
+ * loads and stores are constant time operations that do not allocate temporary arrays.
  */
 public class ReilMemory {
 
-  private final Memory memory = new Memory();
+  private final SparseMemory memory = new SparseMemory();
 
   /**
    * Endianness of the memory
@@ -39,70 +40,6 @@ public class ReilMemory {
         Preconditions.checkNotNull(endianness, "Error: Argument endianness can't be null");
   }
 
-  private byte[] getData(final long value, final int length) {
-    if (endianness == Endianness.LITTLE_ENDIAN) {
-      return getDataLittle(value, length);
-    } else {
-      return getDataBig(value, length);
-    }
-  }
-
-  private byte[] getDataBig(final long value, final int length) {
-    if (length == 1) {
-      return new byte[] {(byte) (value & 0xFF)};
-    } else if (length == 2) {
-      return new byte[] {(byte) ((value & 0xFF00) >> 8), (byte) (value & 0xFF)};
-    } else if (length == 4) {
-      return new byte[] {(byte) ((value & 0xFF000000) >> 24), (byte) ((value & 0xFF0000) >> 16),
-          (byte) ((value & 0xFF00) >> 8), (byte) ((value & 0xFF))};
-    } else {
-      throw new IllegalArgumentException("Error: Invalid data length");
-    }
-  }
-
-  private byte[] getDataLittle(final long value, final int length) {
-    if (length == 1) {
-      return new byte[] {(byte) (value & 0xFF)};
-    } else if (length == 2) {
-      return new byte[] {(byte) (value & 0xFF), (byte) ((value & 0xFF00) >> 8)};
-    } else if (length == 4) {
-      return new byte[] {(byte) (value & 0xFF), (byte) ((value & 0xFF00) >> 8),
-          (byte) ((value & 0xFF0000) >> 16), (byte) ((value & 0xFF000000) >> 24)};
-    } else {
-      throw new IllegalArgumentException("Error: Invalid data length");
-    }
-  }
-
-  private long loadBig(final byte[] data) {
-    switch (data.length) {
-      case 1:
-        return data[0] & 0xFF;
-      case 2:
-        return (data[1] & 0xFF) + ((data[0] & 0xFF) * 0x100);
-      case 4:
-        return (data[3] & 0xFF) + ((data[2] & 0xFF) * 0x100) + ((data[1] & 0xFF) * 0x100 * 0x100)
-            + ((data[0] & 0xFF) * 0x100 * 0x100 * 0x100);
-      default:
-        throw new IllegalArgumentException("Not yet implemented");
-    }
-  }
-
-  private long loadLittle(final byte[] data) {
-    switch (data.length) {
-      case 1:
-        return data[0] & 0xFF;
-      case 2:
-        return (data[0] & 0xFF) + ((data[1] & 0xFF) * 0x100);
-      case 3:
-        return (data[0] & 0xFF) + ((data[1] & 0xFF) * 0x100) + ((data[2] & 0xFF) * 0x100 * 0x100);
-      case 4:
-        return (data[0] & 0xFF) + ((data[1] & 0xFF) * 0x100) + ((data[2] & 0xFF) * 0x100 * 0x100)
-            + ((data[3] & 0xFF) * 0x100 * 0x100 * 0x100);
-      default:
-        throw new IllegalArgumentException("Not yet implemented");
-    }
-  }
-
   /**
    * Returns the total amount of allocated memory.
    * 
@@ -124,11 +61,21 @@ public class ReilMemory {
     Preconditions.checkArgument(address >= 0, "Error: Argument address can't be less than 0");
     Preconditions.checkArgument(length > 0, "Error: Argument length must be bigger than 0");
 
-    if (endianness == Endianness.LITTLE_ENDIAN) {
-      return loadLittle(memory.getData(address, length));
-    } else {
-      return loadBig(memory.getData(address, length));
-    }
+    final long value = endianness == Endianness.LITTLE_ENDIAN
+        ? memory.loadLittleEndian(address, length) : memory.loadBigEndian(address, length);
+
+    // Four byte values were always computed in int arithmetic and are therefore sign-extended.
+    return length == 4 ? (int) value : value;
+  }
+
+  /**
+   * Returns the underlying simulated memory, for example to register listeners that are notified
+   * about memory changes.
+   *
+   * @return The underlying simulated memory.
+   */
+  public SparseMemory getMemory() {
+    return memory;
   }
 
   /**
@@ -149,6 +96,11 @@ public class ReilMemory {
   public void store(final long address, final long value, final int length) {
     Preconditions.checkArgument(address >= 0, "Error: Argument address can't be less than 0");
     Preconditions.checkArgument(length > 0, "Error: Argument length must be bigger than 0");
-    memory.store(address, getData(value, length));
+
+    if (endianness == Endianness.LITTLE_ENDIAN) {
+      memory.storeLittleEndian(address, value, length);
+    } else {
+      memory.storeBigEndian(address, value, length);
+    }
   }
 }
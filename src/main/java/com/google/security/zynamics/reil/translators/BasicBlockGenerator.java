@@ -17,9 +17,13 @@ package com.google.security.zynamics.reil.translators;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 
+import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.Iterables;
+import com.google.common.collect.ListMultimap;
 import com.google.security.zynamics.reil.OperandType;
 import com.google.security.zynamics.reil.ReilBlock;
 import com.google.security.zynamics.reil.ReilHelpers;
@@ -35,6 +39,17 @@ public final class BasicBlockGenerator {
   private List<ReilInstruction> currentBlock = new ArrayList<ReilInstruction>();
   private final List<ReilBlock> blocks = new ArrayList<ReilBlock>();
 
+  /**
+   * Maps the addresses of all instructions to the blocks that contain them. A block is listed once
+   * for every instruction it has at the address.
+   */
+  private final ListMultimap<IAddress, ReilBlock> blocksByAddress = ArrayListMultimap.create();
+
+  /**
+   * Maps the created blocks to their positions in the block list.
+   */
+  private final Map<ReilBlock, Integer> blockPositions = new IdentityHashMap<ReilBlock, Integer>();
+
   private final ArrayList<Triple<ReilBlock, IAddress, EdgeType>> edgepairs =
       new ArrayList<Triple<ReilBlock, IAddress, EdgeType>>();
 
@@ -51,9 +66,7 @@ public final class BasicBlockGenerator {
       }
 
       if (currentBlock.size() != 0) {
-        final ReilBlock reilBlock = new ReilBlock(currentBlock);
-
-        blocks.add(reilBlock);
+        addBlock(new ReilBlock(currentBlock));
 
         currentBlock = new ArrayList<ReilInstruction>();
       }
@@ -95,6 +108,20 @@ public final class BasicBlockGenerator {
     return new CAddress(toReilAddress(parts[0]).toLong() + Long.valueOf(parts[1]));
   }
 
+  /**
+   * Adds a finished block to the block list and indexes it.
+   * 
+   * @param reilBlock The block to add.
+   */
+  private void addBlock(final ReilBlock reilBlock) {
+    blockPositions.put(reilBlock, blocks.size());
+    blocks.add(reilBlock);
+
+    for (final ReilInstruction instruction : reilBlock.getInstructions()) {
+      blocksByAddress.put(instruction.getAddress(), reilBlock);
+    }
+  }
+
   private void addInstruction(final ReilInstruction reilInstruction,
       final HashSet<IAddress> jumpTargets, final ReilInstruction lastInstruction) {
     if (jumpTargets.contains(reilInstruction.getAddress()) && (currentBlock.size() != 0)) {
@@ -102,7 +129,7 @@ public final class BasicBlockGenerator {
 
       // final IAddress blockAddress = reilBlock.getAddress();
 
-      blocks.add(reilBlock);
+      addBlock(reilBlock);
 
       // if ((reilBlock.getAddress().toLong() & 0xFFFFFFFFFFFFFF00L) ==
       // (reilInstruction.getAddress().toLong() & 0xFFFFFFFFFFFFFF00L))
@@ -125,7 +152,7 @@ public final class BasicBlockGenerator {
 
       final ReilBlock reilBlock = new ReilBlock(currentBlock);
 
-      blocks.add(reilBlock);
+      addBlock(reilBlock);
       currentBlock = new ArrayList<ReilInstruction>();
 
       final String jumpTarget = reilInstruction.getThirdOperand().getValue();
@@ -164,7 +191,32 @@ public final class BasicBlockGenerator {
     return new ArrayList<ReilBlock>(blocks);
   }
 
+  /**
+   * Returns the blocks that contain an instruction at the given address. A block is returned once
+   * for every instruction it has at the address.
+   * 
+   * @param address The instruction address.
+   * 
+   * @return The blocks that contain an instruction at the address, in block order.
+   */
+  public List<ReilBlock> getBlocks(final IAddress address) {
+    return blocksByAddress.get(address);
+  }
+
   public ArrayList<Triple<ReilBlock, IAddress, EdgeType>> getEdges() {
     return new ArrayList<Triple<ReilBlock, IAddress, EdgeType>>(edgepairs);
   }
+
+  /**
+   * Returns the block that follows a block in the block list.
+   * 
+   * @param block A block created by this generator.
+   * 
+   * @return The following block or null if the block is the last one.
+   */
+  public ReilBlock getNextBlock(final ReilBlock block) {
+    final int position = blockPositions.get(block) + 1;
+
+    return position < blocks.size() ? blocks.get(position) : null;
+  }
 }
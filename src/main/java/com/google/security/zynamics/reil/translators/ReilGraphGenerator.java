@@ -68,28 +68,24 @@ public class ReilGraphGenerator {
       final EdgeType edgeType = p.third();
 
       if (target != null) {
-        for (final ReilBlock block : blocks) {
-          for (final ReilInstruction instruction : block.getInstructions()) {
-            if (target.equals(instruction.getAddress())) {
-              final ReilEdge edge = new ReilEdge(source, block, edgeType);
+        for (final ReilBlock block : generator.getBlocks(target)) {
+          final ReilEdge edge = new ReilEdge(source, block, edgeType);
 
-              edges.add(edge);
+          edges.add(edge);
 
-              ReilBlock.link(source, block, edge);
-            }
-          }
+          ReilBlock.link(source, block, edge);
         }
       } else {
         // Unknown target address
 
-        final int index = blocks.indexOf(source);
+        final ReilBlock nextBlock = generator.getNextBlock(source);
 
-        if (blocks.size() > (index + 1)) {
-          final ReilEdge edge = new ReilEdge(source, blocks.get(index + 1), edgeType);
+        if (nextBlock != null) {
+          final ReilEdge edge = new ReilEdge(source, nextBlock, edgeType);
 
           edges.add(edge);
 
-          ReilBlock.link(source, blocks.get(index + 1), edge);
+          ReilBlock.link(source, nextBlock, edge);
         }
       }
     }
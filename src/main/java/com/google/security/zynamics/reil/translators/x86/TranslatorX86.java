@@ -40,7 +40,8 @@ public class TranslatorX86<InstructionType extends IInstruction> implements
     ITranslator<InstructionType> {
 
   /**
-   * List of translator for all opcodes
+   * List of translator for all opcodes. The map is only modified during class initialization and
+   * can therefore be read concurrently by translators running in different threads.
    */
   private static final HashMap<String, IInstructionTranslator> translators =
       new HashMap<String, IInstructionTranslator>();
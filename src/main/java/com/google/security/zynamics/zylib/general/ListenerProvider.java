@@ -17,14 +17,16 @@ package com.google.security.zynamics.zylib.general;
 import com.google.common.base.Preconditions;
 
 import java.lang.ref.WeakReference;
-import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.Consumer;
 
-// TODO(jannewger): check if we can get rid of the LinkedHashSet: why would iteration order matter?
-// Also: couldn't we simply use an ArrayList as internal storage? Should be way cheaper memory wise.
 /**
  * Helper class that can be used by all classes that need to keep track of a list of listeners.
  *
@@ -32,126 +34,313 @@ import java.util.LinkedHashSet;
  *
  *  To use this class, simply add a field of type ListenerProvider<T> to your class and forward the
  * addListener and removeListener functions to the ListenerProvider functions. To notify the
- * listeners use a for-each loop on the ListenerProvider object.
+ * listeners use a for-each loop on the ListenerProvider object or {@link #forEach}.
+ *
+ *  Listeners are kept in a set, so adding and removing listeners takes constant time. Notifications
+ * read a copy-on-write snapshot of the set that is created on the first notification after the
+ * listeners changed, so notifications neither take a lock nor copy the listener list while the
+ * listeners stay the same. Listeners that were added or removed during a notification do not
+ * affect that notification.
+ *
+ *  Code that fires many events in a row can call {@link #beginUpdate()} and {@link #endUpdate()}
+ * around the operation and fire the events through {@link #fireEvent(Object, Consumer)}. Events
+ * with the same key are collapsed into the last one and delivered when the update ends.
  *
  * @param <T> The type of the listeners stored in the ListenerProvider.
  */
 public class ListenerProvider<T> implements Iterable<T> {
-  // Note: since the ListenerProvider is so frequently used, we initialize the m_listeners lazily.
-  private volatile Collection<WeakReference<T>> m_listeners;
+  /**
+   * Shared empty snapshot. Since the ListenerProvider is so frequently used, providers without
+   * listeners do not allocate anything.
+   */
+  private static final WeakReference<?>[] NO_LISTENERS = new WeakReference<?>[0];
+
+  /**
+   * References to the listeners in the order they were added. The set is created when the first
+   * listener is added.
+   */
+  private Set<ListenerReference<T>> m_references = null;
+
+  /**
+   * Current snapshot of the listeners or null if the listeners changed since the snapshot was
+   * created. A published array is never modified.
+   */
+  private volatile WeakReference<T>[] m_listeners = emptySnapshot();
+
+  /**
+   * Nesting depth of begin/end update calls.
+   */
+  private int m_updateDepth = 0;
+
+  /**
+   * Events that were fired while an update was in progress, keyed by their event key.
+   */
+  private Map<Object, Consumer<? super T>> m_pendingEvents = null;
+
+  @SuppressWarnings("unchecked")
+  private static <T> WeakReference<T>[] emptySnapshot() {
+    return (WeakReference<T>[]) NO_LISTENERS;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <T> WeakReference<T>[] newSnapshot(final int size) {
+    return (WeakReference<T>[]) new WeakReference<?>[size];
+  }
+
+  /**
+   * Returns the current snapshot of the listeners. If the listeners changed since the last
+   * snapshot was created, a new snapshot is created and references to garbage collected listeners
+   * are dropped.
+   *
+   * @return The current snapshot.
+   */
+  private WeakReference<T>[] getSnapshot() {
+    final WeakReference<T>[] snapshot = m_listeners;
+
+    return snapshot == null ? createSnapshot() : snapshot;
+  }
 
   /**
-   * Adds a listener to the listener provider.
+   * Creates a new snapshot of the listeners.
+   *
+   * @return The created snapshot.
+   */
+  private synchronized WeakReference<T>[] createSnapshot() {
+    if (m_listeners != null) {
+      return m_listeners;
+    }
+
+    final Iterator<ListenerReference<T>> iterator = m_references.iterator();
+
+    while (iterator.hasNext()) {
+      if (iterator.next().get() == null) {
+        iterator.remove();
+      }
+    }
+
+    final WeakReference<T>[] snapshot = m_references.isEmpty() ? ListenerProvider.<T>emptySnapshot()
+        : m_references.toArray(ListenerProvider.<T>newSnapshot(m_references.size()));
+
+    m_listeners = snapshot;
+
+    return snapshot;
+  }
+
+  /**
+   * Adds a listener to the listener provider. Adding a listener that is already managed by the
+   * listener provider has no effect.
    *
    * @param listener The listener to add.
    *
    * @throws NullPointerException Thrown if the listener object is null.
-   * @throws IllegalStateException Thrown if the listener is already managed by the listener
-   *         provider.
    */
-  public void addListener(final T listener) {
+  public synchronized void addListener(final T listener) {
     Preconditions.checkNotNull(listener, "Internal Error: Listener cannot be null");
 
-    if (m_listeners == null) {
-      synchronized (this) {
-        if (m_listeners == null) {
-          m_listeners = new LinkedHashSet<WeakReference<T>>();
+    if (m_references == null) {
+      m_references = new LinkedHashSet<ListenerReference<T>>();
+    }
+
+    if (m_references.add(new ListenerReference<T>(listener))) {
+      m_listeners = null;
+    }
+  }
+
+  /**
+   * Starts an update. Events fired through {@link #fireEvent(Object, Consumer)} are held back until
+   * the matching call to {@link #endUpdate()}. Updates can be nested.
+   */
+  public synchronized void beginUpdate() {
+    m_updateDepth++;
+  }
+
+  /**
+   * Ends an update. When the outermost update ends, the held back events are delivered to the
+   * listeners in the order their keys were first fired.
+   */
+  public void endUpdate() {
+    final Collection<Consumer<? super T>> events;
+
+    synchronized (this) {
+      Preconditions.checkState(m_updateDepth > 0, "Internal Error: No update in progress");
+
+      if ((--m_updateDepth > 0) || (m_pendingEvents == null)) {
+        return;
+      }
+
+      events = m_pendingEvents.values();
+      m_pendingEvents = null;
+    }
+
+    for (final Consumer<? super T> event : events) {
+      forEach(event);
+    }
+  }
+
+  /**
+   * Fires an event to all listeners. While an update is in progress, the event is held back and
+   * replaces any earlier held back event with an equal key.
+   *
+   * @param key Identifies events that can be collapsed into one another.
+   * @param event Delivers the event to a single listener.
+   */
+  public void fireEvent(final Object key, final Consumer<? super T> event) {
+    Preconditions.checkNotNull(key, "Internal Error: Key cannot be null");
+    Preconditions.checkNotNull(event, "Internal Error: Event cannot be null");
+
+    synchronized (this) {
+      if (m_updateDepth > 0) {
+        if (m_pendingEvents == null) {
+          m_pendingEvents = new LinkedHashMap<Object, Consumer<? super T>>();
         }
+
+        m_pendingEvents.put(key, event);
+        return;
       }
     }
 
-    synchronized (m_listeners) {
-      if (!m_listeners.add(new ComparableReference(listener))) {
-        // throw new IllegalStateException(String.format(
-        // "Internal Error: Listener '%s' can not be added more than once.", listener));
+    forEach(event);
+  }
+
+  /**
+   * Passes every listener to an action. Unlike the for-each loop over the listener provider, this
+   * does not allocate an iterator.
+   *
+   * @param action The action to perform on each listener.
+   */
+  @Override
+  public void forEach(final Consumer<? super T> action) {
+    boolean hasStaleReferences = false;
+
+    for (final WeakReference<T> reference : getSnapshot()) {
+      final T listener = reference.get();
+
+      if (listener == null) {
+        hasStaleReferences = true;
+      } else {
+        action.accept(listener);
       }
     }
+
+    if (hasStaleReferences) {
+      invalidateSnapshot();
+    }
+  }
+
+  /**
+   * Makes the next notification create a new snapshot, which drops references to garbage collected
+   * listeners.
+   */
+  private synchronized void invalidateSnapshot() {
+    m_listeners = null;
   }
 
   @Override
   public Iterator<T> iterator() {
-    if (m_listeners == null) {
+    final WeakReference<T>[] snapshot = getSnapshot();
+
+    if (snapshot.length == 0) {
       return Collections.emptyIterator();
     }
 
-    final ArrayList<WeakReference<T>> listenersCopy;
+    return new Iterator<T>() {
+      private int m_index = 0;
 
-    synchronized (m_listeners) {
-      listenersCopy = new ArrayList<WeakReference<T>>(m_listeners);
-    }
+      private T m_next = advance();
 
-    final ArrayList<T> listeners = new ArrayList<T>();
+      /**
+       * Finds the next listener that was not garbage collected.
+       */
+      private T advance() {
+        while (m_index < snapshot.length) {
+          final T listener = snapshot[m_index++].get();
 
-    for (final WeakReference<T> weakT : listenersCopy) {
-      final T element = weakT.get();
+          if (listener != null) {
+            return listener;
+          }
+        }
 
-      if (element != null) {
-        listeners.add(element);
+        return null;
+      }
+
+      @Override
+      public boolean hasNext() {
+        return m_next != null;
       }
-    }
 
-    return listeners.iterator();
+      @Override
+      public T next() {
+        if (m_next == null) {
+          throw new NoSuchElementException();
+        }
+
+        final T listener = m_next;
+        m_next = advance();
+        return listener;
+      }
+    };
   }
 
   /**
-   * Removes a listener from the listener provider.
+   * Removes a listener from the listener provider. Removing a listener that is not managed by the
+   * listener provider has no effect.
    *
    * @param listener The listener to remove.
    *
    * @throws NullPointerException Thrown if the listener object is null.
-   * @throws IllegalStateException Thrown if the listener object was not managed by the listener
-   *         provider.
    */
-  public void removeListener(final T listener) {
+  public synchronized void removeListener(final T listener) {
     Preconditions.checkNotNull(listener, "Internal Error: Listener cannot be null");
 
-    if (m_listeners != null) {
-      // TODO(timkornau): b/15378569
-      synchronized (m_listeners) {
-        if (!m_listeners.remove(new ComparableReference(listener))) {
-          // TODO (timkornau): this always happens if a script has been called and then after that
-          // you try to close the view. throw new
-          // IllegalStateException("Error: Listener was not listening.");
-        }
-      }
+    // TODO (timkornau): removing a listener that is not listening always happens if a script has
+    // been called and then after that you try to close the view.
+    if ((m_references != null) && m_references.remove(new ListenerReference<T>(listener))) {
+      m_listeners = null;
     }
   }
 
   /**
-   * We need this special weak reference class because we store the listeners in a set and we need
-   * set-comparability.
+   * Weak reference to a listener that compares equal to references to equal listeners. The hash
+   * code is taken from the listener when the reference is created, so references to garbage
+   * collected listeners can still be found and removed from the set.
+   *
+   * @param <T> The type of the referenced listener.
    */
-  public class ComparableReference extends WeakReference<T> {
-    public ComparableReference(final T referent) {
-      super(referent);
+  private static final class ListenerReference<T> extends WeakReference<T> {
+    /**
+     * Hash code of the referenced listener.
+     */
+    private final int m_hashCode;
+
+    /**
+     * Creates a new listener reference.
+     *
+     * @param listener The referenced listener.
+     */
+    private ListenerReference(final T listener) {
+      super(listener);
+
+      m_hashCode = listener.hashCode();
     }
 
     @Override
     public boolean equals(final Object rhs) {
-      if (rhs == null) {
-        return false;
-      }
-
-      @SuppressWarnings("unchecked")
-      final ComparableReference rhso = (ComparableReference) rhs;
-
-      final T lhsElement = get();
-      final T rhsElement = rhso.get();
-
-      if ((lhsElement == null) && (rhsElement == null)) {
+      if (rhs == this) {
         return true;
       }
-      if ((lhsElement == null) || (rhsElement == null)) {
+
+      if (!(rhs instanceof ListenerReference)) {
         return false;
       }
-      return lhsElement.equals(rhsElement);
+
+      final T listener = get();
+
+      return (listener != null) && listener.equals(((ListenerReference<?>) rhs).get());
     }
 
     @Override
     public int hashCode() {
-      final T element = get();
-
-      return element == null ? 0 : element.hashCode();
+      return m_hashCode;
     }
   }
 }
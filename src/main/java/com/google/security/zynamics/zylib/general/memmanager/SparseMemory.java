@@ -0,0 +1,798 @@
+// Copyright 2011-2016 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.security.zynamics.zylib.general.memmanager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Simulated memory that is organized in fixed-size pages. Unlike {@link Memory}, which keeps a
+ * sorted list of variable-sized chunks, pages are found through a hash table keyed by the page
+ * number, so loads and stores take constant time no matter how scattered the written addresses
+ * are. Values of up to eight bytes can be loaded and stored without allocating byte arrays.
+ */
+public class SparseMemory {
+  /**
+   * Number of address bits that index into a page.
+   */
+  public static final int PAGE_BITS = 12;
+
+  /**
+   * Size of a single memory page in bytes.
+   */
+  public static final int PAGE_SIZE = 1 << PAGE_BITS;
+
+  /**
+   * Mask that extracts the page offset from an address.
+   */
+  private static final long PAGE_MASK = PAGE_SIZE - 1;
+
+  /**
+   * Size of the memory range that is reported for empty sections.
+   */
+  private static final long ADDRESS_SPACE_SIZE = 0x100000000L;
+
+  /**
+   * Table of all pages that contain at least one valid byte.
+   */
+  private final PageTable m_pages = new PageTable();
+
+  /**
+   * Total number of valid bytes in all pages.
+   */
+  private long m_size = 0;
+
+  /**
+   * List of listeners that are notified about changes in memory.
+   */
+  private final ArrayList<IMemoryListener> m_listeners = new ArrayList<IMemoryListener>();
+
+  private final ReadWriteLock m_readWriteLock = new ReentrantReadWriteLock();
+
+  private final Lock m_readLock = m_readWriteLock.readLock();
+
+  private final Lock m_writeLock = m_readWriteLock.writeLock();
+
+  /**
+   * Returns the page that contains the given address. If no such page exists, a new empty page is
+   * created.
+   *
+   * @param address The address in question.
+   *
+   * @return The page that contains the address.
+   */
+  private Page getOrCreatePage(final long address) {
+    final long pageNumber = address >>> PAGE_BITS;
+
+    Page page = m_pages.get(pageNumber);
+
+    if (page == null) {
+      page = new Page();
+      m_pages.put(pageNumber, page);
+    }
+
+    return page;
+  }
+
+  /**
+   * Finds the first address after the given address that is covered by a page.
+   *
+   * @param address The address where the search starts.
+   *
+   * @return The start of the next page or -1 if there is no such page.
+   */
+  private long findNextPageStart(final long address) {
+    final long pageNumber = address >>> PAGE_BITS;
+
+    long best = -1;
+
+    for (final long key : m_pages.keys()) {
+      if ((key > pageNumber) && ((best == -1) || (key < best))) {
+        best = key;
+      }
+    }
+
+    return best == -1 ? -1 : best << PAGE_BITS;
+  }
+
+  /**
+   * Finds the last page before the page that contains the given address.
+   *
+   * @param address The address where the search starts.
+   *
+   * @return The page number of the previous page or -1 if there is no such page.
+   */
+  private long findPreviousPageNumber(final long address) {
+    final long pageNumber = address >>> PAGE_BITS;
+
+    long best = -1;
+
+    for (final long key : m_pages.keys()) {
+      if ((key < pageNumber) && (key > best)) {
+        best = key;
+      }
+    }
+
+    return best;
+  }
+
+  /**
+   * Determines whether the byte at the given address is valid. Must be called with the read lock
+   * held.
+   */
+  private boolean isValid(final long address) {
+    final Page page = m_pages.get(address >>> PAGE_BITS);
+
+    return (page != null) && page.isValid((int) (address & PAGE_MASK));
+  }
+
+  /**
+   * Notifies all listeners that the memory changed.
+   */
+  private void notifyListeners(final long address, final int size) {
+    for (final IMemoryListener listener : m_listeners) {
+      listener.memoryChanged(address, size);
+    }
+  }
+
+  /**
+   * Reads a single byte from memory. Must be called with the read lock held.
+   *
+   * @throws IllegalArgumentException Thrown if the byte is not available.
+   */
+  private int readByte(final long address) {
+    final Page page = m_pages.get(address >>> PAGE_BITS);
+    final int offset = (int) (address & PAGE_MASK);
+
+    if ((page == null) || !page.isValid(offset)) {
+      throw new IllegalArgumentException("Error: Data is not available");
+    }
+
+    return page.data[offset] & 0xFF;
+  }
+
+  /**
+   * Writes a single byte to memory. Must be called with the write lock held.
+   */
+  private void writeByte(final long address, final byte value) {
+    final Page page = getOrCreatePage(address);
+    final int offset = (int) (address & PAGE_MASK);
+
+    page.data[offset] = value;
+
+    if (page.setValid(offset)) {
+      m_size++;
+    }
+  }
+
+  /**
+   * Adds a listener that is notified about changes in the simulated memory.
+   *
+   * @param listener The listener to add to the nofification list.
+   *
+   * @throws NullPointerException Thrown if the listener is null.
+   */
+  public void addMemoryListener(final IMemoryListener listener) {
+    Preconditions.checkNotNull(listener, "Error: Listener can't be null");
+
+    m_listeners.add(listener);
+  }
+
+  /**
+   * Clears the simulated memory.
+   */
+  public void clear() {
+    m_writeLock.lock();
+
+    m_pages.clear();
+    m_size = 0;
+
+    m_writeLock.unlock();
+
+    for (final IMemoryListener listener : m_listeners) {
+      listener.memoryCleared();
+    }
+  }
+
+  /**
+   * Returns memory data. Note that it is necessary to call the function hasData before to make sure
+   * that the data actually exists.
+   *
+   * @param address The start address of the memory data.
+   * @param length The length of the retrieved data.
+   *
+   * @return The retrieved data.
+   *
+   * @throws IllegalArgumentException Thrown if the address is negative or if the length is not
+   *         positive.
+   * @throws IllegalArgumentException Thrown if not all data is available.
+   */
+  public byte[] getData(final long address, final int length) {
+    Preconditions.checkArgument(address >= 0, "Error: Address can't be less than 0");
+    Preconditions.checkArgument(length > 0, "Error: Length must be positive");
+
+    final byte[] data = new byte[length];
+
+    m_readLock.lock();
+
+    try {
+      for (int i = 0; i < length; i++) {
+        data[i] = (byte) readByte(address + i);
+      }
+    } finally {
+      m_readLock.unlock();
+    }
+
+    return data;
+  }
+
+  /**
+   * Returns the total size of the simulated memory.
+   *
+   * @return The total size of the simulated memory.
+   */
+  public int getMemorySize() {
+    m_readLock.lock();
+
+    try {
+      return (int) m_size;
+    } finally {
+      m_readLock.unlock();
+    }
+  }
+
+  /**
+   * Returns the number of pages that hold at least one valid byte.
+   *
+   * @return The number of allocated pages.
+   */
+  public int getNumberOfPages() {
+    m_readLock.lock();
+
+    try {
+      return m_pages.size();
+    } finally {
+      m_readLock.unlock();
+    }
+  }
+
+  /**
+   * Returns the size of the section that contains the given address. A section is either a range
+   * of consecutive valid bytes or a gap between two such ranges.
+   *
+   * @param address The address in question.
+   *
+   * @return The size of the section.
+   */
+  public long getSectionSize(final long address) {
+    m_readLock.lock();
+
+    try {
+      final long start = getSectionStart(address);
+
+      if (isValid(start)) {
+        long current = start;
+
+        while (isValid(current)) {
+          current++;
+        }
+
+        return current - start;
+      } else if (m_pages.size() == 0) {
+        return ADDRESS_SPACE_SIZE;
+      } else {
+        long current = start;
+
+        while (!isValid(current)) {
+          if ((current & PAGE_MASK) == 0 && (m_pages.get(current >>> PAGE_BITS) == null)) {
+            final long nextPage = findNextPageStart(current);
+
+            if (nextPage == -1) {
+              return ADDRESS_SPACE_SIZE - start;
+            }
+
+            current = nextPage;
+          } else {
+            current++;
+          }
+        }
+
+        return current - start;
+      }
+    } finally {
+      m_readLock.unlock();
+    }
+  }
+
+  /**
+   * Returns the start address of the section that contains the given address.
+   *
+   * @param address The address in question.
+   *
+   * @return The start address of the section.
+   */
+  public long getSectionStart(final long address) {
+    Preconditions.checkArgument(address >= 0, "Error: Address can't be less than 0");
+
+    m_readLock.lock();
+
+    try {
+      final boolean valid = isValid(address);
+
+      long current = address;
+
+      while ((current > 0) && (isValid(current - 1) == valid)) {
+        if (!valid && ((current & PAGE_MASK) == 0)
+            && (m_pages.get((current - 1) >>> PAGE_BITS) == null)) {
+          // Skip over unallocated pages in one step.
+          final long previousPage = findPreviousPageNumber(current);
+
+          if (previousPage == -1) {
+            return 0;
+          }
+
+          current = (previousPage + 1) << PAGE_BITS;
+
+          if (isValid(current - 1)) {
+            break;
+          }
+        }
+
+        current--;
+      }
+
+      return current;
+    } finally {
+      m_readLock.unlock();
+    }
+  }
+
+  /**
+   * Determines whether the memory has length bytes starting from the given address.
+   *
+   * @param address The start address.
+   * @param length The length of the data.
+   *
+   * @return True, if all bytes in the given range are available. False, otherwise.
+   *
+   * @throws IllegalArgumentException Thrown if the address is negative or if the length is not
+   *         positive.
+   */
+  public boolean hasData(final long address, final int length) {
+    Preconditions.checkArgument(address >= 0, "Error: Address can't be less than 0");
+    Preconditions.checkArgument(length > 0, "Error: Length must be positive");
+
+    m_readLock.lock();
+
+    try {
+      for (int i = 0; i < length; i++) {
+        if (!isValid(address + i)) {
+          return false;
+        }
+      }
+
+      return true;
+    } finally {
+      m_readLock.unlock();
+    }
+  }
+
+  /**
+   * Loads a big endian value of up to eight bytes from memory.
+   *
+   * @param address The address of the value.
+   * @param length The length of the value in bytes.
+   *
+   * @return The loaded value.
+   *
+   * @throws IllegalArgumentException Thrown if the arguments are invalid or if not all data is
+   *         available.
+   */
+  public long loadBigEndian(final long address, final int length) {
+    Preconditions.checkArgument(address >= 0, "Error: Address can't be less than 0");
+    Preconditions.checkArgument((length > 0) && (length <= 8), "Error: Invalid data length");
+
+    m_readLock.lock();
+
+    try {
+      long value = 0;
+
+      for (int i = 0; i < length; i++) {
+        value = (value << 8) | readByte(address + i);
+      }
+
+      return value;
+    } finally {
+      m_readLock.unlock();
+    }
+  }
+
+  /**
+   * Loads a little endian value of up to eight bytes from memory.
+   *
+   * @param address The address of the value.
+   * @param length The length of the value in bytes.
+   *
+   * @return The loaded value.
+   *
+   * @throws IllegalArgumentException Thrown if the arguments are invalid or if not all data is
+   *         available.
+   */
+  public long loadLittleEndian(final long address, final int length) {
+    Preconditions.checkArgument(address >= 0, "Error: Address can't be less than 0");
+    Preconditions.checkArgument((length > 0) && (length <= 8), "Error: Invalid data length");
+
+    m_readLock.lock();
+
+    try {
+      long value = 0;
+
+      for (int i = length - 1; i >= 0; i--) {
+        value = (value << 8) | readByte(address + i);
+      }
+
+      return value;
+    } finally {
+      m_readLock.unlock();
+    }
+  }
+
+  /**
+   * Prints the content of the memory to stdout.
+   */
+  public void printMemory() {
+    m_readLock.lock();
+
+    try {
+      final long[] keys = m_pages.keys();
+      Arrays.sort(keys);
+
+      for (final long key : keys) {
+        final Page page = m_pages.get(key);
+
+        System.out.printf("%08X: ", key << PAGE_BITS);
+
+        for (int i = 0; i < PAGE_SIZE; i++) {
+          if (page.isValid(i)) {
+            System.out.printf("%02X ", page.data[i]);
+          } else {
+            System.out.print("?? ");
+          }
+        }
+
+        System.out.println();
+      }
+    } finally {
+      m_readLock.unlock();
+    }
+  }
+
+  /**
+   * Removes a memory region from the memory.
+   *
+   * @param address Start of the memory region to remove.
+   * @param length Length of the memory region to remove.
+   */
+  public void remove(final long address, final int length) {
+    Preconditions.checkArgument(address >= 0, "Error: Address can't be less than 0");
+    Preconditions.checkArgument(length > 0, "Error: Length must be positive");
+
+    m_writeLock.lock();
+
+    try {
+      for (int i = 0; i < length; i++) {
+        final long current = address + i;
+        final long pageNumber = current >>> PAGE_BITS;
+        final Page page = m_pages.get(pageNumber);
+
+        if (page == null) {
+          // Nothing to remove in this page, continue with the next one.
+          i += (int) (PAGE_MASK - (current & PAGE_MASK));
+          continue;
+        }
+
+        if (page.clearValid((int) (current & PAGE_MASK))) {
+          m_size--;
+
+          if (page.count == 0) {
+            m_pages.remove(pageNumber);
+          }
+        }
+      }
+    } finally {
+      m_writeLock.unlock();
+    }
+  }
+
+  public void removeMemoryListener(final IMemoryListener listener) {
+    m_listeners.remove(listener);
+  }
+
+  /**
+   * Stores new data at a given memory address.
+   *
+   * @param address The address where the data is stored.
+   * @param data The data to store.
+   *
+   * @throws IllegalArgumentException Thrown if the address is less than 0.
+   * @throws NullPointerException Thrown if the data object is null.
+   */
+  public void store(final long address, final byte[] data) {
+    Preconditions.checkArgument(address >= 0, "Error: Address can't be less than 0");
+    Preconditions.checkNotNull(data, "Error: Data can't be null");
+
+    m_writeLock.lock();
+
+    try {
+      for (int i = 0; i < data.length; i++) {
+        writeByte(address + i, data[i]);
+      }
+    } finally {
+      m_writeLock.unlock();
+    }
+
+    notifyListeners(address, data.length);
+  }
+
+  /**
+   * Stores a value of up to eight bytes in big endian byte order.
+   *
+   * @param address The address where the value is stored.
+   * @param value The value to store.
+   * @param length The length of the value in bytes.
+   *
+   * @throws IllegalArgumentException Thrown if the address is less than 0 or the length is invalid.
+   */
+  public void storeBigEndian(final long address, final long value, final int length) {
+    Preconditions.checkArgument(address >= 0, "Error: Address can't be less than 0");
+    Preconditions.checkArgument((length > 0) && (length <= 8), "Error: Invalid data length");
+
+    m_writeLock.lock();
+
+    try {
+      for (int i = 0; i < length; i++) {
+        writeByte(address + i, (byte) (value >>> (8 * (length - 1 - i))));
+      }
+    } finally {
+      m_writeLock.unlock();
+    }
+
+    notifyListeners(address, length);
+  }
+
+  /**
+   * Stores a value of up to eight bytes in little endian byte order.
+   *
+   * @param address The address where the value is stored.
+   * @param value The value to store.
+   * @param length The length of the value in bytes.
+   *
+   * @throws IllegalArgumentException Thrown if the address is less than 0 or the length is invalid.
+   */
+  public void storeLittleEndian(final long address, final long value, final int length) {
+    Preconditions.checkArgument(address >= 0, "Error: Address can't be less than 0");
+    Preconditions.checkArgument((length > 0) && (length <= 8), "Error: Invalid data length");
+
+    m_writeLock.lock();
+
+    try {
+      for (int i = 0; i < length; i++) {
+        writeByte(address + i, (byte) (value >>> (8 * i)));
+      }
+    } finally {
+      m_writeLock.unlock();
+    }
+
+    notifyListeners(address, length);
+  }
+
+  /**
+   * A single page of simulated memory together with a bitmap that tells which bytes of the page
+   * were written.
+   */
+  private static final class Page {
+    /**
+     * The bytes of the page.
+     */
+    private final byte[] data = new byte[PAGE_SIZE];
+
+    /**
+     * One bit per byte of the page that is set if the byte is valid.
+     */
+    private final long[] valid = new long[PAGE_SIZE / Long.SIZE];
+
+    /**
+     * Number of valid bytes in the page.
+     */
+    private int count = 0;
+
+    /**
+     * Marks a byte of the page invalid.
+     *
+     * @return True, if the byte was valid before.
+     */
+    private boolean clearValid(final int offset) {
+      final long mask = 1L << offset;
+      final int index = offset >>> 6;
+
+      if ((valid[index] & mask) == 0) {
+        return false;
+      }
+
+      valid[index] &= ~mask;
+      count--;
+
+      return true;
+    }
+
+    private boolean isValid(final int offset) {
+      return (valid[offset >>> 6] & (1L << offset)) != 0;
+    }
+
+    /**
+     * Marks a byte of the page valid.
+     *
+     * @return True, if the byte was not valid before.
+     */
+    private boolean setValid(final int offset) {
+      final long mask = 1L << offset;
+      final int index = offset >>> 6;
+
+      if ((valid[index] & mask) != 0) {
+        return false;
+      }
+
+      valid[index] |= mask;
+      count++;
+
+      return true;
+    }
+  }
+
+  /**
+   * Open addressing hash table that maps page numbers to pages without boxing the keys.
+   */
+  private static final class PageTable {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private long[] m_keys = new long[INITIAL_CAPACITY];
+
+    private Page[] m_values = new Page[INITIAL_CAPACITY];
+
+    private int m_size = 0;
+
+    private static int hash(final long key) {
+      final long h = key * 0x9E3779B97F4A7C15L;
+      return (int) (h ^ (h >>> 32));
+    }
+
+    private int indexOf(final long key) {
+      final int mask = m_keys.length - 1;
+
+      int index = hash(key) & mask;
+
+      while (m_values[index] != null) {
+        if (m_keys[index] == key) {
+          return index;
+        }
+
+        index = (index + 1) & mask;
+      }
+
+      return -1 - index;
+    }
+
+    private void resize() {
+      final long[] oldKeys = m_keys;
+      final Page[] oldValues = m_values;
+
+      m_keys = new long[oldKeys.length * 2];
+      m_values = new Page[oldValues.length * 2];
+
+      for (int i = 0; i < oldKeys.length; i++) {
+        if (oldValues[i] != null) {
+          final int index = -1 - indexOf(oldKeys[i]);
+
+          m_keys[index] = oldKeys[i];
+          m_values[index] = oldValues[i];
+        }
+      }
+    }
+
+    public void clear() {
+      m_keys = new long[INITIAL_CAPACITY];
+      m_values = new Page[INITIAL_CAPACITY];
+      m_size = 0;
+    }
+
+    public Page get(final long key) {
+      final int index = indexOf(key);
+
+      return index < 0 ? null : m_values[index];
+    }
+
+    public long[] keys() {
+      final long[] keys = new long[m_size];
+
+      int current = 0;
+
+      for (int i = 0; i < m_keys.length; i++) {
+        if (m_values[i] != null) {
+          keys[current++] = m_keys[i];
+        }
+      }
+
+      return keys;
+    }
+
+    public void put(final long key, final Page page) {
+      int index = indexOf(key);
+
+      if (index >= 0) {
+        m_values[index] = page;
+        return;
+      }
+
+      if ((m_size + 1) * 2 > m_keys.length) {
+        resize();
+        index = indexOf(key);
+      }
+
+      index = -1 - index;
+
+      m_keys[index] = key;
+      m_values[index] = page;
+      m_size++;
+    }
+
+    public void remove(final long key) {
+      int index = indexOf(key);
+
+      if (index < 0) {
+        return;
+      }
+
+      final int mask = m_keys.length - 1;
+
+      m_values[index] = null;
+      m_size--;
+
+      // Shift following entries of the probe sequence back so that lookups still find them.
+      int next = (index + 1) & mask;
+
+      while (m_values[next] != null) {
+        final int home = hash(m_keys[next]) & mask;
+
+        if (((next - home) & mask) >= ((next - index) & mask)) {
+          m_keys[index] = m_keys[next];
+          m_values[index] = m_values[next];
+          m_values[next] = null;
+          index = next;
+        }
+
+        next = (next + 1) & mask;
+      }
+    }
+
+    public int size() {
+      return m_size;
+    }
+  }
+}
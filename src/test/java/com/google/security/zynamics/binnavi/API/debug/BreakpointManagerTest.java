@@ -21,12 +21,14 @@ import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
+import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
 import com.google.security.zynamics.binnavi.API.disassembly.Address;
 import com.google.security.zynamics.binnavi.API.disassembly.Module;
 import com.google.security.zynamics.binnavi.API.disassembly.ModuleFactory;
 import com.google.security.zynamics.binnavi.Common.CommonTestObjects;
 import com.google.security.zynamics.binnavi.debug.models.breakpoints.BreakpointAddress;
+import com.google.security.zynamics.binnavi.debug.models.breakpoints.enums.BreakpointStatus;
 import com.google.security.zynamics.binnavi.debug.models.breakpoints.enums.BreakpointType;
 import com.google.security.zynamics.binnavi.disassembly.UnrelocatedAddress;
 import com.google.security.zynamics.zylib.disassembly.CAddress;
@@ -204,6 +206,29 @@ public final class BreakpointManagerTest {
     apiManager.removeListener(mockListener);
   }
 
+  @Test
+  public void testRemoveBreakpointsIndexed() {
+    final BreakpointAddress address1 =
+        new BreakpointAddress(CommonTestObjects.MODULE,
+            new UnrelocatedAddress(new CAddress(0x123)));
+    final BreakpointAddress address2 =
+        new BreakpointAddress(CommonTestObjects.MODULE,
+            new UnrelocatedAddress(new CAddress(0x124)));
+    final BreakpointAddress address3 =
+        new BreakpointAddress(CommonTestObjects.MODULE,
+            new UnrelocatedAddress(new CAddress(0x125)));
+
+    internalManager.addBreakpoints(BreakpointType.REGULAR,
+        Sets.newHashSet(address1, address2, address3));
+    assertEquals(3, internalManager.getNumberOfBreakpoints(BreakpointType.REGULAR));
+
+    internalManager.removeBreakpoints(BreakpointType.REGULAR, Sets.newHashSet(address1, address3));
+
+    assertEquals(1, internalManager.getNumberOfBreakpoints(BreakpointType.REGULAR));
+    assertEquals(address2,
+        internalManager.getBreakpoint(BreakpointType.REGULAR, 0).getAddress());
+  }
+
   @Test
   public void testRemoveEchoBreakpoint() {
     try {
@@ -255,6 +280,22 @@ public final class BreakpointManagerTest {
     apiManager.removeListener(mockListener);
   }
 
+  @Test
+  public void testSetBreakpoints() {
+    apiManager.setBreakpoints(module, Lists.newArrayList(new Address(0x123), new Address(0x124)));
+
+    assertTrue(apiManager.hasBreakpoint(module, new Address(0x123)));
+    assertTrue(apiManager.hasBreakpoint(module, new Address(0x124)));
+    assertEquals(2, apiManager.getBreakpoints().size());
+
+    apiManager.removeBreakpoints(module,
+        Lists.newArrayList(new Address(0x123), new Address(0x124)));
+
+    assertEquals(BreakpointStatus.BREAKPOINT_DELETING, internalManager.getBreakpointStatus(
+        new BreakpointAddress(CommonTestObjects.MODULE,
+            new UnrelocatedAddress(new CAddress(0x124))), BreakpointType.REGULAR));
+  }
+
   @Test
   public void testSetEchoBreakpoint() {
     apiManager.addListener(mockListener);
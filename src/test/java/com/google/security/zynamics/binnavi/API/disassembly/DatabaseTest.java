@@ -44,6 +44,20 @@ import org.junit.runners.JUnit4;
 
 @RunWith(JUnit4.class)
 public final class DatabaseTest {
+  @Test
+  public void testCacheStatistics() {
+    final MockDatabase mockDatabase = new MockDatabase();
+
+    final Database database = new Database(mockDatabase);
+
+    final CacheStatistics statistics = database.getInstructionCacheStatistics();
+
+    assertEquals(0, statistics.getRequestCount());
+    assertEquals(1.0, statistics.getHitRate(), 0.0);
+    assertEquals(0, database.getNodeCacheStatistics().getEvictionCount());
+    assertEquals(0, database.getEdgeCacheStatistics().getMissCount());
+  }
+
   @Test
   public void testConnect() throws CouldntLoadDriverException, CouldntConnectException,
       InvalidDatabaseException, CouldntInitializeDatabaseException, InvalidDatabaseFormatException,
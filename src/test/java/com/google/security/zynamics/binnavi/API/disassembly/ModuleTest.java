@@ -34,10 +34,12 @@ import com.google.security.zynamics.binnavi.Tagging.TagType;
 import com.google.security.zynamics.binnavi.config.ConfigManager;
 import com.google.security.zynamics.binnavi.config.FileReadException;
 import com.google.security.zynamics.binnavi.disassembly.CFunction;
+import com.google.security.zynamics.binnavi.disassembly.CIncomingReference;
 import com.google.security.zynamics.binnavi.disassembly.MockView;
 import com.google.security.zynamics.binnavi.disassembly.Modules.CModule;
 import com.google.security.zynamics.zylib.disassembly.CAddress;
 import com.google.security.zynamics.zylib.disassembly.FunctionType;
+import com.google.security.zynamics.zylib.disassembly.ReferenceType;
 import com.google.security.zynamics.zylib.general.Convert;
 import com.google.security.zynamics.zylib.types.trees.Tree;
 import com.google.security.zynamics.zylib.types.trees.TreeNode;
@@ -55,6 +57,8 @@ import java.util.List;
 public final class ModuleTest {
   private Module m_module;
 
+  private MockSqlProvider m_provider;
+
   private static ExpressionType getType(final String value) {
     return Convert.isDecString(value) ? ExpressionType.ImmediateInteger : ExpressionType.Register;
   }
@@ -98,6 +102,7 @@ public final class ModuleTest {
     ConfigManager.instance().read();
 
     final MockSqlProvider provider = new MockSqlProvider();
+    m_provider = provider;
 
     final Date creationDate = new Date();
     final Date modificationDate = new Date();
@@ -242,6 +247,27 @@ public final class ModuleTest {
     m_module.close();
   }
 
+  @Test
+  public void testGetReferencingAddresses()
+      throws com.google.security.zynamics.binnavi.API.disassembly.CouldntLoadDataException {
+    final CAddress target = new CAddress(0x2000);
+
+    m_provider.addIncomingReference(m_module.getNative(), new CIncomingReference(
+        new CAddress(0x1000), 0, 1, ReferenceType.CALL_DIRECT, target));
+    m_provider.addIncomingReference(m_module.getNative(), new CIncomingReference(
+        new CAddress(0x1000), 1, 2, ReferenceType.DATA, target));
+    m_provider.addIncomingReference(m_module.getNative(), new CIncomingReference(
+        new CAddress(0x1010), 0, 3, ReferenceType.DATA, target));
+    m_provider.addIncomingReference(m_module.getNative(), new CIncomingReference(
+        new CAddress(0x1020), 0, 4, ReferenceType.DATA, new CAddress(0x3000)));
+
+    final List<Address> addresses = m_module.getReferencingAddresses(new Address(0x2000));
+
+    assertEquals(2, addresses.size());
+    assertEquals(0x1000, addresses.get(0).toLong());
+    assertEquals(0x1010, addresses.get(1).toLong());
+  }
+
   @Test
   public void testSetDebuggerTemplate() throws CouldntSaveDataException {
     final MockModuleListener listener = new MockModuleListener();
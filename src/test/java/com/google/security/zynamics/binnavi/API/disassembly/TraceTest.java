@@ -16,20 +16,31 @@ limitations under the License.
 package com.google.security.zynamics.binnavi.API.disassembly;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 import com.google.security.zynamics.binnavi.API.disassembly.Address;
 import com.google.security.zynamics.binnavi.API.disassembly.CouldntSaveDataException;
 import com.google.security.zynamics.binnavi.API.disassembly.Module;
 import com.google.security.zynamics.binnavi.API.disassembly.Trace;
 import com.google.security.zynamics.binnavi.API.disassembly.TraceEventType;
+import com.google.security.zynamics.binnavi.Database.Exceptions.CouldntLoadDataException;
 import com.google.security.zynamics.binnavi.Database.MockClasses.MockSqlProvider;
+import com.google.security.zynamics.binnavi.debug.models.breakpoints.BreakpointAddress;
 import com.google.security.zynamics.binnavi.debug.models.trace.TraceList;
+import com.google.security.zynamics.binnavi.debug.models.trace.TraceRegister;
+import com.google.security.zynamics.binnavi.debug.models.trace.interfaces.ITraceEvent;
+import com.google.security.zynamics.binnavi.debug.models.trace.interfaces.ITraceEventLoader;
+import com.google.security.zynamics.binnavi.disassembly.UnrelocatedAddress;
 import com.google.security.zynamics.binnavi.disassembly.Modules.MockModule;
+import com.google.security.zynamics.zylib.disassembly.CAddress;
 
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.junit.runners.JUnit4;
 
+import java.util.ArrayList;
+import java.util.List;
+
 
 @RunWith(JUnit4.class)
 public final class TraceTest {
@@ -67,6 +78,42 @@ public final class TraceTest {
     trace.removeListener(listener);
   }
 
+  @Test
+  public void testLazyEvents() {
+    final List<Integer> loadedPositions = new ArrayList<>();
+
+    final ITraceEventLoader loader = new ITraceEventLoader() {
+      @Override
+      public List<ITraceEvent> loadEvents(final TraceList traceList, final int fromPosition,
+          final int toPosition) throws CouldntLoadDataException {
+        loadedPositions.add(fromPosition);
+
+        final List<ITraceEvent> events = new ArrayList<>();
+
+        for (int i = fromPosition; i < toPosition; i++) {
+          events.add(new com.google.security.zynamics.binnavi.debug.models.trace.TraceEvent(0,
+              new BreakpointAddress(new MockModule(), new UnrelocatedAddress(new CAddress(i))),
+              com.google.security.zynamics.binnavi.debug.models.trace.TraceEventType
+                  .ECHO_BREAKPOINT, new ArrayList<TraceRegister>()));
+        }
+
+        return events;
+      }
+    };
+
+    final Trace trace = new Trace(new TraceList(1, "Name", "Description", new MockSqlProvider(),
+        loader, 10000));
+
+    // Neither creating the trace nor getting the event list loads stored events.
+    final List<TraceEvent> events = trace.getEvents();
+
+    assertEquals(10000, events.size());
+    assertTrue(loadedPositions.isEmpty());
+
+    assertEquals(9000, events.get(9000).getAddress().toLong());
+    assertEquals(1, loadedPositions.size());
+  }
+
   @Test
   public void testSave() throws CouldntSaveDataException {
     final Trace trace = new Trace(new TraceList(1, "Name", "Description", new MockSqlProvider()));
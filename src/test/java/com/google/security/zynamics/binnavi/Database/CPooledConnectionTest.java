@@ -0,0 +1,132 @@
+/*
+Copyright 2014 Google Inc. All Rights Reserved.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.google.security.zynamics.binnavi.Database;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+@RunWith(JUnit4.class)
+public class CPooledConnectionTest {
+  private final List<String> m_prepared = new ArrayList<String>();
+  private final List<String> m_closed = new ArrayList<String>();
+
+  private PreparedStatement createStatement(final String query) {
+    return (PreparedStatement) Proxy.newProxyInstance(getClass().getClassLoader(),
+        new Class<?>[] {PreparedStatement.class}, new InvocationHandler() {
+          private boolean m_isClosed = false;
+
+          @Override
+          public Object invoke(final Object proxy, final Method method, final Object[] args) {
+            switch (method.getName()) {
+              case "close":
+                m_isClosed = true;
+                m_closed.add(query);
+                return null;
+              case "isClosed":
+                return m_isClosed;
+              case "hashCode":
+                return System.identityHashCode(proxy);
+              case "equals":
+                return proxy == args[0];
+              default:
+                return null;
+            }
+          }
+        });
+  }
+
+  private CPooledConnection createConnection() {
+    final Connection connection = (Connection) Proxy.newProxyInstance(
+        getClass().getClassLoader(), new Class<?>[] {Connection.class}, new InvocationHandler() {
+          @Override
+          public Object invoke(final Object proxy, final Method method, final Object[] args) {
+            if (method.getName().equals("prepareStatement")) {
+              m_prepared.add((String) args[0]);
+              return createStatement((String) args[0]);
+            }
+
+            return null;
+          }
+        });
+
+    return new CPooledConnection(new CConnectionPool("", new Properties(), 1), connection);
+  }
+
+  @Test
+  public void testCloseConnection() throws SQLException {
+    final CPooledConnection connection = createConnection();
+
+    final PreparedStatement statement = connection.prepareStatement("SELECT 1");
+
+    connection.closeConnection();
+
+    assertEquals(1, m_closed.size());
+    assertTrue(statement.isClosed());
+    assertFalse(connection.isCached(statement));
+  }
+
+  @Test
+  public void testPrepareStatement() throws SQLException {
+    final CPooledConnection connection = createConnection();
+
+    final PreparedStatement statement = connection.prepareStatement("SELECT 1");
+
+    // The same query is only prepared once per connection.
+    assertSame(statement, connection.prepareStatement("SELECT 1"));
+    assertTrue(connection.isCached(statement));
+    assertEquals(1, m_prepared.size());
+
+    connection.prepareStatement("SELECT 2");
+    assertEquals(2, m_prepared.size());
+
+    // Statements closed by someone else are prepared again.
+    statement.close();
+    assertFalse(statement == connection.prepareStatement("SELECT 1"));
+    assertEquals(3, m_prepared.size());
+  }
+
+  @Test
+  public void testStatementLimit() throws SQLException {
+    final CPooledConnection connection = createConnection();
+
+    final PreparedStatement first = connection.prepareStatement("SELECT 0");
+
+    for (int i = 1; i <= 64; i++) {
+      connection.prepareStatement("SELECT " + i);
+    }
+
+    // The least recently used statement is closed once the cache is full.
+    assertEquals(1, m_closed.size());
+    assertEquals("SELECT 0", m_closed.get(0));
+    assertFalse(connection.isCached(first));
+  }
+}
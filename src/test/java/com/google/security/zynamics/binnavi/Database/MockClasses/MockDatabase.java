@@ -15,12 +15,16 @@ limitations under the License.
 */
 package com.google.security.zynamics.binnavi.Database.MockClasses;
 
+import com.google.common.cache.CacheStats;
 import com.google.security.zynamics.binnavi.CUtilityFunctions;
 import com.google.security.zynamics.binnavi.Common.CommonTestObjects;
 import com.google.security.zynamics.binnavi.Database.CDatabaseConfiguration;
 import com.google.security.zynamics.binnavi.Database.Interfaces.IDatabase;
 import com.google.security.zynamics.binnavi.Database.Interfaces.IDatabaseListener;
 import com.google.security.zynamics.binnavi.Database.Interfaces.SQLProvider;
+import com.google.security.zynamics.binnavi.Database.cache.EdgeCache;
+import com.google.security.zynamics.binnavi.Database.cache.InstructionCache;
+import com.google.security.zynamics.binnavi.Database.cache.NodeCache;
 import com.google.security.zynamics.binnavi.debug.debugger.DebuggerTemplateManager;
 import com.google.security.zynamics.binnavi.disassembly.CProject;
 import com.google.security.zynamics.binnavi.disassembly.IDatabaseObject;
@@ -125,6 +129,21 @@ public final class MockDatabase implements IDatabase {
     return content;
   }
 
+  @Override
+  public CacheStats getEdgeCacheStatistics() {
+    return EdgeCache.get(provider).getStatistics();
+  }
+
+  @Override
+  public CacheStats getInstructionCacheStatistics() {
+    return InstructionCache.get(provider).getStatistics();
+  }
+
+  @Override
+  public CacheStats getNodeCacheStatistics() {
+    return NodeCache.get(provider).getStatistics();
+  }
+
   @Override
   public boolean inSameDatabase(final IDatabaseObject provider) {
     return true;
@@ -43,6 +43,7 @@ import com.google.security.zynamics.binnavi.debug.debugger.DebuggerTemplateManag
 import com.google.security.zynamics.binnavi.debug.models.trace.TraceList;
 import com.google.security.zynamics.binnavi.disassembly.CCallgraph;
 import com.google.security.zynamics.binnavi.disassembly.CFunction;
+import com.google.security.zynamics.binnavi.disassembly.CIncomingReference;
 import com.google.security.zynamics.binnavi.disassembly.COperandTreeNode;
 import com.google.security.zynamics.binnavi.disassembly.CProject;
 import com.google.security.zynamics.binnavi.disassembly.UnrelocatedAddress;
@@ -118,6 +119,7 @@ public final class MockSqlProvider implements SQLProvider {
   private int viewCounter = 1;
   private int traceListCounter = 1;
   private int typeInstanceCounter = 1;
+  private int functionsByAddressLoads = 0;
   private int typeId;
   private final HashMap<Commentable, ArrayList<IComment>> comments =
       new HashMap<Commentable, ArrayList<IComment>>();
@@ -126,6 +128,8 @@ public final class MockSqlProvider implements SQLProvider {
   private final List<INaviFunction> functions = new ArrayList<INaviFunction>();
   private final HashMap<IAddress, ReferenceType> references =
       new HashMap<IAddress, ReferenceType>();
+  private final ArrayListMultimap<INaviModule, CIncomingReference> incomingReferences =
+      ArrayListMultimap.create();
   private final List<INaviModule> modules = Lists.<INaviModule>newArrayList();
   private final ArrayList<IUser> users = new ArrayList<IUser>();
   private final ArrayListMultimap<INaviModule, RawTypeMember> members = ArrayListMultimap.create();
@@ -254,6 +258,17 @@ public final class MockSqlProvider implements SQLProvider {
     references.put(address, type);
   }
 
+  /**
+   * Adds a reference to the simulated cross-reference index. References are returned in the order
+   * in which they were added.
+   *
+   * @param module The module the reference belongs to.
+   * @param reference The reference to add.
+   */
+  public void addIncomingReference(final INaviModule module, final CIncomingReference reference) {
+    incomingReferences.put(module, reference);
+  }
+
   @Override
   public IUser addUser(final String userName) {
     final Random generator = new Random();
@@ -854,6 +869,13 @@ public final class MockSqlProvider implements SQLProvider {
     return null;
   }
 
+  /**
+   * Returns how often functions were loaded with {@link #loadFunctionsByAddress}.
+   */
+  public int getFunctionsByAddressLoads() {
+    return functionsByAddressLoads;
+  }
+
   @Override
   public DatabaseVersion getDatabaseVersion() {
     throw new IllegalStateException("Not yet implemented");
@@ -986,6 +1008,16 @@ public final class MockSqlProvider implements SQLProvider {
     return bytes;
   }
 
+  @Override
+  public byte[] loadData(final CModule module, final long offset, final int length) {
+    return Arrays.copyOfRange(loadData(module), (int) offset, (int) offset + length);
+  }
+
+  @Override
+  public int loadDataLength(final CModule module) {
+    return loadData(module).length;
+  }
+
   @Override
   public DebuggerTemplateManager loadDebuggers() {
     throw new RuntimeException("Not yet implemented");
@@ -1060,6 +1092,46 @@ public final class MockSqlProvider implements SQLProvider {
     return Lists.newArrayList(function);
   }
 
+  @Override
+  public List<INaviFunction> loadFunctionsByAddress(final INaviModule module,
+      final Collection<IAddress> functionAddresses) {
+    functionsByAddressLoads++;
+
+    final List<INaviFunction> loadedFunctions = new ArrayList<>();
+
+    for (final IAddress functionAddress : functionAddresses) {
+      loadedFunctions.add(loadFunction(module, functionAddress));
+    }
+
+    return loadedFunctions;
+  }
+
+  @Override
+  public List<CIncomingReference> loadIncomingReferences(final INaviModule module,
+      final IAddress target, final CIncomingReference after, final int count) {
+    final List<CIncomingReference> page = new ArrayList<CIncomingReference>();
+
+    boolean foundStart = after == null;
+
+    for (final CIncomingReference reference : incomingReferences.get(module)) {
+      if (page.size() == count) {
+        break;
+      }
+
+      if (!reference.getTarget().equals(target)) {
+        continue;
+      }
+
+      if (foundStart) {
+        page.add(reference);
+      } else {
+        foundStart = reference.equals(after);
+      }
+    }
+
+    return page;
+  }
+
   @Override
   public List<INaviView> loadMixedgraphs(final CModule module) {
     return new ArrayList<INaviView>();
@@ -1352,6 +1424,24 @@ public final class MockSqlProvider implements SQLProvider {
   @Override
   public void setImageBase(final INaviModule module, final IAddress addr) {}
 
+  @Override
+  public void setMemberOffsets(final List<Integer> updatedMembers, final List<Integer> offsets,
+      final INaviModule module) {
+    for (final RawTypeMember rawMember : Lists.newArrayList(members.get(module))) {
+      final int index = updatedMembers.indexOf(rawMember.getId());
+      if (index != -1) {
+        members.remove(module, rawMember);
+        members.put(module, new RawTypeMember(rawMember.getId(),
+            rawMember.getName(),
+            rawMember.getBaseTypeId(),
+            rawMember.getParentId(),
+            offsets.get(index),
+            rawMember.getArgumentIndex().orNull(),
+            rawMember.getNumberOfElements().orNull()));
+      }
+    }
+  }
+
   @Override
   public void setModules(final List<INaviModule> modules2) {
     modules.addAll(modules2);
@@ -0,0 +1,217 @@
+/*
+Copyright 2014 Google Inc. All Rights Reserved.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.google.security.zynamics.binnavi.Database.NodeParser;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
+import com.google.security.zynamics.binnavi.Database.Exceptions.CPartialLoadException;
+import com.google.security.zynamics.binnavi.Database.MockClasses.MockSqlProvider;
+import com.google.security.zynamics.binnavi.disassembly.CCodeNode;
+import com.google.security.zynamics.binnavi.disassembly.CFunctionContainerHelper;
+import com.google.security.zynamics.binnavi.disassembly.INaviInstruction;
+import com.google.security.zynamics.binnavi.disassembly.INaviOperandTreeNode;
+import com.google.security.zynamics.binnavi.disassembly.MockFunction;
+import com.google.security.zynamics.binnavi.disassembly.Modules.MockModule;
+import com.google.security.zynamics.zylib.disassembly.CAddress;
+import com.google.security.zynamics.zylib.disassembly.ReferenceType;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.math.BigInteger;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@RunWith(JUnit4.class)
+public final class SqlCodeNodeProviderTest {
+  private static final String[] COLUMNS = {"node_id", "module_id", "instruction_address",
+      "mnemonic", "architecture", "instruction_data", "parent_function", "function_address",
+      "operand_position", "expression_tree_id", "expression_tree_type", "symbol", "immediate",
+      "expression_tree_parent_id", "replacement", "target", "address_references_type",
+      "global_instruction_comment", "local_instruction_comment", "global_code_node_comment",
+      "local_code_node_comment", "x", "y", "width", "height", "color", "bordercolor", "selected",
+      "visible", "expression_types_type", "expression_types_offset", "expression_types_position",
+      "expression_types_path", "type_instance_id"};
+
+  private static final int[] TYPES = {Types.INTEGER, Types.INTEGER, Types.NUMERIC, Types.VARCHAR,
+      Types.VARCHAR, Types.BINARY, Types.NUMERIC, Types.NUMERIC, Types.INTEGER, Types.INTEGER,
+      Types.INTEGER, Types.VARCHAR, Types.NUMERIC, Types.INTEGER, Types.VARCHAR, Types.NUMERIC,
+      Types.VARCHAR, Types.INTEGER, Types.INTEGER, Types.INTEGER, Types.INTEGER, Types.DOUBLE,
+      Types.DOUBLE, Types.DOUBLE, Types.DOUBLE, Types.INTEGER, Types.INTEGER, Types.BOOLEAN,
+      Types.BOOLEAN, Types.INTEGER, Types.INTEGER, Types.INTEGER, Types.ARRAY, Types.INTEGER};
+
+  /**
+   * Creates a forward-only result set over the given rows. Like the result sets of the PostgreSQL
+   * driver, it refuses to move backwards.
+   */
+  private static ResultSet createResultSet(final List<Map<String, Object>> rows) {
+    final ResultSetMetaData metaData = (ResultSetMetaData) Proxy.newProxyInstance(
+        ResultSetMetaData.class.getClassLoader(), new Class<?>[] {ResultSetMetaData.class},
+        new InvocationHandler() {
+          @Override
+          public Object invoke(final Object proxy, final Method method, final Object[] args) {
+            switch (method.getName()) {
+              case "getColumnCount":
+                return COLUMNS.length;
+              case "getColumnLabel":
+                return COLUMNS[(Integer) args[0] - 1];
+              case "getColumnType":
+                return TYPES[(Integer) args[0] - 1];
+              default:
+                throw new UnsupportedOperationException(method.getName());
+            }
+          }
+        });
+
+    return (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(),
+        new Class<?>[] {ResultSet.class}, new InvocationHandler() {
+          private int row = -1;
+          private boolean wasNull = false;
+
+          private Object read(final Object[] args) {
+            final Object value = rows.get(row).get(COLUMNS[(Integer) args[0] - 1]);
+            wasNull = value == null;
+            return value;
+          }
+
+          @Override
+          public Object invoke(final Object proxy, final Method method, final Object[] args)
+              throws SQLException {
+            switch (method.getName()) {
+              case "next":
+                row++;
+                return row < rows.size();
+              case "previous":
+                throw new SQLException("Operation requires a scrollable ResultSet");
+              case "getMetaData":
+                return metaData;
+              case "getString":
+                final Object value = read(args);
+                return value == null ? null : value.toString();
+              case "getBytes":
+              case "getArray":
+                return read(args);
+              case "getBoolean":
+                return Boolean.TRUE.equals(read(args));
+              case "wasNull":
+                return wasNull;
+              default:
+                throw new UnsupportedOperationException(method.getName());
+            }
+          }
+        });
+  }
+
+  private static Map<String, Object> createRow(final long address, final String mnemonic) {
+    final Map<String, Object> row = new HashMap<String, Object>();
+    row.put("node_id", 0);
+    row.put("module_id", 1);
+    row.put("instruction_address", address);
+    row.put("mnemonic", mnemonic);
+    row.put("architecture", "x86-32");
+    row.put("instruction_data", new byte[] {(byte) 0x90});
+    row.put("parent_function", 0);
+    row.put("expression_tree_parent_id", 0);
+    row.put("selected", false);
+    row.put("visible", true);
+    return row;
+  }
+
+  private static Map<String, Object> createReferenceRow(final long target, final String type) {
+    final Map<String, Object> row = createRow(0, "jz");
+    row.put("operand_position", 0);
+    row.put("expression_tree_id", 0);
+    row.put("expression_tree_type", 2);
+    row.put("immediate", 123);
+    row.put("target", target);
+    row.put("address_references_type", type);
+    return row;
+  }
+
+  @Test
+  public void testPrevOnForwardOnlyResultSet() throws ParserException {
+    final List<Map<String, Object>> rows = new ArrayList<Map<String, Object>>();
+    rows.add(createRow(0, "nop"));
+    rows.add(createRow(1, "nop"));
+
+    final SqlCodeNodeProvider provider = new SqlCodeNodeProvider(createResultSet(rows));
+
+    assertTrue(provider.next());
+    assertEquals(new CAddress(0), provider.getInstructionAddress());
+    assertTrue(provider.next());
+    assertEquals(new CAddress(1), provider.getInstructionAddress());
+    assertTrue(provider.prev());
+    assertEquals(new CAddress(0), provider.getInstructionAddress());
+    assertTrue(provider.next());
+    assertEquals(new CAddress(1), provider.getInstructionAddress());
+    assertFalse(provider.next());
+    assertTrue(provider.isAfterLast());
+    assertTrue(provider.prev());
+    assertFalse(provider.isAfterLast());
+    assertEquals(new CAddress(1), provider.getInstructionAddress());
+    assertFalse(provider.next());
+    assertTrue(provider.isAfterLast());
+  }
+
+  @Test
+  public void testReferences() throws ParserException, CPartialLoadException,
+      IllegalArgumentException, SecurityException, IllegalAccessException, NoSuchFieldException {
+    // 00000000: jz 123 (with two references)
+    // 00000001: nop
+
+    final List<Map<String, Object>> rows = new ArrayList<Map<String, Object>>();
+    rows.add(createReferenceRow(123, "conditional_true"));
+    rows.add(createReferenceRow(124, "conditional_false"));
+    rows.add(createRow(1, "nop"));
+
+    final MockModule module = new MockModule();
+    CFunctionContainerHelper.addFunction(module.getContent().getFunctionContainer(),
+        new MockFunction(0));
+
+    final CCodeNodeParser parser = new CCodeNodeParser(
+        new SqlCodeNodeProvider(createResultSet(rows)), Lists.newArrayList(module),
+        new MockSqlProvider());
+
+    final List<CCodeNode> result = parser.parse();
+
+    assertEquals(1, result.size());
+    assertEquals(2, Iterables.size(result.get(0).getInstructions()));
+
+    final INaviInstruction instruction = Iterables.getFirst(result.get(0).getInstructions(), null);
+    assertEquals("jz", instruction.getMnemonic());
+
+    final INaviOperandTreeNode immediate =
+        instruction.getOperands().get(0).getRootNode().getChildren().get(0);
+    assertEquals(2, immediate.getReferences().size());
+    assertEquals(new CAddress(BigInteger.valueOf(124)),
+        immediate.getReferences().get(1).getTarget());
+    assertEquals(ReferenceType.CONDITIONAL_FALSE, immediate.getReferences().get(1).getType());
+  }
+}
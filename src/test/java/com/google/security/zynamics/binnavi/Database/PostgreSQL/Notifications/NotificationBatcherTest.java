@@ -0,0 +1,118 @@
+/*
+Copyright 2014 Google Inc. All Rights Reserved.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.google.security.zynamics.binnavi.Database.PostgreSQL.Notifications;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.collect.Iterables;
+import com.google.security.zynamics.binnavi.Database.PostgreSQL.Notifications.parsers.MockPGNotification;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.postgresql.PGNotification;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+@RunWith(JUnit4.class)
+public class NotificationBatcherTest {
+  private static final long WINDOW = 500;
+
+  private final NotificationBatcher m_batcher = new NotificationBatcher(WINDOW);
+
+  private static long millis(final long milliseconds) {
+    return TimeUnit.MILLISECONDS.toNanos(milliseconds);
+  }
+
+  @Test
+  public void testCoalescing() {
+    // Repeated changes of the same function inside the window are processed once.
+    for (int i = 0; i < 100; i++) {
+      m_batcher.add(new MockPGNotification("function_changes", "bn_functions UPDATE 1 4096"),
+          millis(i));
+    }
+
+    final PGNotification last = new MockPGNotification("function_changes",
+        "bn_functions UPDATE 1 4096");
+    m_batcher.add(last, millis(100));
+
+    assertEquals(101, m_batcher.getReceivedNotifications());
+    assertFalse(m_batcher.isDue(true, millis(100)));
+    assertTrue(m_batcher.isDue(false, millis(200)));
+
+    final Collection<PGNotification> batch = m_batcher.take();
+    assertEquals(1, batch.size());
+    assertSame(last, Iterables.getOnlyElement(batch));
+
+    assertEquals(0, m_batcher.getReceivedNotifications());
+    assertFalse(m_batcher.isDue(false, millis(200)));
+  }
+
+  @Test
+  public void testDistinctNotifications() {
+    m_batcher.add(new MockPGNotification("function_changes", "bn_functions UPDATE 1 4096"), 0);
+    m_batcher.add(new MockPGNotification("function_changes", "bn_functions UPDATE 1 8192"), 0);
+    m_batcher.add(new MockPGNotification("view_changes", "bn_functions UPDATE 1 4096"), 0);
+
+    assertEquals(3, m_batcher.take().size());
+  }
+
+  @Test
+  public void testEmpty() {
+    assertFalse(m_batcher.isDue(false, 0));
+    assertFalse(m_batcher.isDue(true, millis(WINDOW)));
+    assertTrue(m_batcher.take().isEmpty());
+  }
+
+  @Test
+  public void testOrder() {
+    final PGNotification first = new MockPGNotification("comment_changes", "a");
+    final PGNotification second = new MockPGNotification("comment_changes", "b");
+
+    m_batcher.add(first, 0);
+    m_batcher.add(second, 0);
+    m_batcher.add(new MockPGNotification("comment_changes", "a"), 0);
+
+    // A repeated notification moves to the position of its latest arrival.
+    final Collection<PGNotification> batch = m_batcher.take();
+    assertSame(second, Iterables.get(batch, 0));
+    assertEquals("a", Iterables.get(batch, 1).getParameter());
+  }
+
+  @Test
+  public void testWindow() {
+    m_batcher.add(new MockPGNotification("comment_changes", "a"), millis(1000));
+
+    // Notifications that keep arriving do not delay a batch beyond the window.
+    for (long time = 1000; time < 1000 + WINDOW; time += 100) {
+      m_batcher.add(new MockPGNotification("comment_changes", "b" + time), millis(time));
+      assertFalse(m_batcher.isDue(true, millis(time)));
+    }
+
+    assertEquals(millis(1000), m_batcher.getBatchStart());
+    assertTrue(m_batcher.isDue(true, millis(1000 + WINDOW)));
+
+    m_batcher.take();
+
+    // The next batch starts with the next notification.
+    m_batcher.add(new MockPGNotification("comment_changes", "c"), millis(2000));
+    assertEquals(millis(2000), m_batcher.getBatchStart());
+  }
+}
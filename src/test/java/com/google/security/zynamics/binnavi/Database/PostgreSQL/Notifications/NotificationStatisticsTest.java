@@ -0,0 +1,52 @@
+/*
+Copyright 2014 Google Inc. All Rights Reserved.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.google.security.zynamics.binnavi.Database.PostgreSQL.Notifications;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class NotificationStatisticsTest {
+  @Test
+  public void testEmpty() {
+    final NotificationStatistics statistics = new NotificationStatistics();
+
+    assertEquals(0, statistics.getAverageLag());
+    assertEquals(0, statistics.getCoalescedNotifications());
+    assertEquals(0, statistics.getLastLag());
+    assertEquals(0, statistics.getMaximumLag());
+    assertEquals(0, statistics.getProcessedBatches());
+    assertEquals(0, statistics.getReceivedNotifications());
+  }
+
+  @Test
+  public void testRecordBatch() {
+    final NotificationStatistics statistics = new NotificationStatistics();
+
+    statistics.recordBatch(10, 1, 600);
+    statistics.recordBatch(3, 3, 200);
+
+    assertEquals(2, statistics.getProcessedBatches());
+    assertEquals(13, statistics.getReceivedNotifications());
+    assertEquals(9, statistics.getCoalescedNotifications());
+    assertEquals(200, statistics.getLastLag());
+    assertEquals(600, statistics.getMaximumLag());
+    assertEquals(400, statistics.getAverageLag());
+  }
+}
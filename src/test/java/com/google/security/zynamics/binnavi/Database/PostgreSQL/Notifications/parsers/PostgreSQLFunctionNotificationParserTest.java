@@ -25,7 +25,6 @@ import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
 import com.google.security.zynamics.binnavi.Database.CTableNames;
 import com.google.security.zynamics.binnavi.Database.Exceptions.CouldntLoadDataException;
-import com.google.security.zynamics.binnavi.Database.Interfaces.SQLProvider;
 import com.google.security.zynamics.binnavi.Database.MockClasses.MockSqlProvider;
 import com.google.security.zynamics.binnavi.Database.PostgreSQL.Notifications.containers.FunctionNotificationContainer;
 import com.google.security.zynamics.binnavi.Database.PostgreSQL.Notifications.parsers.PostgreSQLFunctionNotificationParser;
@@ -51,7 +50,7 @@ import java.util.Collection;
 public class PostgreSQLFunctionNotificationParserTest {
   // TG_TABLE_NAME || ' ' || TG_OP || ' ' || NEW.module_id || ' ' || NEW.address );
 
-  private final SQLProvider provider = new MockSqlProvider();
+  private final MockSqlProvider provider = new MockSqlProvider();
   private final MockModule module = new MockModule(provider);
   private final IAddress address = new CAddress("12345678", 10);
   private final INaviFunction function = new MockFunction(provider, address, module);
@@ -179,4 +178,28 @@ public class PostgreSQLFunctionNotificationParserTest {
     assertNull(function.getForwardedFunctionAddress());
     assertEquals(0, function.getForwardedFunctionModuleId());
   }
+
+  @Test
+  public void testFunctionInformBatched() throws CouldntLoadDataException {
+    final INaviFunction secondFunction =
+        new MockFunction(provider, new CAddress("12345700", 10), module);
+    function.setNameInternal("FIRST NAME CHANGE TEST");
+    secondFunction.setNameInternal("SECOND NAME CHANGE TEST");
+
+    final Collection<FunctionNotificationContainer> containers = Lists.newArrayList(
+        new FunctionNotificationContainer(
+            module.getConfiguration().getId(), module, function.getAddress(), "UPDATE"),
+        new FunctionNotificationContainer(
+            module.getConfiguration().getId(), module, secondFunction.getAddress(), "UPDATE"),
+        new FunctionNotificationContainer(
+            module.getConfiguration().getId(), module, function.getAddress(), "UPDATE"));
+
+    final PostgreSQLFunctionNotificationParser parser = new PostgreSQLFunctionNotificationParser();
+    parser.inform(containers, provider);
+
+    // All updated functions of the module are reloaded with a single query.
+    assertEquals(1, provider.getFunctionsByAddressLoads());
+    assertEquals("Mock Function", function.getName());
+    assertEquals("Mock Function", secondFunction.getName());
+  }
 }
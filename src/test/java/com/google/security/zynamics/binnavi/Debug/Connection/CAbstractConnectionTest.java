@@ -15,16 +15,21 @@ limitations under the License.
 */
 package com.google.security.zynamics.binnavi.Debug.Connection;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 
+import com.google.common.util.concurrent.ListenableFuture;
 import com.google.security.zynamics.binnavi.Debug.Debugger.MockDebugger;
 import com.google.security.zynamics.binnavi.Debug.Debugger.MockEventListener;
 import com.google.security.zynamics.binnavi.debug.connection.AbstractConnection;
 import com.google.security.zynamics.binnavi.debug.connection.DebugCommandType;
 import com.google.security.zynamics.binnavi.debug.connection.interfaces.ClientReader;
+import com.google.security.zynamics.binnavi.debug.connection.packets.arguments.DebugMessageAddressArgument;
 import com.google.security.zynamics.binnavi.debug.connection.packets.arguments.DebugMessageRawArgument;
 import com.google.security.zynamics.binnavi.debug.connection.packets.commands.DebugCommand;
+import com.google.security.zynamics.binnavi.debug.connection.packets.replies.ReadMemoryReply;
 import com.google.security.zynamics.binnavi.debug.debugger.DebugExceptionWrapper;
+import com.google.security.zynamics.zylib.disassembly.CAddress;
 
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -32,6 +37,12 @@ import org.junit.runners.JUnit4;
 
 import java.io.IOException;
 import java.net.ConnectException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 @RunWith(JUnit4.class)
 public final class CAbstractConnectionTest {
@@ -69,6 +80,38 @@ public final class CAbstractConnectionTest {
     assertEquals("RECEIVED_TARGET_INFORMATION;RECEIVED_TARGET_INFORMATION;", listener.events);
   }
 
+  @Test
+  public void pipelinedRequests()
+      throws ConnectException, InterruptedException, ExecutionException, TimeoutException {
+    final PipelinedConnection connection = new PipelinedConnection();
+
+    connection.startConnection();
+
+    final ListenableFuture<List<ReadMemoryReply>> pages =
+        connection.requestMemoryRange(new CAddress(0x1000), 0x2800, 0x1000);
+
+    assertEquals(3, connection.m_packetIds.size());
+
+    // Answer the requests in reverse order to make sure replies are matched by message ID.
+    for (int i = connection.m_packetIds.size() - 1; i >= 0; i--) {
+      final DebugCommand reply = new DebugCommand(DebugCommandType.RESP_READ_MEMORY_SUCCESS,
+          connection.m_packetIds.get(i));
+      reply.addArgument(new DebugMessageAddressArgument(new CAddress(0x1000 + (i * 0x1000))));
+      reply.addArgument(new DebugMessageRawArgument(new byte[] {(byte) i}));
+
+      connection.m_reader.add(reply.toByteArray());
+    }
+
+    final List<ReadMemoryReply> replies = pages.get(10, TimeUnit.SECONDS);
+
+    connection.shutdown();
+
+    for (int i = 0; i < replies.size(); i++) {
+      assertEquals(0x1000 + (i * 0x1000), replies.get(i).getAddress().toLong());
+      assertArrayEquals(new byte[] {(byte) i}, replies.get(i).getData());
+    }
+  }
+
   private static class FooReader implements ClientReader {
     @Override
     public int available() {
@@ -86,6 +129,59 @@ public final class CAbstractConnectionTest {
     }
   }
 
+  private static class PipelinedConnection extends AbstractConnection {
+    private final QueueReader m_reader = new QueueReader();
+
+    private final List<Integer> m_packetIds = new ArrayList<>();
+
+    @Override
+    protected int sendPacket(final DebugCommand message) {
+      m_packetIds.add(message.getPacketId());
+
+      return message.getPacketId();
+    }
+
+    @Override
+    public void startConnection() {
+      m_reader.add("NAVI".getBytes());
+
+      super.startConnection(m_reader);
+    }
+  }
+
+  private static class QueueReader implements ClientReader {
+    private final LinkedBlockingQueue<Byte> m_data = new LinkedBlockingQueue<>();
+
+    public void add(final byte[] data) {
+      for (final byte value : data) {
+        m_data.add(value);
+      }
+    }
+
+    @Override
+    public int available() {
+      return m_data.size();
+    }
+
+    @Override
+    public int read() throws IOException {
+      try {
+        return m_data.take() & 0xFF;
+      } catch (final InterruptedException exception) {
+        throw new IOException(exception);
+      }
+    }
+
+    @Override
+    public int read(final byte[] data, final int offset, final int length) throws IOException {
+      for (int i = 0; i < length; i++) {
+        data[offset + i] = (byte) read();
+      }
+
+      return length;
+    }
+  }
+
   @SuppressWarnings("unused")
   private static class MockConnection extends AbstractConnection {
     private final ClientReader m_reader = new FooReader();
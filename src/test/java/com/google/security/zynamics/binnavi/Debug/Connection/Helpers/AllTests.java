@@ -20,6 +20,6 @@ import org.junit.runners.Suite;
 import org.junit.runners.Suite.SuiteClasses;
 
 @RunWith(Suite.class)
-@SuiteClasses({CDebugProtocolHelperTest.class})
+@SuiteClasses({BufferedClientReaderTest.class, CDebugProtocolHelperTest.class})
 public final class AllTests {
 }
@@ -0,0 +1,79 @@
+/*
+Copyright 2014 Google Inc. All Rights Reserved.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.google.security.zynamics.binnavi.Debug.Connection.Helpers;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import com.google.security.zynamics.binnavi.Debug.Connection.CMockReader;
+import com.google.security.zynamics.binnavi.debug.connection.helpers.BufferedClientReader;
+import com.google.security.zynamics.binnavi.debug.connection.helpers.DebugProtocolHelper;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+@RunWith(JUnit4.class)
+public final class BufferedClientReaderTest {
+  @Test
+  public void testLargeData() throws IOException {
+    final byte[] message = new byte[8 + 100000 + 4];
+
+    message[1] = 0x01;
+    message[2] = (byte) 0x86;
+    message[3] = (byte) 0xA0; // 100000 bytes
+    message[7] = 0x02; // DATA
+
+    for (int i = 0; i < 100000; i++) {
+      message[8 + i] = (byte) i;
+    }
+
+    message[message.length - 1] = 0x2A;
+
+    final CMockReader mock = new CMockReader(new byte[][] {message});
+    mock.next();
+
+    final BufferedClientReader reader = new BufferedClientReader(mock);
+
+    final byte[] data = reader.readData();
+
+    assertEquals(100000, data.length);
+    assertArrayEquals(Arrays.copyOfRange(message, 8, 100008), data);
+    assertEquals(0x2A, reader.readDWord());
+    assertEquals(0, reader.available());
+  }
+
+  @Test
+  public void testReadFields() throws IOException {
+    final CMockReader mock = new CMockReader(new byte[][] {{
+        (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, // DWORD
+        0, 0, 0, 8, 0, 0, 0, 0, 0, 0, 0, 1, (byte) 0x80, 0, 0, 0x10, // Address
+        0, 0, 0, 4, 0, 0, 0, 1, 0, 0, 0x12, 0x34, // Thread ID
+        0, 0, 0, 2, 0, 0, 0, 2, 0x55, 0x66 // Data
+    }});
+    mock.next();
+
+    final BufferedClientReader reader = new BufferedClientReader(mock);
+
+    assertEquals(0xFFFFFFFFL, DebugProtocolHelper.readDWord(reader));
+    assertEquals(0x180000010L, DebugProtocolHelper.readAddress(reader));
+    assertEquals(0x1234, DebugProtocolHelper.readThreadId(reader));
+    assertArrayEquals(new byte[] {0x55, 0x66}, DebugProtocolHelper.readData(reader));
+  }
+}
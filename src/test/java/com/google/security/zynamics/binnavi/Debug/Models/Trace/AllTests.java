@@ -20,6 +20,6 @@ import org.junit.runners.Suite;
 import org.junit.runners.Suite.SuiteClasses;
 
 @RunWith(Suite.class)
-@SuiteClasses({CTraceLoggerTest.class})
+@SuiteClasses({CTraceLoggerTest.class, TraceListTest.class})
 public final class AllTests {
 }
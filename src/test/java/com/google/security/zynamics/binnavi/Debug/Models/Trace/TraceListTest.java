@@ -0,0 +1,234 @@
+/*
+Copyright 2014 Google Inc. All Rights Reserved.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.google.security.zynamics.binnavi.Debug.Models.Trace;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.google.security.zynamics.binnavi.Common.CommonTestObjects;
+import com.google.security.zynamics.binnavi.Database.Exceptions.CouldntLoadDataException;
+import com.google.security.zynamics.binnavi.Database.MockClasses.MockSqlProvider;
+import com.google.security.zynamics.binnavi.debug.models.breakpoints.BreakpointAddress;
+import com.google.security.zynamics.binnavi.debug.models.trace.TraceEvent;
+import com.google.security.zynamics.binnavi.debug.models.trace.TraceEventLoadException;
+import com.google.security.zynamics.binnavi.debug.models.trace.TraceEventType;
+import com.google.security.zynamics.binnavi.debug.models.trace.TraceList;
+import com.google.security.zynamics.binnavi.debug.models.trace.TraceRegister;
+import com.google.security.zynamics.binnavi.debug.models.trace.interfaces.ITraceEvent;
+import com.google.security.zynamics.binnavi.debug.models.trace.interfaces.ITraceEventLoader;
+import com.google.security.zynamics.binnavi.disassembly.UnrelocatedAddress;
+import com.google.security.zynamics.binnavi.disassembly.Modules.MockModule;
+import com.google.security.zynamics.zylib.disassembly.CAddress;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@RunWith(JUnit4.class)
+public final class TraceListTest {
+  private static final int EVENT_COUNT = 300;
+
+  private static final MockModule SECOND_MODULE = new MockModule();
+
+  private static List<TraceRegister> createRegisters(final int event) {
+    final List<TraceRegister> registers = new ArrayList<>();
+
+    // EAX changes with every event, EBX every ten events and ESP never.
+    registers.add(new TraceRegister("eax", new CAddress(event), new byte[] {(byte) event}));
+    registers.add(new TraceRegister("ebx", new CAddress(event / 10), new byte[] {1, 2}));
+    registers.add(new TraceRegister("esp", new CAddress(0xFFFFFFFFL), new byte[0]));
+
+    if (event >= 200) {
+      // Changing the register layout forces a full snapshot.
+      registers.add(new TraceRegister("ecx", new CAddress(event * 2), new byte[] {3}));
+    }
+
+    return registers;
+  }
+
+  private static TraceEvent createEvent(final int i) {
+    return new TraceEvent(i % 3, new BreakpointAddress(
+        i % 2 == 0 ? CommonTestObjects.MODULE : SECOND_MODULE, new UnrelocatedAddress(new CAddress(
+            0x1000 + i))), i % 5 == 0 ? TraceEventType.REGULAR_BREAKPOINT
+        : TraceEventType.ECHO_BREAKPOINT, createRegisters(i));
+  }
+
+  private static TraceList createTrace() {
+    final TraceList trace = new TraceList(1, "Foo", "Bar", new MockSqlProvider());
+
+    for (int i = 0; i < EVENT_COUNT; i++) {
+      trace.addEvent(createEvent(i));
+    }
+
+    return trace;
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testAddStoredEvent() {
+    final TraceList trace = createTrace();
+
+    trace.addEvent(trace.getEvent(0));
+  }
+
+  @Test
+  public void testEvents() {
+    final TraceList trace = createTrace();
+
+    assertEquals(EVENT_COUNT, trace.getEventCount());
+
+    int index = 0;
+
+    for (final ITraceEvent event : trace) {
+      assertEquals(index % 3, event.getThreadId());
+      assertEquals(0x1000 + index, event.getOffset().getAddress().getAddress().toLong());
+      assertEquals(index % 5 == 0 ? TraceEventType.REGULAR_BREAKPOINT
+          : TraceEventType.ECHO_BREAKPOINT, event.getType());
+
+      assertEquals(index % 2 == 0 ? CommonTestObjects.MODULE : SECOND_MODULE,
+          event.getOffset().getModule());
+
+      final List<TraceRegister> expected = createRegisters(index);
+      final List<TraceRegister> registers = event.getRegisterValues();
+
+      assertEquals(expected.size(), registers.size());
+
+      for (int i = 0; i < expected.size(); i++) {
+        assertEquals(expected.get(i).getName(), registers.get(i).getName());
+        assertEquals(expected.get(i).getValue().toLong(), registers.get(i).getValue().toLong());
+        assertArrayEquals(expected.get(i).getMemory(), registers.get(i).getMemory());
+      }
+
+      index++;
+    }
+
+    assertEquals(EVENT_COUNT, index);
+  }
+
+  @Test
+  public void testRanges() {
+    final TraceList trace = createTrace();
+
+    final List<ITraceEvent> events = trace.getEvents();
+    final List<ITraceEvent> range = trace.getEvents(100, 110);
+
+    trace.addEvent(new TraceEvent(0, new BreakpointAddress(CommonTestObjects.MODULE,
+        new UnrelocatedAddress(new CAddress(0))), TraceEventType.ECHO_BREAKPOINT,
+        new ArrayList<TraceRegister>()));
+
+    // Views are not affected by later events.
+    assertEquals(EVENT_COUNT, events.size());
+    assertEquals(EVENT_COUNT + 1, trace.getEventCount());
+
+    assertEquals(10, range.size());
+    assertEquals(0x1000 + 105, range.get(5).getOffset().getAddress().getAddress().toLong());
+    assertEquals(range.get(5), events.get(105));
+    assertEquals(0x1000 + 103,
+        range.subList(2, 4).get(1).getOffset().getAddress().getAddress().toLong());
+  }
+
+  @Test
+  public void testPagedEvents() {
+    final List<Integer> loadedPositions = new ArrayList<>();
+
+    final ITraceEventLoader loader = new ITraceEventLoader() {
+      @Override
+      public List<ITraceEvent> loadEvents(final TraceList traceList, final int fromPosition,
+          final int toPosition) throws CouldntLoadDataException {
+        loadedPositions.add(fromPosition);
+
+        final List<ITraceEvent> events = new ArrayList<>();
+
+        for (int i = fromPosition; i < toPosition; i++) {
+          events.add(createEvent(i));
+        }
+
+        return events;
+      }
+    };
+
+    final int storedCount = 20 * 4096 + 10;
+
+    final TraceList trace = new TraceList(1, "Foo", "Bar", new MockSqlProvider(), loader,
+        storedCount);
+
+    trace.addEvent(createEvent(0));
+
+    assertEquals(storedCount + 1, trace.getEventCount());
+    assertTrue(loadedPositions.isEmpty());
+
+    assertEquals(0x1000 + 5000, trace.getEvent(5000).getOffset().getAddress().getAddress()
+        .toLong());
+    assertEquals(createRegisters(5001).size(), trace.getEvent(5001).getRegisterValues().size());
+    assertEquals(1, loadedPositions.size());
+    assertEquals(4096, loadedPositions.get(0).intValue());
+
+    // The last page is shorter than the others and events added later follow the stored events.
+    final List<ITraceEvent> tail = trace.getEvents(storedCount - 2, storedCount + 1);
+
+    assertEquals(3, tail.size());
+    assertEquals(0x1000 + storedCount - 1, tail.get(1).getOffset().getAddress().getAddress()
+        .toLong());
+    assertEquals(0x1000, tail.get(2).getOffset().getAddress().getAddress().toLong());
+
+    // Touching more pages than fit into memory evicts the least recently used page.
+    for (int page = 0; page < 17; page++) {
+      trace.getEvent(page * 4096);
+    }
+
+    final int loads = loadedPositions.size();
+
+    trace.getEvent(16 * 4096 + 1);
+    assertEquals(loads, loadedPositions.size());
+
+    trace.getEvent(1);
+    assertEquals(loads + 1, loadedPositions.size());
+  }
+
+  @Test
+  public void testPageLoadFailure() {
+    final CouldntLoadDataException failure = new CouldntLoadDataException("Failure");
+
+    final ITraceEventLoader loader = new ITraceEventLoader() {
+      @Override
+      public List<ITraceEvent> loadEvents(final TraceList traceList, final int fromPosition,
+          final int toPosition) throws CouldntLoadDataException {
+        throw failure;
+      }
+    };
+
+    final TraceList trace = new TraceList(1, "Foo", "Bar", new MockSqlProvider(), loader, 10);
+
+    try {
+      trace.loadEvents(0, 10);
+      fail();
+    } catch (final CouldntLoadDataException exception) {
+      assertSame(failure, exception);
+    }
+
+    try {
+      trace.iterator().next();
+      fail();
+    } catch (final TraceEventLoadException exception) {
+      assertSame(failure, exception.getCause());
+    }
+  }
+}
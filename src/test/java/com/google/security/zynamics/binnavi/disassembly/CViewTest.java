@@ -22,6 +22,7 @@ import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
 import com.google.security.zynamics.binnavi.Common.CommonTestObjects;
 import com.google.security.zynamics.binnavi.Database.CModuleViewGenerator;
 import com.google.security.zynamics.binnavi.Database.CProjectViewGenerator;
@@ -39,6 +40,7 @@ import com.google.security.zynamics.binnavi.config.FileReadException;
 import com.google.security.zynamics.binnavi.disassembly.Modules.CModule;
 import com.google.security.zynamics.binnavi.disassembly.Modules.MockModule;
 import com.google.security.zynamics.binnavi.disassembly.views.CView;
+import com.google.security.zynamics.binnavi.disassembly.views.CViewContent;
 import com.google.security.zynamics.zylib.disassembly.GraphType;
 import com.google.security.zynamics.zylib.disassembly.ViewType;
 import com.google.security.zynamics.zylib.gui.zygraph.edges.EdgeType;
@@ -49,6 +51,7 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.junit.runners.JUnit4;
 
+import java.awt.Color;
 import java.math.BigInteger;
 import java.security.SecureRandom;
 import java.util.ArrayList;
@@ -969,6 +972,46 @@ public final class CViewTest {
     }
   }
 
+  @Test
+  public void testSaveChanges() throws CouldntSaveDataException, CouldntLoadDataException,
+      CPartialLoadException, LoadCancelledException {
+    m_view.load();
+
+    final CViewContent content = (CViewContent) m_view.getContent();
+
+    assertFalse(content.hasStructuralChanges());
+
+    final CCodeNode codeNode =
+        content.createCodeNode(m_function, Lists.newArrayList(m_instruction));
+    final CNaviViewEdge edge = content.createEdge(codeNode, codeNode, EdgeType.JUMP_UNCONDITIONAL);
+
+    assertTrue(content.hasStructuralChanges());
+
+    m_view.save();
+
+    assertFalse(content.hasStructuralChanges());
+    assertTrue(content.getChangedNodes().isEmpty());
+    assertTrue(content.getChangedEdges().isEmpty());
+
+    codeNode.setX(100);
+    codeNode.setColor(Color.RED);
+    edge.addBend(10, 20);
+
+    assertFalse(content.hasStructuralChanges());
+    assertEquals(Sets.<INaviViewNode>newHashSet(codeNode), content.getChangedNodes());
+    assertEquals(Sets.<INaviEdge>newHashSet(edge), content.getChangedEdges());
+
+    content.deleteEdge(edge);
+
+    assertTrue(content.hasStructuralChanges());
+    assertTrue(content.getChangedEdges().isEmpty());
+
+    m_view.save();
+
+    assertFalse(content.hasStructuralChanges());
+    assertTrue(content.getChangedNodes().isEmpty());
+  }
+
   @Test(expected = NullPointerException.class)
   public void testSetDescription1() throws CouldntSaveDataException {
     m_view.getConfiguration().setDescription(null);
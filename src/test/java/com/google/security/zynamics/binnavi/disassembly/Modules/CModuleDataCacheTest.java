@@ -0,0 +1,222 @@
+/*
+Copyright 2014 Google Inc. All Rights Reserved.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.google.security.zynamics.binnavi.disassembly.Modules;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.google.security.zynamics.binnavi.Database.Exceptions.CouldntLoadDataException;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+@RunWith(JUnit4.class)
+public class CModuleDataCacheTest {
+  private static final int LENGTH = 20 * CModuleDataCache.CHUNK_SIZE + 123;
+
+  private byte[] m_data;
+  private List<long[]> m_requests;
+  private CModuleDataCache m_cache;
+
+  @Before
+  public void setUp() throws IOException {
+    m_data = new byte[LENGTH];
+
+    for (int i = 0; i < LENGTH; i++) {
+      m_data[i] = (byte) (i * 7);
+    }
+
+    m_requests = new ArrayList<long[]>();
+    m_cache = new CModuleDataCache(new IModuleDataLoader() {
+      @Override
+      public byte[] loadData(final long offset, final int length) {
+        m_requests.add(new long[] {offset, length});
+        return Arrays.copyOfRange(m_data, (int) offset, (int) offset + length);
+      }
+    }, LENGTH);
+  }
+
+  @After
+  public void tearDown() {
+    m_cache.close();
+  }
+
+  @Test
+  public void testClose() throws CouldntLoadDataException {
+    m_cache.getData(0, 100);
+    m_cache.close();
+
+    assertFalse(m_cache.hasData(0, 100));
+
+    try {
+      m_cache.getData(0, 100);
+      fail();
+    } catch (final CouldntLoadDataException exception) {
+      // Expected
+    }
+
+    // Closing twice is harmless.
+    m_cache.close();
+  }
+
+  @Test
+  public void testEmpty() throws IOException, CouldntLoadDataException {
+    final CModuleDataCache cache = new CModuleDataCache(new IModuleDataLoader() {
+      @Override
+      public byte[] loadData(final long offset, final int length) {
+        throw new IllegalStateException();
+      }
+    }, 0);
+
+    assertEquals(0, cache.getLength());
+    assertEquals(0, cache.getData(0, 0).length);
+
+    cache.close();
+  }
+
+  @Test
+  public void testGetData() throws CouldntLoadDataException {
+    assertEquals(LENGTH, m_cache.getLength());
+    assertArrayEquals(Arrays.copyOfRange(m_data, 100, 200), m_cache.getData(100, 100));
+
+    assertEquals(1, m_requests.size());
+    assertEquals(0, m_requests.get(0)[0]);
+    assertEquals(CModuleDataCache.CHUNK_SIZE, m_requests.get(0)[1]);
+
+    // Reading from the same chunk again is served from the cache.
+    assertArrayEquals(Arrays.copyOfRange(m_data, 300, 400), m_cache.getData(300, 100));
+    assertEquals(1, m_requests.size());
+
+    // The last chunk is shorter than the others.
+    assertArrayEquals(Arrays.copyOfRange(m_data, LENGTH - 10, LENGTH),
+        m_cache.getData(LENGTH - 10, 10));
+    assertEquals(2, m_requests.size());
+    assertEquals(123, m_requests.get(1)[1]);
+  }
+
+  @Test
+  public void testGetDataAll() throws CouldntLoadDataException {
+    m_cache.getData(5 * CModuleDataCache.CHUNK_SIZE, 1);
+
+    assertArrayEquals(m_data, m_cache.getData(0, LENGTH));
+
+    // Chunk 5 was already loaded, so chunks 0-4 and chunks 6-20 are fetched in one query each.
+    assertEquals(3, m_requests.size());
+    assertEquals(0, m_requests.get(1)[0]);
+    assertEquals(5 * CModuleDataCache.CHUNK_SIZE, m_requests.get(1)[1]);
+    assertEquals(6 * CModuleDataCache.CHUNK_SIZE, m_requests.get(2)[0]);
+
+    assertArrayEquals(m_data, m_cache.getData(0, LENGTH));
+    assertEquals(3, m_requests.size());
+  }
+
+  @Test
+  public void testGetDataInvalidRange() throws CouldntLoadDataException {
+    try {
+      m_cache.getData(LENGTH - 10, 11);
+      fail();
+    } catch (final IllegalArgumentException exception) {
+      // Expected
+    }
+
+    try {
+      m_cache.getData(-1, 1);
+      fail();
+    } catch (final IllegalArgumentException exception) {
+      // Expected
+    }
+  }
+
+  @Test
+  public void testHasData() throws CouldntLoadDataException {
+    assertTrue(m_cache.hasData(0, 0));
+    assertFalse(m_cache.hasData(0, 1));
+
+    m_cache.getData(CModuleDataCache.CHUNK_SIZE, 1);
+
+    assertTrue(m_cache.hasData(CModuleDataCache.CHUNK_SIZE, CModuleDataCache.CHUNK_SIZE));
+    assertFalse(m_cache.hasData(CModuleDataCache.CHUNK_SIZE - 1, 2));
+    assertFalse(m_cache.hasData(CModuleDataCache.CHUNK_SIZE, CModuleDataCache.CHUNK_SIZE + 1));
+
+    // Checking a range never accesses the database.
+    assertEquals(1, m_requests.size());
+  }
+
+  @Test
+  public void testLoaderCalledWithoutMonitor() throws IOException, CouldntLoadDataException {
+    final CModuleDataCache[] cache = new CModuleDataCache[1];
+
+    cache[0] = new CModuleDataCache(new IModuleDataLoader() {
+      @Override
+      public byte[] loadData(final long offset, final int length) {
+        // Readers of cached data must not wait for the database.
+        assertFalse(Thread.holdsLock(cache[0]));
+
+        return new byte[length];
+      }
+    }, 100);
+
+    assertArrayEquals(new byte[10], cache[0].getData(0, 10));
+
+    cache[0].close();
+  }
+
+  @Test
+  public void testLoaderFailure() throws IOException, CouldntLoadDataException {
+    final CModuleDataCache cache = new CModuleDataCache(new IModuleDataLoader() {
+      private boolean m_failed = false;
+
+      @Override
+      public byte[] loadData(final long offset, final int length)
+          throws CouldntLoadDataException {
+        if (!m_failed) {
+          m_failed = true;
+          throw new CouldntLoadDataException("Error");
+        }
+
+        return new byte[length - 1];
+      }
+    }, 100);
+
+    try {
+      cache.getData(0, 10);
+      fail();
+    } catch (final CouldntLoadDataException exception) {
+      // Expected
+    }
+
+    // Loaders that return too few bytes are rejected.
+    try {
+      cache.getData(0, 10);
+      fail();
+    } catch (final CouldntLoadDataException exception) {
+      // Expected
+    }
+
+    cache.close();
+  }
+}
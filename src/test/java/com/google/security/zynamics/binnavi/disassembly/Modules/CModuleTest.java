@@ -15,6 +15,7 @@ limitations under the License.
 */
 package com.google.security.zynamics.binnavi.disassembly.Modules;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
@@ -293,13 +294,19 @@ public final class CModuleTest {
   @Test
   public void testClose() throws CouldntLoadDataException, LoadCancelledException {
     m_module.load();
+    m_module.loadData();
 
     m_listener.canClose = false;
     assertFalse(m_module.close());
+    assertEquals(1, m_module.getDataLength());
 
     m_listener.canClose = true;
     assertTrue(m_module.close());
 
+    // Closing the module frees the module data.
+    assertEquals(0, m_module.getDataLength());
+    assertTrue(m_module.hasData(0, 0));
+
     try {
       m_module.close();
       fail();
@@ -358,6 +365,17 @@ public final class CModuleTest {
     m_module.load();
 
     assertNotNull(m_module.getData());
+
+    m_module.loadData();
+
+    assertEquals(1, m_module.getDataLength());
+    assertArrayEquals(new byte[] {(byte) 0x90}, m_module.getData());
+    assertArrayEquals(new byte[] {(byte) 0x90}, m_module.getData(0, 1));
+
+    m_module.setData(new byte[] {1, 2, 3});
+
+    assertEquals(3, m_module.getDataLength());
+    assertArrayEquals(new byte[] {2, 3}, m_module.getData(1, 2));
   }
 
   @Test
@@ -19,6 +19,7 @@ import com.google.common.collect.Lists;
 import com.google.security.zynamics.binnavi.Database.Exceptions.CouldntLoadDataException;
 import com.google.security.zynamics.binnavi.Database.Interfaces.SQLProvider;
 import com.google.security.zynamics.binnavi.Database.MockClasses.MockSqlProvider;
+import com.google.security.zynamics.binnavi.disassembly.CIncomingReference;
 import com.google.security.zynamics.binnavi.disassembly.COperandTree;
 import com.google.security.zynamics.binnavi.disassembly.COperandTreeNode;
 import com.google.security.zynamics.binnavi.disassembly.UnrelocatedAddress;
@@ -128,11 +129,32 @@ public final class MockModule implements INaviModule {
     return new byte[0];
   }
 
+  @Override
+  public byte[] getData(final long offset, final int length) {
+    return new byte[length];
+  }
+
+  @Override
+  public int getDataLength() {
+    return 0;
+  }
+
+  @Override
+  public boolean hasData(final long offset, final int length) {
+    return true;
+  }
+
   @Override
   public int getFunctionCount() {
     return m_content.getFunctionContainer().getFunctionCount();
   }
 
+  @Override
+  public List<CIncomingReference> getIncomingReferences(final IAddress target,
+      final CIncomingReference after, final int count) throws CouldntLoadDataException {
+    return m_provider.loadIncomingReferences(this, target, after, count);
+  }
+
   @Override
   public TypeManager getTypeManager() {
     try {
@@ -49,7 +49,7 @@ public final class MockModuleListener implements IModuleListener {
   }
 
   @Override
-  public void changedData(final CModule module, final byte[] data) {
+  public void changedData(final CModule module) {
   }
 
   @Override
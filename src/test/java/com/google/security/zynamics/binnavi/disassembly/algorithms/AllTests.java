@@ -20,6 +20,6 @@ import org.junit.runners.Suite;
 import org.junit.runners.Suite.SuiteClasses;
 
 @RunWith(Suite.class)
-@SuiteClasses({CUnInlinerTest.class, CViewInserterTest.class})
+@SuiteClasses({CReferenceFinderTest.class, CUnInlinerTest.class, CViewInserterTest.class})
 public final class AllTests {
 }
@@ -0,0 +1,79 @@
+/*
+Copyright 2014 Google Inc. All Rights Reserved.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.google.security.zynamics.binnavi.disassembly.algorithms;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.google.security.zynamics.binnavi.Database.Exceptions.CouldntLoadDataException;
+import com.google.security.zynamics.binnavi.Database.MockClasses.MockSqlProvider;
+import com.google.security.zynamics.binnavi.disassembly.CIncomingReference;
+import com.google.security.zynamics.binnavi.disassembly.Modules.MockModule;
+import com.google.security.zynamics.zylib.disassembly.CAddress;
+import com.google.security.zynamics.zylib.disassembly.IAddress;
+import com.google.security.zynamics.zylib.disassembly.ReferenceType;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@RunWith(JUnit4.class)
+public class CReferenceFinderTest {
+  private MockSqlProvider m_provider;
+  private MockModule m_module;
+
+  @Before
+  public void setUp() {
+    m_provider = new MockSqlProvider();
+    m_module = new MockModule(m_provider);
+  }
+
+  @Test
+  public void testGetIncomingReferences() throws CouldntLoadDataException {
+    final IAddress target = new CAddress(0x1000);
+    final IAddress otherTarget = new CAddress(0x2000);
+
+    final List<CIncomingReference> expected = new ArrayList<CIncomingReference>();
+
+    for (int i = 0; i < 2500; i++) {
+      final CIncomingReference reference = new CIncomingReference(
+          new CAddress(0x4000 + i), 0, i, ReferenceType.CALL_DIRECT, target);
+      expected.add(reference);
+      m_provider.addIncomingReference(m_module, reference);
+      m_provider.addIncomingReference(m_module, new CIncomingReference(
+          new CAddress(0x4000 + i), 1, i, ReferenceType.DATA, otherTarget));
+    }
+
+    assertEquals(expected, CReferenceFinder.getIncomingReferences(m_module, target));
+    assertTrue(CReferenceFinder.getIncomingReferences(m_module, new CAddress(0x3000)).isEmpty());
+  }
+
+  @Test
+  public void testGetIncomingReferencesFullPage() throws CouldntLoadDataException {
+    final IAddress target = new CAddress(0x1000);
+
+    for (int i = 0; i < 1000; i++) {
+      m_provider.addIncomingReference(m_module, new CIncomingReference(
+          new CAddress(0x4000 + i), 0, i, ReferenceType.UNCONDITIONAL, target));
+    }
+
+    assertEquals(1000, CReferenceFinder.getIncomingReferences(m_module, target).size());
+  }
+}
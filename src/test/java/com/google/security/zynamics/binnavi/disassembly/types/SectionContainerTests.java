@@ -15,6 +15,7 @@ limitations under the License.
 */
 package com.google.security.zynamics.binnavi.disassembly.types;
 
+import com.google.common.collect.Lists;
 import com.google.security.zynamics.binnavi.Database.Exceptions.CouldntLoadDataException;
 import com.google.security.zynamics.binnavi.Database.Exceptions.CouldntSaveDataException;
 import com.google.security.zynamics.binnavi.Database.Interfaces.SQLProvider;
@@ -269,6 +270,42 @@ public class SectionContainerTests {
     Assert.assertTrue(thirdSectionSearch.contains(section5));
   }
 
+  @Test
+  public void findSectionsTest3()
+      throws CouldntLoadDataException, CouldntSaveDataException {
+    final SectionContainer sectionContainer = new SectionContainer(backend);
+    Assert.assertNotNull(sectionContainer);
+
+    final Section section1 = sectionContainer.createSection(
+        "SECTION1", new CAddress("300", 16), new CAddress("3FF", 16), SectionPermission.READ,
+        new byte[] {(byte) 0x90, (byte) 0x00, (byte) 0xFF});
+
+    final Section section2 = sectionContainer.createSection(
+        "SECTION2", new CAddress("100", 16), new CAddress("1FF", 16), SectionPermission.READ,
+        new byte[] {(byte) 0x90, (byte) 0x00, (byte) 0xFF});
+
+    final Section section3 = sectionContainer.createSection(
+        "SECTION3", new CAddress("FFFFFFFF80000000", 16), new CAddress("FFFFFFFFFFFFFFFF", 16),
+        SectionPermission.READ, new byte[] {(byte) 0x90, (byte) 0x00, (byte) 0xFF});
+
+    Assert.assertEquals(Lists.newArrayList(section2),
+        sectionContainer.findSections(new CAddress("1FF", 16)));
+    Assert.assertEquals(Lists.newArrayList(section1),
+        sectionContainer.findSections(new CAddress("300", 16)));
+    Assert.assertEquals(0, sectionContainer.findSections(new CAddress("200", 16)).size());
+    Assert.assertEquals(Lists.newArrayList(section3),
+        sectionContainer.findSections(new CAddress("FFFFFFFF90000000", 16)));
+    Assert.assertEquals(Lists.newArrayList(section3),
+        sectionContainer.findSections(new CAddress("FFFFFFFFFFFFFFFF", 16)));
+
+    sectionContainer.deleteSection(section2);
+    Assert.assertEquals(0, sectionContainer.findSections(new CAddress("100", 16)).size());
+
+    final Section renamedSection = sectionContainer.renameSection(section1, "RENAMED");
+    Assert.assertEquals(Lists.newArrayList(renamedSection),
+        sectionContainer.findSections(new CAddress("3FF", 16)));
+  }
+
   @Test
   public void getSectionTest1() throws CouldntLoadDataException, CouldntSaveDataException {
     final SectionContainer sectionContainer = new SectionContainer(backend);
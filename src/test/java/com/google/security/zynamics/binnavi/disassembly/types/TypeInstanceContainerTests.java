@@ -248,6 +248,63 @@ public class TypeInstanceContainerTests {
     Assert.assertEquals(expectedEvents, listener);
   }
 
+  @Test(expected = NullPointerException.class)
+  public void getTypeInstancesTest3() {
+    typeInstanceContainer.getTypeInstances(new CAddress("100", 16), null);
+  }
+
+  @Test
+  public void getTypeInstancesTest4()
+      throws CouldntLoadDataException, CouldntSaveDataException, CouldntDeleteException {
+    final BaseType wideType = typeManager.createAtomicType("wide", 0x18 * 8, false);
+    final BaseType dwordType = typeManager.createAtomicType("dword", 32, false);
+    final TypeInstance typeInstance3 =
+        typeInstanceContainer.createInstance("TYPEINSTANCE3", null, dwordType, section, 0x20);
+    final TypeInstance typeInstance1 =
+        typeInstanceContainer.createInstance("TYPEINSTANCE1", null, wideType, section, 0);
+    final TypeInstance typeInstance2 =
+        typeInstanceContainer.createInstance("TYPEINSTANCE2", null, dwordType, section, 0x10);
+
+    Assert.assertEquals(Lists.newArrayList(typeInstance1),
+        typeInstanceContainer.getTypeInstances(new CAddress("100", 16), new CAddress("110", 16)));
+    // Instances that start before the range but reach into it are part of the result.
+    Assert.assertEquals(Lists.newArrayList(typeInstance1, typeInstance2),
+        typeInstanceContainer.getTypeInstances(new CAddress("112", 16), new CAddress("113", 16)));
+    Assert.assertEquals(Lists.newArrayList(typeInstance1, typeInstance3),
+        typeInstanceContainer.getTypeInstances(new CAddress("114", 16), new CAddress("121", 16)));
+    Assert.assertEquals(0, typeInstanceContainer
+        .getTypeInstances(new CAddress("110", 16), new CAddress("110", 16)).size());
+    Assert.assertEquals(0, typeInstanceContainer
+        .getTypeInstances(new CAddress("124", 16), new CAddress("200", 16)).size());
+
+    typeInstanceContainer.deleteInstance(typeInstance2);
+    Assert.assertEquals(Lists.newArrayList(typeInstance1, typeInstance3),
+        typeInstanceContainer.getTypeInstances(new CAddress("100", 16), new CAddress("200", 16)));
+
+    // Changing the size of a type changes the ranges of its instances.
+    typeManager.updateType(wideType, "wide", 8, false);
+    Assert.assertEquals(Lists.newArrayList(typeInstance3),
+        typeInstanceContainer.getTypeInstances(new CAddress("114", 16), new CAddress("121", 16)));
+  }
+
+  @Test
+  public void getTypeInstancesTest5() throws CouldntLoadDataException, CouldntSaveDataException {
+    final BaseType quadWord = typeManager.createAtomicType("QWORD", 64, false);
+    final Section topSection = sectionContainer.createSection("TOP",
+        new CAddress("FFFFFFFFFFFFFF00", 16), new CAddress("FFFFFFFFFFFFFFFF", 16),
+        SectionPermission.READ, new byte[0x100]);
+
+    // The instance covers the last four bytes of the address space and would reach beyond it.
+    final TypeInstance typeInstance =
+        typeInstanceContainer.createInstance("TYPEINSTANCE", null, quadWord, topSection, 0xFC);
+
+    Assert.assertEquals(Lists.newArrayList(typeInstance),
+        typeInstanceContainer.getTypeInstances(new CAddress("FFFFFFFFFFFFFFFE", 16),
+            new CAddress("FFFFFFFFFFFFFFFF", 16)));
+    Assert.assertEquals(0, typeInstanceContainer.getTypeInstances(
+        new CAddress("FFFFFFFFFFFFFF00", 16), new CAddress("FFFFFFFFFFFFFFFC", 16)).size());
+  }
+
   @Test(expected = NullPointerException.class)
   public void removeListenerTest1() {
     typeInstanceContainer.removeListener(null);
@@ -42,6 +42,10 @@ public class TypeManagerMockBackend implements TypeManagerBackend {
 
   private List<RawBaseType> rawTypes = new ArrayList<RawBaseType>();
   private List<RawTypeMember> rawMembers = new ArrayList<RawTypeMember>();
+  // Counts how often member offsets were written to the backend in one batch.
+  private int memberOffsetUpdates = 0;
+  // If set, writing member offsets to the backend fails.
+  private boolean failMemberOffsetUpdates = false;
 
   public TypeManagerMockBackend() {
     final RawTestTypeSystem typeSystem = new RawTestTypeSystem();
@@ -62,6 +66,14 @@ public class TypeManagerMockBackend implements TypeManagerBackend {
         member.getNumberOfElements().orNull());
   }
 
+  public int getMemberOffsetUpdates() {
+    return memberOffsetUpdates;
+  }
+
+  public void setFailMemberOffsetUpdates(final boolean fail) {
+    failMemberOffsetUpdates = fail;
+  }
+
   @Override
   public BaseType createType(final String name, final int size, final boolean isSigned,
       final Integer childPointerTypeId, final BaseTypeCategory category)
@@ -139,6 +151,15 @@ public class TypeManagerMockBackend implements TypeManagerBackend {
     // its properties accordingly.
   }
 
+  @Override
+  public void setMemberOffsets(final List<Integer> members, final List<Integer> offsets)
+      throws CouldntSaveDataException {
+    if (failMemberOffsetUpdates) {
+      throw new CouldntSaveDataException("Error: member offsets could not be saved");
+    }
+    memberOffsetUpdates++;
+  }
+
   @Override
   public void updateSubstitution(final TypeSubstitution substitution, final BaseType baseType,
       final List<Integer> memberPath, final int offset) {
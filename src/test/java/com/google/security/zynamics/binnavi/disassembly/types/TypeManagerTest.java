@@ -36,6 +36,8 @@ import org.junit.runner.RunWith;
 import org.junit.runners.JUnit4;
 
 import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
 
 /**
  * Tests if the type manager's notification mechanism works for all operations on base types and
@@ -478,4 +480,66 @@ public class TypeManagerTest {
         typeSystem.complexUnion));
     Assert.assertEquals(expectedEvents, events);
   }
+
+  @Test
+  public void testUpdateType_NestedStructs()
+      throws CouldntLoadDataException, CouldntSaveDataException {
+    final TypeManagerMockBackend backend = new TypeManagerMockBackend();
+    final TypeManager manager = new TypeManager(backend);
+    final BaseType innerType = manager.createAtomicType("inner", 32, false);
+    final BaseType trailingType = manager.createAtomicType("trailing", 32, false);
+    final List<TypeMember> trailingMembers = new ArrayList<TypeMember>();
+    final Set<BaseType> affectedTypes = Sets.<BaseType>newHashSet(innerType);
+    BaseType containedType = innerType;
+    for (int i = 0; i < 100; i++) {
+      final BaseType struct = manager.createStructure("struct" + i);
+      manager.appendMember(struct, containedType, "contained");
+      trailingMembers.add(manager.appendMember(struct, trailingType, "trailing"));
+      affectedTypes.add(struct);
+      containedType = struct;
+    }
+    final TypeChangedEventCollector events = new TypeChangedEventCollector();
+    manager.addListener(events);
+    manager.updateType(innerType, "inner", 64, false);
+
+    // All moved members are written to the backend at once.
+    assertEquals(1, backend.getMemberOffsetUpdates());
+    assertEquals(64 + 100 * 32, containedType.getBitSize());
+    for (int i = 0; i < trailingMembers.size(); i++) {
+      assertEquals(Integer.valueOf(64 + i * 32), trailingMembers.get(i).getBitOffset().get());
+    }
+    final TypeChangedEventCollector expectedEvents = new TypeChangedEventCollector();
+    expectedEvents.typesUpdated(affectedTypes);
+    for (final TypeMember member : trailingMembers) {
+      expectedEvents.memberUpdated(member);
+    }
+    assertEquals(expectedEvents, events);
+  }
+
+  @Test
+  public void testUpdateType_NestedStructsSaveFailure()
+      throws CouldntLoadDataException, CouldntSaveDataException {
+    final TypeManagerMockBackend backend = new TypeManagerMockBackend();
+    final TypeManager manager = new TypeManager(backend);
+    final BaseType innerType = manager.createAtomicType("inner", 32, false);
+    final BaseType trailingType = manager.createAtomicType("trailing", 32, false);
+    final List<TypeMember> trailingMembers = new ArrayList<TypeMember>();
+    BaseType containedType = innerType;
+    for (int i = 0; i < 3; i++) {
+      final BaseType struct = manager.createStructure("struct" + i);
+      manager.appendMember(struct, containedType, "contained");
+      trailingMembers.add(manager.appendMember(struct, trailingType, "trailing"));
+      containedType = struct;
+    }
+    backend.setFailMemberOffsetUpdates(true);
+    try {
+      manager.updateType(innerType, "inner", 64, false);
+      Assert.fail();
+    } catch (final CouldntSaveDataException exception) {
+      // The moved members must get their old offsets back.
+    }
+    for (int i = 0; i < trailingMembers.size(); i++) {
+      assertEquals(Integer.valueOf(32 + i * 32), trailingMembers.get(i).getBitOffset().get());
+    }
+  }
 }
@@ -21,7 +21,9 @@ import org.junit.runners.Suite;
 import org.junit.runners.Suite.SuiteClasses;
 
 @RunWith(Suite.class)
-@SuiteClasses({com.google.security.zynamics.reil.interpreter.AllTests.class,
+@SuiteClasses({com.google.security.zynamics.reil.ReilSerializerTest.class,
+    com.google.security.zynamics.reil.interpreter.AllTests.class,
+    com.google.security.zynamics.reil.translators.ReilGraphGeneratorTest.class,
     com.google.security.zynamics.reil.translators.ReilTranslatorTest.class,
     com.google.security.zynamics.reil.translators.TranslationHelpersTest.class,
     com.google.security.zynamics.reil.translators.arm.AllTests.class,
@@ -0,0 +1,92 @@
+/*
+Copyright 2014 Google Inc. All Rights Reserved.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.google.security.zynamics.reil;
+
+import static org.junit.Assert.assertEquals;
+
+import com.google.common.collect.Lists;
+import com.google.security.zynamics.zylib.gui.zygraph.edges.EdgeType;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+@RunWith(JUnit4.class)
+public final class ReilSerializerTest {
+  @Test
+  public void testRoundTrip() {
+    final ReilInstruction add = ReilHelpers.createAdd(0x100, OperandSize.DWORD, "eax",
+        OperandSize.DWORD, "-1", OperandSize.QWORD, "t0");
+    final ReilInstruction jcc =
+        ReilHelpers.createJcc(0x101, OperandSize.BYTE, "ZF", OperandSize.DWORD, "4096.3");
+    jcc.setMetaData("isCall", "true");
+
+    final ReilInstruction nop = ReilHelpers.createNop(0xFFFFFFFF00L);
+    final ReilInstruction str = ReilHelpers.createStr(0xFFFFFFFF01L, OperandSize.OWORD,
+        "340282366920938463463374607431768211455", OperandSize.OWORD, "xmm0");
+
+    final ReilBlock first = new ReilBlock(Lists.newArrayList(add, jcc));
+    final ReilBlock second = new ReilBlock(Lists.newArrayList(nop, str));
+
+    final List<ReilEdge> edges = new ArrayList<ReilEdge>();
+    final ReilEdge edge = new ReilEdge(first, second, EdgeType.JUMP_CONDITIONAL_TRUE);
+    ReilBlock.link(first, second, edge);
+    edges.add(edge);
+
+    final ReilFunction function =
+        new ReilFunction("foo", new ReilGraph(Lists.newArrayList(first, second), edges));
+
+    final ReilFunction result =
+        ReilSerializer.deserialize(ByteBuffer.wrap(ReilSerializer.serialize(function)));
+
+    assertEquals("foo", result.getName());
+    assertEquals(2, result.getGraph().nodeCount());
+    assertEquals(1, result.getGraph().edgeCount());
+
+    final ReilBlock resultFirst = result.getGraph().getNodes().get(0);
+    final ReilBlock resultSecond = result.getGraph().getNodes().get(1);
+
+    assertEquals(Lists.newArrayList(add, jcc).toString(),
+        Lists.newArrayList(resultFirst).toString());
+    assertEquals(Lists.newArrayList(nop, str).toString(),
+        Lists.newArrayList(resultSecond).toString());
+    assertEquals("true", Lists.newArrayList(resultFirst).get(1).getMetaData("isCall"));
+    assertEquals(0xFFFFFFFF00L, resultSecond.getAddress().toLong());
+
+    final ReilEdge resultEdge = result.getGraph().getEdges().get(0);
+
+    assertEquals(resultFirst, resultEdge.getSource());
+    assertEquals(resultSecond, resultEdge.getTarget());
+    assertEquals(EdgeType.JUMP_CONDITIONAL_TRUE, resultEdge.getType());
+    assertEquals(1, resultFirst.getOutgoingEdges().size());
+    assertEquals(1, resultSecond.getIncomingEdges().size());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testTruncated() {
+    final ReilFunction function = new ReilFunction("foo", new ReilGraph(
+        Lists.<ReilBlock>newArrayList(new ReilBlock(Lists.newArrayList(ReilHelpers.createNop(0)))),
+        new ArrayList<ReilEdge>()));
+
+    final byte[] data = ReilSerializer.serialize(function);
+
+    ReilSerializer.deserialize(ByteBuffer.wrap(data, 0, data.length - 2));
+  }
+}
@@ -22,7 +22,8 @@ import org.junit.runners.Suite.SuiteClasses;
 @RunWith(Suite.class)
 @SuiteClasses({
     com.google.security.zynamics.reil.algorithms.mono.valuetracking.transformers.AllTests.class,
-    InstructionGraphTest.class, OperandGraphTest.class, RegisterTrackerForwardTest.class})
+    InstructionGraphTest.class, MonotoneSolverTest.class, OperandGraphTest.class,
+    RegisterTrackerForwardTest.class})
 public class AllTests {
 
 }
@@ -0,0 +1,185 @@
+/*
+Copyright 2014 Google Inc. All Rights Reserved.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.google.security.zynamics.reil.algorithms.mono;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.google.security.zynamics.reil.algorithms.mono.interfaces.IGraphWalker;
+import com.google.security.zynamics.reil.algorithms.mono.interfaces.IInfluencingNode;
+import com.google.security.zynamics.reil.algorithms.mono.interfaces.IInfluencingState;
+import com.google.security.zynamics.reil.algorithms.mono.interfaces.ILattice;
+import com.google.security.zynamics.reil.algorithms.mono.interfaces.ILatticeElementMono1;
+import com.google.security.zynamics.reil.algorithms.mono.interfaces.ILatticeGraph;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@RunWith(JUnit4.class)
+public final class MonotoneSolverTest {
+  private static final int NODE_COUNT = 200;
+
+  private static final int MAXIMUM = 50;
+
+  /**
+   * Creates a chain of nodes in which every tenth node jumps back to the start of its group.
+   */
+  private static List<List<Integer>> createSuccessors() {
+    final List<List<Integer>> successors = new ArrayList<>();
+
+    for (int i = 0; i < NODE_COUNT; i++) {
+      final List<Integer> nodeSuccessors = new ArrayList<>();
+
+      if (i + 1 < NODE_COUNT) {
+        nodeSuccessors.add(i + 1);
+      }
+
+      if ((i % 10) == 9) {
+        nodeSuccessors.add(i - 9);
+      }
+
+      successors.add(nodeSuccessors);
+    }
+
+    return successors;
+  }
+
+  private static MonotoneSolver<Integer, Distance, Object, DistanceLattice> createSolver(
+      final List<List<Integer>> successors, final int[] transformationCount) {
+    final List<Integer> nodes = new ArrayList<>();
+    final StateVector<Integer, Distance> startVector = new StateVector<>();
+
+    // List the nodes backwards so the solver can't rely on the order of the graph nodes.
+    for (int i = NODE_COUNT - 1; i >= 0; i--) {
+      nodes.add(i);
+      startVector.setState(i, new Distance(0));
+    }
+
+    final List<List<IInfluencingNode<Integer, Object>>> predecessors = new ArrayList<>();
+
+    for (int i = 0; i < NODE_COUNT; i++) {
+      predecessors.add(new ArrayList<IInfluencingNode<Integer, Object>>());
+    }
+
+    for (int i = 0; i < NODE_COUNT; i++) {
+      for (final Integer successor : successors.get(i)) {
+        final Integer source = i;
+
+        predecessors.get(successor).add(new IInfluencingNode<Integer, Object>() {
+          @Override
+          public Integer getNode() {
+            return source;
+          }
+
+          @Override
+          public Object getObject() {
+            return null;
+          }
+        });
+      }
+    }
+
+    final ILatticeGraph<Integer> graph = new ILatticeGraph<Integer>() {
+      @Override
+      public List<Integer> getNodes() {
+        return nodes;
+      }
+    };
+
+    final IGraphWalker<Integer, Object> walker = new IGraphWalker<Integer, Object>() {
+      @Override
+      public List<Integer> getInfluenced(final Integer node) {
+        return successors.get(node);
+      }
+
+      @Override
+      public List<? extends IInfluencingNode<Integer, Object>> getInfluencing(final Integer node) {
+        return predecessors.get(node);
+      }
+    };
+
+    final ITransformationProvider<Integer, Distance> transformer =
+        new ITransformationProvider<Integer, Distance>() {
+          @Override
+          public Distance transform(final Integer node, final Distance currentState,
+              final Distance inputState) {
+            transformationCount[0]++;
+
+            return node == 0 ? new Distance(0)
+                : new Distance(Math.min(MAXIMUM, inputState.value + 1));
+          }
+        };
+
+    return new MonotoneSolver<>(graph, new DistanceLattice(), startVector, transformer,
+        walker, null);
+  }
+
+  @Test
+  public void testWorklistMatchesRounds() {
+    final List<List<Integer>> successors = createSuccessors();
+
+    final int[] roundTransformations = new int[1];
+    final int[] worklistTransformations = new int[1];
+
+    final IStateVector<Integer, Distance> rounds =
+        createSolver(successors, roundTransformations).solve();
+    final IStateVector<Integer, Distance> worklist =
+        createSolver(successors, worklistTransformations).solveWorklist();
+
+    for (int i = 0; i < NODE_COUNT; i++) {
+      assertEquals(rounds.getState(i).value, worklist.getState(i).value);
+    }
+
+    assertEquals(0, worklist.getState(0).value);
+    assertEquals(MAXIMUM, worklist.getState(NODE_COUNT - 1).value);
+    assertTrue(worklistTransformations[0] < roundTransformations[0]);
+  }
+
+  private static final class Distance implements ILatticeElementMono1<Distance> {
+    private final int value;
+
+    private Distance(final int value) {
+      this.value = value;
+    }
+
+    @Override
+    public boolean equals(final Distance rhs) {
+      return value == rhs.value;
+    }
+
+    @Override
+    public boolean lessThan(final Distance rhs) {
+      return value < rhs.value;
+    }
+  }
+
+  private static final class DistanceLattice implements ILattice<Distance, Object> {
+    @Override
+    public Distance combine(final List<IInfluencingState<Distance, Object>> states) {
+      int maximum = 0;
+
+      for (final IInfluencingState<Distance, Object> state : states) {
+        maximum = Math.max(maximum, state.getElement().value);
+      }
+
+      return new Distance(maximum);
+    }
+  }
+}
@@ -20,7 +20,7 @@ import org.junit.runners.Suite;
 import org.junit.runners.Suite.SuiteClasses;
 
 @RunWith(Suite.class)
-@SuiteClasses({InterpreterTest.class})
+@SuiteClasses({CompiledInterpreterTest.class, InterpreterTest.class})
 public class AllTests {
 
 }
@@ -0,0 +1,214 @@
+/*
+Copyright 2014 Google Inc. All Rights Reserved.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.google.security.zynamics.reil.interpreter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import com.google.common.collect.Lists;
+import com.google.security.zynamics.reil.OperandSize;
+import com.google.security.zynamics.reil.ReilHelpers;
+import com.google.security.zynamics.reil.ReilInstruction;
+import com.google.security.zynamics.reil.TestHelpers;
+import com.google.security.zynamics.reil.translators.IInstructionTranslator;
+import com.google.security.zynamics.reil.translators.InternalTranslationException;
+import com.google.security.zynamics.reil.translators.StandardEnvironment;
+import com.google.security.zynamics.reil.translators.x86.AdcTranslator;
+import com.google.security.zynamics.reil.translators.x86.AddTranslator;
+import com.google.security.zynamics.reil.translators.x86.ImulTranslator;
+import com.google.security.zynamics.reil.translators.x86.SarTranslator;
+import com.google.security.zynamics.reil.translators.x86.SbbTranslator;
+import com.google.security.zynamics.reil.translators.x86.ShlTranslator;
+import com.google.security.zynamics.reil.translators.x86.SubTranslator;
+import com.google.security.zynamics.reil.translators.x86.XorTranslator;
+import com.google.security.zynamics.zylib.disassembly.ExpressionType;
+import com.google.security.zynamics.zylib.disassembly.MockInstruction;
+import com.google.security.zynamics.zylib.disassembly.MockOperandTree;
+import com.google.security.zynamics.zylib.disassembly.MockOperandTreeNode;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+@RunWith(JUnit4.class)
+public class CompiledInterpreterTest {
+  private static ReilInterpreter createInterpreter() {
+    return new ReilInterpreter(Endianness.LITTLE_ENDIAN, new CpuPolicyX86(),
+        new EmptyInterpreterPolicy());
+  }
+
+  private static MockOperandTree createOperand(final ExpressionType type, final String value) {
+    final MockOperandTree operandTree = new MockOperandTree();
+    operandTree.root = new MockOperandTreeNode(ExpressionType.SIZE_PREFIX, "dword");
+    operandTree.root.m_children.add(new MockOperandTreeNode(type, value));
+    return operandTree;
+  }
+
+  private static ReilInterpreter createX86Interpreter(final long eax, final long carry) {
+    final ReilInterpreter interpreter = createInterpreter();
+
+    interpreter.setRegister("eax", BigInteger.valueOf(eax), OperandSize.DWORD,
+        ReilRegisterStatus.DEFINED);
+    interpreter.setRegister("CF", BigInteger.valueOf(carry), OperandSize.BYTE,
+        ReilRegisterStatus.DEFINED);
+
+    return interpreter;
+  }
+
+  /**
+   * Translates the x86 instruction "mnemonic eax, immediate" and checks that the compiled engine
+   * leaves the same registers and memory behind as the classic interpreter loop.
+   */
+  private static void assertSameResult(final IInstructionTranslator translator,
+      final String mnemonic, final long eax, final long carry, final String immediate)
+      throws InternalTranslationException, InterpreterException {
+    final List<MockOperandTree> operands = Lists.newArrayList(
+        createOperand(ExpressionType.REGISTER, "eax"),
+        createOperand(ExpressionType.IMMEDIATE_INTEGER, immediate));
+
+    final ArrayList<ReilInstruction> instructions = new ArrayList<ReilInstruction>();
+    translator.translate(new StandardEnvironment(), new MockInstruction(mnemonic, operands),
+        instructions);
+
+    final ReilInterpreter interpreter = createX86Interpreter(eax, carry);
+    final ReilInterpreter reference = createX86Interpreter(eax, carry);
+
+    interpreter.interpret(CompiledReilCode.compile(TestHelpers.createMapping(instructions)),
+        BigInteger.valueOf(0x100));
+    reference.interpret(TestHelpers.createMapping(instructions), BigInteger.valueOf(0x100));
+
+    for (final ReilRegister register : reference.getDefinedRegisters()) {
+      // The classic loop keeps negative QWORD results because its QWORD truncation mask is -1,
+      // so both values are compared modulo the register size.
+      final BigInteger mask =
+          BigInteger.ONE.shiftLeft(register.getSize().getBitSize()).subtract(BigInteger.ONE);
+
+      assertEquals(mnemonic + " " + register.getRegister(), register.getValue().and(mask),
+          interpreter.getVariableValue(register.getRegister()).and(mask));
+    }
+
+    assertEquals(reference.getDefinedRegisters().size(),
+        interpreter.getDefinedRegisters().size());
+    assertEquals(reference.getMemorySize(), interpreter.getMemorySize());
+  }
+
+  /**
+   * Creates a loop that sums up the numbers from 1 to 10 in eax.
+   */
+  private static HashMap<BigInteger, List<ReilInstruction>> createLoop() {
+    final HashMap<BigInteger, List<ReilInstruction>> instructions =
+        new HashMap<BigInteger, List<ReilInstruction>>();
+
+    instructions.put(BigInteger.valueOf(0x10000), Lists.newArrayList(
+        ReilHelpers.createStr(0x10000, OperandSize.DWORD, "10", OperandSize.DWORD, "ecx"),
+        ReilHelpers.createStr(0x10001, OperandSize.DWORD, "0", OperandSize.DWORD, "eax")));
+    instructions.put(BigInteger.valueOf(0x10100), Lists.newArrayList(
+        ReilHelpers.createAdd(0x10100, OperandSize.DWORD, "eax", OperandSize.DWORD, "ecx",
+            OperandSize.DWORD, "eax"),
+        ReilHelpers.createSub(0x10101, OperandSize.DWORD, "ecx", OperandSize.DWORD, "1",
+            OperandSize.DWORD, "ecx")));
+    instructions.put(BigInteger.valueOf(0x10200), Lists.newArrayList(
+        ReilHelpers.createBisz(0x10200, OperandSize.DWORD, "ecx", OperandSize.BYTE, "t0"),
+        ReilHelpers.createBisz(0x10201, OperandSize.BYTE, "t0", OperandSize.BYTE, "t1"),
+        ReilHelpers.createJcc(0x10202, OperandSize.BYTE, "t1", OperandSize.DWORD, "257")));
+
+    return instructions;
+  }
+
+  @Test
+  public void testLoop() throws InterpreterException {
+    final ReilInterpreter interpreter = createInterpreter();
+    final ReilInterpreter reference = createInterpreter();
+
+    interpreter.interpret(CompiledReilCode.compile(createLoop()), BigInteger.valueOf(0x100));
+    reference.interpret(createLoop(), BigInteger.valueOf(0x100));
+
+    assertEquals(BigInteger.valueOf(55), interpreter.getVariableValue("eax"));
+    assertEquals(BigInteger.ZERO, interpreter.getVariableValue("ecx"));
+
+    for (final ReilRegister register : reference.getDefinedRegisters()) {
+      assertEquals(register.getValue(), interpreter.getVariableValue(register.getRegister()));
+    }
+
+    assertEquals(reference.getDefinedRegisters().size(),
+        interpreter.getDefinedRegisters().size());
+  }
+
+  @Test
+  public void testMemory() throws InterpreterException {
+    final ReilInterpreter interpreter = createInterpreter();
+
+    interpreter.setRegister("esp", BigInteger.valueOf(0x1000), OperandSize.DWORD,
+        ReilRegisterStatus.DEFINED);
+
+    final HashMap<BigInteger, List<ReilInstruction>> instructions =
+        new HashMap<BigInteger, List<ReilInstruction>>();
+
+    instructions.put(BigInteger.ZERO, Lists.newArrayList(
+        ReilHelpers.createStm(0, OperandSize.DWORD, "4294967295", OperandSize.DWORD, "esp"),
+        ReilHelpers.createLdm(1, OperandSize.DWORD, "esp", OperandSize.WORD, "t0"),
+        ReilHelpers.createUndef(2, OperandSize.DWORD, "esp")));
+
+    interpreter.interpret(CompiledReilCode.compile(instructions), BigInteger.ZERO);
+
+    assertEquals(BigInteger.valueOf(0xFFFF), interpreter.getVariableValue("t0"));
+    assertEquals(0xFFFFFFFFL, interpreter.getMemory().load(0x1000, 4) & 0xFFFFFFFFL);
+    assertFalse(interpreter.isDefined("esp"));
+  }
+
+  @Test
+  public void testWideOperands() throws InterpreterException {
+    final ReilInterpreter interpreter = createInterpreter();
+
+    final HashMap<BigInteger, List<ReilInstruction>> instructions =
+        new HashMap<BigInteger, List<ReilInstruction>>();
+
+    instructions.put(BigInteger.ZERO, Lists.newArrayList(
+        ReilHelpers.createMul(0, OperandSize.QWORD, "18446744073709551615", OperandSize.QWORD,
+            "18446744073709551615", OperandSize.OWORD, "t0"),
+        ReilHelpers.createBsh(1, OperandSize.OWORD, "t0", OperandSize.BYTE, "-64",
+            OperandSize.QWORD, "t1"),
+        ReilHelpers.createSub(2, OperandSize.DWORD, "0", OperandSize.DWORD, "1",
+            OperandSize.QWORD, "t2")));
+
+    interpreter.interpret(CompiledReilCode.compile(instructions), BigInteger.ZERO);
+
+    final BigInteger max = BigInteger.ONE.shiftLeft(64).subtract(BigInteger.ONE);
+
+    assertEquals(max.multiply(max), interpreter.getVariableValue("t0"));
+    assertEquals(max.multiply(max).shiftRight(64), interpreter.getVariableValue("t1"));
+    assertEquals(max, interpreter.getVariableValue("t2"));
+  }
+
+  @Test
+  public void testTranslatedInstructions() throws InternalTranslationException,
+      InterpreterException {
+    assertSameResult(new AdcTranslator(), "adc", 0xFFFFFFFFL, 1, "1");
+    assertSameResult(new AdcTranslator(), "adc", 0x80000000L, 1, "2147483647");
+    assertSameResult(new AddTranslator(), "add", 0x7FFFFFFFL, 0, "1");
+    assertSameResult(new SubTranslator(), "sub", 0, 0, "1");
+    assertSameResult(new ImulTranslator(), "imul", 0x80000000L, 0, "4294967295");
+    assertSameResult(new SbbTranslator(), "sbb", 0x80000000L, 1, "0");
+    assertSameResult(new ShlTranslator(), "shl", 0xC0000001L, 0, "1");
+    assertSameResult(new SarTranslator(), "sar", 0x80000000L, 1, "31");
+    assertSameResult(new XorTranslator(), "xor", 0x12345678L, 1, "305419896");
+  }
+}
@@ -16,12 +16,16 @@ limitations under the License.
 package com.google.security.zynamics.reil.misc;
 
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 import com.google.security.zynamics.reil.OperandSize;
 import com.google.security.zynamics.reil.ReilHelpers;
 import com.google.security.zynamics.reil.ReilInstruction;
+import com.google.security.zynamics.reil.ReilOperand;
 
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -75,4 +79,41 @@ public class ReilInstructionTest
 		final ReilInstruction instr1 = createReilInstruction();
 		assertTrue(instr0.hashCode() == instr1.hashCode());
 	}
+
+	@Test
+	public void testMetaData()
+	{
+		final ReilInstruction instr0 = createReilInstruction();
+		final ReilInstruction instr1 = createReilInstruction();
+
+		assertNull(instr0.getMetaData("key"));
+		assertTrue(instr0.getMetaData().isEmpty());
+
+		instr0.setMetaData("key", "value");
+
+		assertEquals("value", instr0.getMetaData("key"));
+		assertFalse(instr0.equals(instr1));
+
+		instr0.setMetaData("key", null);
+
+		assertNull(instr0.getMetaData("key"));
+		assertTrue(instr0.equals(instr1));
+		assertTrue(instr0.hashCode() == instr1.hashCode());
+	}
+
+	@Test
+	public void testSharedOperands()
+	{
+		final ReilInstruction instr0 = createReilInstruction();
+		final ReilInstruction instr1 = createReilInstruction();
+
+		assertSame(instr0.getThirdOperand(), instr1.getThirdOperand());
+
+		final ReilOperand operand = ReilHelpers.createOperand(OperandSize.DWORD, "eax");
+
+		assertSame(operand, ReilHelpers.createOperand(OperandSize.DWORD, "eax"));
+		assertFalse(operand.equals(ReilHelpers.createOperand(OperandSize.WORD, "eax")));
+		assertEquals(OperandSize.DWORD, operand.getSize());
+		assertEquals("eax", operand.getValue());
+	}
 }
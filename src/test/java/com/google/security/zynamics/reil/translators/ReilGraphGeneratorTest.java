@@ -0,0 +1,87 @@
+/*
+Copyright 2014 Google Inc. All Rights Reserved.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.google.security.zynamics.reil.translators;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import com.google.security.zynamics.reil.OperandSize;
+import com.google.security.zynamics.reil.ReilBlock;
+import com.google.security.zynamics.reil.ReilEdge;
+import com.google.security.zynamics.reil.ReilGraph;
+import com.google.security.zynamics.reil.ReilHelpers;
+import com.google.security.zynamics.reil.ReilInstruction;
+import com.google.security.zynamics.zylib.disassembly.IAddress;
+import com.google.security.zynamics.zylib.gui.zygraph.edges.EdgeType;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@RunWith(JUnit4.class)
+public class ReilGraphGeneratorTest {
+  /**
+   * Creates a synthetic REIL program where every native instruction consists of a conditional
+   * jump to a later native instruction followed by a single fall-through instruction.
+   */
+  private static List<List<ReilInstruction>> createProgram(final int nativeInstructions) {
+    final List<List<ReilInstruction>> program = new ArrayList<List<ReilInstruction>>();
+
+    for (int i = 0; i < nativeInstructions; i++) {
+      final long offset = i * 0x100L;
+      final List<ReilInstruction> instructions = new ArrayList<ReilInstruction>();
+
+      instructions.add(ReilHelpers.createAdd(offset, OperandSize.DWORD, "eax", OperandSize.DWORD,
+          "1", OperandSize.QWORD, "t0"));
+      instructions.add(ReilHelpers.createJcc(offset + 1, OperandSize.QWORD, "t0",
+          OperandSize.ADDRESS, String.valueOf((i + 7) % nativeInstructions)));
+      instructions.add(ReilHelpers.createStr(offset + 2, OperandSize.QWORD, "t0",
+          OperandSize.DWORD, "eax"));
+
+      program.add(instructions);
+    }
+
+    return program;
+  }
+
+  @Test
+  public void testLargeProgram() {
+    final int nativeInstructions = 20000;
+
+    final ReilGraph graph = ReilGraphGenerator.createGraph(createProgram(nativeInstructions),
+        new ArrayList<IAddress>());
+
+    final List<ReilBlock> blocks = graph.getNodes();
+
+    assertEquals(2 * nativeInstructions, blocks.size());
+    assertEquals(2 * nativeInstructions, graph.getEdges().size());
+
+    for (int i = 0; i < nativeInstructions; i++) {
+      final ReilBlock jumpBlock = blocks.get(2 * i);
+      final List<ReilEdge> outgoingEdges = jumpBlock.getOutgoingEdges();
+
+      assertEquals(2, outgoingEdges.size());
+      assertEquals(EdgeType.JUMP_CONDITIONAL_FALSE, outgoingEdges.get(0).getType());
+      assertSame(blocks.get(2 * i + 1), outgoingEdges.get(0).getTarget());
+      assertEquals(EdgeType.JUMP_CONDITIONAL_TRUE, outgoingEdges.get(1).getType());
+      assertSame(blocks.get(2 * ((i + 7) % nativeInstructions)),
+          outgoingEdges.get(1).getTarget());
+    }
+  }
+}
@@ -17,6 +17,8 @@ package com.google.security.zynamics.zylib;
 
 import com.google.security.zynamics.zylib.disassembly.AddressTests;
 import com.google.security.zynamics.zylib.general.ConvertTests;
+import com.google.security.zynamics.zylib.general.ListenerProviderTests;
+import com.google.security.zynamics.zylib.general.memmanager.SparseMemoryTest;
 import com.google.security.zynamics.zylib.gui.license.UpdateCheckHelperTest;
 import com.google.security.zynamics.zylib.io.FileUtilsTests;
 import com.google.security.zynamics.zylib.io.StreamUtilsTests;
@@ -29,6 +31,8 @@ import org.junit.runners.Suite.SuiteClasses;
 @RunWith(Suite.class)
 @SuiteClasses({AddressTests.class,
     ConvertTests.class,
+    ListenerProviderTests.class,
+    SparseMemoryTest.class,
     UpdateCheckHelperTest.class,
     FileUtilsTests.class,
     StreamUtilsTests.class,
@@ -0,0 +1,185 @@
+/*
+Copyright 2014 Google Inc. All Rights Reserved.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.google.security.zynamics.zylib.general;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+@RunWith(JUnit4.class)
+public final class ListenerProviderTests {
+  private static List<String> toList(final ListenerProvider<String> provider) {
+    final List<String> listeners = new ArrayList<String>();
+
+    for (final String listener : provider) {
+      listeners.add(listener);
+    }
+
+    return listeners;
+  }
+
+  @Test
+  public void testAddRemove() {
+    final ListenerProvider<String> provider = new ListenerProvider<String>();
+
+    assertFalse(provider.iterator().hasNext());
+
+    final String first = "first";
+    final String second = "second";
+
+    provider.addListener(first);
+    provider.addListener(second);
+    provider.addListener(first);
+
+    assertEquals(Arrays.asList(first, second), toList(provider));
+
+    provider.removeListener(first);
+    provider.removeListener(first);
+
+    assertEquals(Arrays.asList(second), toList(provider));
+
+    try {
+      provider.addListener(null);
+      fail();
+    } catch (final NullPointerException exception) {
+      // Expected
+    }
+  }
+
+  @Test
+  public void testBatchedUpdate() {
+    final ListenerProvider<List<String>> provider = new ListenerProvider<List<String>>();
+    final List<String> events = new ArrayList<String>();
+
+    provider.addListener(events);
+
+    provider.beginUpdate();
+    provider.beginUpdate();
+
+    for (int i = 0; i < 1000; i++) {
+      final String event = "changed" + i;
+
+      provider.fireEvent("changed", new Consumer<List<String>>() {
+        @Override
+        public void accept(final List<String> listener) {
+          listener.add(event);
+        }
+      });
+    }
+
+    provider.fireEvent("other", new Consumer<List<String>>() {
+      @Override
+      public void accept(final List<String> listener) {
+        listener.add("other");
+      }
+    });
+
+    provider.endUpdate();
+
+    assertEquals(0, events.size());
+
+    provider.endUpdate();
+
+    assertEquals(Arrays.asList("changed999", "other"), events);
+
+    provider.fireEvent("changed", new Consumer<List<String>>() {
+      @Override
+      public void accept(final List<String> listener) {
+        listener.add("immediate");
+      }
+    });
+
+    assertEquals(Arrays.asList("changed999", "other", "immediate"), events);
+
+    try {
+      provider.endUpdate();
+      fail();
+    } catch (final IllegalStateException exception) {
+      // Expected
+    }
+  }
+
+  @Test
+  public void testForEach() {
+    final ListenerProvider<String> provider = new ListenerProvider<String>();
+    final List<String> visited = new ArrayList<String>();
+
+    provider.addListener("first");
+    provider.addListener("second");
+
+    provider.forEach(new Consumer<String>() {
+      @Override
+      public void accept(final String listener) {
+        visited.add(listener);
+      }
+    });
+
+    assertEquals(Arrays.asList("first", "second"), visited);
+  }
+
+  @Test
+  public void testManyListeners() {
+    final ListenerProvider<Integer> provider = new ListenerProvider<Integer>();
+    final List<Integer> listeners = new ArrayList<Integer>();
+
+    for (int i = 0; i < 100000; i++) {
+      listeners.add(i);
+      provider.addListener(listeners.get(i));
+    }
+
+    int count = 0;
+
+    for (final Integer listener : provider) {
+      assertEquals(count++, listener.intValue());
+    }
+
+    assertEquals(listeners.size(), count);
+
+    for (final Integer listener : listeners) {
+      provider.removeListener(listener);
+    }
+
+    assertFalse(provider.iterator().hasNext());
+  }
+
+  @Test
+  public void testRemoveDuringIteration() {
+    final ListenerProvider<String> provider = new ListenerProvider<String>();
+
+    provider.addListener("first");
+    provider.addListener("second");
+
+    final List<String> visited = new ArrayList<String>();
+
+    for (final String listener : provider) {
+      provider.removeListener("second");
+      provider.addListener("third");
+      visited.add(listener);
+    }
+
+    assertEquals(Arrays.asList("first", "second"), visited);
+    assertEquals(Arrays.asList("first", "third"), toList(provider));
+  }
+}
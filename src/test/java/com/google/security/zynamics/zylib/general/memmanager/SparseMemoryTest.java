@@ -0,0 +1,157 @@
+/*
+Copyright 2014 Google Inc. All Rights Reserved.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.google.security.zynamics.zylib.general.memmanager;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public final class SparseMemoryTest {
+  @Test
+  public void testCrossPageValues() {
+    final SparseMemory memory = new SparseMemory();
+
+    final long address = SparseMemory.PAGE_SIZE - 2;
+
+    memory.storeLittleEndian(address, 0x1122334455667788L, 8);
+
+    assertEquals(2, memory.getNumberOfPages());
+    assertEquals(8, memory.getMemorySize());
+    assertEquals(0x1122334455667788L, memory.loadLittleEndian(address, 8));
+    assertEquals(0x8877665544332211L, memory.loadBigEndian(address, 8));
+    assertEquals(0x7788, memory.loadLittleEndian(address, 2));
+  }
+
+  @Test
+  public void testListeners() {
+    final SparseMemory memory = new SparseMemory();
+
+    final long[] changed = new long[3];
+
+    memory.addMemoryListener(new IMemoryListener() {
+      @Override
+      public void memoryChanged(final long address, final int size) {
+        changed[0] = address;
+        changed[1] = size;
+      }
+
+      @Override
+      public void memoryCleared() {
+        changed[2]++;
+      }
+    });
+
+    memory.storeBigEndian(0x1000, 0x1234, 2);
+
+    assertEquals(0x1000, changed[0]);
+    assertEquals(2, changed[1]);
+
+    memory.clear();
+
+    assertEquals(1, changed[2]);
+    assertEquals(0, memory.getMemorySize());
+    assertEquals(0, memory.getNumberOfPages());
+  }
+
+  @Test
+  public void testRemove() {
+    final SparseMemory memory = new SparseMemory();
+
+    memory.store(0x100, new byte[] {1, 2, 3, 4});
+    memory.remove(0x101, 2);
+
+    assertEquals(2, memory.getMemorySize());
+    assertTrue(memory.hasData(0x100, 1));
+    assertFalse(memory.hasData(0x100, 2));
+    assertTrue(memory.hasData(0x103, 1));
+
+    memory.remove(0, 0x1000);
+
+    assertEquals(0, memory.getMemorySize());
+    assertEquals(0, memory.getNumberOfPages());
+  }
+
+  @Test
+  public void testScatteredStores() {
+    final SparseMemory memory = new SparseMemory();
+
+    for (int i = 0; i < 10000; i++) {
+      memory.storeLittleEndian(i * 0x10000L, i, 4);
+    }
+
+    assertEquals(10000, memory.getNumberOfPages());
+    assertEquals(40000, memory.getMemorySize());
+
+    for (int i = 0; i < 10000; i++) {
+      assertEquals(i, memory.loadLittleEndian(i * 0x10000L, 4));
+    }
+
+    for (int i = 0; i < 10000; i += 2) {
+      memory.remove(i * 0x10000L, 4);
+    }
+
+    assertEquals(5000, memory.getNumberOfPages());
+
+    for (int i = 1; i < 10000; i += 2) {
+      assertEquals(i, memory.loadLittleEndian(i * 0x10000L, 4));
+    }
+  }
+
+  @Test
+  public void testSections() {
+    final SparseMemory memory = new SparseMemory();
+
+    assertEquals(0, memory.getSectionStart(0x5000));
+    assertEquals(0x100000000L, memory.getSectionSize(0x5000));
+
+    memory.store(0x1000, new byte[0x2000]);
+    memory.store(0x8000, new byte[0x10]);
+
+    assertEquals(0x1000, memory.getSectionStart(0x2FFF));
+    assertEquals(0x2000, memory.getSectionSize(0x2FFF));
+    assertEquals(0x3000, memory.getSectionStart(0x7000));
+    assertEquals(0x5000, memory.getSectionSize(0x7000));
+    assertEquals(0, memory.getSectionStart(0x800));
+    assertEquals(0x8010, memory.getSectionStart(0x9000));
+  }
+
+  @Test
+  public void testStoreAndGetData() {
+    final SparseMemory memory = new SparseMemory();
+
+    memory.store(0x400, new byte[] {1, 2, 3});
+    memory.store(0x402, new byte[] {4, 5});
+
+    assertEquals(4, memory.getMemorySize());
+    assertArrayEquals(new byte[] {1, 2, 4, 5}, memory.getData(0x400, 4));
+    assertFalse(memory.hasData(0x3FF, 2));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testUnavailableData() {
+    final SparseMemory memory = new SparseMemory();
+
+    memory.store(0x400, new byte[] {1});
+
+    memory.loadLittleEndian(0x400, 2);
+  }
+}